@@ -0,0 +1,72 @@
+#!/bin/sh
+#
+# Compara la latencia de una invocación corta del shell arrancando una JVM en frío con la misma
+# invocación a través del daemon (SHELL_DAEMON_SOCKET), en la que el cliente solo arranca una JVM
+# mínima y la sesión se ejecuta en la JVM caliente del daemon. Mide el tiempo total de cada
+# invocación, de la llamada a la salida, que es lo que paga una herramienta que lanza miles.
+#
+# Uso: benchmarks/scripts/daemon-latency.sh [repeticiones] [comando]
+# Requiere el jar construido con ./your_program.sh (o .codecrafters/compile.sh).
+
+set -e
+
+RUNS=${1:-20}
+COMMAND=${2:-'echo hello; pwd; ls / > /dev/null'}
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+JAVA_CMD="java --enable-preview ${JAVA_OPTS:-} -jar $JAR"
+DIR=$(mktemp -d "${TMPDIR:-/tmp}/shell-daemon-bench.XXXXXX")
+SOCKET="$DIR/daemon.sock"
+
+SHELL_DAEMON_SOCKET="$SOCKET" java --enable-preview -jar "$JAR" --daemon 2> "$DIR/daemon.log" &
+DAEMON=$!
+trap 'kill $DAEMON 2> /dev/null; rm -rf "$DIR"' EXIT
+while [ ! -S "$SOCKET" ]; do
+  sleep 0.1
+done
+
+now_ms() {
+  date +%s%3N
+}
+
+# Imprime "mejor media" en ms de RUNS invocaciones
+measure() {
+  total=0
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    "$@" > /dev/null
+    elapsed=$(( $(now_ms) - start ))
+    total=$((total + elapsed))
+    if [ -z "$best" ] || [ "$elapsed" -lt "$best" ]; then
+      best=$elapsed
+    fi
+    i=$((i + 1))
+  done
+  echo "$best $((total / RUNS))"
+}
+
+cold() {
+  env -u SHELL_DAEMON_SOCKET $JAVA_CMD -c "$COMMAND"
+}
+
+client() {
+  SHELL_DAEMON_SOCKET="$SOCKET" $JAVA_CMD -c "$COMMAND"
+}
+
+if [ "$(cold)" != "$(client)" ]; then
+  echo "MISMATCH: the daemon output differs from the cold run" >&2
+fi
+
+set -- $(measure cold)
+cold_best=$1
+cold_mean=$2
+set -- $(measure client)
+client_best=$1
+client_mean=$2
+
+echo "command: $COMMAND ($RUNS runs)"
+printf '%-8s %8s %8s\n' "" "best ms" "mean ms"
+printf '%-8s %8s %8s\n' "cold" "$cold_best" "$cold_mean"
+printf '%-8s %8s %8s\n' "daemon" "$client_best" "$client_mean"
+awk -v c="$cold_mean" -v d="$client_mean" 'BEGIN { printf "speedup: %.1fx (mean)\n", c / (d > 0 ? d : 1) }'
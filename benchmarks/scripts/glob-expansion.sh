@@ -0,0 +1,76 @@
+#!/bin/sh
+#
+# Compara la expansión de comodines entre bash (con globstar) y este shell sobre un árbol sintético:
+# un directorio plano con muchas entradas y un árbol profundo de fuentes.
+#
+# Uso: benchmarks/scripts/glob-expansion.sh [archivos-en-directorio-plano] [repeticiones]
+# Requiere el jar construido con ./your_program.sh (o .codecrafters/compile.sh).
+
+set -e
+
+FILES=${1:-200000}
+RUNS=${2:-5}
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+ROOT=$(mktemp -d "${TMPDIR:-/tmp}/shell-bench-glob.XXXXXX")
+trap 'rm -rf "$ROOT"' EXIT
+
+# Directorio plano: uno de cada diez archivos es .log
+mkdir "$ROOT/flat"
+(cd "$ROOT/flat" && seq 0 $((FILES - 1)) | awk '{ print "file-" $1 ($1 % 10 == 0 ? ".log" : ".txt") }' | xargs touch)
+
+# Árbol: 40 módulos x 25 paquetes x 40 archivos (.java y .class)
+for m in $(seq 1 40); do
+  for p in $(seq 1 25); do
+    dir="$ROOT/tree/module$m/pkg$p"
+    mkdir -p "$dir"
+    (cd "$dir" && seq 1 20 | awk '{ print "Class" $1 ".java"; print "Class" $1 ".class" }' | xargs touch)
+  done
+done
+
+now_ms() {
+  date +%s%3N
+}
+
+measure() {
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    "$@" > /dev/null
+    elapsed=$(( $(now_ms) - start ))
+    if [ -z "$best" ] || [ "$elapsed" -lt "$best" ]; then
+      best=$elapsed
+    fi
+    i=$((i + 1))
+  done
+  echo "$best"
+}
+
+run_bash() {
+  bash -O globstar -c "cd '$ROOT' && echo $1"
+}
+
+run_shell() {
+  java --enable-preview -jar "$JAR" -c "cd $ROOT; echo $1"
+}
+
+# Sin patrón solo se mide el arranque del shell, para descontarlo del resultado
+run_shell_startup() {
+  java --enable-preview -jar "$JAR" -c "cd $ROOT"
+}
+
+startup_ms=$(measure run_shell_startup)
+echo "tree:            $ROOT ($FILES files in flat/, 40000 in tree/)"
+echo "shell startup:   ${startup_ms} ms (best of $RUNS, subtracted below)"
+printf '%-28s %10s %10s %10s\n' "pattern" "matches" "bash ms" "shell ms"
+
+for pattern in 'flat/*.log' 'flat/file-1234?.txt' 'flat/file-[0-9]*[05].log' 'tree/**/*.java' 'tree/module7/*/Class1?.java'; do
+  bash_count=$(run_bash "$pattern" | wc -w)
+  shell_count=$(run_shell "$pattern" | wc -w)
+  if [ "$bash_count" != "$shell_count" ]; then
+    echo "MISMATCH for $pattern: bash $bash_count, shell $shell_count" >&2
+  fi
+  bash_ms=$(measure run_bash "$pattern")
+  shell_ms=$(measure run_shell "$pattern")
+  printf '%-28s %10s %10s %10s\n' "$pattern" "$bash_count" "$bash_ms" "$((shell_ms - startup_ms))"
+done
@@ -0,0 +1,62 @@
+#!/bin/sh
+#
+# Ejecuta los benchmarks JMH (módulo benchmarks/) y compara el resultado con la línea base.
+#
+# Uso: benchmarks/scripts/jmh.sh [--baseline] [filtro JMH]
+#   --baseline  guarda el resultado como benchmarks/results/jmh-baseline.csv
+#   filtro      expresión regular de benchmarks a ejecutar, p. ej. 'ParserBenchmark'
+# Sin --baseline, marca con REGRESSION los benchmarks más de un 10% peores que la línea base
+# (THRESHOLD cambia el porcentaje). Todos los modos medidos son de tiempo: menos es mejor.
+# La línea base es de cada máquina y no está en el repositorio: su primera línea anota el JDK y
+# el hardware en que se midió, y se avisa si no coinciden con los actuales.
+
+set -e
+
+BASELINE=""
+if [ "$1" = "--baseline" ]; then
+  BASELINE=1
+  shift
+fi
+FILTER=${1:-}
+DIR="$(cd "$(dirname "$0")/.." && pwd)"
+RESULTS="$DIR/results"
+LATEST="$RESULTS/jmh-latest.csv"
+THRESHOLD=${THRESHOLD:-10}
+ENVIRONMENT="# $(java -version 2>&1 | head -n 1); $(uname -sm); $(getconf _NPROCESSORS_ONLN) cores; $(sed -n 's/^model name[[:space:]]*: //p' /proc/cpuinfo 2>/dev/null | head -n 1)"
+
+mkdir -p "$RESULTS"
+(cd "$DIR" && mvn -B -q package)
+java --enable-preview -jar "$DIR/target/benchmarks.jar" -rf csv -rff "$LATEST" $FILTER
+
+if [ -n "$BASELINE" ]; then
+  { echo "$ENVIRONMENT"; cat "$LATEST"; } > "$RESULTS/jmh-baseline.csv"
+  echo "Baseline saved to $RESULTS/jmh-baseline.csv"
+  exit 0
+fi
+
+if [ ! -f "$RESULTS/jmh-baseline.csv" ]; then
+  echo "No baseline yet: run $0 --baseline"
+  exit 0
+fi
+
+RECORDED=$(head -n 1 "$RESULTS/jmh-baseline.csv")
+if [ "$RECORDED" != "$ENVIRONMENT" ]; then
+  echo "Warning: the baseline was recorded on another JDK or machine, so the changes may not be meaningful"
+  echo "  baseline: ${RECORDED#\# }"
+  echo "  now:      ${ENVIRONMENT#\# }"
+fi
+
+# Clave: benchmark + modo + parámetros (columnas 8 en adelante); valor: score (columna 5)
+awk -F',' -v threshold="$THRESHOLD" '
+  /^#/ || /^"Benchmark"/ { next }
+  {
+    key = $1 "," $2
+    for (i = 8; i <= NF; i++) key = key "," $i
+  }
+  NR == FNR { base[key] = $5; next }
+  key in base {
+    change = (base[key] > 0) ? ($5 - base[key]) * 100 / base[key] : 0
+    status = (change > threshold) ? "REGRESSION" : "ok"
+    printf "%-10s %+7.1f%%  %s\n", status, change, key
+  }
+' "$RESULTS/jmh-baseline.csv" "$LATEST"
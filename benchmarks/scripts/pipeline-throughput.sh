@@ -0,0 +1,55 @@
+#!/bin/sh
+#
+# Compara el throughput de una tubería 'productor | filtro | wc -l' entre bash y este shell.
+#
+# Uso: benchmarks/scripts/pipeline-throughput.sh [lineas] [repeticiones]
+# Requiere el jar construido con ./your_program.sh (o .codecrafters/compile.sh).
+
+set -e
+
+LINES=${1:-10000000}
+RUNS=${2:-5}
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+PIPELINE="seq $LINES | grep 7 | wc -l"
+
+now_ms() {
+  date +%s%3N
+}
+
+run_bash() {
+  bash -c "$PIPELINE" > /dev/null
+}
+
+run_shell() {
+  printf '%s\nexit 0\n' "$PIPELINE" | java --enable-preview -jar "$JAR" > /dev/null
+}
+
+# La línea vacía solo mide el arranque del shell, para descontarlo del resultado
+run_shell_startup() {
+  printf 'exit 0\n' | java --enable-preview -jar "$JAR" > /dev/null
+}
+
+measure() {
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    "$1"
+    elapsed=$(( $(now_ms) - start ))
+    if [ -z "$best" ] || [ "$elapsed" -lt "$best" ]; then
+      best=$elapsed
+    fi
+    i=$((i + 1))
+  done
+  echo "$best"
+}
+
+bash_ms=$(measure run_bash)
+shell_ms=$(measure run_shell)
+startup_ms=$(measure run_shell_startup)
+
+echo "pipeline:        $PIPELINE"
+echo "bash:            ${bash_ms} ms"
+echo "shell:           ${shell_ms} ms (total, best of $RUNS)"
+echo "shell startup:   ${startup_ms} ms"
+echo "shell pipeline:  $((shell_ms - startup_ms)) ms (total - startup)"
@@ -0,0 +1,61 @@
+#!/bin/sh
+#
+# Mide la latencia de arranque del shell en modo script (-c, sin JLine) y en modo interactivo.
+# Usa los hitos que el propio shell informa con SHELL_STARTUP_REPORT=1:
+#   - modo script:      "first command (script mode)"
+#   - modo interactivo: "first prompt (interactive mode)"
+# El modo interactivo necesita una terminal, que se simula con 'script' (util-linux).
+#
+# Uso: benchmarks/scripts/startup-latency.sh [--record] [repeticiones]
+#   --record  añade el resultado a benchmarks/results/startup-latency.csv para seguir su evolución
+#   JAVA_OPTS permite comparar con la caché de arranque, p. ej.
+#   JAVA_OPTS=-XX:AOTCache=/tmp/codecrafters-build-shell-java/codecrafters-shell.aot
+
+set -e
+
+RECORD=""
+if [ "$1" = "--record" ]; then
+  RECORD=1
+  shift
+fi
+RUNS=${1:-10}
+RESULTS="$(dirname "$0")/../results/startup-latency.csv"
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+JAVA_CMD="java --enable-preview ${JAVA_OPTS:-} -jar $JAR"
+
+# Extrae los ms desde el arranque de la JVM de la línea "[startup] ...: N ms since JVM start"
+startup_ms() {
+  grep '\[startup\]' | head -1 | sed 's/.*: \([0-9]*\) ms since JVM start.*/\1/'
+}
+
+measure() {
+  mode=$1
+  total=0
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    if [ "$mode" = script ]; then
+      ms=$(SHELL_STARTUP_REPORT=1 $JAVA_CMD -c 'true' 2>&1 >/dev/null | startup_ms)
+    else
+      ms=$(printf 'exit 0\n' | SHELL_STARTUP_REPORT=1 script -qec "$JAVA_CMD" /dev/null 2>&1 | startup_ms)
+    fi
+    total=$((total + ms))
+    if [ -z "$best" ] || [ "$ms" -lt "$best" ]; then
+      best=$ms
+    fi
+    i=$((i + 1))
+  done
+  echo "$mode: best ${best} ms, mean $((total / RUNS)) ms (JVM start to first $( [ "$mode" = script ] && echo command || echo prompt ), $RUNS runs)"
+  if [ -n "$RECORD" ]; then
+    mkdir -p "$(dirname "$RESULTS")"
+    [ -f "$RESULTS" ] || echo "date,commit,mode,java_opts,runs,best_ms,mean_ms" > "$RESULTS"
+    echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$(git rev-parse --short HEAD 2>/dev/null || echo unknown),$mode,${JAVA_OPTS:-},$RUNS,$best,$((total / RUNS))" >> "$RESULTS"
+  fi
+}
+
+measure script
+if command -v script > /dev/null 2>&1; then
+  measure interactive
+else
+  echo "interactive: skipped ('script' not available to allocate a terminal)"
+fi
@@ -0,0 +1,76 @@
+#!/bin/sh
+#
+# Compara las utilidades de texto nativas del shell (cat, head, tail, wc, grep sobre archivos mapeados)
+# con las de coreutils y GNU grep que el mismo shell arranca con SHELL_NATIVE_UTILS=0, sobre un
+# archivo generado de varios GB. Ambas variantes pagan el mismo arranque de la JVM, que se descuenta.
+#
+# Uso: benchmarks/scripts/text-utils.sh [tamaño-en-MB] [repeticiones]
+# Requiere el jar construido con ./your_program.sh (o .codecrafters/compile.sh).
+
+set -e
+
+SIZE_MB=${1:-4096}
+RUNS=${2:-3}
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+ROOT=$(mktemp -d "${TMPDIR:-/tmp}/shell-bench-text.XXXXXX")
+trap 'rm -rf "$ROOT"' EXIT
+
+# Líneas de unos 40 bytes con un número creciente, hasta el tamaño pedido
+LINES=$((SIZE_MB * 1024 * 1024 / 40))
+seq 1 "$LINES" | awk '{ printf "%d lorem ipsum dolor sit amet %x\n", $1, $1 * 7 }' > "$ROOT/big.txt"
+# Primera lectura fuera de las medidas: todas parten de la caché de páginas
+cat "$ROOT/big.txt" > /dev/null
+
+now_ms() {
+  date +%s%3N
+}
+
+measure() {
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    # Un grep sin coincidencias termina con 1: no es un error de la medida
+    "$@" > /dev/null || true
+    elapsed=$(( $(now_ms) - start ))
+    if [ -z "$best" ] || [ "$elapsed" -lt "$best" ]; then
+      best=$elapsed
+    fi
+    i=$((i + 1))
+  done
+  echo "$best"
+}
+
+run_native() {
+  java --enable-preview -jar "$JAR" -c "cd $ROOT; $1"
+}
+
+run_forked() {
+  SHELL_NATIVE_UTILS=0 java --enable-preview -jar "$JAR" -c "cd $ROOT; $1"
+}
+
+run_startup() {
+  java --enable-preview -jar "$JAR" -c "cd $ROOT"
+}
+
+startup_ms=$(measure run_startup)
+echo "file:            $ROOT/big.txt ($(wc -c < "$ROOT/big.txt") bytes, $LINES lines)"
+echo "shell startup:   ${startup_ms} ms (best of $RUNS, subtracted below)"
+printf '%-36s %12s %12s %8s\n' "command" "forked ms" "native ms" "speedup"
+
+for command in 'cat big.txt > copy.txt' 'wc -l big.txt' 'wc big.txt' 'head -n 1000000 big.txt' \
+               'tail -n 1000 big.txt' 'grep -c 4242 big.txt' 'grep -c "amet [0-9a-f]*7f$" big.txt' \
+               'grep -vc lorem big.txt' 'grep -n 9999999 big.txt'; do
+  native_out=$(run_native "$command" | md5sum)
+  forked_out=$(run_forked "$command" | md5sum)
+  if [ "$native_out" != "$forked_out" ]; then
+    echo "MISMATCH for $command" >&2
+  fi
+  # Por debajo del ruido del arranque se cuenta como 1 ms
+  forked_ms=$(( $(measure run_forked "$command") - startup_ms ))
+  native_ms=$(( $(measure run_native "$command") - startup_ms ))
+  [ "$forked_ms" -gt 0 ] || forked_ms=1
+  [ "$native_ms" -gt 0 ] || native_ms=1
+  speedup=$(awk -v f="$forked_ms" -v n="$native_ms" 'BEGIN { printf "%.2fx", f / n }')
+  printf '%-36s %12s %12s %8s\n' "$command" "$forked_ms" "$native_ms" "$speedup"
+done
@@ -0,0 +1,106 @@
+#!/bin/sh
+#
+# Mide cómo escalan con los núcleos los 'find' y 'du' nativos del shell (recorrido en paralelo con
+# fork/join, activados con SHELL_NATIVE_UTILS=all) sobre un árbol sintético de un millón de archivos, frente a GNU find y du arrancados
+# por el mismo shell con SHELL_NATIVE_UTILS=0. Los núcleos se limitan con -XX:ActiveProcessorCount,
+# que fija el tamaño del ForkJoinPool. El arranque de la JVM se descuenta de todas las medidas.
+#
+# Uso: benchmarks/scripts/tree-walk.sh [directorios-por-nivel] [repeticiones]
+# (100 crea 100 x 100 directorios con 100 archivos cada uno: un millón de archivos)
+# Requiere el jar construido con ./your_program.sh (o .codecrafters/compile.sh).
+
+set -e
+
+WIDTH=${1:-100}
+RUNS=${2:-3}
+JAR=${SHELL_JAR:-/tmp/codecrafters-build-shell-java/codecrafters-shell.jar}
+ROOT=$(mktemp -d "${TMPDIR:-/tmp}/shell-bench-tree.XXXXXX")
+trap 'rm -rf "$ROOT"' EXIT
+
+# WIDTH x WIDTH directorios con WIDTH archivos vacíos, uno de cada diez .log; un .log por directorio tiene contenido
+for a in $(seq 1 "$WIDTH"); do
+  for b in $(seq 1 "$WIDTH"); do
+    dir="$ROOT/tree/d$a/d$b"
+    mkdir -p "$dir"
+    (cd "$dir" && seq 1 "$WIDTH" | awk '{ print "file-" $1 ($1 % 10 == 0 ? ".log" : ".txt") }' | xargs touch)
+    echo "line $a $b" > "$dir/file-10.log"
+  done
+done
+# Primer recorrido fuera de las medidas: todos parten de la caché de inodos
+find "$ROOT/tree" > /dev/null
+
+now_ms() {
+  date +%s%3N
+}
+
+measure() {
+  best=""
+  i=0
+  while [ "$i" -lt "$RUNS" ]; do
+    start=$(now_ms)
+    "$@" > /dev/null
+    elapsed=$(( $(now_ms) - start ))
+    if [ -z "$best" ] || [ "$elapsed" -lt "$best" ]; then
+      best=$elapsed
+    fi
+    i=$((i + 1))
+  done
+  echo "$best"
+}
+
+run_native() {
+  SHELL_NATIVE_UTILS=all java -XX:ActiveProcessorCount="$CORES" --enable-preview -jar "$JAR" -c "cd $ROOT; $1"
+}
+
+run_forked() {
+  SHELL_NATIVE_UTILS=0 java --enable-preview -jar "$JAR" -c "cd $ROOT; $1"
+}
+
+run_startup() {
+  java --enable-preview -jar "$JAR" -c "cd $ROOT"
+}
+
+core_counts() {
+  n=1
+  while [ "$n" -lt "$(nproc)" ]; do
+    echo "$n"
+    n=$((n * 2))
+  done
+  nproc
+}
+
+startup_ms=$(measure run_startup)
+echo "tree:            $ROOT/tree ($(find "$ROOT/tree" | wc -l) entries)"
+echo "shell startup:   ${startup_ms} ms (best of $RUNS, subtracted below)"
+
+for command in 'find tree -name "*.log"' 'find tree -type f -size +0' 'du -s tree' 'du -a tree'; do
+  CORES=$(nproc)
+  forked_out=$(run_forked "$command" | sort | md5sum)
+  native_out=$(run_native "$command" | sort | md5sum)
+  if [ "$native_out" != "$forked_out" ]; then
+    echo "MISMATCH for $command" >&2
+  fi
+  forked_ms=$(( $(measure run_forked "$command") - startup_ms ))
+  echo
+  echo "$command (GNU: ${forked_ms} ms)"
+  printf '%8s %12s %10s %10s\n' "cores" "native ms" "vs 1 core" "vs GNU"
+  for CORES in $(core_counts); do
+    native_ms=$(( $(measure run_native "$command") - startup_ms ))
+    [ "$native_ms" -gt 0 ] || native_ms=1
+    if [ "$CORES" -eq 1 ]; then
+      single_ms=$native_ms
+    fi
+    printf '%8s %12s %10s %10s\n' "$CORES" "$native_ms" \
+      "$(awk -v s="$single_ms" -v n="$native_ms" 'BEGIN { printf "%.2fx", s / n }')" \
+      "$(awk -v f="$forked_ms" -v n="$native_ms" 'BEGIN { printf "%.2fx", f / n }')"
+  done
+done
+
+# Con --sorted la salida es siempre la misma, y se recorre igual de en paralelo
+CORES=$(nproc)
+sorted_ms=$(( $(measure run_native 'find --sorted tree -name "*.log"') - startup_ms ))
+first=$(run_native 'find --sorted tree -name "*.log"' | md5sum)
+second=$(run_native 'find --sorted tree -name "*.log"' | md5sum)
+[ "$first" = "$second" ] || echo "find --sorted is not deterministic" >&2
+echo
+echo "find --sorted tree -name \"*.log\": ${sorted_ms} ms with $CORES cores"
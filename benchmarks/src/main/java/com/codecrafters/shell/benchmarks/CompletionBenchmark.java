@@ -0,0 +1,109 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.ShellCompleter;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.PathCache;
+import org.jline.reader.Candidate;
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.reader.ParsedLine;
+import org.jline.reader.impl.DefaultParser;
+import org.jline.terminal.TerminalBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de un TAB en ShellCompleter.complete: nombres de comando contra un PATH sintético de
+ * 12.000 ejecutables y rutas en un directorio de 5.000 archivos.
+ * Las líneas se alternan para que cada llamada sea un primer TAB (el segundo imprime el listado).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class CompletionBenchmark {
+    private static final int FILES = 5_000;
+
+    private SyntheticPath path;
+    private SyntheticPath files;
+    private ShellCompleter completer;
+    private LineReader reader;
+    private ParsedLine[] commandLines;
+    private ParsedLine[] pathLines;
+    private ParsedLine uniqueCommand;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = SyntheticPath.create(100, 120);
+        PathCache cache = new PathCache(path.getValue());
+        cache.rehash();
+        files = SyntheticPath.create(1, FILES);
+        Environment environment = new Environment();
+        WorkingDirectory workingDirectory = new WorkingDirectory(environment, files.getRoot().resolve("bin0"));
+        completer = new ShellCompleter(List.of("cd", "echo", "exit", "pwd", "type"), cache, workingDirectory);
+
+        reader = LineReaderBuilder.builder()
+                .terminal(TerminalBuilder.builder()
+                        .dumb(true)
+                        .streams(InputStream.nullInputStream(), OutputStream.nullOutputStream())
+                        .build())
+                .build();
+        DefaultParser parser = new DefaultParser();
+        commandLines = new ParsedLine[] {parse(parser, "cmd-a"), parse(parser, "cmd-b")};
+        pathLines = new ParsedLine[] {parse(parser, "cat cmd-a"), parse(parser, "cat cmd-b")};
+        uniqueCommand = parse(parser, path.executableName(0, 0));
+    }
+
+    private static ParsedLine parse(DefaultParser parser, String line) {
+        return parser.parse(line, line.length());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        path.delete();
+        files.delete();
+    }
+
+    @Benchmark
+    public List<Candidate> commandFirstTab() {
+        return complete(commandLines[next++ & 1]);
+    }
+
+    @Benchmark
+    public List<Candidate> commandUniqueMatch() {
+        return complete(uniqueCommand);
+    }
+
+    @Benchmark
+    public List<Candidate> pathFirstTab() {
+        return complete(pathLines[next++ & 1]);
+    }
+
+    private List<Candidate> complete(ParsedLine line) {
+        List<Candidate> candidates = new ArrayList<>();
+        completer.complete(reader, line, candidates);
+        return candidates;
+    }
+}
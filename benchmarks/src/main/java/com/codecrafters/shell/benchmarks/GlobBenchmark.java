@@ -0,0 +1,89 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.glob.GlobExpander;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Coste de GlobExpander.expand sobre un directorio plano de 50.000 archivos y un árbol de
+ * 200 directorios con 40 archivos cada uno. 'benchmarks/scripts/glob-expansion.sh' compara
+ * el shell completo con bash.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class GlobBenchmark {
+    private static final int FLAT_FILES = 50_000;
+
+    private Path root;
+    private GlobExpander expander;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("shell-bench-glob");
+        Path flat = Files.createDirectory(root.resolve("flat"));
+        for (int i = 0; i < FLAT_FILES; i++) {
+            Files.createFile(flat.resolve("file-" + i + (i % 10 == 0 ? ".log" : ".txt")));
+        }
+        for (int m = 0; m < 10; m++) {
+            for (int p = 0; p < 20; p++) {
+                Path dir = Files.createDirectories(root.resolve("tree/module" + m + "/pkg" + p));
+                for (int c = 0; c < 20; c++) {
+                    Files.createFile(dir.resolve("Class" + c + ".java"));
+                    Files.createFile(dir.resolve("Class" + c + ".class"));
+                }
+            }
+        }
+        expander = new GlobExpander(() -> root);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> flatSuffix() {
+        return expander.expand("flat/*.log");
+    }
+
+    @Benchmark
+    public List<String> flatFewMatches() {
+        return expander.expand("flat/file-1234?.txt");
+    }
+
+    @Benchmark
+    public List<String> treeGlobstar() {
+        return expander.expand("tree/**/*.java");
+    }
+
+    @Benchmark
+    public List<String> treeLiteralPrefix() {
+        return expander.expand("tree/module7/*/Class1?.java");
+    }
+}
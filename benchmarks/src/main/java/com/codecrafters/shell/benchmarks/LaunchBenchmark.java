@@ -0,0 +1,40 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia desde que se lanza un comando externo trivial hasta que termina, con
+ * ExternalCommandExecutor.execute. Se mide como distribución (percentiles), no solo la media.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class LaunchBenchmark {
+    private final ExternalCommandExecutor executor = new ExternalCommandExecutor();
+
+    @Benchmark
+    public int trueStreaming() {
+        return executor.execute(List.of("true"), OutputStream.nullOutputStream(), OutputStream.nullOutputStream()).exitCode;
+    }
+
+    @Benchmark
+    public int echoCaptured() {
+        return executor.execute(List.of("echo", "hello")).exitCode;
+    }
+}
@@ -0,0 +1,78 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.utils.LineScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recorrido de 64 MB de texto (líneas de unos 40 bytes, como un log) con LineScanner frente al
+ * bucle byte a byte equivalente, en un buffer directo como las ventanas de un archivo mapeado.
+ * 'benchmarks/scripts/text-utils.sh' compara las utilidades completas con coreutils y GNU grep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class LineScannerBenchmark {
+    private static final int SIZE = 64 << 20;
+    private static final byte[] LITERAL = "ERROR disk".getBytes(StandardCharsets.UTF_8);
+
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buffer = ByteBuffer.allocateDirect(SIZE).order(ByteOrder.nativeOrder());
+        long line = 0;
+        while (buffer.remaining() > 64) {
+            buffer.put((line++ + " INFO request served in 12ms\n").getBytes(StandardCharsets.UTF_8));
+        }
+        // El literal solo aparece al final: se recorre el buffer entero
+        buffer.put(LITERAL);
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) '\n');
+        }
+        buffer.clear();
+    }
+
+    @Benchmark
+    public long countNewlines() {
+        return LineScanner.countNewlines(buffer, 0, SIZE);
+    }
+
+    @Benchmark
+    public long countNewlinesBytewise() {
+        long count = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (buffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int lastLines() {
+        return LineScanner.lastIndexOfNewline(buffer, 0, SIZE, 100_000);
+    }
+
+    @Benchmark
+    public int indexOfLiteral() {
+        return LineScanner.indexOf(buffer, 0, SIZE, LITERAL);
+    }
+}
@@ -0,0 +1,74 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.parser.CommandList;
+import com.codecrafters.shell.parser.CommandParser;
+import com.codecrafters.shell.parser.RedirectionInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de parsear una línea: los envoltorios parseRedirection/parseArguments y el parser completo.
+ * Las líneas van de un comando típico a casos patológicos (miles de palabras entrecomilladas,
+ * escapes y redirecciones).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class ParserBenchmark {
+    @Param({"simple", "realistic", "quoted", "redirections", "long"})
+    public String shape;
+
+    private final CommandParser parser = new CommandParser();
+    private String line;
+
+    @Setup
+    public void setUp() {
+        switch (shape) {
+            case "simple":
+                line = "ls -la";
+                break;
+            case "realistic":
+                line = "grep -rn \"TODO: fix\" src/main/java 'notes file.txt' 2>> errors.log > out.txt";
+                break;
+            case "quoted":
+                line = repeat("\"arg with \\\"escapes\\\" and 'quotes'\" 'single \\ quoted' esc\\ aped ", 500);
+                break;
+            case "redirections":
+                line = "echo start" + repeat(" > out.txt 2>> err.txt", 500);
+                break;
+            default:
+                line = "echo" + repeat(" word", 10_000);
+                break;
+        }
+    }
+
+    private static String repeat(String text, int times) {
+        return text.repeat(times);
+    }
+
+    @Benchmark
+    public List<String> parseRedirectionThenArguments() {
+        RedirectionInfo redirection = parser.parseRedirection(line);
+        return parser.parseArguments(redirection.getCommand());
+    }
+
+    @Benchmark
+    public CommandList parse() {
+        return parser.parse(line);
+    }
+}
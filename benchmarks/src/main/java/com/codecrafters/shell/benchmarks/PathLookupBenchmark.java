@@ -0,0 +1,92 @@
+package com.codecrafters.shell.benchmarks;
+
+import com.codecrafters.shell.utils.PathCache;
+import com.codecrafters.shell.utils.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de ejecutables con PathUtils.findExecutable sobre un PATH sintético de
+ * {@code directories × executablesPerDirectory} entradas (12.000 por defecto), más el coste
+ * de reconstruir el índice completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "--enable-preview")
+public class PathLookupBenchmark {
+    @Param({"10", "200"})
+    public int directories;
+
+    @Param({"12000"})
+    public int executables;
+
+    private SyntheticPath path;
+    private String originalPath;
+    private String firstDirectoryName;
+    private String lastDirectoryName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = SyntheticPath.create(directories, executables / directories);
+        firstDirectoryName = path.executableName(0, 0);
+        lastDirectoryName = path.executableName(directories - 1, 0);
+
+        PathCache cache = PathUtils.getPathCache();
+        originalPath = cache.getPath();
+        cache.setPath(path.getValue());
+        cache.rehash();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        PathUtils.getPathCache().setPath(originalPath);
+        path.delete();
+    }
+
+    @Benchmark
+    public File hitFirstDirectory() {
+        return PathUtils.findExecutable(firstDirectoryName);
+    }
+
+    @Benchmark
+    public File hitLastDirectory() {
+        return PathUtils.findExecutable(lastDirectoryName);
+    }
+
+    @Benchmark
+    public File miss() {
+        return PathUtils.findExecutable("no-such-command");
+    }
+
+    /**
+     * Reconstrucción completa del índice, como tras 'hash -R' o un cambio de PATH.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public int rebuild() {
+        PathCache cache = PathUtils.getPathCache();
+        cache.rehash();
+        return cache.names().size();
+    }
+}
@@ -0,0 +1,69 @@
+package com.codecrafters.shell.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * PATH sintético en un directorio temporal: varios directorios con ejecutables vacíos.
+ * Los nombres se reparten para que haya prefijos comunes, como en /usr/bin.
+ */
+final class SyntheticPath {
+    private final Path root;
+    private final String value;
+    private final int perDirectory;
+
+    private SyntheticPath(Path root, String value, int perDirectory) {
+        this.root = root;
+        this.value = value;
+        this.perDirectory = perDirectory;
+    }
+
+    static SyntheticPath create(int directories, int executablesPerDirectory) throws IOException {
+        Path root = Files.createTempDirectory("shell-bench-path");
+        List<String> dirs = new ArrayList<>();
+        for (int d = 0; d < directories; d++) {
+            Path dir = Files.createDirectory(root.resolve("bin" + d));
+            for (int e = 0; e < executablesPerDirectory; e++) {
+                Path file = dir.resolve(executableName(d, e, executablesPerDirectory));
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwxr-xr-x")));
+            }
+            dirs.add(dir.toString());
+        }
+        return new SyntheticPath(root, String.join(File.pathSeparator, dirs), executablesPerDirectory);
+    }
+
+    private static String executableName(int directory, int index, int perDirectory) {
+        int n = directory * perDirectory + index;
+        return "cmd-" + (char) ('a' + n % 26) + (char) ('a' + (n / 26) % 26) + "-" + n;
+    }
+
+    /**
+     * @return Nombre del ejecutable número {@code index} del directorio {@code directory}.
+     */
+    String executableName(int directory, int index) {
+        return executableName(directory, index, perDirectory);
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -1,7 +1,67 @@
 import com.codecrafters.shell.Shell;
+import com.codecrafters.shell.daemon.ShellClient;
+import com.codecrafters.shell.daemon.ShellDaemon;
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.utils.StartupTimer;
 
+import java.io.Console;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Punto de entrada del shell.
+ * Sin argumentos y con una terminal interactiva arranca el REPL; con '-c "comando"', con la ruta
+ * de un script o con comandos redirigidos por stdin ejecuta en modo script, sin JLine.
+ * '--jfr=archivo' como primer argumento graba la sesión con Java Flight Recorder.
+ * '--daemon' arranca el daemon; con SHELL_DAEMON_SOCKET definida, el modo script se ejecuta en el
+ * daemon si hay uno escuchando (y en este proceso si no).
+ */
 public class Main {
     public static void main(String[] args) throws Exception {
+        StartupTimer.start();
+
+        if (args.length == 1 && args[0].equals("--daemon")) {
+            new ShellDaemon(ShellDaemon.defaultSocket()).serve();
+            return;
+        }
+        // El cliente no carga nada del shell: solo cuenta el arranque de la JVM
+        String socket = System.getenv(ShellDaemon.SOCKET_VARIABLE);
+        if (socket != null && !socket.isEmpty() && (args.length >= 1 || !isInteractive())
+                && !(args.length >= 1 && args[0].startsWith("--jfr="))) {
+            try (ShellClient client = ShellClient.connect(Paths.get(socket))) {
+                if (client != null) {
+                    System.exit(client.run(Arrays.asList(args)));
+                }
+            }
+        }
+
+        // '--jfr=archivo' graba toda la sesión con JFR; el archivo se escribe al salir
+        if (args.length >= 1 && args[0].startsWith("--jfr=")) {
+            ShellRecording.start(Paths.get(args[0].substring("--jfr=".length())));
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        if (args.length >= 1 || !isInteractive()) {
+            System.exit(new Shell().runArguments(Arrays.asList(args)));
+        }
+
         new Shell().run();
     }
-}
\ No newline at end of file
+
+    /**
+     * Indica si stdin/stdout están conectados a una terminal.
+     * Desde JDK 22 System.console() puede devolver una consola aunque haya redirecciones,
+     * así que se consulta Console.isTerminal() cuando existe.
+     */
+    private static boolean isInteractive() {
+        Console console = System.console();
+        if (console == null) {
+            return false;
+        }
+        try {
+            return (Boolean) Console.class.getMethod("isTerminal").invoke(console);
+        } catch (ReflectiveOperationException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.codecrafters.shell;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Destino de salida en memoria con límite de tamaño.
+ * Conserva como máximo los primeros {@code limit} bytes y descarta el resto,
+ * de modo que capturar la salida de un comando nunca crece sin control.
+ */
+public class BoundedCapture extends ByteArrayOutputStream {
+    public static final int DEFAULT_LIMIT = 1 << 20;
+
+    private final int limit;
+    private boolean truncated = false;
+
+    public BoundedCapture() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public BoundedCapture(int limit) {
+        super(Math.min(limit, 1024));
+        this.limit = limit;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (count >= limit) {
+            truncated = true;
+            return;
+        }
+        super.write(b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        int room = limit - count;
+        if (len > room) {
+            truncated = true;
+            len = Math.max(room, 0);
+        }
+        super.write(b, off, len);
+    }
+
+    /**
+     * @return true si se descartaron bytes por superar el límite.
+     */
+    public synchronized boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Devuelve el contenido capturado sin el salto de línea final, como lo imprime el shell.
+     * @param charset Codificación del contenido.
+     * @return Texto capturado.
+     */
+    public synchronized String toText(Charset charset) {
+        String text = toString(charset);
+        return text.endsWith("\n") ? text.substring(0, text.length() - 1) : text;
+    }
+}
@@ -1,16 +1,31 @@
 package com.codecrafters.shell;
 
 import com.codecrafters.shell.commands.BuiltinCommand;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Registro central para comandos builtin.
  * Permite registrar y buscar comandos disponibles internamente en el shell.
+ * Las utilidades nativas ('cat', 'grep'...) son builtins que sustituyen al ejecutable del mismo
+ * nombre; se pueden desactivar todas a la vez y entonces se resuelven en el PATH como antes.
+ * Las opcionales ('find', 'du') no dan exactamente el mismo resultado o no siempre son más
+ * rápidas que el programa que reemplazan, así que solo se usan si se activan expresamente.
  */
 public class CommandRegistry {
     private final Map<String, BuiltinCommand> builtins = new HashMap<>();
+    private final Map<String, BuiltinCommand> utilities = new HashMap<>();
+    private final Set<String> optionalUtilities = new HashSet<>();
+    private volatile boolean utilitiesEnabled = true;
+    private volatile boolean optionalUtilitiesEnabled = false;
 
     /**
      * Registra un nuevo comando builtin.
@@ -20,13 +35,55 @@ public class CommandRegistry {
         builtins.put(command.getName(), command);
     }
 
+    /**
+     * Registra una utilidad nativa, que reemplaza al ejecutable del mismo nombre mientras estén activadas.
+     * @param command La utilidad a registrar.
+     */
+    public void registerUtility(BuiltinCommand command) {
+        utilities.put(command.getName(), command);
+    }
+
+    /**
+     * Registra una utilidad nativa opcional, que solo reemplaza al ejecutable si se activan con
+     * {@link #setUtilitiesEnabled(boolean, boolean)}.
+     * @param command La utilidad a registrar.
+     */
+    public void registerOptionalUtility(BuiltinCommand command) {
+        registerUtility(command);
+        optionalUtilities.add(command.getName());
+    }
+
+    /**
+     * @param enabled false para ejecutar los comandos externos en lugar de las utilidades nativas.
+     */
+    public void setUtilitiesEnabled(boolean enabled) {
+        setUtilitiesEnabled(enabled, false);
+    }
+
+    /**
+     * @param enabled false para ejecutar los comandos externos en lugar de las utilidades nativas.
+     * @param optionalEnabled true para usar también las utilidades opcionales (si {@code enabled}).
+     */
+    public void setUtilitiesEnabled(boolean enabled, boolean optionalEnabled) {
+        this.utilitiesEnabled = enabled;
+        this.optionalUtilitiesEnabled = enabled && optionalEnabled;
+    }
+
+    /**
+     * @param name Nombre del comando.
+     * @return true si es una utilidad nativa registrada (aunque estén desactivadas).
+     */
+    public boolean isUtility(String name) {
+        return utilities.containsKey(name);
+    }
+
     /**
      * Obtiene un comando builtin por su nombre.
      * @param name Nombre del comando.
      * @return Optional conteniendo el comando si existe.
      */
     public Optional<BuiltinCommand> getBuiltin(String name) {
-        return Optional.ofNullable(builtins.get(name));
+        return Optional.ofNullable(find(name));
     }
 
     /**
@@ -35,6 +92,59 @@ public class CommandRegistry {
      * @return true si es builtin, false en caso contrario.
      */
     public boolean isBuiltin(String name) {
-        return builtins.containsKey(name);
+        return find(name) != null;
+    }
+
+    /**
+     * Obtiene los nombres de todos los comandos builtin registrados.
+     * @return Conjunto de nombres.
+     */
+    public Set<String> getNames() {
+        if (!utilitiesEnabled) {
+            return builtins.keySet();
+        }
+        Set<String> names = new HashSet<>(builtins.keySet());
+        names.addAll(utilities.keySet());
+        if (!optionalUtilitiesEnabled) {
+            names.removeAll(optionalUtilities);
+        }
+        return names;
+    }
+
+    /**
+     * Ejecuta un comando builtin en streaming sobre los flujos dados.
+     * Los errores del comando se informan en {@code err} y se traducen en código de salida 1.
+     * @param name Nombre del comando.
+     * @param args Argumentos (sin el nombre del comando).
+     * @param in Entrada estándar.
+     * @param out Salida estándar.
+     * @param err Salida de error.
+     * @return Código de salida del comando, o 127 si no es un builtin.
+     */
+    public int execute(String name, List<String> args, InputStream in, OutputStream out, OutputStream err) {
+        BuiltinCommand command = find(name);
+        try {
+            if (command == null) {
+                BuiltinCommand.writeLine(err, name + ": command not found");
+                return 127;
+            }
+            ShellMetrics.get().builtinExecuted();
+            return command.execute(args, in, out, err);
+        } catch (Exception e) {
+            try {
+                BuiltinCommand.writeLine(err, "Error executing builtin: " + e.getMessage());
+            } catch (IOException ignored) {
+                // El destino de errores tampoco acepta escritura
+            }
+            return 1;
+        }
+    }
+
+    private BuiltinCommand find(String name) {
+        BuiltinCommand command = builtins.get(name);
+        if (command != null || !utilitiesEnabled) {
+            return command;
+        }
+        return optionalUtilitiesEnabled || !optionalUtilities.contains(name) ? utilities.get(name) : null;
     }
 }
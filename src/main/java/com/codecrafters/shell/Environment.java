@@ -0,0 +1,248 @@
+package com.codecrafters.shell;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Variables del shell y cuáles de ellas se exportan a los procesos hijos.
+ * <p>
+ * El estado es un {@link Snapshot} inmutable que se reemplaza entero en cada cambio (copia en escritura),
+ * así que los hilos que arrancan procesos o expanden variables leen una versión coherente sin bloqueos.
+ * Cada instantánea precalcula su diferencia con el entorno heredado por la JVM: un ProcessBuilder ya
+ * parte de ese entorno, de modo que al arrancar un proceso solo se aplican los cambios (y nada si no hay).
+ */
+public class Environment {
+    /**
+     * Recibe cada cambio de una variable (p. ej. para reindexar el PATH).
+     */
+    public interface Listener {
+        /**
+         * @param name Nombre de la variable.
+         * @param value Nuevo valor, o null si se eliminó.
+         */
+        void onChange(String name, String value);
+    }
+
+    private final Map<String, String> inherited;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Crea el entorno a partir de las variables del proceso, todas exportadas.
+     */
+    public Environment() {
+        this(System.getenv());
+    }
+
+    /**
+     * @param inherited Variables heredadas; son las que ya recibe un ProcessBuilder sin modificar.
+     */
+    public Environment(Map<String, String> inherited) {
+        this(inherited, inherited);
+    }
+
+    /**
+     * Crea un entorno que no es el de la JVM (p. ej. el de un cliente del daemon), todo exportado.
+     * @param variables Variables iniciales.
+     * @param processEnvironment Entorno de la JVM, el que ya recibe un ProcessBuilder sin modificar:
+     *                           a los procesos hijos solo se les aplica la diferencia con él.
+     */
+    public Environment(Map<String, String> variables, Map<String, String> processEnvironment) {
+        this.inherited = Map.copyOf(processEnvironment);
+        Map<String, String> values = Map.copyOf(variables);
+        this.snapshot = new Snapshot(values, values.keySet(), this.inherited);
+    }
+
+    /**
+     * @param listener Listener que recibirá los cambios posteriores.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @return Estado actual, inmutable.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @param name Nombre de la variable.
+     * @return Valor, o null si no está definida.
+     */
+    public String get(String name) {
+        return snapshot.values.get(name);
+    }
+
+    /**
+     * Asigna una variable conservando si estaba exportada ('NOMBRE=valor').
+     * @param name Nombre de la variable.
+     * @param value Valor.
+     */
+    public void set(String name, String value) {
+        update(name, value, false);
+    }
+
+    /**
+     * Marca una variable como exportada y, si se da un valor, la asigna ('export NOMBRE[=valor]').
+     * @param name Nombre de la variable.
+     * @param value Valor, o null para exportar el valor actual.
+     */
+    public void export(String name, String value) {
+        update(name, value, true);
+    }
+
+    /**
+     * Elimina una variable ('unset NOMBRE').
+     * @param name Nombre de la variable.
+     */
+    public void unset(String name) {
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (!current.values.containsKey(name) && !current.exported.contains(name)) {
+                return;
+            }
+            Map<String, String> values = new HashMap<>(current.values);
+            values.remove(name);
+            Set<String> exported = new HashSet<>(current.exported);
+            exported.remove(name);
+            snapshot = new Snapshot(values, exported, inherited);
+        }
+        notifyChange(name, null);
+    }
+
+    /**
+     * Indica si el PATH actual es el heredado. Si no, el ProcessBuilder no resolvería los
+     * comandos con el PATH nuevo (usa el de la JVM) y hay que pasarle la ruta absoluta.
+     * @return true si PATH no ha cambiado.
+     */
+    public boolean hasInheritedPath() {
+        String path = get("PATH");
+        return path == null ? !inherited.containsKey("PATH") : path.equals(inherited.get("PATH"));
+    }
+
+    /**
+     * @param name Texto a comprobar.
+     * @return true si es un nombre de variable válido ([A-Za-z_][A-Za-z0-9_]*).
+     */
+    public static boolean isValidName(String name) {
+        if (name.isEmpty() || Character.isDigit(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '_' && !(c < 128 && Character.isLetterOrDigit(c))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void update(String name, String value, boolean export) {
+        String newValue;
+        synchronized (this) {
+            Snapshot current = snapshot;
+            newValue = value != null ? value : current.values.get(name);
+            boolean exported = export || current.exported.contains(name);
+            if (equalsValue(newValue, current.values.get(name)) && exported == current.exported.contains(name)) {
+                return;
+            }
+            Map<String, String> values = new HashMap<>(current.values);
+            if (newValue != null) {
+                values.put(name, newValue);
+            }
+            Set<String> exportedNames = current.exported;
+            if (exported && !exportedNames.contains(name)) {
+                exportedNames = new HashSet<>(exportedNames);
+                exportedNames.add(name);
+            }
+            snapshot = new Snapshot(values, exportedNames, inherited);
+        }
+        notifyChange(name, newValue);
+    }
+
+    private void notifyChange(String name, String value) {
+        for (Listener listener : listeners) {
+            listener.onChange(name, value);
+        }
+    }
+
+    private static boolean equalsValue(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Estado inmutable de las variables, con la diferencia respecto al entorno heredado ya calculada.
+     */
+    public static final class Snapshot {
+        private final Map<String, String> values;
+        private final Set<String> exported;
+        /** Variables exportadas cuyo valor no es el heredado. */
+        private final Map<String, String> overrides;
+        /** Variables heredadas que ya no se exportan. */
+        private final Set<String> removed;
+
+        private Snapshot(Map<String, String> values, Set<String> exported, Map<String, String> inherited) {
+            this.values = Collections.unmodifiableMap(values);
+            this.exported = Collections.unmodifiableSet(exported);
+            Map<String, String> overrides = new HashMap<>();
+            for (String name : exported) {
+                String value = values.get(name);
+                if (value != null && !value.equals(inherited.get(name))) {
+                    overrides.put(name, value);
+                }
+            }
+            Set<String> removed = new HashSet<>();
+            for (String name : inherited.keySet()) {
+                if (!exported.contains(name) || !values.containsKey(name)) {
+                    removed.add(name);
+                }
+            }
+            this.overrides = Collections.unmodifiableMap(overrides);
+            this.removed = Collections.unmodifiableSet(removed);
+        }
+
+        /**
+         * @param name Nombre de la variable.
+         * @return Valor, o null si no está definida.
+         */
+        public String get(String name) {
+            return values.get(name);
+        }
+
+        /**
+         * @return Variables exportadas con valor, ordenadas por nombre.
+         */
+        public Map<String, String> exportedVariables() {
+            Map<String, String> result = new TreeMap<>();
+            for (String name : exported) {
+                String value = values.get(name);
+                if (value != null) {
+                    result.put(name, value);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Aplica el entorno a un proceso por arrancar. Si no hay cambios respecto al entorno heredado
+         * no se toca el ProcessBuilder, que así no llega a copiar su mapa de variables.
+         * @param builder ProcessBuilder del proceso.
+         */
+        public void applyTo(ProcessBuilder builder) {
+            if (overrides.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+            Map<String, String> environment = builder.environment();
+            environment.keySet().removeAll(removed);
+            environment.putAll(overrides);
+        }
+    }
+}
@@ -2,7 +2,8 @@ package com.codecrafters.shell;
 
 /**
  * Representa el resultado de la ejecución de un comando.
- * Contiene la salida estándar (stdout), la salida de error (stderr) y el código de salida.
+ * Contiene el código de salida y, opcionalmente, una captura acotada de stdout y stderr.
+ * Cuando la salida se envía en streaming a su destino, stdout y stderr son null.
  */
 public class ExecutionResult {
     public final String stdout;
@@ -11,8 +12,8 @@ public class ExecutionResult {
 
     /**
      * Crea un nuevo resultado de ejecución.
-     * @param stdout Contenido de la salida estándar.
-     * @param stderr Contenido de la salida de error.
+     * @param stdout Contenido capturado de la salida estándar, o null si se envió en streaming.
+     * @param stderr Contenido capturado de la salida de error, o null si se envió en streaming.
      * @param exitCode Código de retorno del proceso (0 para éxito).
      */
     public ExecutionResult(String stdout, String stderr, int exitCode) {
@@ -20,4 +21,13 @@ public class ExecutionResult {
         this.stderr = stderr;
         this.exitCode = exitCode;
     }
+
+    /**
+     * Crea un resultado sin salida capturada, para comandos cuya salida ya se envió a su destino.
+     * @param exitCode Código de retorno del proceso.
+     * @return Resultado con solo el código de salida.
+     */
+    public static ExecutionResult ofExitCode(int exitCode) {
+        return new ExecutionResult(null, null, exitCode);
+    }
 }
@@ -1,10 +1,24 @@
 package com.codecrafters.shell;
 
+import com.codecrafters.shell.jfr.ProcessStartEvent;
+import com.codecrafters.shell.jfr.ProcessWaitEvent;
+import com.codecrafters.shell.jfr.RedirectionSetupEvent;
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import com.codecrafters.shell.parser.RedirectionInfo;
+import com.codecrafters.shell.utils.PathCache;
 import com.codecrafters.shell.utils.PathUtils;
-import java.io.BufferedReader;
+import com.codecrafters.shell.utils.RedirectionFiles;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -12,67 +26,460 @@ import java.util.List;
  * Se encarga de buscar el ejecutable en el PATH y ejecutarlo en un proceso separado. -
  */
 public class ExternalCommandExecutor {
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+    private final PathCache pathCache;
 
     /**
-     * Ejecuta un comando externo con los argumentos dados.
-     * Captura stdout y stderr en hilos separados para evitar bloqueos.
+     * Crea un ejecutor que lanza los procesos con el entorno y el directorio heredados por la JVM.
+     */
+    public ExternalCommandExecutor() {
+        this(new Environment());
+    }
+
+    private ExternalCommandExecutor(Environment environment) {
+        this(environment, new WorkingDirectory(environment));
+    }
+
+    /**
+     * @param environment Variables del shell que reciben los procesos hijos.
+     * @param workingDirectory Directorio de trabajo del shell, en el que arrancan los procesos hijos.
+     */
+    public ExternalCommandExecutor(Environment environment, WorkingDirectory workingDirectory) {
+        this(environment, workingDirectory, PathUtils.getPathCache());
+    }
+
+    /**
+     * @param environment Variables del shell que reciben los procesos hijos.
+     * @param workingDirectory Directorio de trabajo del shell, en el que arrancan los procesos hijos.
+     * @param pathCache Índice del PATH del shell en el que se buscan los comandos.
+     */
+    public ExternalCommandExecutor(Environment environment, WorkingDirectory workingDirectory, PathCache pathCache) {
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+        this.pathCache = pathCache;
+    }
+
+    /**
+     * Ejecuta un comando externo capturando su salida en memoria.
+     * La captura está acotada a {@link BoundedCapture#DEFAULT_LIMIT} bytes por flujo;
+     * para salidas grandes usar {@link #execute(List, OutputStream, OutputStream)}.
      * 
      * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
-     * @return ExecutionResult con la salida y el código de retorno.
+     * @return ExecutionResult con la salida capturada y el código de retorno.
      */
     public ExecutionResult execute(List<String> commandArgs) {
+        BoundedCapture output = new BoundedCapture();
+        BoundedCapture errors = new BoundedCapture();
+        ExecutionResult result = execute(commandArgs, output, errors);
+        Charset charset = Charset.defaultCharset();
+        return new ExecutionResult(output.toText(charset), errors.toText(charset), result.exitCode);
+    }
+
+    /**
+     * Ejecuta un comando externo enviando su salida a los destinos dados a medida que se produce.
+     * stdout y stderr se copian en hilos separados con un buffer fijo, así que la memoria usada
+     * no depende del tamaño de la salida. Los destinos no se cierran. El proceso recibe una
+     * entrada vacía.
+     * 
+     * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
+     * @param out Destino de la salida estándar.
+     * @param err Destino de la salida de error (también recibe los errores del propio shell).
+     * @return ExecutionResult con solo el código de retorno.
+     */
+    public ExecutionResult execute(List<String> commandArgs, OutputStream out, OutputStream err) {
+        return execute(commandArgs, RedirectionInfo.none(null), out, err);
+    }
+
+    /**
+     * Ejecuta un comando externo aplicando sus redirecciones.
+     * Las redirecciones a archivo se entregan al proceso como ProcessBuilder.Redirect, así que el
+     * hijo escribe directamente en el descriptor del archivo (o lee de él, con '<'); solo los flujos
+     * no redirigidos se copian hacia {@code out} y {@code err}. Los documentos y las cadenas en línea
+     * se escriben en su entrada como indica {@link InputRedirection}. Sin redirección de entrada
+     * el proceso recibe una entrada vacía.
+     * 
+     * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
+     * @param redirection Redirecciones de stdin/stdout/stderr del comando.
+     * @param out Destino de la salida estándar si no está redirigida.
+     * @param err Destino de la salida de error si no está redirigida.
+     * @return ExecutionResult con solo el código de retorno.
+     */
+    public ExecutionResult execute(List<String> commandArgs, RedirectionInfo redirection, OutputStream out, OutputStream err) {
+        return execute(commandArgs, redirection, InputStream.nullInputStream(), out, err, new PhaseTimes());
+    }
+
+    /**
+     * Ejecuta un comando externo aplicando sus redirecciones y midiendo cada fase:
+     * resolución en el PATH, arranque, espera del proceso y vaciado de su salida.
+     * Sin '<', documento ni cadena en línea el proceso lee {@code in} como indica
+     * {@link #execute(List, InputStream, OutputStream, OutputStream)}.
+     * 
+     * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
+     * @param redirection Redirecciones de stdin/stdout/stderr del comando.
+     * @param in Entrada estándar si no está redirigida (no se cierra).
+     * @param out Destino de la salida estándar si no está redirigida.
+     * @param err Destino de la salida de error si no está redirigida.
+     * @param times Acumulador de los tiempos de cada fase.
+     * @return ExecutionResult con solo el código de retorno.
+     */
+    public ExecutionResult execute(List<String> commandArgs, RedirectionInfo redirection, InputStream in, OutputStream out,
+                                   OutputStream err, PhaseTimes times) {
         String commandName = commandArgs.get(0);
-        File executable = PathUtils.findExecutable(commandName);
+        Path directory = workingDirectory.get();
+        // Como en bash, una redirección que falla (entrada ilegible, descriptor no abierto) impide ejecutar el comando
+        InputRedirection input;
+        try {
+            OutputRedirection.prepare(directory, redirection);
+            input = InputRedirection.of(directory, redirection);
+        } catch (FileNotFoundException e) {
+            return failRedirected(directory, redirection, out, err, e.getMessage(), 1);
+        }
+        long phaseStart = System.nanoTime();
+        File executable = findExecutable(commandName);
+        phaseStart = times.since(PhaseTimes.Phase.RESOLVE, phaseStart);
 
         if (executable == null) {
-            return new ExecutionResult(null, commandName + ": command not found", 127);
+            return failRedirected(directory, redirection, out, err, commandName + ": command not found", 127);
         }
 
         try {
-            // Usar los argumentos originales tal cual
-            // ProcessBuilder buscará el ejecutable en el PATH del sistema
-            ProcessBuilder pb = new ProcessBuilder(commandArgs);
-            Process process = pb.start();
-
-            StringBuilder output = new StringBuilder();
-            StringBuilder errors = new StringBuilder();
-
-            Thread outputThread = new Thread(() -> {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        output.append(line).append("\n");
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            });
-
-            Thread errorThread = new Thread(() -> {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        errors.append(line).append("\n");
-                    }
-                } catch (IOException e) {
-                    e.printStackTrace();
+            ProcessBuilder pb = createProcessBuilder(commandArgs, directory);
+            RedirectionSetupEvent setupEvent = ShellRecording.isEnabled() ? new RedirectionSetupEvent() : null;
+            if (setupEvent != null) {
+                setupEvent.begin();
+            }
+            if (input != null) {
+                input.applyTo(pb);
+            } else {
+                inheritInput(pb, in);
+            }
+            OutputRedirection.applyTo(pb, directory, redirection);
+            long redirectedBefore = redirectedSize(directory, redirection, true);
+            if (setupEvent != null) {
+                setupEvent.end();
+                if (setupEvent.shouldCommit() && (redirection.hasStdoutRedirection() || redirection.hasStderrRedirection()
+                        || input != null)) {
+                    setupEvent.commandName = commandName;
+                    setupEvent.argumentCount = commandArgs.size() - 1;
+                    setupEvent.bytes = redirectedBefore;
+                    setupEvent.commit();
                 }
-            });
+            }
+            Process process = start(pb);
+            StreamPump inputPump = input != null ? input.started(process, commandName) : null;
+            if (input == null) {
+                pumpInput(process, in, commandName);
+            }
 
-            outputThread.start();
-            errorThread.start();
+            // Con stderr unido a stdout solo hay un flujo que copiar
+            OutputStream outputSink = OutputRedirection.sink(redirection.getStdout(), out, err);
+            OutputStream errorSink = redirection.mergesStderr() ? null : OutputRedirection.sink(redirection.getStderr(), out, err);
+            StreamPump outputPump = outputSink == null ? null
+                    : new StreamPump(process.getInputStream(), outputSink).start("stdout-" + commandName);
+            StreamPump errorPump = errorSink == null ? null
+                    : new StreamPump(process.getErrorStream(), errorSink).start("stderr-" + commandName);
+            phaseStart = times.since(PhaseTimes.Phase.SPAWN, phaseStart);
 
+            ProcessWaitEvent waitEvent = beginWait();
             int exitCode = process.waitFor();
-            outputThread.join();
-            errorThread.join();
+            commitWait(waitEvent, commandArgs, exitCode);
+            phaseStart = times.since(PhaseTimes.Phase.WAIT, phaseStart);
+            if (outputPump != null) {
+                outputPump.join();
+            }
+            if (errorPump != null) {
+                errorPump.join();
+            }
+            if (inputPump != null) {
+                inputPump.join();
+            }
+            times.since(PhaseTimes.Phase.OUTPUT, phaseStart);
+            ShellMetrics.get().redirected(redirectedSize(directory, redirection, false) - redirectedBefore);
 
-            String stdout = output.length() > 0 ? output.substring(0, output.length() - 1) : "";
-            String stderr = errors.length() > 0 ? errors.substring(0, errors.length() - 1) : "";
+            return ExecutionResult.ofExitCode(exitCode);
 
-            return new ExecutionResult(stdout, stderr, exitCode);
+        } catch (IOException | InterruptedException e) {
+            return failRedirected(directory, redirection, out, err, "Error executing command: " + e.getMessage(), 1);
+        } finally {
+            if (input != null) {
+                input.close();
+            }
+        }
+    }
 
+    /**
+     * Ejecuta un comando externo leyendo su entrada estándar de {@code in}, como haría un builtin.
+     * Si {@code in} es la entrada del shell el proceso la hereda; si no, se copia en un hilo virtual.
+     * Lo usan 'command' y las utilidades nativas para delegar en el ejecutable del mismo nombre.
+     *
+     * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
+     * @param in Entrada estándar del comando (no se cierra).
+     * @param out Destino de la salida estándar.
+     * @param err Destino de la salida de error.
+     * @return ExecutionResult con solo el código de retorno.
+     */
+    public ExecutionResult execute(List<String> commandArgs, InputStream in, OutputStream out, OutputStream err) {
+        String commandName = commandArgs.get(0);
+        if (findExecutable(commandName) == null) {
+            return fail(err, commandName + ": command not found", 127);
+        }
+        try {
+            ProcessBuilder pb = createProcessBuilder(commandArgs, workingDirectory.get());
+            inheritInput(pb, in);
+            Process process = start(pb);
+            pumpInput(process, in, commandName);
+            StreamPump errorPump = new StreamPump(process.getErrorStream(), err).start("stderr-" + commandName);
+            // La salida se copia en el hilo que llama: si es una tubería entre builtins
+            // (PipedOutputStream), el lector falla en cuanto termina el hilo que escribía
+            new StreamPump(process.getInputStream(), out).run();
+            ProcessWaitEvent waitEvent = beginWait();
+            int exitCode = process.waitFor();
+            commitWait(waitEvent, commandArgs, exitCode);
+            errorPump.join();
+            return ExecutionResult.ofExitCode(exitCode);
         } catch (IOException | InterruptedException e) {
-            return new ExecutionResult(null, "Error executing command: " + e.getMessage(), 1);
+            return fail(err, "Error executing command: " + e.getMessage(), 1);
+        }
+    }
+
+    /**
+     * @return Redirección con la que el proceso lee {@code in} directamente: la entrada del shell
+     *         heredada o el archivo de una {@link InheritableInput}; null si hay que copiarla.
+     */
+    private static ProcessBuilder.Redirect directInput(InputStream in) {
+        if (in == System.in) {
+            return ProcessBuilder.Redirect.INHERIT;
+        }
+        if (in instanceof InheritableInput inheritable && inheritable.file() != null) {
+            return ProcessBuilder.Redirect.from(inheritable.file());
+        }
+        return null;
+    }
+
+    /**
+     * Configura la entrada de un proceso que lee {@code in}, si puede leerla directamente.
+     * Tras arrancarlo hay que llamar a {@link #pumpInput(Process, InputStream, String)}.
+     */
+    static void inheritInput(ProcessBuilder builder, InputStream in) {
+        ProcessBuilder.Redirect redirect = directInput(in);
+        if (redirect != null) {
+            builder.redirectInput(redirect);
+        }
+    }
+
+    /**
+     * Copia {@code in} a la entrada de un proceso arrancado y la cierra al acabar, para que el
+     * proceso reciba EOF. Si el proceso ya lee {@code in} directamente no hace nada.
+     * @return Copia en curso, o null si no hace falta.
+     */
+    static StreamPump pumpInput(Process process, InputStream in, String commandName) {
+        if (directInput(in) != null) {
+            return null;
+        }
+        // No se espera a esta copia: si el proceso termina sin leerlo todo, quien llama cierra
+        // su entrada y la copia termina. Tampoco se pide más entrada una vez que ha terminado,
+        // para no consumir la que le corresponde al comando siguiente.
+        return new StreamPump(new FilterInputStream(in) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return process.isAlive() ? super.read(b, off, len) : -1;
+            }
+
+            @Override
+            public void close() {
+                // La entrada pertenece a quien llama
+            }
+        }, process.getOutputStream(), true).start("stdin-" + commandName);
+    }
+
+    /**
+     * Crea el ProcessBuilder para un comando externo con el entorno actual del shell.
+     * @param commandArgs Lista de argumentos, donde el primero es el nombre del comando.
+     * @param directory Directorio en el que arranca el proceso.
+     * @return ProcessBuilder listo para configurar sus redirecciones.
+     */
+    public ProcessBuilder createProcessBuilder(List<String> commandArgs, Path directory) {
+        // Usar los argumentos originales tal cual: ProcessBuilder buscará el ejecutable en el PATH
+        List<String> command = commandArgs;
+        String commandName = commandArgs.get(0);
+        if (!environment.hasInheritedPath() && commandName.indexOf('/') < 0) {
+            // ...salvo que el PATH del shell haya cambiado: ProcessBuilder solo conoce el de la JVM
+            File executable = pathCache.snapshot().get(commandName);
+            if (executable != null) {
+                command = new ArrayList<>(commandArgs);
+                command.set(0, executable.getPath());
+            }
+        }
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory.toFile());
+        environment.snapshot().applyTo(builder);
+        return builder;
+    }
+
+    /**
+     * Indica si un comando puede resolverse como ejecutable externo.
+     * @param commandName Nombre del comando.
+     * @return true si está en el PATH.
+     */
+    public boolean canExecute(String commandName) {
+        return findExecutable(commandName) != null;
+    }
+
+    /**
+     * Busca un comando en el índice del PATH del shell.
+     * @param commandName Nombre del comando.
+     * @return Archivo ejecutable, o null si no está en el PATH.
+     */
+    public File findExecutable(String commandName) {
+        return PathUtils.findExecutable(pathCache, commandName);
+    }
+
+    /**
+     * Arranca varios comandos externos a la vez, conectando la salida de cada uno con la
+     * entrada del siguiente mediante tuberías del sistema operativo. Los datos pasan de un
+     * proceso a otro sin atravesar la JVM.
+     * 
+     * @param builders ProcessBuilders de cada etapa, en orden.
+     * @return Procesos arrancados, en el mismo orden.
+     * @throws IOException Si algún proceso no puede arrancarse.
+     */
+    public List<Process> startPipeline(List<ProcessBuilder> builders) throws IOException {
+        ProcessStartEvent event = beginStart();
+        long start = System.nanoTime();
+        List<Process> processes = ProcessBuilder.startPipeline(builders);
+        ShellMetrics metrics = ShellMetrics.get();
+        metrics.getSpawnLatency().record(System.nanoTime() - start);
+        if (event != null && endStart(event)) {
+            StringBuilder names = new StringBuilder();
+            for (ProcessBuilder builder : builders) {
+                names.append(names.length() > 0 ? " | " : "").append(builder.command().get(0));
+            }
+            event.commandName = names.toString();
+            event.argumentCount = builders.size();
+            event.commit();
+        }
+        for (int i = 0; i < processes.size(); i++) {
+            metrics.externalExecuted();
+        }
+        return processes;
+    }
+
+    private static Process start(ProcessBuilder builder) throws IOException {
+        ProcessStartEvent event = beginStart();
+        long start = System.nanoTime();
+        Process process = builder.start();
+        ShellMetrics.get().getSpawnLatency().record(System.nanoTime() - start);
+        ShellMetrics.get().externalExecuted();
+        if (event != null && endStart(event)) {
+            event.commandName = builder.command().get(0);
+            event.argumentCount = builder.command().size() - 1;
+            event.commit();
+        }
+        return process;
+    }
+
+    private static ProcessStartEvent beginStart() {
+        if (!ShellRecording.isEnabled()) {
+            return null;
+        }
+        ProcessStartEvent event = new ProcessStartEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return true si el evento de arranque hay que registrarlo.
+     */
+    private static boolean endStart(ProcessStartEvent event) {
+        event.end();
+        return event.shouldCommit();
+    }
+
+    /**
+     * Empieza a medir la espera de un proceso, si hay una grabación JFR en curso.
+     * @return Evento empezado, o null si no se está grabando.
+     */
+    static ProcessWaitEvent beginWait() {
+        if (!ShellRecording.isEnabled()) {
+            return null;
+        }
+        ProcessWaitEvent event = new ProcessWaitEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Registra en JFR el fin de la espera de un proceso.
+     * @param event Evento empezado al arrancar la espera, o null si no se está grabando.
+     * @param commandArgs Argumentos del comando.
+     * @param exitCode Código de salida del proceso.
+     */
+    static void commitWait(ProcessWaitEvent event, List<String> commandArgs, int exitCode) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandName = commandArgs.get(0);
+            event.argumentCount = commandArgs.size() - 1;
+            event.exitCode = exitCode;
+            event.commit();
+        }
+    }
+
+    /**
+     * Suma el tamaño de los archivos a los que un comando redirige su salida. Los hijos escriben
+     * directamente en ellos, así que los bytes redirigidos se obtienen como diferencia de tamaños.
+     * @param directory Directorio contra el que se resuelven las rutas de los archivos.
+     * @param redirection Redirecciones del comando.
+     * @param beforeStart true antes de arrancar: los archivos con '>' cuentan como vacíos (se truncan).
+     * @return Bytes en los archivos redirigidos.
+     */
+    static long redirectedSize(Path directory, RedirectionInfo redirection, boolean beforeStart) {
+        long size = 0;
+        RedirectionInfo.Target stdout = redirection.getStdout();
+        RedirectionInfo.Target stderr = redirection.getStderr();
+        if (stdout.isOutputFile() && (!beforeStart || stdout.isAppend())) {
+            size += RedirectionFiles.sizeOf(directory, stdout.getValue());
+        }
+        if (stderr.isOutputFile() && !redirection.mergesStderr() && (!beforeStart || stderr.isAppend())) {
+            size += RedirectionFiles.sizeOf(directory, stderr.getValue());
+        }
+        return size;
+    }
+
+    /**
+     * Informa de un error antes de arrancar el proceso. Como en bash, los archivos de
+     * redirección se crean igualmente y el mensaje va al destino de stderr (que con '2>&1'
+     * puede ser la salida estándar).
+     */
+    private static ExecutionResult failRedirected(Path directory, RedirectionInfo redirection, OutputStream out,
+                                                  OutputStream err, String message, int exitCode) {
+        RedirectionInfo.Target stdout = redirection.getStdout();
+        RedirectionInfo.Target stderr = redirection.getStderr();
+        try {
+            if (stdout.isOutputFile() && !redirection.mergesStderr()) {
+                RedirectionFiles.write(directory, stdout.getValue(), new byte[0], stdout.isAppend());
+            }
+            if (stderr.isOutputFile()) {
+                RedirectionFiles.write(directory, stderr.getValue(), (message + "\n").getBytes(StandardCharsets.UTF_8),
+                        stderr.isAppend());
+                return ExecutionResult.ofExitCode(exitCode);
+            }
+        } catch (IOException e) {
+            return fail(err, "Error: cannot write to file: " + e.getMessage(), exitCode);
+        }
+        OutputStream sink = OutputRedirection.sink(stderr, out, err);
+        return sink != null ? fail(sink, message, exitCode) : ExecutionResult.ofExitCode(exitCode);
+    }
+
+    private static ExecutionResult fail(OutputStream err, String message, int exitCode) {
+        try {
+            err.write((message + "\n").getBytes(StandardCharsets.UTF_8));
+            err.flush();
+        } catch (IOException e) {
+            // Nada más que hacer si el destino de errores no acepta escritura
         }
+        return ExecutionResult.ofExitCode(exitCode);
     }
 }
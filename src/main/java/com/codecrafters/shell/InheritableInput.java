@@ -0,0 +1,17 @@
+package com.codecrafters.shell;
+
+import java.io.File;
+
+/**
+ * Entrada estándar que un proceso hijo puede abrir por su cuenta en lugar de recibirla copiada
+ * desde el shell. Una copia tiene que leer la entrada antes de saber si el hijo la va a leer, y lo
+ * que escribe en la tubería del hijo se pierde si este termina sin leerlo; abriéndola él mismo,
+ * el hijo solo consume lo que lee, como con un descriptor heredado.
+ */
+public interface InheritableInput {
+    /**
+     * @return Archivo que da acceso a esta misma entrada (p. ej. /proc/PID/fd/0 de otro proceso),
+     *         o null si no lo hay y hay que copiarla.
+     */
+    File file();
+}
@@ -0,0 +1,116 @@
+package com.codecrafters.shell;
+
+import com.codecrafters.shell.parser.RedirectionInfo;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Entrada estándar redirigida de un comando: un archivo ('<') o un texto (documento en línea
+ * '<<' o cadena en línea '<<<').
+ * <p>
+ * A un proceso hijo el archivo se le entrega como ProcessBuilder.Redirect.from, así que lee
+ * directamente del descriptor del archivo sin que los datos pasen por la JVM. Un texto que cabe
+ * en el buffer de una tubería se escribe en la entrada del proceso desde un hilo virtual; uno
+ * mayor se vuelca antes a un archivo temporal, que el hijo lee como un '<' y que se borra en
+ * cuanto arranca, como hace bash. Los builtins leen el archivo o el texto como un flujo.
+ */
+public final class InputRedirection {
+    /** Capacidad de una tubería en Linux: escribir un texto que cabe en ella nunca bloquea. */
+    static final int PIPE_CAPACITY = 64 * 1024;
+
+    private final Path file;
+    private final byte[] text;
+    private Path temporary;
+
+    private InputRedirection(Path file, byte[] text) {
+        this.file = file;
+        this.text = text;
+    }
+
+    /**
+     * Prepara la entrada redirigida de un comando comprobando, si es un archivo, que se puede leer.
+     * @param directory Directorio contra el que se resuelve la ruta del archivo.
+     * @param redirection Redirecciones del comando.
+     * @return Entrada redirigida, o null si el comando lee la entrada del shell.
+     * @throws FileNotFoundException Si el archivo no existe o no puede leerse, con el mensaje de bash.
+     */
+    public static InputRedirection of(Path directory, RedirectionInfo redirection) throws FileNotFoundException {
+        if (redirection.getStdinText() != null) {
+            return new InputRedirection(null, redirection.getStdinText().getBytes(StandardCharsets.UTF_8));
+        }
+        if (redirection.getStdinFile() == null) {
+            return null;
+        }
+        String filename = redirection.getStdinFile();
+        Path file = directory.resolve(filename);
+        if (!Files.exists(file)) {
+            throw new FileNotFoundException(filename + ": No such file or directory");
+        }
+        if (!Files.isReadable(file)) {
+            throw new FileNotFoundException(filename + ": Permission denied");
+        }
+        return new InputRedirection(file, null);
+    }
+
+    /**
+     * Configura la entrada de un proceso antes de arrancarlo. Tras arrancarlo hay que llamar a
+     * {@link #started(Process, String)}.
+     * @param builder Constructor del proceso.
+     * @throws IOException Si no se puede crear el archivo temporal de un texto grande.
+     */
+    public void applyTo(ProcessBuilder builder) throws IOException {
+        Path source = file;
+        if (text != null && text.length > PIPE_CAPACITY) {
+            temporary = Files.createTempFile("shell-here-document-", null);
+            Files.write(temporary, text);
+            source = temporary;
+        }
+        if (source != null) {
+            builder.redirectInput(ProcessBuilder.Redirect.from(source.toFile()));
+        }
+    }
+
+    /**
+     * Completa la entrada de un proceso ya arrancado: borra el archivo temporal (el hijo ya lo
+     * tiene abierto) o empieza a escribir el texto en su entrada.
+     * @param process Proceso configurado con {@link #applyTo(ProcessBuilder)}.
+     * @param name Nombre del comando, para el hilo de la copia.
+     * @return Copia del texto en curso, que cierra la entrada del proceso al terminar, o null si
+     *         el proceso lee de un archivo.
+     */
+    public StreamPump started(Process process, String name) {
+        if (temporary != null || text == null) {
+            close();
+            return null;
+        }
+        return new StreamPump(new ByteArrayInputStream(text), process.getOutputStream(), true).start("stdin-" + name);
+    }
+
+    /**
+     * @return Flujo con la entrada para un builtin.
+     * @throws IOException Si el archivo no puede abrirse.
+     */
+    public InputStream openStream() throws IOException {
+        return text != null ? new ByteArrayInputStream(text) : Files.newInputStream(file);
+    }
+
+    /**
+     * Borra el archivo temporal, si lo hay. Hay que llamarlo si el proceso no llega a arrancar.
+     */
+    public void close() {
+        if (temporary == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException e) {
+            // Queda en el directorio temporal del sistema
+        }
+        temporary = null;
+    }
+}
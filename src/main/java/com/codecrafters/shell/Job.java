@@ -0,0 +1,79 @@
+package com.codecrafters.shell;
+
+import java.util.List;
+
+/**
+ * Trabajo lanzado en segundo plano con '&'.
+ * Agrupa la línea de comando original y la tubería en ejecución que la implementa.
+ */
+public class Job {
+    /** Estado de un trabajo tal como lo muestra 'jobs'. */
+    public enum State { RUNNING, STOPPED, DONE }
+
+    private final int id;
+    private final String commandLine;
+    private final RunningPipeline pipeline;
+    private volatile State state = State.RUNNING;
+
+    public Job(int id, String commandLine, RunningPipeline pipeline) {
+        this.id = id;
+        this.commandLine = commandLine;
+        this.pipeline = pipeline;
+    }
+
+    public int getId() { return id; }
+    public String getCommandLine() { return commandLine; }
+    public RunningPipeline getPipeline() { return pipeline; }
+    public List<Process> getProcesses() { return pipeline.getProcesses(); }
+
+    public State getState() {
+        return pipeline.isDone() ? State.DONE : state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return PID del último proceso del trabajo, o -1 si solo contiene builtins.
+     */
+    public long getPid() {
+        List<Process> processes = pipeline.getProcesses();
+        return processes.isEmpty() ? -1 : processes.get(processes.size() - 1).pid();
+    }
+
+    /**
+     * Describe el estado del trabajo con el formato de 'jobs' de bash.
+     * @param marker '+' para el trabajo actual, '-' para el anterior o ' '.
+     * @return Línea como "[1]+  Running                 sleep 10 &".
+     */
+    public String format(char marker) {
+        return format(marker, false);
+    }
+
+    /**
+     * Describe el estado del trabajo con el formato de 'jobs' (o 'jobs -l') de bash.
+     * @param marker '+' para el trabajo actual, '-' para el anterior o ' '.
+     * @param withPid true para incluir el PID, como "[1]+ 4242 Running ...".
+     * @return Línea de estado del trabajo.
+     */
+    public String format(char marker, boolean withPid) {
+        String status;
+        String suffix = "";
+        switch (getState()) {
+            case DONE:
+                int exitCode = pipeline.getCompletion().getNow(1);
+                status = exitCode == 0 ? "Done" : "Exit " + exitCode;
+                break;
+            case STOPPED:
+                status = "Stopped";
+                break;
+            default:
+                status = "Running";
+                suffix = " &";
+                break;
+        }
+        String pid = withPid && getPid() >= 0 ? " " + getPid() + " " : "  ";
+        return String.format("[%d]%c%s%-24s%s%s", id, marker, pid, status, commandLine, suffix);
+    }
+}
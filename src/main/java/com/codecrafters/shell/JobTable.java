@@ -0,0 +1,127 @@
+package com.codecrafters.shell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Tabla de trabajos en segundo plano del shell.
+ * Asigna los números de trabajo, sigue su estado y acumula los avisos de finalización
+ * (producidos por Process.onExit()) para mostrarlos entre prompts.
+ */
+public class JobTable {
+    private final TreeMap<Integer, Job> jobs = new TreeMap<>();
+    private final Queue<String> notices = new ConcurrentLinkedQueue<>();
+    private Job current;
+    private Job previous;
+
+    /**
+     * Registra una tubería en ejecución como nuevo trabajo.
+     * Cuando termine, se encola un aviso para el siguiente prompt (salvo que alguien lo espere antes).
+     * @param commandLine Línea de comando sin el '&' final.
+     * @param pipeline Tubería ya arrancada.
+     * @return Trabajo creado.
+     */
+    public synchronized Job add(String commandLine, RunningPipeline pipeline) {
+        int id = jobs.isEmpty() ? 1 : jobs.lastKey() + 1;
+        Job job = new Job(id, commandLine, pipeline);
+        jobs.put(id, job);
+        previous = current;
+        current = job;
+        pipeline.getCompletion().whenComplete((exitCode, failure) -> onJobDone(job));
+        return job;
+    }
+
+    private synchronized void onJobDone(Job job) {
+        if (jobs.get(job.getId()) == job) {
+            notices.add(job.format(markerOf(job)));
+            remove(job);
+        }
+    }
+
+    /**
+     * Elimina un trabajo de la tabla (p. ej. tras traerlo a primer plano con 'fg').
+     * @param job Trabajo a eliminar.
+     */
+    public synchronized void remove(Job job) {
+        jobs.remove(job.getId());
+        if (current == job) {
+            current = previous;
+            previous = null;
+        } else if (previous == job) {
+            previous = null;
+        }
+        if (current == null && !jobs.isEmpty()) {
+            current = jobs.lastEntry().getValue();
+        }
+        if (previous == null && jobs.size() > 1) {
+            for (Job candidate : jobs.values()) {
+                if (candidate != current) {
+                    previous = candidate;
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca un trabajo por especificación: '%n', '%+', '%%', '%-', 'n' o el PID de uno de sus procesos.
+     * Sin especificación devuelve el trabajo actual.
+     * @param spec Especificación del trabajo, o null.
+     * @return Trabajo si existe.
+     */
+    public synchronized Optional<Job> find(String spec) {
+        if (spec == null || spec.equals("%+") || spec.equals("%%") || spec.equals("%")) {
+            return Optional.ofNullable(current);
+        }
+        if (spec.equals("%-")) {
+            return Optional.ofNullable(previous);
+        }
+        try {
+            if (spec.startsWith("%")) {
+                return Optional.ofNullable(jobs.get(Integer.parseInt(spec.substring(1))));
+            }
+            long pid = Long.parseLong(spec);
+            for (Job job : jobs.values()) {
+                for (Process process : job.getProcesses()) {
+                    if (process.pid() == pid) {
+                        return Optional.of(job);
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Especificación no numérica: no corresponde a ningún trabajo
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return Trabajos activos ordenados por número.
+     */
+    public synchronized List<Job> list() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * @param job Trabajo de la tabla.
+     * @return '+' si es el trabajo actual, '-' si es el anterior, ' ' en otro caso.
+     */
+    public synchronized char markerOf(Job job) {
+        return job == current ? '+' : job == previous ? '-' : ' ';
+    }
+
+    /**
+     * Devuelve y vacía los avisos de trabajos terminados pendientes de mostrar.
+     * @return Avisos en orden de finalización.
+     */
+    public List<String> drainNotices() {
+        List<String> drained = new ArrayList<>();
+        String notice;
+        while ((notice = notices.poll()) != null) {
+            drained.add(notice);
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,165 @@
+package com.codecrafters.shell;
+
+import com.codecrafters.shell.parser.RedirectionInfo;
+import com.codecrafters.shell.utils.RedirectionFiles;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Salidas de un comando (stdout y stderr) según la tabla de descriptores de {@link RedirectionInfo}.
+ * <p>
+ * A un proceso hijo los archivos se le entregan como ProcessBuilder.Redirect. Si stderr comparte
+ * destino con stdout ('2>&1', '&>') se usa redirectErrorStream: el hijo escribe los dos en el
+ * mismo descriptor, así que hay un solo flujo que copiar y las líneas de ambos conservan su orden.
+ * Lo que va a un flujo estándar del shell se copia al que corresponde ('>&2' lleva stdout a la
+ * salida de error). Un builtin recibe esos mismos flujos, y el mismo objeto para dos descriptores
+ * que comparten destino, sin un buffer por descriptor. Java no permite cerrar un descriptor de un
+ * hijo, así que uno cerrado ('>&-') descarta lo que se escribe en él.
+ */
+final class OutputRedirection {
+    /**
+     * Salidas de un builtin.
+     * @param out Destino de stdout.
+     * @param err Destino de stderr (el mismo objeto que {@code out} si comparten destino).
+     */
+    record Streams(OutputStream out, OutputStream err) {
+    }
+
+    private OutputRedirection() {
+    }
+
+    /**
+     * Comprueba las redirecciones antes de ejecutar el comando, en orden, como bash: una copia de
+     * un descriptor no abierto es un error, los archivos de salida que una redirección posterior
+     * deja sin usar se crean igualmente ('> a > b' crea 'a') y los de entrada deben poder leerse.
+     * @param directory Directorio contra el que se resuelven las rutas.
+     * @param redirection Redirecciones del comando.
+     * @throws FileNotFoundException Si alguna falla, con el mensaje de bash.
+     */
+    static void prepare(Path directory, RedirectionInfo redirection) throws FileNotFoundException {
+        for (RedirectionInfo.Target file : redirection.getFiles()) {
+            if (isFinal(redirection, file)) {
+                continue;
+            }
+            Path path = directory.resolve(file.getValue());
+            if (file.isInputFile() && !Files.exists(path)) {
+                throw new FileNotFoundException(file.getValue() + ": No such file or directory");
+            }
+            if (file.isInputFile() && !Files.isReadable(path)) {
+                throw new FileNotFoundException(file.getValue() + ": Permission denied");
+            }
+            try {
+                if (file.isOutputFile()) {
+                    RedirectionFiles.write(directory, file.getValue(), new byte[0], file.isAppend());
+                }
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(file.getValue() + ": No such file or directory");
+            } catch (AccessDeniedException e) {
+                throw new FileNotFoundException(file.getValue() + ": Permission denied");
+            } catch (IOException e) {
+                throw new FileNotFoundException(file.getValue() + ": " + e.getMessage());
+            }
+        }
+        if (redirection.getError() != null) {
+            throw new FileNotFoundException(redirection.getError());
+        }
+    }
+
+    /**
+     * @param redirection Redirecciones del comando.
+     * @return true si {@link #prepare} tiene algo que hacer: archivos que no son el destino final
+     *         de ningún descriptor o una copia no válida.
+     */
+    static boolean needsPreparation(RedirectionInfo redirection) {
+        if (redirection.getError() != null) {
+            return true;
+        }
+        for (RedirectionInfo.Target file : redirection.getFiles()) {
+            if (!isFinal(redirection, file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFinal(RedirectionInfo redirection, RedirectionInfo.Target file) {
+        return file == redirection.getStdout() || file == redirection.getStderr() || file == redirection.getStdin();
+    }
+
+    /**
+     * Configura stdout y stderr de un proceso antes de arrancarlo. Los que van a un flujo estándar
+     * del shell quedan como tuberías, que hay que copiar con {@link #sink}.
+     * @param builder Constructor del proceso.
+     * @param directory Directorio contra el que se resuelven las rutas.
+     * @param redirection Redirecciones del comando.
+     */
+    static void applyTo(ProcessBuilder builder, Path directory, RedirectionInfo redirection) {
+        RedirectionInfo.Target stdout = redirection.getStdout();
+        if (stdout.getKind() != RedirectionInfo.Target.Kind.STANDARD) {
+            builder.redirectOutput(toRedirect(directory, stdout));
+        }
+        if (redirection.mergesStderr()) {
+            builder.redirectErrorStream(true);
+        } else if (redirection.getStderr().getKind() != RedirectionInfo.Target.Kind.STANDARD) {
+            builder.redirectError(toRedirect(directory, redirection.getStderr()));
+        }
+    }
+
+    private static ProcessBuilder.Redirect toRedirect(Path directory, RedirectionInfo.Target target) {
+        return target.isOutputFile()
+                ? RedirectionFiles.toRedirect(directory, target.getValue(), target.isAppend())
+                : ProcessBuilder.Redirect.DISCARD;
+    }
+
+    /**
+     * @param target Destino de stdout o stderr.
+     * @param out Salida estándar del shell (o la tubería hacia la etapa siguiente).
+     * @param err Salida de error del shell.
+     * @return Flujo del shell al que hay que copiar el destino, o null si el destino no es un
+     *         flujo estándar (el proceso escribe en su archivo o lo descarta).
+     */
+    static OutputStream sink(RedirectionInfo.Target target, OutputStream out, OutputStream err) {
+        if (target.getKind() != RedirectionInfo.Target.Kind.STANDARD) {
+            return null;
+        }
+        return target.getFd() == 2 ? err : out;
+    }
+
+    /**
+     * Abre las salidas de un builtin.
+     * @param directory Directorio contra el que se resuelven las rutas.
+     * @param redirection Redirecciones del comando.
+     * @param out Salida estándar del shell (o la tubería hacia la etapa siguiente).
+     * @param err Salida de error del shell.
+     * @param opened Lista a la que se añaden los archivos abiertos, que hay que cerrar al terminar.
+     * @return Flujos de stdout y stderr.
+     * @throws IOException Si algún archivo no puede abrirse.
+     */
+    static Streams open(Path directory, RedirectionInfo redirection, OutputStream out, OutputStream err,
+                        List<OutputStream> opened) throws IOException {
+        OutputStream stdout = open(directory, redirection.getStdout(), out, err, opened);
+        OutputStream stderr = redirection.mergesStderr() ? stdout
+                : open(directory, redirection.getStderr(), out, err, opened);
+        return new Streams(stdout, stderr);
+    }
+
+    private static OutputStream open(Path directory, RedirectionInfo.Target target, OutputStream out,
+                                     OutputStream err, List<OutputStream> opened) throws IOException {
+        OutputStream standard = sink(target, out, err);
+        if (standard != null) {
+            return standard;
+        }
+        if (!target.isOutputFile()) {
+            return OutputStream.nullOutputStream();
+        }
+        OutputStream file = RedirectionFiles.openStream(directory, target.getValue(), target.isAppend());
+        opened.add(file);
+        return file;
+    }
+}
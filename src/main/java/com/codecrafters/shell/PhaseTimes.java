@@ -0,0 +1,48 @@
+package com.codecrafters.shell;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tiempo que el propio shell dedica a cada fase de la ejecución de una tubería.
+ * Lo rellenan Shell, ExternalCommandExecutor y PipelineExecutor, y lo muestra 'time'.
+ * Las fases de una tubería se acumulan entre etapas; se pueden registrar desde varios hilos.
+ */
+public class PhaseTimes {
+    /**
+     * Fases medidas, en el orden en que ocurren.
+     */
+    public enum Phase {
+        /** Análisis de la línea. */
+        PARSE,
+        /** Resolución de cada comando como builtin o ejecutable del PATH. */
+        RESOLVE,
+        /** Preparación de redirecciones y arranque de procesos. */
+        SPAWN,
+        /** Espera a que terminen los procesos (o ejecución de los builtins). */
+        WAIT,
+        /** Vaciado de la salida pendiente y cierre de los archivos de redirección. */
+        OUTPUT
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+
+    /**
+     * Suma a una fase el tiempo transcurrido desde {@code startNanos}.
+     * @param phase Fase medida.
+     * @param startNanos Valor de System.nanoTime() al empezar la fase.
+     * @return Valor actual de System.nanoTime(), para encadenar la fase siguiente.
+     */
+    public long since(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        add(phase, now - startNanos);
+        return now;
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        nanos.addAndGet(phase.ordinal(), elapsedNanos);
+    }
+
+    public long get(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+}
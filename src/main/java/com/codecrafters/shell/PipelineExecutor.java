@@ -0,0 +1,419 @@
+package com.codecrafters.shell;
+
+import com.codecrafters.shell.jfr.ProcessWaitEvent;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import com.codecrafters.shell.parser.Pipeline;
+import com.codecrafters.shell.parser.RedirectionInfo;
+import com.codecrafters.shell.parser.SimpleCommand;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Ejecutor de tuberías ('cmd1 | cmd2 | cmd3').
+ * Las etapas externas consecutivas se arrancan juntas con ProcessBuilder.startPipeline,
+ * así que sus datos van de proceso a proceso por el kernel. Las etapas builtin corren en
+ * hilos virtuales y se conectan con tuberías en memoria de tamaño acotado.
+ */
+public class PipelineExecutor {
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+    private static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().start(task);
+
+    private final CommandRegistry registry;
+    private final ExternalCommandExecutor executor;
+    private final WorkingDirectory workingDirectory;
+
+    public PipelineExecutor(CommandRegistry registry, ExternalCommandExecutor executor, WorkingDirectory workingDirectory) {
+        this.registry = registry;
+        this.executor = executor;
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * Ejecuta una tubería con la entrada vacía y espera a que terminen todas sus etapas.
+     *
+     * @param pipeline Tubería a ejecutar.
+     * @param out Destino de la salida estándar de la última etapa.
+     * @param err Destino de la salida de error de todas las etapas.
+     * @return Código de salida de la última etapa.
+     */
+    public int execute(Pipeline pipeline, OutputStream out, OutputStream err) {
+        return execute(pipeline, InputStream.nullInputStream(), out, err, new PhaseTimes());
+    }
+
+    /**
+     * Ejecuta una tubería, espera a que terminen todas sus etapas y acumula el tiempo de cada fase.
+     *
+     * @param pipeline Tubería a ejecutar.
+     * @param in Entrada estándar de la primera etapa; no se cierra.
+     * @param out Destino de la salida estándar de la última etapa.
+     * @param err Destino de la salida de error de todas las etapas.
+     * @param times Acumulador de los tiempos de cada fase.
+     * @return Código de salida de la última etapa.
+     */
+    public int execute(Pipeline pipeline, InputStream in, OutputStream out, OutputStream err, PhaseTimes times) {
+        try {
+            return start(pipeline, in, out, err, times).waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 130;
+        }
+    }
+
+    /**
+     * Arranca todas las etapas de una tubería sin esperar a que terminen.
+     * El fin de cada proceso se observa con Process.onExit() y los flujos se copian en hilos
+     * virtuales, así que una tubería en segundo plano no ocupa ningún hilo de plataforma.
+     * La primera etapa lee una entrada vacía, como un trabajo en segundo plano de bash sin
+     * control de trabajos.
+     *
+     * @param pipeline Tubería a ejecutar.
+     * @param out Destino de la salida estándar de la última etapa.
+     * @param err Destino de la salida de error de todas las etapas.
+     * @return Tubería en ejecución.
+     */
+    public RunningPipeline start(Pipeline pipeline, OutputStream out, OutputStream err) {
+        return start(pipeline, InputStream.nullInputStream(), out, err, new PhaseTimes());
+    }
+
+    /**
+     * Arranca todas las etapas de una tubería sin esperar a que terminen, acumulando en
+     * {@code times} la resolución y el arranque ahora, y la espera y el vaciado al completarse.
+     *
+     * @param pipeline Tubería a ejecutar.
+     * @param in Entrada estándar de la primera etapa; no se cierra.
+     * @param out Destino de la salida estándar de la última etapa.
+     * @param err Destino de la salida de error de todas las etapas.
+     * @param times Acumulador de los tiempos de cada fase.
+     * @return Tubería en ejecución.
+     */
+    public RunningPipeline start(Pipeline pipeline, InputStream in, OutputStream out, OutputStream err, PhaseTimes times) {
+        long phaseStart = System.nanoTime();
+        long resolveBefore = times.get(PhaseTimes.Phase.RESOLVE);
+        List<SimpleCommand> commands = pipeline.getCommands();
+        // Todas las etapas usan el directorio del momento del arranque, aunque luego cambie
+        Path directory = workingDirectory.get();
+        List<CompletableFuture<Integer>> stages = new ArrayList<>();
+        List<Process> processes = new ArrayList<>();
+        List<StreamPump> pumps = new ArrayList<>();
+        List<OutputStream> openedFiles = new ArrayList<>();
+        // Redirecciones de las etapas externas, con el tamaño previo de sus archivos
+        Map<RedirectionInfo, Long> fileRedirections = new LinkedHashMap<>();
+        InputStream upstream = null;
+        ShellMetrics.get().pipelineExecuted();
+
+        try {
+            int i = 0;
+            while (i < commands.size()) {
+                SimpleCommand command = commands.get(i);
+                // Solo la primera etapa lee la entrada de la tubería; las demás leen de la anterior
+                InputStream stdin = i == 0 ? in : null;
+                if (!isExternal(command, times)) {
+                    upstream = startBuiltinStage(directory, command, i == commands.size() - 1, stdin, upstream, out, err,
+                            stages, openedFiles);
+                    i++;
+                } else {
+                    int end = externalSegmentEnd(commands, i, times);
+                    upstream = startExternalSegment(directory, commands.subList(i, end), end == commands.size(), stdin,
+                            upstream, out, err, stages, processes, pumps, fileRedirections);
+                    i = end;
+                }
+            }
+        } catch (IOException e) {
+            writeLine(err, "Error executing pipeline: " + e.getMessage());
+            stages.add(CompletableFuture.completedFuture(1));
+        }
+
+        long spawned = System.nanoTime();
+        times.add(PhaseTimes.Phase.SPAWN, spawned - phaseStart - (times.get(PhaseTimes.Phase.RESOLVE) - resolveBefore));
+
+        CompletableFuture<Integer> completion = CompletableFuture
+                .allOf(stages.toArray(new CompletableFuture<?>[0]))
+                .handleAsync((ignored, failure) -> {
+                    long outputStart = times.since(PhaseTimes.Phase.WAIT, spawned);
+                    int exitCode = finish(stages, pumps, openedFiles, err);
+                    fileRedirections.forEach((redirection, before) -> ShellMetrics.get()
+                            .redirected(ExternalCommandExecutor.redirectedSize(directory, redirection, false) - before));
+                    times.since(PhaseTimes.Phase.OUTPUT, outputStart);
+                    return exitCode;
+                }, VIRTUAL_THREADS);
+        return new RunningPipeline(processes, completion);
+    }
+
+    private static int finish(List<CompletableFuture<Integer>> stages, List<StreamPump> pumps,
+                              List<OutputStream> openedFiles, OutputStream err) {
+        int exitCode = 1;
+        try {
+            for (StreamPump pump : pumps) {
+                pump.join();
+            }
+            exitCode = stages.get(stages.size() - 1).join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (CompletionException e) {
+            writeLine(err, "Error executing pipeline: " + e.getCause().getMessage());
+        } finally {
+            for (OutputStream file : openedFiles) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    writeLine(err, "Error: cannot close redirection: " + e.getMessage());
+                }
+            }
+        }
+        return exitCode;
+    }
+
+    /**
+     * Busca el final del tramo de etapas externas que empieza en {@code start}.
+     * Un tramo se corta en la primera etapa builtin o no encontrada, después de una etapa
+     * que redirige su stdout (a un archivo o a stderr: la siguiente etapa no recibe sus datos) y
+     * antes de una que redirige su stdin (no lee de la tubería, y ProcessBuilder.startPipeline
+     * solo admite redirigir la entrada de la primera etapa) o cuyas redirecciones pueden fallar
+     * antes de arrancar (solo la primera etapa de un tramo puede quedarse sin arrancar).
+     */
+    private int externalSegmentEnd(List<SimpleCommand> commands, int start, PhaseTimes times) {
+        int end = start;
+        while (end < commands.size()) {
+            SimpleCommand command = commands.get(end);
+            RedirectionInfo redirection = command.getRedirection();
+            if (!isExternal(command, times) || (end > start
+                    && (redirection.hasStdinRedirection() || OutputRedirection.needsPreparation(redirection)))) {
+                break;
+            }
+            end++;
+            if (command.getRedirection().hasStdoutRedirection()) {
+                break;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Indica si una etapa se ejecuta como proceso externo (no es builtin y está en el PATH).
+     */
+    private boolean isExternal(SimpleCommand command, PhaseTimes times) {
+        long resolveStart = System.nanoTime();
+        boolean external = !registry.isBuiltin(command.getName()) && executor.canExecute(command.getName());
+        times.since(PhaseTimes.Phase.RESOLVE, resolveStart);
+        return external;
+    }
+
+    private InputStream startExternalSegment(Path directory, List<SimpleCommand> segment, boolean endsPipeline,
+                                             InputStream stdin, InputStream upstream, OutputStream out, OutputStream err, List<CompletableFuture<Integer>> stages,
+                                             List<Process> allProcesses, List<StreamPump> pumps,
+                                             Map<RedirectionInfo, Long> fileRedirections) throws IOException {
+        InputRedirection input;
+        try {
+            OutputRedirection.prepare(directory, segment.get(0).getRedirection());
+            input = InputRedirection.of(directory, segment.get(0).getRedirection());
+        } catch (FileNotFoundException e) {
+            // La primera etapa no llega a arrancar; las demás del tramo leen una entrada vacía
+            failStage(upstream, err, e.getMessage(), stages);
+            return segment.size() == 1 ? null : startExternalSegment(directory, segment.subList(1, segment.size()),
+                    endsPipeline, null, null, out, err, stages, allProcesses, pumps, fileRedirections);
+        }
+        List<ProcessBuilder> builders = new ArrayList<>();
+        for (SimpleCommand command : segment) {
+            ProcessBuilder builder = executor.createProcessBuilder(command.getArguments(), directory);
+            RedirectionInfo redirection = command.getRedirection();
+            if (redirection.getStdout().isOutputFile() || redirection.getStderr().isOutputFile()) {
+                fileRedirections.put(redirection, ExternalCommandExecutor.redirectedSize(directory, redirection, true));
+            }
+            OutputRedirection.applyTo(builder, directory, redirection);
+            builders.add(builder);
+        }
+        List<Process> processes;
+        try {
+            if (input != null) {
+                input.applyTo(builders.get(0));
+            } else if (stdin != null) {
+                ExternalCommandExecutor.inheritInput(builders.get(0), stdin);
+            }
+            processes = executor.startPipeline(builders);
+        } catch (IOException e) {
+            if (input != null) {
+                input.close();
+            }
+            throw e;
+        }
+        allProcesses.addAll(processes);
+
+        Process first = processes.get(0);
+        if (input != null) {
+            StreamPump inputPump = input.started(first, segment.get(0).getName());
+            if (inputPump != null) {
+                pumps.add(inputPump);
+            }
+            // La etapa no lee de la tubería: al terminar, la anterior recibe SIGPIPE si sigue escribiendo
+            if (upstream != null) {
+                first.onExit().thenRun(() -> closeQuietly(upstream));
+            }
+        } else if (upstream != null) {
+            pumps.add(new StreamPump(upstream, first.getOutputStream(), true).start("pipe-stdin-" + segment.get(0).getName()));
+        } else if (stdin != null) {
+            // Como un comando suelto, no se espera a esta copia
+            ExternalCommandExecutor.pumpInput(first, stdin, segment.get(0).getName());
+        } else {
+            first.getOutputStream().close();
+        }
+
+        // Lo que el último proceso manda a la salida estándar ('2>&1 > f' manda ahí stderr) pasa a la
+        // etapa siguiente; lo que manda a stderr ('>&2') se copia a err
+        InputStream downstream = null;
+        for (int j = 0; j < processes.size(); j++) {
+            Process process = processes.get(j);
+            RedirectionInfo redirection = segment.get(j).getRedirection();
+            boolean last = j == processes.size() - 1;
+            String name = segment.get(j).getName();
+            if (last && redirection.getStdout().getKind() == RedirectionInfo.Target.Kind.STANDARD) {
+                if (redirection.getStdout().isStandard(2)) {
+                    pumps.add(new StreamPump(process.getInputStream(), err).start("pipe-stdout-" + name));
+                } else {
+                    downstream = process.getInputStream();
+                }
+            }
+            if (!redirection.mergesStderr() && redirection.getStderr().getKind() == RedirectionInfo.Target.Kind.STANDARD) {
+                if (last && downstream == null && !redirection.getStderr().isStandard(2)) {
+                    downstream = process.getErrorStream();
+                } else {
+                    pumps.add(new StreamPump(process.getErrorStream(), OutputRedirection.sink(redirection.getStderr(), out, err))
+                            .start("pipe-stderr-" + name));
+                }
+            }
+            ProcessWaitEvent waitEvent = ExternalCommandExecutor.beginWait();
+            List<String> args = segment.get(j).getArguments();
+            stages.add(process.onExit().thenApply(exited -> {
+                int exitCode = exited.exitValue();
+                ExternalCommandExecutor.commitWait(waitEvent, args, exitCode);
+                return exitCode;
+            }));
+        }
+
+        if (downstream == null) {
+            // El último proceso del tramo escribe directamente en sus archivos
+            return null;
+        }
+        if (endsPipeline) {
+            pumps.add(new StreamPump(downstream, out).start("pipe-stdout-" + segment.get(segment.size() - 1).getName()));
+            return null;
+        }
+        return downstream;
+    }
+
+    private InputStream startBuiltinStage(Path directory, SimpleCommand command, boolean endsPipeline,
+                                          InputStream stdin, InputStream upstream, OutputStream out, OutputStream err, List<CompletableFuture<Integer>> stages,
+                                          List<OutputStream> openedFiles) throws IOException {
+        RedirectionInfo redirection = command.getRedirection();
+        InputRedirection input;
+        try {
+            OutputRedirection.prepare(directory, redirection);
+            input = InputRedirection.of(directory, redirection);
+        } catch (FileNotFoundException e) {
+            failStage(upstream, err, e.getMessage(), stages);
+            return null;
+        }
+
+        // Salida estándar de la etapa: la tubería hacia la siguiente, si algún descriptor va a ella
+        OutputStream pipeOut = null;
+        InputStream downstream = null;
+        if (!endsPipeline && writesToStandardOutput(redirection)) {
+            PipedInputStream pipe = new PipedInputStream(PIPE_BUFFER_SIZE);
+            pipeOut = new PipedOutputStream(pipe);
+            downstream = pipe;
+        }
+        OutputRedirection.Streams streams = OutputRedirection.open(directory, redirection,
+                pipeOut != null ? pipeOut : out, err, openedFiles);
+        OutputStream stageOut = streams.out();
+        OutputStream stageErr = streams.err();
+        OutputStream closeStageOut = pipeOut;
+        InputStream pipeIn = upstream != null ? upstream
+                : stdin != null ? borrowed(stdin) : InputStream.nullInputStream();
+        // Con su entrada redirigida la etapa no lee de la tubería, que se cierra igualmente al terminar
+        InputStream stageIn = input != null ? input.openStream() : pipeIn;
+        InputStream unread = input != null ? pipeIn : null;
+        List<String> args = command.getArguments();
+        stages.add(CompletableFuture.supplyAsync(() -> {
+            try {
+                return registry.execute(command.getName(), args.subList(1, args.size()), stageIn, stageOut, stageErr);
+            } finally {
+                if (closeStageOut != null) {
+                    closeQuietly(closeStageOut);
+                }
+                // Si el builtin no consumió su entrada, la etapa anterior recibe EOF/SIGPIPE
+                closeQuietly(stageIn);
+                if (unread != null) {
+                    closeQuietly(unread);
+                }
+            }
+        }, VIRTUAL_THREADS));
+        return downstream;
+    }
+
+    /**
+     * Registra una etapa que no puede arrancar porque su entrada no se puede leer: termina con 1
+     * sin leer de la tubería, y la etapa siguiente recibe una entrada vacía.
+     */
+    private static void failStage(InputStream upstream, OutputStream err, String message,
+                                  List<CompletableFuture<Integer>> stages) {
+        writeLine(err, message);
+        if (upstream != null) {
+            closeQuietly(upstream);
+        }
+        stages.add(CompletableFuture.completedFuture(1));
+    }
+
+    /**
+     * Indica si stdout o stderr de una etapa van a su salida estándar, es decir, a la etapa siguiente.
+     */
+    private static boolean writesToStandardOutput(RedirectionInfo redirection) {
+        return isStandardOutput(redirection.getStdout()) || isStandardOutput(redirection.getStderr());
+    }
+
+    private static boolean isStandardOutput(RedirectionInfo.Target target) {
+        return target.getKind() == RedirectionInfo.Target.Kind.STANDARD && !target.isStandard(2);
+    }
+
+    /**
+     * @return Vista de {@code in} que la etapa puede cerrar sin cerrar la entrada de quien llama.
+     */
+    private static InputStream borrowed(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+                // La entrada pertenece a quien llama
+            }
+        };
+    }
+
+    private static void closeQuietly(Closeable stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // Ya cerrado por el otro extremo
+        }
+    }
+
+    private static void writeLine(OutputStream stream, String text) {
+        try {
+            stream.write((text + "\n").getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        } catch (IOException e) {
+            // Destino cerrado (p. ej. la etapa siguiente ya terminó)
+        }
+    }
+}
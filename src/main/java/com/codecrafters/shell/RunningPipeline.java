@@ -0,0 +1,39 @@
+package com.codecrafters.shell;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tubería en ejecución: los procesos que arrancó y un futuro que se completa con el
+ * código de salida de la última etapa cuando todas las etapas y sus flujos han terminado.
+ */
+public class RunningPipeline {
+    private final List<Process> processes;
+    private final CompletableFuture<Integer> completion;
+
+    public RunningPipeline(List<Process> processes, CompletableFuture<Integer> completion) {
+        this.processes = processes;
+        this.completion = completion;
+    }
+
+    public List<Process> getProcesses() { return processes; }
+    public CompletableFuture<Integer> getCompletion() { return completion; }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Espera a que la tubería termine.
+     * @return Código de salida de la última etapa.
+     * @throws InterruptedException Si el hilo actual es interrumpido.
+     */
+    public int waitFor() throws InterruptedException {
+        try {
+            return completion.get();
+        } catch (ExecutionException e) {
+            return 1;
+        }
+    }
+}
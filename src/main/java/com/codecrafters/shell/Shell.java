@@ -1,46 +1,164 @@
 package com.codecrafters.shell;
 
 import com.codecrafters.shell.commands.*;
+import com.codecrafters.shell.glob.GlobExpander;
+import com.codecrafters.shell.history.HistorySearchWidget;
+import com.codecrafters.shell.history.HistoryStore;
+import com.codecrafters.shell.history.PersistentHistory;
+import com.codecrafters.shell.jfr.LineReadEvent;
+import com.codecrafters.shell.jfr.RedirectionSetupEvent;
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import com.codecrafters.shell.parser.CommandList;
 import com.codecrafters.shell.parser.CommandParser;
+import com.codecrafters.shell.parser.Pipeline;
 import com.codecrafters.shell.parser.RedirectionInfo;
+import com.codecrafters.shell.parser.SimpleCommand;
+import com.codecrafters.shell.parser.SyntaxException;
+import com.codecrafters.shell.utils.CpuTimes;
+import com.codecrafters.shell.utils.PathCache;
 import com.codecrafters.shell.utils.PathUtils;
+import com.codecrafters.shell.utils.StartupTimer;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Clase principal que orquesta el ciclo de vida del shell.
  * Maneja la lectura de comandos, parseo, ejecución y redirección de entrada/salida.
  */
 public class Shell {
+    /**
+     * Variable que desactiva las utilidades nativas ('cat', 'grep'...) con el valor 0 y activa
+     * también las opcionales ('find', 'du') con el valor 'all'.
+     */
+    private static final String NATIVE_UTILS_VARIABLE = "SHELL_NATIVE_UTILS";
+
     private final CommandRegistry registry;
     private final CommandParser parser;
     private final ExternalCommandExecutor executor;
+    private final PipelineExecutor pipelineExecutor;
+    private final JobTable jobTable;
+    private final HistoryStore history;
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+    private final GlobExpander globs;
+    private final PathCache pathCache;
+    private final InputStream stdin;
+    private final PrintStream stdout;
+    private final PrintStream stderr;
+    /** Si el shell es el proceso ('exit' termina la JVM) o una sesión del daemon. */
+    private final boolean ownsProcess;
+    private volatile boolean exited;
+    private int lastExitCode = 0;
 
     /**
      * Constructor que inicializa los componentes del shell y registra los comandos builtin.
      */
     public Shell() {
+        this(new Environment(), Paths.get("").toAbsolutePath(), PathUtils.getPathCache(),
+                System.in, System.out, System.err, true);
+    }
+
+    /**
+     * Crea un shell dentro de un proceso que no es suyo (una sesión del daemon), con su propio
+     * entorno, directorio y flujos estándar. 'exit' termina la sesión en lugar de la JVM.
+     * @param environment Variables de la sesión.
+     * @param directory Directorio de trabajo inicial, absoluto.
+     * @param pathCache Índice del PATH de la sesión.
+     * @param stdin Entrada estándar.
+     * @param stdout Salida estándar.
+     * @param stderr Salida de error.
+     */
+    public Shell(Environment environment, Path directory, PathCache pathCache,
+                 InputStream stdin, PrintStream stdout, PrintStream stderr) {
+        this(environment, directory, pathCache, stdin, stdout, stderr, false);
+    }
+
+    private Shell(Environment environment, Path directory, PathCache pathCache,
+                  InputStream stdin, PrintStream stdout, PrintStream stderr, boolean ownsProcess) {
         this.registry = new CommandRegistry();
         this.parser = new CommandParser();
-        this.executor = new ExternalCommandExecutor();
+        this.environment = environment;
+        this.pathCache = pathCache;
+        this.stdin = stdin;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.ownsProcess = ownsProcess;
+        // Un PATH nuevo se reindexa en la siguiente búsqueda
+        environment.addListener((name, value) -> {
+            if (name.equals("PATH")) {
+                pathCache.setPath(value);
+            } else if (name.equals(NATIVE_UTILS_VARIABLE)) {
+                registry.setUtilitiesEnabled(!"0".equals(value), "all".equals(value));
+            }
+        });
+        String nativeUtils = environment.get(NATIVE_UTILS_VARIABLE);
+        registry.setUtilitiesEnabled(!"0".equals(nativeUtils), "all".equals(nativeUtils));
+        this.workingDirectory = new WorkingDirectory(environment, directory);
+        this.executor = new ExternalCommandExecutor(environment, workingDirectory, pathCache);
+        this.globs = new GlobExpander(workingDirectory::get);
+        this.pipelineExecutor = new PipelineExecutor(registry, executor, workingDirectory);
+        this.jobTable = new JobTable();
+        this.history = HistoryStore.fromEnvironment(environment::get);
         initializeCommands();
     }
 
     private void initializeCommands() {
-        registry.register(new ExitCommand());
+        registry.register(new ExitCommand(this::exit));
         registry.register(new EchoCommand());
-        registry.register(new PwdCommand());
-        registry.register(new CdCommand());
-        registry.register(new TypeCommand(registry));
+        registry.register(new PwdCommand(workingDirectory));
+        registry.register(new CdCommand(environment, workingDirectory));
+        registry.register(new PushdCommand(environment, workingDirectory));
+        registry.register(new PopdCommand(environment, workingDirectory));
+        registry.register(new DirsCommand(environment, workingDirectory));
+        registry.register(new TypeCommand(registry, executor));
+        registry.register(new HashCommand(pathCache));
+        registry.register(new JobsCommand(jobTable));
+        registry.register(new FgCommand(jobTable));
+        registry.register(new BgCommand(jobTable));
+        registry.register(new WaitCommand(jobTable));
+        registry.register(new KillCommand(jobTable));
+        registry.register(new StatsCommand(ShellMetrics.get()));
+        registry.register(new JfrCommand(workingDirectory));
+        registry.register(new HistoryCommand(history, workingDirectory));
+        registry.register(new ParallelCommand(pipelineExecutor, parser, this::variable, globs));
+        registry.register(new ExportCommand(environment));
+        registry.register(new UnsetCommand(environment));
+        registry.register(new EnvCommand(environment, executor));
+        registry.register(new CommandCommand(registry, executor));
+        registry.registerUtility(new CatCommand(workingDirectory, executor));
+        registry.registerUtility(new HeadCommand(workingDirectory, executor));
+        registry.registerUtility(new TailCommand(workingDirectory, executor));
+        registry.registerUtility(new WcCommand(workingDirectory, executor));
+        registry.registerUtility(new GrepCommand(workingDirectory, executor));
+        registry.registerOptionalUtility(new FindCommand(workingDirectory, executor));
+        registry.registerOptionalUtility(new DuCommand(workingDirectory, executor));
+    }
+
+    /**
+     * @return Código de salida del último comando ejecutado.
+     */
+    public int getLastExitCode() {
+        return lastExitCode;
     }
 
     /**
@@ -50,103 +168,380 @@ public class Shell {
      * @throws Exception Si ocurre un error fatal durante la ejecución.
      */
     public void run() throws Exception {
-        // Prepare commands for autocompletion
-        List<String> builtinNames = new ArrayList<>(Arrays.asList("echo", "type", "exit", "pwd", "cd"));
-        List<String> pathExecutables = PathUtils.getExecutablesFromPath();
-        List<String> allCommands = new ArrayList<>(builtinNames);
-        allCommands.addAll(pathExecutables);
+        // El índice del PATH se construye en segundo plano para mostrar el prompt cuanto antes
+        pathCache.buildAsync();
+        // El historial también: el archivo se mapea mientras se prepara la terminal
+        history.loadAsync();
 
         Terminal terminal = TerminalBuilder.builder()
                 .system(true)
                 .build();
 
-        ShellCompleter completer = new ShellCompleter(allCommands);
-
-        // Configurar parser para NO procesar escapes automáticamente
-        org.jline.reader.Parser jlineParser = new org.jline.reader.impl.DefaultParser()
-                .eofOnUnclosedQuote(false)
-                .eofOnEscapedNewLine(false)
-                .escapeChars(null);  // Deshabilitar procesamiento de escapes
+        ShellCompleter completer = new ShellCompleter(registry.getNames(), pathCache, workingDirectory);
 
         LineReader reader = LineReaderBuilder.builder()
                 .terminal(terminal)
                 .completer(completer)
-                .parser(jlineParser)
+                .parser(new ShellLineParser())
+                .history(new PersistentHistory(history))
+                .option(LineReader.Option.HISTORY_IGNORE_DUPS, true)
                 .variable("columns", 80)
                 .build();
+        HistorySearchWidget.install(reader, history);
+
+        // JMX se carga en segundo plano para no retrasar el primer prompt
+        Thread.ofVirtual().name("metrics-jmx").start(ShellMetrics.get()::registerMBean);
 
         while (true) {
+            printJobNotices();
+
             String input;
+            LineReadEvent readEvent = beginLineRead();
             try {
+                StartupTimer.reportOnce("first prompt (interactive mode)");
                 input = reader.readLine("$ ");
             } catch (Exception e) {
                 break;
             }
+            commitLineRead(readEvent, input);
 
             if (input == null || input.trim().isEmpty()) {
                 continue;
             }
 
-            RedirectionInfo redirectInfo = parser.parseRedirection(input);
-            String commandInput = redirectInfo.getCommand();
+            // Las líneas de los documentos en línea se piden con el prompt secundario, como bash
+            input = parser.readHereDocuments(input, () -> {
+                try {
+                    return reader.readLine("> ");
+                } catch (Exception e) {
+                    return null;
+                }
+            });
+            executeLine(input);
+        }
+        
+        // Close terminal if needed, though JLine usually handles it.
+    }
+
+    /**
+     * Ejecuta el shell sin terminal según sus argumentos: '-c "comando"', la ruta de un script
+     * (relativa al directorio de trabajo) o, sin argumentos, las líneas de la entrada estándar.
+     *
+     * @param args Argumentos de la línea de comandos.
+     * @return Código de salida del último comando ejecutado, 127 si el script no existe o 2 si
+     *         falta el comando de '-c'.
+     * @throws IOException Si falla la lectura del script.
+     */
+    public int runArguments(List<String> args) throws IOException {
+        if (!args.isEmpty() && args.get(0).equals("-c")) {
+            if (args.size() < 2) {
+                stderr.println("-c: option requires an argument");
+                return 2;
+            }
+            return runScript(new BufferedReader(new StringReader(args.get(1))));
+        }
+        if (!args.isEmpty()) {
+            Path scriptPath = workingDirectory.resolve(args.get(0));
+            if (!Files.isReadable(scriptPath)) {
+                stderr.println(args.get(0) + ": No such file or directory");
+                return 127;
+            }
+            try (BufferedReader script = Files.newBufferedReader(scriptPath, StandardCharsets.UTF_8)) {
+                return runScript(script);
+            }
+        }
+        return runScript(new BufferedReader(new InputStreamReader(stdin)));
+    }
+
+    /**
+     * Ejecuta un script de forma no interactiva: lee las líneas con un lector simple, sin
+     * construir la terminal de JLine ni el índice de autocompletado.
+     * Las líneas vacías y los comentarios ('#') se ignoran. Las líneas que siguen a un '<<' son el
+     * cuerpo del documento en línea, no comandos.
+     * 
+     * @param reader Fuente de las líneas del script (archivo, -c o stdin).
+     * @return Código de salida del último comando ejecutado.
+     * @throws IOException Si falla la lectura del script.
+     */
+    public int runScript(BufferedReader reader) throws IOException {
+        while (!exited) {
+            LineReadEvent readEvent = beginLineRead();
+            String input = reader.readLine();
+            commitLineRead(readEvent, input);
+            if (input == null) {
+                break;
+            }
 
-            List<String> args = parser.parseArguments(commandInput);
-            if (args.isEmpty()) {
+            String trimmed = input.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
                 continue;
             }
+            StartupTimer.reportOnce("first command (script mode)");
+            executeLine(parser.readHereDocuments(input, reader::readLine));
+            printJobNotices();
+        }
+        return lastExitCode;
+    }
+
+    private static LineReadEvent beginLineRead() {
+        if (!ShellRecording.isEnabled()) {
+            return null;
+        }
+        LineReadEvent event = new LineReadEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commitLineRead(LineReadEvent event, String input) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = input != null ? input.length() : 0;
+            event.commit();
+        }
+    }
 
-            String commandName = args.get(0);
-            List<String> commandArgs = args.subList(1, args.size());
+    /**
+     * Parsea y ejecuta una línea de comando completa.
+     * Las tuberías separadas por '&&' y '||' se ejecutan según el código de salida anterior.
+     * @param input Línea introducida por el usuario o leída del script.
+     * @return Código de salida del comando (también disponible como último código de salida).
+     */
+    public int executeLine(String input) {
+        long parseStart = System.nanoTime();
+        try {
+            return executeList(input, parseStart);
+        } finally {
+            ShellMetrics.get().getCommandLatency().record(System.nanoTime() - parseStart);
+        }
+    }
 
-            String output = null;
-            String errorOutput = null;
+    private int executeList(String input, long parseStart) {
+        CommandList list;
+        try {
+            list = parser.parse(input);
+        } catch (SyntaxException e) {
+            stderr.println(e.getMessage());
+            return lastExitCode = 2;
+        }
+        long parseNanos = System.nanoTime() - parseStart;
 
-            if (registry.isBuiltin(commandName)) {
-                try {
-                    ExecutionResult result = registry.getBuiltin(commandName).get().execute(commandArgs);
-                    output = result.stdout;
-                    errorOutput = result.stderr;
-                    if (result.exitCode != 0 && errorOutput == null) {
-                         // If exit code is non-zero and no error message, maybe we should print something?
-                         // But builtins usually return error message in stderr.
-                    }
-                } catch (Exception e) {
-                    errorOutput = "Error executing builtin: " + e.getMessage();
-                }
-            } else {
-                ExecutionResult result = executor.execute(args);
-                output = result.stdout;
-                errorOutput = result.stderr;
+        for (CommandList.Entry entry : list.getEntries()) {
+            if (exited) {
+                break;
+            }
+            if (entry.shouldRun(lastExitCode)) {
+                lastExitCode = executePipeline(entry.getPipeline().expand(this::variable, globs), parseNanos);
+                ShellMetrics.get().exited(lastExitCode);
+            }
+        }
+        return lastExitCode;
+    }
+
+    private int executePipeline(Pipeline pipeline, long parseNanos) {
+        if (pipeline.isBackground()) {
+            return startBackgroundJob(pipeline);
+        }
+
+        PhaseTimes times = new PhaseTimes();
+        times.add(PhaseTimes.Phase.PARSE, parseNanos);
+        if (!pipeline.isTimed()) {
+            return runPipeline(pipeline, times);
+        }
+
+        long start = System.nanoTime();
+        CpuTimes cpuBefore = CpuTimes.sample();
+        int exitCode = runPipeline(pipeline, times);
+        printTimeReport(System.nanoTime() - start, CpuTimes.sample().minus(cpuBefore), times);
+        return exitCode;
+    }
+
+    private int runPipeline(Pipeline pipeline, PhaseTimes times) {
+        if (pipeline.size() > 1) {
+            return pipelineExecutor.execute(pipeline, stdin, stdout, stderr, times);
+        }
+
+        SimpleCommand command = pipeline.getCommands().get(0);
+        RedirectionInfo redirectInfo = command.getRedirection();
+        List<String> args = command.getArguments();
+        if (args.isEmpty()) {
+            return lastExitCode;
+        }
+
+        if (isAssignment(args)) {
+            for (String assignment : args) {
+                int equals = assignment.indexOf('=');
+                environment.set(assignment.substring(0, equals), assignment.substring(equals + 1));
             }
+            return 0;
+        }
+
+        String commandName = args.get(0);
+        List<String> commandArgs = args.subList(1, args.size());
+
+        long resolveStart = System.nanoTime();
+        boolean builtin = registry.isBuiltin(commandName);
+        times.since(PhaseTimes.Phase.RESOLVE, resolveStart);
+        if (builtin) {
+            return executeBuiltin(commandName, commandArgs, redirectInfo, times);
+        }
+        return executeExternal(args, redirectInfo, times);
+    }
+
+    /**
+     * Termina el shell ('exit'): el proceso o, en una sesión del daemon, solo la sesión, que deja
+     * de ejecutar comandos.
+     */
+    private void exit(int code) {
+        if (ownsProcess) {
+            System.exit(code);
+        }
+        lastExitCode = code;
+        exited = true;
+    }
 
-            // Handle stdout redirection
-            if (redirectInfo.hasStdoutRedirection()) {
-                writeToFile(redirectInfo.getStdoutFile(), output == null ? "" : output, redirectInfo.isStdoutAppend());
-            } else if (output != null && !output.isEmpty()) {
-                System.out.println(output);
+    /**
+     * Valor de una variable para la expansión: las del entorno y los parámetros especiales
+     * '$?' (último código de salida), '$$' (PID del shell) y '$#' (sin argumentos posicionales).
+     */
+    private String variable(String name) {
+        switch (name) {
+            case "?":
+                return String.valueOf(lastExitCode);
+            case "$":
+                return String.valueOf(ProcessHandle.current().pid());
+            case "#":
+                return "0";
+            default:
+                return environment.get(name);
+        }
+    }
+
+    /**
+     * Indica si un comando solo tiene asignaciones ('NOMBRE=valor ...'), que definen variables del shell.
+     */
+    private static boolean isAssignment(List<String> args) {
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0 || !Environment.isValidName(arg.substring(0, equals))) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            // Handle stderr redirection
-            if (redirectInfo.hasStderrRedirection()) {
-                writeToFile(redirectInfo.getStderrFile(), errorOutput == null ? "" : errorOutput, redirectInfo.isStderrAppend());
-            } else if (errorOutput != null && !errorOutput.isEmpty()) {
-                System.err.println(errorOutput);
+    /**
+     * Muestra el resultado de 'time' en stderr con el formato de bash (real/user/sys),
+     * seguido del tiempo que el propio shell dedicó a cada fase.
+     * user y sys incluyen al shell y a los procesos hijos que terminaron durante la medida.
+     */
+    private void printTimeReport(long wallNanos, CpuTimes cpu, PhaseTimes times) {
+        StringBuilder report = new StringBuilder("\n");
+        report.append("real\t").append(formatDuration(wallNanos)).append('\n');
+        report.append("user\t").append(formatDuration(cpu.getUserNanos())).append('\n');
+        report.append("sys\t").append(formatDuration(cpu.getSystemNanos())).append('\n');
+        report.append("shell\t");
+        for (PhaseTimes.Phase phase : PhaseTimes.Phase.values()) {
+            if (phase.ordinal() > 0) {
+                report.append("  ");
             }
+            report.append(phase.name().toLowerCase(Locale.ROOT)).append(' ')
+                    .append(String.format(Locale.ROOT, "%.3fms", times.get(phase) / 1_000_000.0));
+        }
+        stderr.println(report);
+    }
+
+    private static String formatDuration(long nanos) {
+        long millis = Math.max(nanos, 0) / 1_000_000;
+        return String.format(Locale.ROOT, "%dm%d.%03ds", millis / 60_000, (millis / 1000) % 60, millis % 1000);
+    }
+
+    /**
+     * Lanza la tubería como trabajo en segundo plano y anuncia su número y PID, como bash.
+     */
+    private int startBackgroundJob(Pipeline pipeline) {
+        Job job = jobTable.add(pipeline.getText(), pipelineExecutor.start(pipeline, stdout, stderr));
+        stdout.println("[" + job.getId() + "]" + (job.getPid() >= 0 ? " " + job.getPid() : ""));
+        return 0;
+    }
+
+    /**
+     * Muestra los avisos de trabajos en segundo plano que terminaron desde el último prompt.
+     */
+    private void printJobNotices() {
+        for (String notice : jobTable.drainNotices()) {
+            stdout.println(notice);
         }
-        
-        // Close terminal if needed, though JLine usually handles it.
     }
 
-    private void writeToFile(String filename, String content, boolean append) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename, append))) {
-            if (content != null && !content.isEmpty()) {
-                writer.write(content);
-                if (!content.endsWith("\n")) {
-                    writer.write("\n");
+    /**
+     * Ejecuta un comando builtin escribiendo su salida en la terminal o, si hay redirección,
+     * directamente en el archivo destino. Con '<', '<<' o '<<<' lee del archivo o del texto en
+     * lugar de la entrada del shell. Las copias de descriptores se respetan igual que en un
+     * proceso externo: con '>&2' escribe en la salida de error y con '2>&1' los dos en el mismo flujo.
+     */
+    private int executeBuiltin(String commandName, List<String> commandArgs, RedirectionInfo redirectInfo, PhaseTimes times) {
+        InputStream in = stdin;
+        List<OutputStream> openedFiles = new ArrayList<>(2);
+        Path directory = workingDirectory.get();
+        long phaseStart = System.nanoTime();
+        RedirectionSetupEvent setupEvent = ShellRecording.isEnabled() ? new RedirectionSetupEvent() : null;
+        try {
+            if (setupEvent != null) {
+                setupEvent.begin();
+            }
+            OutputRedirection.prepare(directory, redirectInfo);
+            InputRedirection input = InputRedirection.of(directory, redirectInfo);
+            if (input != null) {
+                in = input.openStream();
+            }
+            OutputRedirection.Streams streams = OutputRedirection.open(directory, redirectInfo, stdout, stderr, openedFiles);
+            OutputStream out = streams.out();
+            OutputStream err = streams.err();
+            if (setupEvent != null) {
+                setupEvent.end();
+                if (setupEvent.shouldCommit() && (in != stdin || out != stdout || err != stderr)) {
+                    setupEvent.commandName = commandName;
+                    setupEvent.argumentCount = commandArgs.size();
+                    setupEvent.commit();
                 }
             }
+            phaseStart = times.since(PhaseTimes.Phase.SPAWN, phaseStart);
+            int exitCode = registry.execute(commandName, commandArgs, in, out, err);
+            phaseStart = times.since(PhaseTimes.Phase.WAIT, phaseStart);
+            return exitCode;
+        } catch (FileNotFoundException e) {
+            stderr.println(e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            stderr.println("Error: cannot write to file: " + e.getMessage());
+            return 1;
+        } finally {
+            if (in != stdin) {
+                closeRedirection(in);
+            }
+            for (OutputStream file : openedFiles) {
+                closeRedirection(file);
+            }
+            times.since(PhaseTimes.Phase.OUTPUT, phaseStart);
+        }
+    }
+
+    /**
+     * Ejecuta un comando externo enviando su salida directamente a la terminal.
+     * Las redirecciones a archivo las aplica el propio proceso hijo.
+     */
+    private int executeExternal(List<String> args, RedirectionInfo redirectInfo, PhaseTimes times) {
+        return executor.execute(args, redirectInfo, stdin, stdout, stderr, times).exitCode;
+    }
+
+    private void closeRedirection(Closeable stream) {
+        try {
+            stream.close();
         } catch (IOException e) {
-            System.err.println("Error: cannot write to file: " + filename);
+            stderr.println("Error: cannot close redirection: " + e.getMessage());
         }
     }
 }
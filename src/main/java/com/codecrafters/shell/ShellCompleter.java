@@ -1,36 +1,64 @@
 package com.codecrafters.shell;
 
+import com.codecrafters.shell.metrics.ShellMetrics;
+import com.codecrafters.shell.utils.DirectoryListingCache;
+import com.codecrafters.shell.utils.PathCache;
+import com.codecrafters.shell.utils.PrefixIndex;
 import org.jline.reader.Candidate;
 import org.jline.reader.Completer;
 import org.jline.reader.LineReader;
 import org.jline.reader.ParsedLine;
 
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Implementación de Completer para JLine.
- * Proporciona autocompletado para comandos builtin y ejecutables en el PATH.
+ * Proporciona autocompletado para comandos builtin y ejecutables en el PATH en posición de comando,
+ * y de archivos y directorios (relativos al directorio actual o a '~') en posición de argumento.
  * Maneja la lógica de doble tabulación para mostrar todas las opciones.
+ * Los nombres se guardan en índices de prefijos ordenados, así que cada TAB es una búsqueda
+ * binaria que devuelve las coincidencias ya ordenadas.
  */
 public class ShellCompleter implements Completer {
-    private final List<String> commands;
+    private final PrefixIndex builtins;
+    private final PrefixIndex executables;
+    private final DirectoryListingCache directoryCache = new DirectoryListingCache();
+    private final WorkingDirectory workingDirectory;
     private String lastWord = null;
     private int tabPressCount = 0;
 
     /**
-     * Crea un nuevo completer con la lista de comandos disponibles.
-     * @param commands Lista de nombres de comandos para autocompletar.
+     * Crea un nuevo completer con los comandos builtin y el índice de ejecutables del PATH.
+     * El índice de ejecutables se actualiza de forma incremental con los cambios del PathCache.
+     * Mientras el PathCache se construye en segundo plano se usa la parte ya indexada.
+     * @param builtins Nombres de los comandos builtin.
+     * @param pathCache Índice compartido de ejecutables del PATH.
+     * @param workingDirectory Directorio de trabajo del shell, base de las rutas relativas.
      */
-    public ShellCompleter(List<String> commands) {
-        this.commands = commands;
+    public ShellCompleter(Collection<String> builtins, PathCache pathCache, WorkingDirectory workingDirectory) {
+        this.builtins = new PrefixIndex(builtins);
+        this.workingDirectory = workingDirectory;
+        this.executables = new PrefixIndex();
+        pathCache.addListener(this.executables::update);
+        this.executables.update(pathCache.availableNames(), List.of());
     }
 
     @Override
     public void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+        long start = System.nanoTime();
+        try {
+            completeWord(reader, line, candidates);
+        } finally {
+            ShellMetrics.get().getCompletionLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    private void completeWord(LineReader reader, ParsedLine line, List<Candidate> candidates) {
         String word = line.word();
         if (word == null) {
             word = "";
@@ -42,42 +70,132 @@ public class ShellCompleter implements Completer {
         }
         this.tabPressCount++;
 
-        Set<String> matches = new HashSet<>();
-        for (String cmd : commands) {
-            if (cmd.startsWith(word)) {
-                matches.add(cmd);
+        if (isCommandPosition(line)) {
+            List<String> matches = mergeSorted(builtins.range(word), executables.range(word));
+            offer(reader, word, matches, matches, true, candidates);
+        } else {
+            completePath(reader, word, candidates);
+        }
+    }
+
+    /**
+     * Completa una ruta de archivo. El texto antes de la última '/' es el directorio a listar
+     * (relativo al directorio actual del shell, o al HOME si empieza por '~'); el resto es el prefijo.
+     * Los directorios se completan con '/' final y sin espacio para poder seguir escribiendo.
+     * Los nombres se entregan sin escapes: {@link ShellLineParser} escapa sus caracteres especiales
+     * al insertarlos.
+     */
+    private void completePath(LineReader reader, String word, List<Candidate> candidates) {
+        int slash = word.lastIndexOf('/');
+        String dirPart = slash >= 0 ? word.substring(0, slash + 1) : "";
+        String namePrefix = word.substring(slash + 1);
+
+        DirectoryListingCache.Listing listing;
+        try {
+            listing = directoryCache.list(resolveDirectory(dirPart));
+        } catch (IOException | InvalidPathException e) {
+            return;
+        }
+
+        List<String> values = new ArrayList<>();
+        List<String> displayed = new ArrayList<>();
+        for (String name : listing.getNames().range(namePrefix)) {
+            // Los archivos ocultos solo se ofrecen si el prefijo empieza por '.'
+            if (name.startsWith(".") && !namePrefix.startsWith(".")) {
+                continue;
             }
+            String suffix = listing.isDirectory(name) ? "/" : "";
+            values.add(dirPart + name + suffix);
+            displayed.add(name + suffix);
         }
-        
-        if (matches.isEmpty()) {
+        offer(reader, word, values, displayed, false, candidates);
+    }
+
+    private Path resolveDirectory(String dirPart) {
+        String dir = dirPart.isEmpty() ? "." : dirPart;
+        if (dir.equals("~") || dir.startsWith("~/")) {
+            dir = System.getenv("HOME") + dir.substring(1);
+        }
+        return workingDirectory.resolve(dir);
+    }
+
+    /**
+     * Una palabra está en posición de comando si es la primera de la línea o sigue a un
+     * operador que empieza un comando nuevo ('|', '&&', '||', ';', '&').
+     */
+    private static boolean isCommandPosition(ParsedLine line) {
+        int index = line.wordIndex();
+        if (index <= 0) {
+            return true;
+        }
+        String previous = line.words().get(index - 1);
+        return previous.equals("|") || previous.equals("&&") || previous.equals("||")
+                || previous.equals(";") || previous.equals("&");
+    }
+
+    /**
+     * Entrega las coincidencias a JLine con la lógica de doble TAB.
+     * @param values Texto completo a insertar por cada coincidencia, ordenado.
+     * @param displayed Texto a mostrar en el listado del segundo TAB.
+     * @param commands true si son nombres de comando (siempre completos, con espacio final).
+     */
+    private void offer(LineReader reader, String word, List<String> values, List<String> displayed,
+                       boolean commands, List<Candidate> candidates) {
+        if (values.isEmpty()) {
             return;
         }
-        
-        // Add candidates for JLine to handle completion
-        for (String match : matches) {
-            candidates.add(new Candidate(match));
+
+        if (values.size() == 1) {
+            String value = values.get(0);
+            boolean complete = commands || !value.endsWith("/");
+            candidates.add(new Candidate(value, value, null, null, null, null, complete));
+            return;
         }
 
-        if (matches.size() > 1) {
-            if (this.tabPressCount == 1) {
-                // On first press with multiple candidates, clear to ring bell
-                candidates.clear();
+        if (this.tabPressCount == 1) {
+            // On first press with multiple candidates, complete up to the longest common prefix
+            // (without a trailing space); if there is nothing to add, ring the bell
+            String commonPrefix = PrefixIndex.commonPrefix(values.get(0), values.get(values.size() - 1));
+            if (commonPrefix.length() > word.length()) {
+                candidates.add(new Candidate(commonPrefix, commonPrefix, null, null, null, null, false));
+            }
+        } else {
+            // On second press, provide all candidates but handle display manually
+            reader.getTerminal().writer().println();
+            reader.getTerminal().writer().print(String.join("  ", displayed));
+            reader.getTerminal().writer().println();
+            reader.callWidget(LineReader.REDRAW_LINE);
+            reader.getTerminal().writer().flush();
+            
+            // Reset for next completion cycle
+            this.tabPressCount = 0;
+        }
+    }
+
+    /**
+     * Fusiona dos listas ordenadas eliminando duplicados (un builtin con el mismo nombre
+     * que un ejecutable aparece una sola vez).
+     */
+    private static List<String> mergeSorted(List<String> a, List<String> b) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        if (a.isEmpty()) {
+            return b;
+        }
+        List<String> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            if (j >= b.size() || (i < a.size() && a.get(i).compareTo(b.get(j)) < 0)) {
+                merged.add(a.get(i++));
+            } else if (i >= a.size() || a.get(i).compareTo(b.get(j)) > 0) {
+                merged.add(b.get(j++));
             } else {
-                // On second press, provide all candidates but handle display manually
-                candidates.clear();
-                
-                List<String> sortedMatches = new ArrayList<>(matches);
-                Collections.sort(sortedMatches);
-                
-                reader.getTerminal().writer().println();
-                reader.getTerminal().writer().print(String.join("  ", sortedMatches));
-                reader.getTerminal().writer().println();
-                reader.callWidget(LineReader.REDRAW_LINE);
-                reader.getTerminal().writer().flush();
-                
-                // Reset for next completion cycle
-                this.tabPressCount = 0;
+                merged.add(a.get(i++));
+                j++;
             }
         }
+        return merged;
     }
 }
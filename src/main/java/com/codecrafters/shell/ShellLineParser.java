@@ -0,0 +1,115 @@
+package com.codecrafters.shell;
+
+import org.jline.reader.CompletingParsedLine;
+import org.jline.reader.ParsedLine;
+import org.jline.reader.impl.DefaultParser;
+
+import java.util.List;
+
+/**
+ * Parser de JLine para el autocompletado: separa las palabras como DefaultParser, con '\' como
+ * escape para que una palabra ya completada ('mi\ archivo') se reconozca entera, y escapa lo que
+ * se inserta con las reglas del Lexer en lugar de las de JLine. La línea aceptada no se toca.
+ * <p>
+ * Las coincidencias se comparan con la palabra sin escapes y se escapan solo al insertarlas, así
+ * que un nombre con caracteres especiales se completa igual que cualquier otro.
+ */
+final class ShellLineParser extends DefaultParser {
+    /** Caracteres que el Lexer interpreta fuera de comillas, además de los espacios. */
+    private static final String SPECIAL = "'\"\\$*?[&|;<>()";
+
+    ShellLineParser() {
+        eofOnUnclosedQuote(false);
+        eofOnEscapedNewLine(false);
+        escapeChars(null);
+    }
+
+    /**
+     * LineReader quita de la línea aceptada los caracteres de escape del parser, y el Lexer
+     * necesita la línea tal cual: para él no hay ninguno.
+     */
+    @Override
+    public boolean isEscapeChar(char ch) {
+        return false;
+    }
+
+    /**
+     * Al separar las palabras, '\' sí escapa el carácter siguiente.
+     */
+    @Override
+    public boolean isEscapeChar(CharSequence buffer, int pos) {
+        return pos >= 0 && buffer.charAt(pos) == '\\' && !isEscaped(buffer, pos);
+    }
+
+    @Override
+    public ParsedLine parse(String line, int cursor, ParseContext context) {
+        ParsedLine parsed = super.parse(line, cursor, context);
+        return parsed instanceof CompletingParsedLine completing ? new Words(completing) : parsed;
+    }
+
+    /**
+     * @return {@code text} con una '\' delante de cada carácter que el Lexer trataría como especial.
+     */
+    static String escape(CharSequence text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || SPECIAL.indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Palabras de una línea tal como las separa DefaultParser, salvo el escape de lo insertado.
+     * Si la palabra se empezó con comillas, se sustituye entera por el texto escapado.
+     */
+    private record Words(CompletingParsedLine parsed) implements CompletingParsedLine {
+        @Override
+        public CharSequence escape(CharSequence candidate, boolean complete) {
+            return ShellLineParser.escape(candidate);
+        }
+
+        @Override
+        public int rawWordCursor() {
+            return parsed.rawWordCursor();
+        }
+
+        @Override
+        public int rawWordLength() {
+            return parsed.rawWordLength();
+        }
+
+        @Override
+        public String word() {
+            return parsed.word();
+        }
+
+        @Override
+        public int wordCursor() {
+            return parsed.wordCursor();
+        }
+
+        @Override
+        public int wordIndex() {
+            return parsed.wordIndex();
+        }
+
+        @Override
+        public List<String> words() {
+            return parsed.words();
+        }
+
+        @Override
+        public String line() {
+            return parsed.line();
+        }
+
+        @Override
+        public int cursor() {
+            return parsed.cursor();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.codecrafters.shell;
+
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.jfr.StreamPumpEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Copia un flujo de entrada en uno de salida a medida que llegan los datos.
+ * Usa un buffer de tamaño fijo, así que la memoria no depende del volumen copiado.
+ * Si el destino falla (p. ej. tubería rota), sigue drenando la entrada para no bloquear al proceso hijo.
+ */
+public class StreamPump implements Runnable {
+    public static final int BUFFER_SIZE = 8192;
+
+    private final InputStream source;
+    private final OutputStream sink;
+    private final boolean closeSink;
+    private Thread thread;
+    private String name = "stream-pump";
+    private volatile long bytesCopied = 0;
+
+    public StreamPump(InputStream source, OutputStream sink) {
+        this(source, sink, false);
+    }
+
+    /**
+     * @param source Flujo a leer hasta su fin; siempre se cierra al terminar.
+     * @param sink Destino de los datos.
+     * @param closeSink true para cerrar también el destino al terminar (p. ej. la entrada de otro proceso).
+     */
+    public StreamPump(InputStream source, OutputStream sink, boolean closeSink) {
+        this.source = source;
+        this.sink = sink;
+        this.closeSink = closeSink;
+    }
+
+    /**
+     * Arranca la copia en un hilo virtual propio.
+     * La copia pasa casi todo el tiempo bloqueada en lecturas, así que un hilo virtual
+     * permite mantener muchos procesos en marcha sin un hilo de plataforma por flujo.
+     * @param name Nombre del hilo.
+     * @return Esta misma instancia.
+     */
+    public StreamPump start(String name) {
+        this.name = name;
+        thread = Thread.ofVirtual().name(name).start(this);
+        return this;
+    }
+
+    /**
+     * Espera a que la copia termine (fin del flujo de entrada).
+     * @throws InterruptedException Si el hilo actual es interrumpido.
+     */
+    public void join() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * @return Número de bytes leídos de la entrada hasta el momento.
+     */
+    public long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    @Override
+    public void run() {
+        StreamPumpEvent event = ShellRecording.isEnabled() ? new StreamPumpEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean sinkOpen = true;
+        try (InputStream in = source) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytesCopied += read;
+                if (sinkOpen) {
+                    try {
+                        sink.write(buffer, 0, read);
+                        sink.flush();
+                    } catch (IOException e) {
+                        sinkOpen = false;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // El proceso cerró su extremo de la tubería
+        } finally {
+            if (closeSink) {
+                try {
+                    sink.close();
+                } catch (IOException e) {
+                    // El lector ya cerró su extremo
+                }
+            }
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.commandName = name;
+                    event.bytes = bytesCopied;
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.codecrafters.shell;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Directorio de trabajo del shell, independiente del de la JVM (que Java no puede cambiar).
+ * Los procesos hijos lo reciben con ProcessBuilder.directory y los builtins, las redirecciones
+ * y los comodines resuelven contra él las rutas relativas. Mantiene PWD y OLDPWD en el entorno
+ * y la pila de directorios de 'pushd', 'popd' y 'dirs'.
+ * <p>
+ * Cada cambio de directorio se resuelve a su ruta real (sin enlaces simbólicos, '.' ni '..').
+ * Resolverla desde cero cuesta una llamada al sistema por componente de la ruta, así que las
+ * resoluciones recientes se guardan junto con la identidad (dispositivo e inodo) del directorio:
+ * volver a una ruta conocida solo necesita un stat para comprobar que sigue siendo el mismo.
+ */
+public class WorkingDirectory {
+    private static final int CANONICAL_CACHE_SIZE = 256;
+
+    private final Environment environment;
+    /** Pila de 'pushd': el primer elemento es el directorio que se recupera con 'popd'. */
+    private final List<Path> stack = new ArrayList<>();
+    /** Rutas reales de los últimos directorios resueltos, en orden de uso. */
+    private final Map<Path, CanonicalEntry> canonical = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CanonicalEntry> eldest) {
+            return size() > CANONICAL_CACHE_SIZE;
+        }
+    };
+    private volatile Path current;
+
+    /**
+     * Empieza en el directorio en el que se lanzó la JVM.
+     * @param environment Entorno del shell, donde se publican PWD y OLDPWD.
+     */
+    public WorkingDirectory(Environment environment) {
+        this(environment, Paths.get("").toAbsolutePath());
+    }
+
+    /**
+     * @param environment Entorno del shell, donde se publican PWD y OLDPWD.
+     * @param initial Directorio inicial, absoluto.
+     */
+    public WorkingDirectory(Environment environment, Path initial) {
+        this.environment = environment;
+        this.current = initial;
+        if (!initial.toString().equals(environment.get("PWD"))) {
+            environment.set("PWD", initial.toString());
+        }
+    }
+
+    /**
+     * @return Directorio actual, absoluto.
+     */
+    public Path get() {
+        return current;
+    }
+
+    /**
+     * @param path Ruta absoluta o relativa al directorio actual.
+     * @return Ruta absoluta (sin normalizar).
+     */
+    public Path resolve(String path) {
+        return current.resolve(path);
+    }
+
+    /**
+     * Cambia al directorio dado ('cd ruta'). El anterior queda en OLDPWD.
+     * @param path Ruta absoluta o relativa al directorio actual.
+     * @return Nuevo directorio actual.
+     * @throws IOException Si la ruta no existe (NoSuchFileException) o no es un directorio (NotDirectoryException).
+     */
+    public synchronized Path change(String path) throws IOException {
+        Path target = toDirectory(resolve(path));
+        moveTo(target);
+        return target;
+    }
+
+    /**
+     * Cambia al directorio dado y apila el actual ('pushd ruta').
+     * @param path Ruta absoluta o relativa al directorio actual.
+     * @return Nuevo directorio actual.
+     * @throws IOException Si la ruta no es un directorio accesible.
+     */
+    public synchronized Path push(String path) throws IOException {
+        Path previous = current;
+        Path target = change(path);
+        stack.add(0, previous);
+        return target;
+    }
+
+    /**
+     * Intercambia el directorio actual con el primero de la pila ('pushd' sin argumentos).
+     * @return Nuevo directorio actual.
+     * @throws IOException Si el directorio ya no es accesible; la pila no cambia.
+     */
+    public synchronized Path exchange() throws IOException {
+        Path previous = current;
+        moveTo(toDirectory(stack.get(0)));
+        stack.set(0, previous);
+        return current;
+    }
+
+    /**
+     * Rota la pila para que el elemento 'index' de {@link #stack()} pase a ser el directorio
+     * actual ('pushd +N').
+     * @param index Posición en la pila completa, mayor que 0.
+     * @return Nuevo directorio actual.
+     * @throws IOException Si el directorio ya no es accesible; la pila no cambia.
+     */
+    public synchronized Path rotate(int index) throws IOException {
+        List<Path> all = stack();
+        Path target = toDirectory(all.get(index));
+        moveTo(target);
+        stack.clear();
+        for (int i = 1; i < all.size(); i++) {
+            stack.add(all.get((index + i) % all.size()));
+        }
+        return target;
+    }
+
+    /**
+     * Quita un elemento de la pila ('popd +N'). Quitar el 0 vuelve al siguiente directorio ('popd').
+     * @param index Posición en la pila completa.
+     * @return Directorio actual tras quitarlo.
+     * @throws IOException Si el directorio al que se vuelve ya no es accesible; la pila no cambia.
+     */
+    public synchronized Path pop(int index) throws IOException {
+        if (index == 0) {
+            moveTo(toDirectory(stack.get(0)));
+            stack.remove(0);
+        } else {
+            stack.remove(index - 1);
+        }
+        return current;
+    }
+
+    /**
+     * Vacía la pila de directorios ('dirs -c').
+     */
+    public synchronized void clearStack() {
+        stack.clear();
+    }
+
+    /**
+     * @return Pila completa como la muestra 'dirs': el directorio actual y después los apilados.
+     */
+    public synchronized List<Path> stack() {
+        List<Path> all = new ArrayList<>(stack.size() + 1);
+        all.add(current);
+        all.addAll(stack);
+        return all;
+    }
+
+    private void moveTo(Path target) {
+        Path previous = current;
+        current = target;
+        environment.set("OLDPWD", previous.toString());
+        environment.set("PWD", target.toString());
+    }
+
+    /**
+     * Resuelve la ruta real de un directorio usando la caché de resoluciones recientes.
+     * Una entrada solo se usa si la ruta sigue llevando al mismo directorio (mismo inodo),
+     * así que un enlace que ahora apunta a otro sitio o un directorio recreado se resuelven de nuevo.
+     * Solo se llama con el monitor tomado.
+     */
+    private Path toDirectory(Path path) throws IOException {
+        CanonicalEntry cached = canonical.get(path);
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        if (!attributes.isDirectory()) {
+            throw new NotDirectoryException(path.toString());
+        }
+        Object key = attributes.fileKey();
+        if (cached != null && key != null && key.equals(cached.fileKey)) {
+            return cached.realPath;
+        }
+
+        Path realPath = path.toRealPath();
+        canonical.put(path, new CanonicalEntry(realPath, key));
+        return realPath;
+    }
+
+    private static final class CanonicalEntry {
+        final Path realPath;
+        final Object fileKey;
+
+        CanonicalEntry(Path realPath, Object fileKey) {
+            this.realPath = realPath;
+            this.fileKey = fileKey;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Job;
+import com.codecrafters.shell.JobTable;
+import com.codecrafters.shell.utils.ProcessSignals;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Comando builtin 'bg' que reanuda en segundo plano un trabajo detenido (SIGCONT).
+ */
+public class BgCommand implements BuiltinCommand {
+    private final JobTable jobTable;
+
+    public BgCommand(JobTable jobTable) {
+        this.jobTable = jobTable;
+    }
+
+    @Override
+    public String getName() {
+        return "bg";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        List<String> specs = args.isEmpty() ? Collections.singletonList(null) : args;
+        int exitCode = 0;
+        for (String spec : specs) {
+            Optional<Job> found = jobTable.find(spec);
+            if (found.isEmpty()) {
+                BuiltinCommand.writeLine(err, "bg: " + (spec == null ? "current" : spec) + ": no such job");
+                exitCode = 1;
+                continue;
+            }
+
+            Job job = found.get();
+            if (job.getState() != Job.State.STOPPED) {
+                BuiltinCommand.writeLine(err, "bg: job " + job.getId() + " already in background");
+                continue;
+            }
+            for (Process process : job.getProcesses()) {
+                ProcessSignals.send(process.toHandle(), "CONT");
+            }
+            job.setState(Job.State.RUNNING);
+            BuiltinCommand.writeLine(out, "[" + job.getId() + "]" + jobTable.markerOf(job) + " " + job.getCommandLine() + " &");
+        }
+        return exitCode;
+    }
+}
@@ -1,10 +1,21 @@
 package com.codecrafters.shell.commands;
 
+import com.codecrafters.shell.BoundedCapture;
 import com.codecrafters.shell.ExecutionResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
 import java.util.List;
 
 /**
  * Interfaz para comandos internos del shell.
+ * Los comandos escriben su salida directamente en los flujos que reciben, lo que les permite
+ * formar parte de tuberías y redirecciones sin materializar su salida en cadenas.
  */
 public interface BuiltinCommand {
     /**
@@ -14,10 +25,70 @@ public interface BuiltinCommand {
     String getName();
 
     /**
-     * Ejecuta el comando con los argumentos dados.
+     * Ejecuta el comando en streaming.
+     * Los flujos pertenecen a quien llama: el comando no debe cerrarlos.
+     * @param args Lista de argumentos.
+     * @param in Entrada estándar del comando.
+     * @param out Salida estándar del comando.
+     * @param err Salida de error del comando.
+     * @return Código de salida (0 para éxito).
+     * @throws Exception Si ocurre un error durante la ejecución.
+     */
+    int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws Exception;
+
+    /**
+     * Ejecuta el comando con los argumentos dados capturando su salida.
+     * La captura está acotada; para salidas grandes usar la versión en streaming.
      * @param args Lista de argumentos.
      * @return Resultado de la ejecución.
      * @throws Exception Si ocurre un error durante la ejecución.
      */
-    ExecutionResult execute(List<String> args) throws Exception;
+    default ExecutionResult execute(List<String> args) throws Exception {
+        BoundedCapture out = new BoundedCapture();
+        BoundedCapture err = new BoundedCapture();
+        int exitCode = execute(args, InputStream.nullInputStream(), out, err);
+        return new ExecutionResult(
+                out.size() > 0 ? out.toText(StandardCharsets.UTF_8) : null,
+                err.size() > 0 ? err.toText(StandardCharsets.UTF_8) : null,
+                exitCode);
+    }
+
+    /**
+     * Escribe una línea de texto (terminada en '\n') en un flujo de salida.
+     * @param stream Flujo destino.
+     * @param text Texto a escribir.
+     * @throws IOException Si el flujo no acepta escritura.
+     */
+    static void writeLine(OutputStream stream, String text) throws IOException {
+        stream.write((text + "\n").getBytes(StandardCharsets.UTF_8));
+        stream.flush();
+    }
+
+    /**
+     * Mensaje de error sobre un archivo con el formato de bash y coreutils.
+     * @param command Nombre del comando.
+     * @param path Ruta indicada por el usuario.
+     * @param e Error al acceder a ella.
+     * @return Mensaje ("cat: ruta: No such file or directory", ...).
+     */
+    static String fileError(String command, String path, IOException e) {
+        return command + ": " + path + ": " + fileErrorReason(e);
+    }
+
+    /**
+     * @param e Error al acceder a un archivo.
+     * @return Motivo del error como lo escribe coreutils ("No such file or directory", ...).
+     */
+    static String fileErrorReason(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "No such file or directory";
+        } else if (e instanceof NotDirectoryException) {
+            return "Not a directory";
+        } else if (e instanceof AccessDeniedException) {
+            return "Permission denied";
+        } else if (e instanceof FileSystemException && ((FileSystemException) e).getReason() != null) {
+            return ((FileSystemException) e).getReason();
+        }
+        return e.getMessage();
+    }
 }
@@ -0,0 +1,70 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.RedirectionFiles;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidad nativa 'cat' que concatena archivos ('-' o ninguno: la entrada estándar) en la salida.
+ * Si la salida está redirigida a un archivo, cada archivo regular se copia dentro del kernel
+ * (FileChannel.transferTo) sin pasar por la JVM. Cualquier opción se delega en el 'cat' externo.
+ */
+public class CatCommand extends TextUtilityCommand {
+    public CatCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "cat";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        List<String> files = new ArrayList<>();
+        boolean options = true;
+        for (String arg : args) {
+            if (options && arg.equals("--")) {
+                options = false;
+            } else if (options && arg.startsWith("-") && arg.length() > 1) {
+                return delegate(args, in, out, err);
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.isEmpty()) {
+            files.add("-");
+        }
+
+        int exitCode = 0;
+        for (String file : files) {
+            TextInput input;
+            try {
+                input = open(file, in);
+            } catch (IOException e) {
+                out.flush();
+                BuiltinCommand.writeLine(err, BuiltinCommand.fileError("cat", file, e));
+                exitCode = 1;
+                continue;
+            }
+            try (input) {
+                if (out instanceof RedirectionFiles.FileOutput && input.channel() != null) {
+                    ((RedirectionFiles.FileOutput) out).transferFrom(input.channel());
+                    continue;
+                }
+                ByteBuffer window;
+                while ((window = input.next()) != null) {
+                    input.write(window, 0, window.limit(), out);
+                }
+            }
+        }
+        return exitCode;
+    }
+}
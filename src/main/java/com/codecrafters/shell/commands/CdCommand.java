@@ -1,59 +1,65 @@
 package com.codecrafters.shell.commands;
 
-import com.codecrafters.shell.ExecutionResult;
-import java.io.File;
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.WorkingDirectory;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
- * Comando builtin 'cd' para cambiar el directorio de trabajo actual.
- * Soporta rutas absolutas, relativas y el atajo '~' para el directorio home.
+ * Comando builtin 'cd' para cambiar el directorio de trabajo del shell.
+ * Soporta rutas absolutas, relativas, el atajo '~' para el directorio home (la variable HOME del shell)
+ * y 'cd -' para volver al directorio anterior (OLDPWD).
  */
 public class CdCommand implements BuiltinCommand {
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+
+    public CdCommand(Environment environment, WorkingDirectory workingDirectory) {
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+    }
+
     @Override
     public String getName() {
         return "cd";
     }
 
     @Override
-    public ExecutionResult execute(List<String> args) {
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
         if (args.isEmpty()) {
-            return new ExecutionResult(null, "cd: missing operand", 1);
+            BuiltinCommand.writeLine(err, "cd: missing operand");
+            return 1;
         }
 
         String path = args.get(0);
-
-        if (path.startsWith("~")) {
-            path = path.replace("~", System.getenv("HOME"));
-        }
-
-        File dir = new File(path);
-        
-        // Handle absolute path
-        if (path.startsWith("/")) {
-             if (dir.exists() && dir.isDirectory()) {
-                System.setProperty("user.dir", dir.getAbsolutePath());
-                return new ExecutionResult(null, null, 0);
-            } else {
-                return new ExecutionResult(null, "cd: " + path + ": No such file or directory", 1);
+        boolean previous = path.equals("-");
+        if (previous) {
+            path = environment.get("OLDPWD");
+            if (path == null) {
+                BuiltinCommand.writeLine(err, "cd: OLDPWD not set");
+                return 1;
             }
-        } else {
-            // Handle relative path
-            String currentDirString = System.getProperty("user.dir");
-            File currentDirFile = new File(currentDirString);
-            File newDir = new File(currentDirFile, path);
-
-            try {
-                File canonicalDir = newDir.getCanonicalFile();
-                if (canonicalDir.exists() && canonicalDir.isDirectory()) {
-                    System.setProperty("user.dir", canonicalDir.getPath());
-                    return new ExecutionResult(null, null, 0);
-                } else {
-                    return new ExecutionResult(null, "cd: " + path + ": No such file or directory", 1);
-                }
-            } catch (IOException e) {
-                return new ExecutionResult(null, "cd: error al resolver la ruta: " + e.getMessage(), 1);
+        } else if (path.equals("~") || path.startsWith("~/")) {
+            String home = environment.get("HOME");
+            if (home == null) {
+                BuiltinCommand.writeLine(err, "cd: HOME not set");
+                return 1;
             }
+            path = home + path.substring(1);
+        }
+
+        try {
+            workingDirectory.change(path);
+        } catch (IOException e) {
+            BuiltinCommand.writeLine(err, BuiltinCommand.fileError("cd", path, e));
+            return 1;
+        }
+        if (previous) {
+            // Como bash, 'cd -' muestra a dónde ha vuelto
+            BuiltinCommand.writeLine(out, workingDirectory.get().toString());
         }
+        return 0;
     }
 }
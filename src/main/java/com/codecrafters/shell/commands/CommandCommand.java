@@ -0,0 +1,62 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.CommandRegistry;
+import com.codecrafters.shell.ExternalCommandExecutor;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Comando builtin 'command' que ejecuta un comando sin las utilidades nativas: 'command cat f'
+ * ejecuta el 'cat' del PATH aunque 'cat' sea un builtin. Los demás builtins se ejecutan igual.
+ * 'command -v nombre' muestra qué se ejecutaría.
+ */
+public class CommandCommand implements BuiltinCommand {
+    private final CommandRegistry registry;
+    private final ExternalCommandExecutor executor;
+
+    public CommandCommand(CommandRegistry registry, ExternalCommandExecutor executor) {
+        this.registry = registry;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return "command";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.isEmpty()) {
+            return 0;
+        }
+        if (args.get(0).equals("-v")) {
+            if (args.size() < 2) {
+                return 0;
+            }
+            String name = args.get(1);
+            if (registry.isBuiltin(name) && !registry.isUtility(name)) {
+                BuiltinCommand.writeLine(out, name);
+                return 0;
+            }
+            File file = executor.findExecutable(name);
+            if (file == null) {
+                if (registry.isBuiltin(name)) {
+                    BuiltinCommand.writeLine(out, name);
+                    return 0;
+                }
+                return 1;
+            }
+            BuiltinCommand.writeLine(out, file.getAbsolutePath());
+            return 0;
+        }
+
+        String name = args.get(0);
+        if (registry.isUtility(name) || !registry.isBuiltin(name)) {
+            return executor.execute(args, in, out, err).exitCode;
+        }
+        return registry.execute(name, args.subList(1, args.size()), in, out, err);
+    }
+}
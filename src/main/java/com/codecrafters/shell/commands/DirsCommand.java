@@ -0,0 +1,136 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.WorkingDirectory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Comando builtin 'dirs' que muestra la pila de directorios de 'pushd' y 'popd',
+ * empezando por el directorio actual y con el home abreviado como '~'.
+ * '-c' vacía la pila, '-l' muestra las rutas completas, '-p' una por línea, '-v' una por línea
+ * numerada y '+N'/'-N' solo la entrada N contando desde el principio o desde el final.
+ */
+public class DirsCommand implements BuiltinCommand {
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+
+    public DirsCommand(Environment environment, WorkingDirectory workingDirectory) {
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+    }
+
+    @Override
+    public String getName() {
+        return "dirs";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        boolean longFormat = false;
+        boolean perLine = false;
+        boolean numbered = false;
+        String entry = null;
+        for (String arg : args) {
+            if (isStackIndex(arg)) {
+                entry = arg;
+            } else if (arg.startsWith("-") && arg.length() > 1 && arg.substring(1).matches("[clpv]+")) {
+                if (arg.contains("c")) {
+                    workingDirectory.clearStack();
+                    return 0;
+                }
+                longFormat |= arg.contains("l");
+                perLine |= arg.contains("p");
+                numbered |= arg.contains("v");
+            } else {
+                BuiltinCommand.writeLine(err, "dirs: " + arg + ": invalid option");
+                BuiltinCommand.writeLine(err, "dirs: usage: dirs [-clpv] [+N] [-N]");
+                return 2;
+            }
+        }
+
+        List<Path> stack = workingDirectory.stack();
+        String home = longFormat ? null : environment.get("HOME");
+        if (entry != null) {
+            int index = stackIndex(entry, stack.size());
+            if (index < 0) {
+                BuiltinCommand.writeLine(err, stack.size() < 2 ? "dirs: directory stack empty"
+                        : "dirs: " + entry + ": directory stack index out of range");
+                return 1;
+            }
+            BuiltinCommand.writeLine(out, abbreviate(stack.get(index), home));
+            return 0;
+        }
+        if (!perLine && !numbered) {
+            BuiltinCommand.writeLine(out, format(stack, home));
+            return 0;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < stack.size(); i++) {
+            if (numbered) {
+                text.append(String.format("%2d  ", i));
+            }
+            text.append(abbreviate(stack.get(i), home)).append('\n');
+        }
+        out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return 0;
+    }
+
+    /**
+     * Formatea la pila en una línea, como la muestran 'dirs', 'pushd' y 'popd'.
+     * @param stack Pila completa (el directorio actual primero).
+     * @param home Directorio home que se abrevia como '~', o null para no abreviar.
+     * @return Rutas separadas por espacios.
+     */
+    static String format(List<Path> stack, String home) {
+        StringBuilder line = new StringBuilder();
+        for (Path dir : stack) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            line.append(abbreviate(dir, home));
+        }
+        return line.toString();
+    }
+
+    /**
+     * @param arg Argumento.
+     * @return true si tiene la forma '+N' o '-N'.
+     */
+    static boolean isStackIndex(String arg) {
+        return arg.length() > 1 && (arg.charAt(0) == '+' || arg.charAt(0) == '-') && arg.substring(1).matches("[0-9]+");
+    }
+
+    /**
+     * Convierte '+N' (desde el principio) o '-N' (desde el final) en una posición de la pila.
+     * @param arg Argumento con la forma '+N' o '-N'.
+     * @param size Tamaño de la pila completa.
+     * @return Posición, o -1 si está fuera de rango.
+     */
+    static int stackIndex(String arg, int size) {
+        int n;
+        try {
+            n = Integer.parseInt(arg.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        int index = arg.charAt(0) == '+' ? n : size - 1 - n;
+        return index >= 0 && index < size ? index : -1;
+    }
+
+    private static String abbreviate(Path dir, String home) {
+        String path = dir.toString();
+        if (home == null || home.isEmpty() || home.equals("/")) {
+            return path;
+        }
+        if (path.equals(home)) {
+            return "~";
+        }
+        return path.startsWith(home + "/") ? "~" + path.substring(home.length()) : path;
+    }
+}
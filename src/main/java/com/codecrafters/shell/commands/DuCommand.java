@@ -0,0 +1,307 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utilidad nativa 'du' que muestra el espacio que ocupa cada directorio, recorriendo el árbol en
+ * paralelo ({@link TreeWalker}): el total de un directorio se escribe cuando han terminado todos
+ * sus subdirectorios, después de los de estos, como en coreutils.
+ * <p>
+ * Implementa -a, -s, -c, -h, -k, -m, -b, -d N, --max-depth=N y --apparent-size. Los atributos de
+ * cada entrada (tipo, tamaño, enlaces, dispositivo e inodo) se leen de una vez con la vista "unix";
+ * los archivos con varios enlaces duros se cuentan una sola vez, en el primer directorio en el que
+ * aparecen según el orden de la salida. Con '--sorted' (extensión de este shell) la salida es
+ * siempre la misma. El resto de opciones se delegan en el 'du' externo.
+ * <p>
+ * Java no da los bloques asignados (st_blocks), así que el espacio en disco se estima redondeando
+ * el tamaño al bloque del sistema de archivos; los enlaces simbólicos cortos, que guardan el destino
+ * en el inodo, no ocupan bloques. Coincide con coreutils salvo en archivos dispersos, preasignados o
+ * comprimidos y en directorios grandes, con bloques de índice que no cuentan en su tamaño.
+ */
+public class DuCommand extends TextUtilityCommand {
+    private static final int OUTPUT_BUFFER_SIZE = 64 << 10;
+    private static final String ATTRIBUTES = "unix:mode,nlink,ino,dev,size";
+    private static final int TYPE_MASK = 0170000;
+    private static final int DIRECTORY = 0040000;
+    private static final int SYMBOLIC_LINK = 0120000;
+    /** Longitud por debajo de la cual un enlace simbólico guarda el destino en el inodo (ext4). */
+    private static final int FAST_SYMLINK_SIZE = 60;
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
+    private static final String UNITS = "KMGTPE";
+
+    public DuCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "du";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        Options options = Options.parse(args);
+        if (options == null) {
+            return delegate(args, in, out, err);
+        }
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        long total = 0;
+        try (Walker walker = new Walker(options)) {
+            for (String file : options.files) {
+                TreeWalker.Directory top = walker.walk(resolve(file), file, buffered, err);
+                total += top.total + top.deferredTotal;
+            }
+            if (options.total) {
+                buffered.write((options.format(total) + "\ttotal\n").getBytes(StandardCharsets.UTF_8));
+            }
+            buffered.flush();
+            return walker.failed() ? 1 : 0;
+        }
+    }
+
+    private static final class Walker extends TreeWalker {
+        private final Options options;
+        /**
+         * Con varios argumentos, como coreutils, cada inodo se cuenta una sola vez aunque aparezca en
+         * más de uno; con uno, solo se vigilan los archivos con varios enlaces duros.
+         */
+        private final boolean trackAll;
+        /** Directorios ya recorridos, con varios argumentos (dispositivo e inodo). */
+        private final Set<List<Object>> directories = ConcurrentHashMap.newKeySet();
+        /** Archivos ya contados; solo lo usa el hilo que escribe, en el orden de la salida. */
+        private final Set<List<Object>> counted = new HashSet<>();
+        /** Tamaño de bloque de cada sistema de archivos, por dispositivo. */
+        private final Map<Object, Long> blockSizes = new ConcurrentHashMap<>();
+
+        Walker(Options options) {
+            super(options.sorted);
+            this.options = options;
+            this.trackAll = options.files.size() > 1;
+        }
+
+        @Override
+        protected void visit(Directory parent, Path file, String path, String name) {
+            Map<String, Object> attributes;
+            try {
+                attributes = Files.readAttributes(file, ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                parent.error("du: cannot access '" + path + "': " + BuiltinCommand.fileErrorReason(e));
+                return;
+            }
+            int type = (Integer) attributes.get("mode") & TYPE_MASK;
+            long usage = usage(file, type, attributes);
+            if (type == DIRECTORY) {
+                if (!trackAll || directories.add(List.of(attributes.get("dev"), attributes.get("ino")))) {
+                    parent.descend(file, path).total = usage;
+                }
+                return;
+            }
+            int depth = parent.depth + 1;
+            String line = depth == 0 || (options.all && depth <= options.maxDepth)
+                    ? options.format(usage) + "\t" + path + "\n" : "";
+            if (trackAll || (Integer) attributes.get("nlink") > 1) {
+                // Qué directorio cuenta el archivo depende del orden: se decide al escribir
+                List<Object> key = List.of(attributes.get("dev"), attributes.get("ino"));
+                parent.write(() -> {
+                    if (!counted.add(key)) {
+                        return "";
+                    }
+                    for (Directory directory = parent; directory != null; directory = directory.parent()) {
+                        directory.deferredTotal += usage;
+                    }
+                    return line;
+                });
+                return;
+            }
+            parent.total += usage;
+            if (!line.isEmpty()) {
+                parent.write(line);
+            }
+        }
+
+        @Override
+        protected void completed(Directory directory) {
+            for (Directory child : directory.children()) {
+                directory.total += child.total;
+            }
+            if (directory.depth >= 0 && directory.depth <= options.maxDepth) {
+                directory.write(() -> options.format(directory.total + directory.deferredTotal)
+                        + "\t" + directory.path + "\n");
+            }
+        }
+
+        @Override
+        protected void listFailed(Directory directory, IOException e) {
+            directory.error("du: cannot read directory '" + directory.path + "': " + BuiltinCommand.fileErrorReason(e));
+        }
+
+        /**
+         * @return Bytes que cuenta la entrada: su tamaño o, sin --apparent-size, una estimación del
+         *         espacio en disco (el tamaño redondeado al bloque del sistema de archivos).
+         */
+        private long usage(Path file, int type, Map<String, Object> attributes) {
+            long size = (Long) attributes.get("size");
+            if (options.apparent) {
+                return size;
+            }
+            if (type == SYMBOLIC_LINK && size < FAST_SYMLINK_SIZE) {
+                return 0;
+            }
+            long blockSize = blockSizes.computeIfAbsent(attributes.get("dev"), device -> blockSize(file));
+            return Math.ceilDiv(size, blockSize) * blockSize;
+        }
+
+        private static long blockSize(Path file) {
+            try {
+                return Files.getFileStore(file).getBlockSize();
+            } catch (IOException | UnsupportedOperationException e) {
+                return DEFAULT_BLOCK_SIZE;
+            }
+        }
+    }
+
+    private static final class Options {
+        final List<String> files = new ArrayList<>();
+        boolean all;
+        boolean summarize;
+        boolean total;
+        boolean human;
+        boolean apparent;
+        boolean sorted;
+        long unit = 1024;
+        int maxDepth = Integer.MAX_VALUE;
+
+        /**
+         * @return Opciones, o null si hay alguna que la utilidad nativa no implementa o son incompatibles.
+         */
+        static Options parse(List<String> args) {
+            Options options = new Options();
+            boolean depthGiven = false;
+            boolean parsing = true;
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (!parsing || arg.equals("-") || !arg.startsWith("-")) {
+                    options.files.add(arg);
+                    continue;
+                }
+                if (arg.startsWith("--max-depth=")) {
+                    options.maxDepth = depth(arg.substring("--max-depth=".length()));
+                    if (options.maxDepth < 0) {
+                        return null;
+                    }
+                    depthGiven = true;
+                    continue;
+                }
+                switch (arg) {
+                    case "--" -> parsing = false;
+                    case "--all" -> options.all = true;
+                    case "--summarize" -> options.summarize = true;
+                    case "--total" -> options.total = true;
+                    case "--human-readable" -> options.human = true;
+                    case "--apparent-size" -> options.apparent = true;
+                    case "--bytes" -> {
+                        options.apparent = true;
+                        options.unit = 1;
+                    }
+                    case TreeWalker.SORTED_OPTION -> options.sorted = true;
+                    default -> {
+                        if (arg.startsWith("--")) {
+                            return null;
+                        }
+                        for (int j = 1; j < arg.length(); j++) {
+                            switch (arg.charAt(j)) {
+                                case 'a' -> options.all = true;
+                                case 's' -> options.summarize = true;
+                                case 'c' -> options.total = true;
+                                case 'h' -> options.human = true;
+                                case 'k' -> options.unit = 1024;
+                                case 'm' -> options.unit = 1 << 20;
+                                case 'b' -> {
+                                    options.apparent = true;
+                                    options.unit = 1;
+                                }
+                                case 'd' -> {
+                                    String value = j + 1 < arg.length() ? arg.substring(j + 1)
+                                            : i + 1 < args.size() ? args.get(++i) : null;
+                                    options.maxDepth = depth(value);
+                                    depthGiven = true;
+                                    j = arg.length();
+                                }
+                                default -> {
+                                    return null;
+                                }
+                            }
+                        }
+                    }
+                }
+                if (options.maxDepth < 0) {
+                    return null;
+                }
+            }
+            if (options.summarize) {
+                // coreutils rechaza -s con -a o con -d, o avisa si es -d 0
+                if (options.all || depthGiven) {
+                    return null;
+                }
+                options.maxDepth = 0;
+            }
+            if (options.files.isEmpty()) {
+                options.files.add(".");
+            }
+            return options;
+        }
+
+        private static int depth(String value) {
+            long depth = parseCount(value);
+            return depth > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) depth;
+        }
+
+        /**
+         * @param bytes Bytes.
+         * @return Cifra que muestra coreutils: en unidades redondeando hacia arriba o, con -h, con
+         *         sufijo ("4.0K", "12M"), con un decimal por debajo de 10.
+         */
+        String format(long bytes) {
+            if (!human) {
+                return Long.toString(Math.ceilDiv(bytes, unit));
+            }
+            if (bytes < 1024) {
+                return Long.toString(bytes);
+            }
+            int exponent = 0;
+            long divisor = 1024;
+            while (exponent + 1 < UNITS.length() && bytes / divisor >= 1024) {
+                divisor <<= 10;
+                exponent++;
+            }
+            if (bytes < 10 * divisor) {
+                long tenths = Math.ceilDiv(bytes * 10, divisor);
+                if (tenths < 100) {
+                    return tenths / 10 + "." + tenths % 10 + UNITS.charAt(exponent);
+                }
+                return "10" + UNITS.charAt(exponent);
+            }
+            long value = Math.ceilDiv(bytes, divisor);
+            if (value >= 1024 && exponent + 1 < UNITS.length()) {
+                return "1.0" + UNITS.charAt(exponent + 1);
+            }
+            return value + String.valueOf(UNITS.charAt(exponent));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.codecrafters.shell.commands;
 
-import com.codecrafters.shell.ExecutionResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -13,7 +15,8 @@ public class EchoCommand implements BuiltinCommand {
     }
 
     @Override
-    public ExecutionResult execute(List<String> args) {
-        return new ExecutionResult(String.join(" ", args), null, 0);
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        BuiltinCommand.writeLine(out, String.join(" ", args));
+        return 0;
     }
 }
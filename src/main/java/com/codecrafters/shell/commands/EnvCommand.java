@@ -0,0 +1,48 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.ExternalCommandExecutor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comando builtin 'env' que lista las variables exportadas del shell ('NOMBRE=valor').
+ * Con argumentos ejecuta el 'env' del sistema, que recibe el entorno del shell,
+ * para no perder opciones como 'env VAR=valor comando'.
+ */
+public class EnvCommand implements BuiltinCommand {
+    private final Environment environment;
+    private final ExternalCommandExecutor executor;
+
+    public EnvCommand(Environment environment, ExternalCommandExecutor executor) {
+        this.environment = environment;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return "env";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (!args.isEmpty()) {
+            List<String> command = new ArrayList<>(args.size() + 1);
+            command.add("env");
+            command.addAll(args);
+            return executor.execute(command, in, out, err).exitCode;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, String> variable : environment.snapshot().exportedVariables().entrySet()) {
+            text.append(variable.getKey()).append('=').append(variable.getValue()).append('\n');
+        }
+        out.write(text.toString().getBytes());
+        out.flush();
+        return 0;
+    }
+}
@@ -1,23 +1,34 @@
 package com.codecrafters.shell.commands;
 
-import com.codecrafters.shell.ExecutionResult;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Comando builtin 'exit' para terminar la ejecución del shell.
  * Acepta un código de salida opcional (por defecto 0).
  */
 public class ExitCommand implements BuiltinCommand {
+    private final IntConsumer exit;
+
+    /**
+     * @param exit Termina el shell con el código dado: el proceso o, en el daemon, la sesión.
+     */
+    public ExitCommand(IntConsumer exit) {
+        this.exit = exit;
+    }
+
     @Override
     public String getName() {
         return "exit";
     }
 
     @Override
-    public ExecutionResult execute(List<String> args) {
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) {
         if (args.size() > 0 && args.get(0).equals("0")) {
-            System.exit(0);
+            exit.accept(0);
         }
-        return new ExecutionResult(null, null, 0);
+        return 0;
     }
 }
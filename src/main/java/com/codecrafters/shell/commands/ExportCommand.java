@@ -0,0 +1,50 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comando builtin 'export' que marca variables para que las reciban los procesos hijos.
+ * 'export NOMBRE=valor' asigna y exporta, 'export NOMBRE' exporta el valor actual y
+ * sin argumentos (o con '-p') lista las variables exportadas como 'declare -x'.
+ */
+public class ExportCommand implements BuiltinCommand {
+    private final Environment environment;
+
+    public ExportCommand(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String getName() {
+        return "export";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.isEmpty() || (args.size() == 1 && args.get(0).equals("-p"))) {
+            for (Map.Entry<String, String> variable : environment.snapshot().exportedVariables().entrySet()) {
+                String value = variable.getValue().replace("\\", "\\\\").replace("\"", "\\\"").replace("$", "\\$");
+                BuiltinCommand.writeLine(out, "declare -x " + variable.getKey() + "=\"" + value + "\"");
+            }
+            return 0;
+        }
+
+        int exitCode = 0;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = equals >= 0 ? arg.substring(0, equals) : arg;
+            if (!Environment.isValidName(name)) {
+                BuiltinCommand.writeLine(err, "export: `" + arg + "': not a valid identifier");
+                exitCode = 1;
+                continue;
+            }
+            environment.export(name, equals >= 0 ? arg.substring(equals + 1) : null);
+        }
+        return exitCode;
+    }
+}
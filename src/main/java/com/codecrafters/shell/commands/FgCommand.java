@@ -0,0 +1,49 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Job;
+import com.codecrafters.shell.JobTable;
+import com.codecrafters.shell.utils.ProcessSignals;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Comando builtin 'fg' que trae un trabajo a primer plano y espera a que termine.
+ * Si el trabajo estaba detenido, antes le envía SIGCONT.
+ */
+public class FgCommand implements BuiltinCommand {
+    private final JobTable jobTable;
+
+    public FgCommand(JobTable jobTable) {
+        this.jobTable = jobTable;
+    }
+
+    @Override
+    public String getName() {
+        return "fg";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException, InterruptedException {
+        String spec = args.isEmpty() ? null : args.get(0);
+        Optional<Job> found = jobTable.find(spec);
+        if (found.isEmpty()) {
+            BuiltinCommand.writeLine(err, "fg: " + (spec == null ? "current" : spec) + ": no such job");
+            return 1;
+        }
+
+        Job job = found.get();
+        // Quitarlo de la tabla antes de esperar evita el aviso de "Done" en el siguiente prompt
+        jobTable.remove(job);
+        BuiltinCommand.writeLine(out, job.getCommandLine());
+        if (job.getState() == Job.State.STOPPED) {
+            for (Process process : job.getProcesses()) {
+                ProcessSignals.send(process.toHandle(), "CONT");
+            }
+            job.setState(Job.State.RUNNING);
+        }
+        return job.getPipeline().waitFor();
+    }
+}
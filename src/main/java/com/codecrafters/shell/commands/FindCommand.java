@@ -0,0 +1,466 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.glob.GlobPattern;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Utilidad nativa 'find' que recorre árboles de directorios en paralelo ({@link TreeWalker}).
+ * <p>
+ * Implementa las pruebas -name, -iname, -path, -ipath, -type (f, d, l), -size, -mtime, -mmin,
+ * -newer y -empty, las acciones -print, -print0 y -prune, los operadores !, -not, -a, -and,
+ * -o, -or y paréntesis, y las opciones -maxdepth, -mindepth, -depth y -P. Los atributos de cada
+ * entrada se leen de una vez ({@link BasicFileAttributes}), sin seguir enlaces simbólicos, y solo si
+ * la expresión los usa o la entrada puede ser un directorio que recorrer.
+ * Con '--sorted' (extensión de este shell, antes de las rutas) las entradas de cada directorio se
+ * recorren en orden y la salida es siempre la misma; sin ella, el orden depende de qué hilo
+ * termina antes. El resto de opciones (-exec, -L, -printf...) se delegan en el 'find' externo.
+ */
+public class FindCommand extends TextUtilityCommand {
+    private static final int OUTPUT_BUFFER_SIZE = 64 << 10;
+    /** Sistemas de archivos en los que un directorio tiene 2 enlaces más que subdirectorios. */
+    private static final Set<String> LINK_COUNTING_FILE_SYSTEMS = Set.of("ext2", "ext3", "ext4", "xfs", "tmpfs");
+    /** Pruebas que usan los atributos de la entrada. */
+    private static final Set<String> ATTRIBUTE_TESTS = Set.of("-type", "-size", "-mtime", "-mmin", "-newer", "-empty");
+
+    public FindCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "find";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        Query query = new Query(args);
+        if (!query.parse()) {
+            return delegate(args, in, out, err);
+        }
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        int exitCode = 0;
+        try (Walker walker = new Walker(query)) {
+            for (String start : query.starts) {
+                if (start.isEmpty()) {
+                    buffered.flush();
+                    BuiltinCommand.writeLine(err, "find: '': No such file or directory");
+                    exitCode = 1;
+                    continue;
+                }
+                walker.walk(resolve(start), start, buffered, err);
+            }
+            buffered.flush();
+            return walker.failed() ? 1 : exitCode;
+        }
+    }
+
+    private static final class Walker extends TreeWalker {
+        private final Query query;
+        /** Si el número de enlaces de los directorios cuenta sus subdirectorios, por dispositivo. */
+        private final Map<Object, Boolean> countsSubdirectories = new ConcurrentHashMap<>();
+
+        Walker(Query query) {
+            super(query.sorted);
+            this.query = query;
+        }
+
+        @Override
+        protected void visit(Directory parent, Path file, String path, String name) {
+            int depth = parent.depth + 1;
+            boolean descend = depth < query.maxDepth;
+            BasicFileAttributes attributes = null;
+            // Solo se leen los atributos si la expresión los usa o si puede ser un directorio que recorrer
+            if (depth == 0 || query.needsAttributes || (descend && parent.subdirectories != 0)) {
+                try {
+                    attributes = parent.readAttributes(file);
+                } catch (IOException e) {
+                    parent.error("find: '" + path + "': " + BuiltinCommand.fileErrorReason(e));
+                    return;
+                }
+                if (attributes.isDirectory() && parent.subdirectories > 0) {
+                    parent.subdirectories--;
+                }
+            }
+            boolean directory = descend && attributes != null && attributes.isDirectory();
+            Entry entry = new Entry(file, path, name, attributes, depth);
+            if (directory && query.depthFirst) {
+                // El directorio se evalúa igual, pero lo que escriba sale tras su contenido
+                entry.output = descend(parent, file, path);
+                entry.last = true;
+                entry.evaluate(query);
+                return;
+            }
+            entry.output = parent;
+            entry.evaluate(query);
+            if (directory && !entry.pruned) {
+                descend(parent, file, path);
+            }
+        }
+
+        /**
+         * Recorre un subdirectorio. En los sistemas de archivos en los que el número de enlaces de
+         * un directorio es 2 más el de sus subdirectorios, se anota cuántos tiene: encontrados todos,
+         * el resto de entradas no se leen si la expresión no usa sus atributos (como GNU find).
+         */
+        private Directory descend(Directory parent, Path file, String path) {
+            Directory directory = parent.descend(file, path);
+            if (!query.needsAttributes) {
+                try {
+                    Map<String, Object> attributes = Files.readAttributes(file, "unix:nlink,dev", LinkOption.NOFOLLOW_LINKS);
+                    int links = (Integer) attributes.get("nlink");
+                    if (links >= 2 && countsSubdirectories.computeIfAbsent(attributes.get("dev"), device -> countsSubdirectories(file))) {
+                        directory.subdirectories = links - 2;
+                    }
+                } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+                    // Sin el número de enlaces se leen los atributos de todas las entradas
+                }
+            }
+            return directory;
+        }
+
+        private static boolean countsSubdirectories(Path directory) {
+            try {
+                return LINK_COUNTING_FILE_SYSTEMS.contains(Files.getFileStore(directory).type());
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected void listFailed(Directory directory, IOException e) {
+            directory.error("find: '" + directory.path + "': " + BuiltinCommand.fileErrorReason(e));
+        }
+    }
+
+    /**
+     * Entrada del árbol que se está evaluando.
+     */
+    private static final class Entry {
+        final Path file;
+        final String path;
+        final String name;
+        /** Atributos, o null si no se han leído porque la expresión no los usa. */
+        final BasicFileAttributes attributes;
+        final int depth;
+        TreeWalker.Directory output;
+        /** Si lo que se escribe va tras el contenido del propio directorio ('-depth'). */
+        boolean last;
+        boolean pruned;
+
+        Entry(Path file, String path, String name, BasicFileAttributes attributes, int depth) {
+            this.file = file;
+            this.path = path;
+            this.name = name;
+            this.attributes = attributes;
+            this.depth = depth;
+        }
+
+        void evaluate(Query query) {
+            if (depth >= query.minDepth) {
+                query.expression.test(this);
+            }
+        }
+
+        void print(char terminator) {
+            String line = path + terminator;
+            if (last) {
+                output.writeLast(line);
+            } else {
+                output.write(line);
+            }
+        }
+
+        char type() {
+            return attributes.isSymbolicLink() ? 'l' : attributes.isDirectory() ? 'd'
+                    : attributes.isRegularFile() ? 'f' : '?';
+        }
+
+        boolean isEmpty() {
+            if (attributes.isRegularFile()) {
+                return attributes.size() == 0;
+            }
+            if (!attributes.isDirectory()) {
+                return false;
+            }
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(file)) {
+                return !entries.iterator().hasNext();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Línea de comandos de 'find': rutas de inicio, opciones globales y la expresión compilada en
+     * un árbol de predicados. Si hay algo que la utilidad nativa no implementa, {@link #parse}
+     * devuelve false y se delega en el 'find' externo, que también da los errores de sintaxis.
+     */
+    private final class Query {
+        private final List<String> args;
+        private final long now = epochNanos(Instant.now());
+        private int position;
+        /** Si ya ha aparecido una prueba o acción (las opciones globales deben ir antes). */
+        private boolean seenTest;
+        private boolean hasAction;
+
+        List<String> starts;
+        Predicate<Entry> expression = entry -> true;
+        boolean sorted;
+        /** Si alguna prueba usa los atributos de las entradas, no solo su nombre o ruta. */
+        boolean needsAttributes;
+        boolean depthFirst;
+        int minDepth;
+        int maxDepth = Integer.MAX_VALUE;
+
+        Query(List<String> args) {
+            this.args = args;
+        }
+
+        boolean parse() {
+            while (position < args.size() && (args.get(position).equals("-P")
+                    || args.get(position).equals(TreeWalker.SORTED_OPTION))) {
+                sorted |= args.get(position++).equals(TreeWalker.SORTED_OPTION);
+            }
+            int first = position;
+            while (position < args.size() && !isExpressionStart(args.get(position))) {
+                position++;
+            }
+            starts = position > first ? args.subList(first, position) : List.of(".");
+            try {
+                if (position < args.size()) {
+                    expression = parseOr();
+                    if (position < args.size()) {
+                        return false;
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (!hasAction) {
+                Predicate<Entry> tests = expression;
+                expression = entry -> {
+                    if (tests.test(entry)) {
+                        entry.print('\n');
+                    }
+                    return true;
+                };
+            }
+            return true;
+        }
+
+        private boolean isExpressionStart(String arg) {
+            return (arg.startsWith("-") && arg.length() > 1) || arg.equals("(") || arg.equals("!");
+        }
+
+        private Predicate<Entry> parseOr() {
+            Predicate<Entry> left = parseAnd();
+            while (position < args.size() && (args.get(position).equals("-o") || args.get(position).equals("-or"))) {
+                position++;
+                left = left.or(parseAnd());
+            }
+            return left;
+        }
+
+        private Predicate<Entry> parseAnd() {
+            Predicate<Entry> left = parseNot();
+            while (position < args.size()) {
+                String next = args.get(position);
+                if (next.equals("-o") || next.equals("-or") || next.equals(")") || next.equals(",")) {
+                    break;
+                }
+                if (next.equals("-a") || next.equals("-and")) {
+                    position++;
+                }
+                left = left.and(parseNot());
+            }
+            return left;
+        }
+
+        private Predicate<Entry> parseNot() {
+            String token = next();
+            if (token.equals("!") || token.equals("-not")) {
+                return parseNot().negate();
+            }
+            if (token.equals("(")) {
+                Predicate<Entry> inner = parseOr();
+                if (!next().equals(")")) {
+                    throw new IllegalArgumentException();
+                }
+                return inner;
+            }
+            return parsePrimary(token);
+        }
+
+        private Predicate<Entry> parsePrimary(String token) {
+            switch (token) {
+                case "-maxdepth", "-mindepth", "-depth" -> {
+                    if (seenTest) {
+                        // find avisa de las opciones globales tras las pruebas
+                        throw new IllegalArgumentException();
+                    }
+                    if (token.equals("-depth")) {
+                        depthFirst = true;
+                    } else if (token.equals("-maxdepth")) {
+                        maxDepth = depth(next());
+                    } else {
+                        minDepth = depth(next());
+                    }
+                    return entry -> true;
+                }
+                default -> {
+                    seenTest = true;
+                    needsAttributes |= ATTRIBUTE_TESTS.contains(token);
+                }
+            }
+            switch (token) {
+                case "-name", "-iname" -> {
+                    GlobPattern pattern = GlobPattern.compileFnmatch(next(), token.equals("-iname"));
+                    return entry -> pattern.matches(entry.name);
+                }
+                case "-path", "-wholename", "-ipath", "-iwholename" -> {
+                    GlobPattern pattern = GlobPattern.compileFnmatch(next(), token.startsWith("-i"));
+                    return entry -> pattern.matches(entry.path);
+                }
+                case "-type" -> {
+                    String types = next();
+                    if (types.length() % 2 == 0) {
+                        throw new IllegalArgumentException();
+                    }
+                    for (int i = 0; i < types.length(); i++) {
+                        char type = types.charAt(i);
+                        boolean separator = i % 2 == 1;
+                        if (separator ? type != ',' : "fdl".indexOf(type) < 0) {
+                            throw new IllegalArgumentException();
+                        }
+                    }
+                    return entry -> types.indexOf(entry.type()) >= 0;
+                }
+                case "-size" -> {
+                    return parseSize(next());
+                }
+                case "-mtime", "-mmin" -> {
+                    String value = next();
+                    long period = token.equals("-mtime") ? TimeUnit.DAYS.toNanos(1) : TimeUnit.MINUTES.toNanos(1);
+                    long count = number(value);
+                    return entry -> compare(Math.floorDiv(now - epochNanos(entry.attributes.lastModifiedTime().toInstant()),
+                            period), count, value);
+                }
+                case "-newer" -> {
+                    Instant reference;
+                    try {
+                        reference = Files.getLastModifiedTime(resolve(next())).toInstant();
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException(e);
+                    }
+                    return entry -> entry.attributes.lastModifiedTime().toInstant().isAfter(reference);
+                }
+                case "-empty" -> {
+                    return Entry::isEmpty;
+                }
+                case "-true" -> {
+                    return entry -> true;
+                }
+                case "-false" -> {
+                    return entry -> false;
+                }
+                case "-prune" -> {
+                    return entry -> {
+                        // Con -depth no tiene efecto: el contenido ya se ha recorrido
+                        entry.pruned = !depthFirst;
+                        return true;
+                    };
+                }
+                case "-print", "-print0" -> {
+                    hasAction = true;
+                    char terminator = token.equals("-print") ? '\n' : '\0';
+                    return entry -> {
+                        entry.print(terminator);
+                        return true;
+                    };
+                }
+                default -> throw new IllegalArgumentException();
+            }
+        }
+
+        /**
+         * '-size [+-]N[cwbkMG]': el tamaño en unidades (redondeado hacia arriba) comparado con N.
+         */
+        private Predicate<Entry> parseSize(String value) {
+            long unit = 512;
+            String digits = value;
+            if (!value.isEmpty() && !Character.isDigit(value.charAt(value.length() - 1))) {
+                unit = switch (value.charAt(value.length() - 1)) {
+                    case 'c' -> 1;
+                    case 'w' -> 2;
+                    case 'b' -> 512;
+                    case 'k' -> 1L << 10;
+                    case 'M' -> 1L << 20;
+                    case 'G' -> 1L << 30;
+                    default -> throw new IllegalArgumentException();
+                };
+                digits = value.substring(0, value.length() - 1);
+            }
+            long count = number(digits);
+            long size = unit;
+            return entry -> compare(Math.ceilDiv(entry.attributes.size(), size), count, value);
+        }
+
+        private String next() {
+            if (position >= args.size()) {
+                throw new IllegalArgumentException();
+            }
+            return args.get(position++);
+        }
+
+        private int depth(String value) {
+            long depth = parseCount(value);
+            if (depth < 0 || depth > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException();
+            }
+            return (int) depth;
+        }
+    }
+
+    /**
+     * @param value Número con signo opcional ('+3' más de 3, '-3' menos de 3, '3' exactamente 3).
+     * @return Valor absoluto.
+     */
+    private static long number(String value) {
+        long number = parseCount(value.startsWith("+") || value.startsWith("-") ? value.substring(1) : value);
+        if (number < 0) {
+            throw new IllegalArgumentException();
+        }
+        return number;
+    }
+
+    private static boolean compare(long actual, long expected, String value) {
+        if (value.startsWith("+")) {
+            return actual > expected;
+        } else if (value.startsWith("-")) {
+            return actual < expected;
+        }
+        return actual == expected;
+    }
+
+    private static long epochNanos(Instant instant) {
+        return TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano();
+    }
+}
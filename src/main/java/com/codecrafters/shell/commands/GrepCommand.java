@@ -0,0 +1,533 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.LineScanner;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Utilidad nativa 'grep' que muestra las líneas que contienen un patrón, con las opciones
+ * habituales: -E, -F, -G, -e, -i, -v, -w, -x, -c, -l, -q, -s, -n, -H y -h.
+ * <p>
+ * El patrón se traduce a java.util.regex ({@link GrepPattern}) y se busca sobre ventanas de
+ * muchas líneas en lugar de línea a línea: cada coincidencia salta directamente hasta la siguiente
+ * línea que contiene el patrón. Si el patrón exige una cadena literal, esta se busca primero en los
+ * bytes ({@link LineScanner#indexOf}) y solo se decodifican las líneas que la contienen.
+ * Las líneas se escriben con sus bytes originales, sin recodificar.
+ * Un archivo con bytes nulos al principio se trata como binario ("binary file matches").
+ * El resto de opciones (-r, -o, -A, --color...) y los patrones sin traducción se delegan en el 'grep' externo.
+ */
+public class GrepCommand extends TextUtilityCommand {
+    /** Bytes del principio de un archivo en los que un byte nulo lo marca como binario. */
+    private static final int BINARY_CHECK_SIZE = 32 << 10;
+    private static final int OUTPUT_BUFFER_SIZE = 64 << 10;
+    /** Líneas comprobadas una a una antes de plantearse decodificar la ventana entera. */
+    private static final int DECODE_WINDOW_LINES = 1024;
+
+    public GrepCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "grep";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        Options options = Options.parse(args);
+        if (options == null) {
+            return delegate(args, in, out, err);
+        }
+        GrepPattern.Compiled pattern;
+        try {
+            pattern = GrepPattern.compile(options.patterns, options.syntax, options.ignoreCase,
+                    options.words, options.lines);
+        } catch (PatternSyntaxException e) {
+            pattern = null;
+        }
+        if (pattern == null) {
+            // El 'grep' externo lo interpreta o explica el error de sintaxis
+            return delegate(args, in, out, err);
+        }
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_SIZE);
+        Search search = new Search(pattern, options, buffered);
+        boolean withNames = options.withNames != null ? options.withNames : options.files.size() > 1;
+        boolean matched = false;
+        boolean failed = false;
+        for (String file : options.files) {
+            String name = file.equals("-") ? "(standard input)" : file;
+            TextInput input;
+            try {
+                input = open(file, in);
+            } catch (IOException e) {
+                failed = true;
+                if (!options.silent) {
+                    buffered.flush();
+                    BuiltinCommand.writeLine(err, BuiltinCommand.fileError("grep", file, e));
+                }
+                continue;
+            }
+            try (input) {
+                matched |= search.run(input, name, withNames);
+            }
+            if (search.binaryMatched) {
+                buffered.flush();
+                BuiltinCommand.writeLine(err, "grep: " + name + ": binary file matches");
+            }
+            if (matched && options.quiet) {
+                break;
+            }
+        }
+        buffered.flush();
+        if (failed && !(matched && options.quiet)) {
+            return 2;
+        }
+        return matched ? 0 : 1;
+    }
+
+    /** Opciones de la línea de comandos. */
+    private static final class Options {
+        final List<String> patterns = new ArrayList<>();
+        final List<String> files = new ArrayList<>();
+        GrepPattern.Syntax syntax = GrepPattern.Syntax.BASIC;
+        boolean ignoreCase;
+        boolean invert;
+        boolean words;
+        boolean lines;
+        boolean count;
+        boolean listFiles;
+        boolean quiet;
+        boolean silent;
+        boolean lineNumbers;
+        /** '-H' (true), '-h' (false) o ninguno (null: nombres solo con varios archivos). */
+        Boolean withNames;
+
+        /**
+         * @return Opciones, o null si hay alguna que la utilidad nativa no implementa, o falta el patrón.
+         */
+        static Options parse(List<String> args) {
+            Options options = new Options();
+            List<String> operands = new ArrayList<>();
+            boolean explicitPatterns = false;
+            boolean parsing = true;
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                if (!parsing || arg.equals("-") || !arg.startsWith("-")) {
+                    // Como GNU grep, las opciones pueden ir también detrás de los operandos
+                    operands.add(arg);
+                    continue;
+                }
+                if (arg.equals("--")) {
+                    parsing = false;
+                    continue;
+                }
+                if (arg.startsWith("--")) {
+                    return null;
+                }
+                for (int j = 1; j < arg.length(); j++) {
+                    char option = arg.charAt(j);
+                    switch (option) {
+                        case 'E' -> options.syntax = GrepPattern.Syntax.EXTENDED;
+                        case 'F' -> options.syntax = GrepPattern.Syntax.FIXED;
+                        case 'G' -> options.syntax = GrepPattern.Syntax.BASIC;
+                        case 'i', 'y' -> options.ignoreCase = true;
+                        case 'v' -> options.invert = true;
+                        case 'w' -> options.words = true;
+                        case 'x' -> options.lines = true;
+                        case 'c' -> options.count = true;
+                        case 'l' -> options.listFiles = true;
+                        case 'q' -> options.quiet = true;
+                        case 's' -> options.silent = true;
+                        case 'n' -> options.lineNumbers = true;
+                        case 'H' -> options.withNames = true;
+                        case 'h' -> options.withNames = false;
+                        case 'e' -> {
+                            String pattern = j + 1 < arg.length() ? arg.substring(j + 1)
+                                    : i + 1 < args.size() ? args.get(++i) : null;
+                            if (pattern == null) {
+                                return null;
+                            }
+                            options.patterns.add(pattern);
+                            explicitPatterns = true;
+                            j = arg.length();
+                        }
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+            }
+            if (!explicitPatterns) {
+                if (operands.isEmpty()) {
+                    return null;
+                }
+                options.patterns.add(operands.remove(0));
+            }
+            options.files.addAll(operands);
+            if (options.files.isEmpty()) {
+                options.files.add("-");
+            }
+            return options;
+        }
+    }
+
+    /** Búsqueda del patrón en una entrada; reutiliza el Matcher y los buffers entre archivos. */
+    private static final class Search {
+        private final Options options;
+        private final OutputStream out;
+        private final Matcher matcher;
+        /** Literal que contienen todas las líneas que coinciden, o null. */
+        private final byte[] literal;
+        private final boolean literalOnly;
+        private final boolean literalPrefix;
+        private final CharsetDecoder validator = StandardCharsets.UTF_8.newDecoder();
+        /** Solo se escriben las líneas si no se piden recuentos, nombres ni silencio. */
+        private final boolean printLines;
+        /** Copia de la ventana actual cuando no tiene arreglo propio (archivos mapeados). */
+        private byte[] bytes = new byte[0];
+        /** Ventana actual decodificada (con un literal, null hasta que hace falta). */
+        private String text;
+        /** Líneas de la ventana actual comprobadas con el patrón tras encontrar el literal. */
+        private int checkedLines;
+
+        private TextInput input;
+        private ByteBuffer window;
+        private byte[] prefix;
+        private boolean binary;
+        private boolean stop;
+        boolean binaryMatched;
+        /** Líneas seleccionadas de la entrada actual (exacto con '-c'; con el resto basta saber si hay alguna). */
+        private long selected;
+        private long lineNumber;
+        /** Posición de la ventana hasta la que está contado lineNumber. */
+        private int lineCursor;
+        /** Inicio de línea en la ventana decodificada y su posición en bytes, que avanzan juntos. */
+        private int cursorChar;
+        private int cursorByte;
+        /** Fin ('\n' o final de la ventana) de la última línea devuelta por nextMatchingLine. */
+        private int matchedLineEnd;
+
+        Search(GrepPattern.Compiled pattern, Options options, OutputStream out) {
+            this.options = options;
+            this.out = out;
+            this.matcher = pattern.pattern().matcher("");
+            this.literal = pattern.literal();
+            this.literalOnly = pattern.literalOnly();
+            this.literalPrefix = pattern.literalPrefix();
+            this.printLines = !options.count && !options.listFiles && !options.quiet;
+        }
+
+        /**
+         * Busca en una entrada y escribe lo que corresponda.
+         * @param input Entrada abierta.
+         * @param name Nombre de la entrada.
+         * @param withName true para prefijar las líneas con el nombre.
+         * @return true si se ha seleccionado alguna línea.
+         */
+        boolean run(TextInput input, String name, boolean withName) throws IOException {
+            this.input = input;
+            this.prefix = withName ? (name + ":").getBytes(StandardCharsets.UTF_8) : null;
+            selected = 0;
+            lineNumber = 1;
+            stop = false;
+            binaryMatched = false;
+            boolean first = true;
+            while (!stop && (window = input.nextLines()) != null) {
+                if (first) {
+                    binary = containsNul(window, Math.min(window.limit(), BINARY_CHECK_SIZE));
+                    first = false;
+                }
+                if (literal != null) {
+                    searchLiteral();
+                } else {
+                    searchWindow();
+                }
+            }
+            if (options.count) {
+                if (prefix != null) {
+                    out.write(prefix);
+                }
+                out.write((selected + "\n").getBytes(StandardCharsets.UTF_8));
+            } else if (options.listFiles && selected > 0) {
+                out.write((name + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return selected > 0;
+        }
+
+        /**
+         * Búsqueda con un literal obligatorio: se busca en los bytes sin decodificar la ventana, y
+         * solo las líneas que lo contienen se decodifican para comprobar el patrón completo.
+         */
+        private void searchLiteral() throws IOException {
+            int limit = window.limit();
+            text = null;
+            checkedLines = 0;
+            lineCursor = 0;
+            int position = 0;
+            while (position < limit && !stop) {
+                int found = LineScanner.indexOf(window, position, limit, literal);
+                if (found < 0) {
+                    if (options.invert) {
+                        select(position, limit);
+                    }
+                    break;
+                }
+                int previous = LineScanner.lastIndexOfNewline(window, position, found);
+                int lineStart = previous < 0 ? position : previous + 1;
+                int newline = LineScanner.indexOfNewline(window, found, limit);
+                int next = newline < 0 ? limit : newline + 1;
+                boolean matches = literalOnly || lineMatches(lineStart, newline < 0 ? limit : newline, found);
+                if (options.invert) {
+                    select(position, matches ? lineStart : next);
+                } else if (matches) {
+                    select(lineStart, next);
+                }
+                position = next;
+            }
+            if (options.lineNumbers) {
+                lineNumber += LineScanner.countNewlines(window, lineCursor, limit);
+            }
+        }
+
+        /**
+         * Comprueba el patrón en una línea que contiene el literal. Mientras son pocas se decodifica
+         * cada una; si casi todas lo contienen, se decodifica la ventana entera una vez y, si es ASCII
+         * (posiciones de bytes y caracteres iguales), se comprueban como regiones de ella. Si toda
+         * coincidencia empieza por el literal, solo se prueba donde aparece en lugar de en cada posición.
+         * @param from Inicio de la línea.
+         * @param to Fin de la línea (sin el '\n').
+         * @param found Primera aparición del literal en la línea.
+         */
+        private boolean lineMatches(int from, int to, int found) {
+            if (text == null && ++checkedLines > DECODE_WINDOW_LINES && checkedLines * 256L > from) {
+                decode();
+            }
+            CharSequence source;
+            int base;
+            if (text != null && text.length() == window.limit()) {
+                source = text;
+                base = 0;
+            } else {
+                int length = to - from;
+                if (bytes.length < length) {
+                    bytes = new byte[length];
+                }
+                window.get(from, bytes, 0, length);
+                String line = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                if (line.length() != length) {
+                    return matcher.reset(line).find();
+                }
+                source = line;
+                base = from;
+            }
+            matcher.reset(source);
+            if (!literalPrefix) {
+                return matcher.region(from - base, to - base).find();
+            }
+            for (int at = found; at >= 0; at = LineScanner.indexOf(window, at + 1, to, literal)) {
+                if (matcher.region(at - base, to - base).lookingAt()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void searchWindow() throws IOException {
+            int limit = window.limit();
+            decode();
+            int length = text.length();
+            matcher.reset(text);
+            lineCursor = 0;
+            cursorChar = 0;
+            cursorByte = 0;
+            int position = 0;
+            while (position < length && !stop) {
+                int lineStart = nextMatchingLine(position, length);
+                int lineEnd = lineStart < 0 ? length : matchedLineEnd;
+                if (options.invert) {
+                    // Las líneas entre la anterior coincidencia y esta son las seleccionadas
+                    int from = bytePosition(position, length, limit);
+                    select(from, bytePosition(lineStart < 0 ? length : lineStart, length, limit));
+                } else if (lineStart >= 0) {
+                    int from = bytePosition(lineStart, length, limit);
+                    int newline = LineScanner.indexOfNewline(window, from, limit);
+                    select(from, newline < 0 ? limit : newline + 1);
+                }
+                position = lineEnd + 1;
+            }
+            if (options.lineNumbers) {
+                lineNumber += LineScanner.countNewlines(window, lineCursor, limit);
+            }
+        }
+
+        /**
+         * Busca desde un inicio de línea la siguiente línea que contiene el patrón. La búsqueda
+         * recorre la ventana entera, así que las líneas sin coincidencias se saltan sin mirarlas
+         * una a una; una coincidencia que pasa de una línea a otra ('\s', '[^a]'...) se comprueba
+         * de nuevo limitada a su línea.
+         * @return Inicio de la línea, o -1 si no hay más; su fin queda en matchedLineEnd.
+         */
+        private int nextMatchingLine(int from, int length) {
+            while (from < length) {
+                if (!matcher.find(from)) {
+                    return -1;
+                }
+                int start = matcher.start();
+                int end = matcher.end();
+                if (start == length && text.charAt(length - 1) == '\n') {
+                    // Coincidencia vacía tras el último salto: no es una línea
+                    return -1;
+                }
+                int lineStart = start;
+                while (lineStart > from && text.charAt(lineStart - 1) != '\n') {
+                    lineStart--;
+                }
+                int lineEnd = start;
+                while (lineEnd < length && text.charAt(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                matchedLineEnd = lineEnd;
+                if (end <= lineEnd || matcher.region(lineStart, lineEnd).find()) {
+                    return lineStart;
+                }
+                from = lineEnd + 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Posición en bytes de un inicio de línea de la ventana decodificada. Si todo es ASCII
+         * coinciden; si no, se avanzan los mismos saltos de línea en los bytes que en los caracteres.
+         */
+        private int bytePosition(int charIndex, int length, int limit) {
+            if (length == limit) {
+                return charIndex;
+            }
+            if (charIndex == length) {
+                return limit;
+            }
+            long newlines = 0;
+            for (int i = cursorChar; i < charIndex; i++) {
+                if (text.charAt(i) == '\n') {
+                    newlines++;
+                }
+            }
+            if (newlines > 0) {
+                cursorByte = LineScanner.indexOfNewline(window, cursorByte, limit, newlines) + 1;
+            }
+            cursorChar = charIndex;
+            return cursorByte;
+        }
+
+        /** Selecciona las líneas completas de window[from, to). */
+        private void select(int from, int to) throws IOException {
+            if (from >= to) {
+                return;
+            }
+            if (!printLines) {
+                selected += LineScanner.countNewlines(window, from, to) + (window.get(to - 1) == '\n' ? 0 : 1);
+                stop = !options.count;
+                return;
+            }
+            selected++;
+            if (binary) {
+                binaryMatched = true;
+                stop = true;
+                return;
+            }
+            // Como GNU grep en un locale UTF-8, las líneas que no son UTF-8 válido no se escriben
+            boolean checkLines = !isValidUtf8(from, to);
+            if (prefix == null && !options.lineNumbers && !checkLines) {
+                input.write(window, from, to, out);
+                if (window.get(to - 1) != '\n') {
+                    out.write('\n');
+                }
+                return;
+            }
+            for (int start = from; start < to; ) {
+                int newline = LineScanner.indexOfNewline(window, start, to);
+                int end = newline < 0 ? to : newline + 1;
+                if (checkLines && !isValidUtf8(start, end)) {
+                    // Se omite y se avisa al final, como con un archivo binario
+                    binaryMatched = true;
+                    start = end;
+                    continue;
+                }
+                if (prefix != null) {
+                    out.write(prefix);
+                }
+                if (options.lineNumbers) {
+                    lineNumber += LineScanner.countNewlines(window, lineCursor, start);
+                    lineCursor = start;
+                    out.write((lineNumber + ":").getBytes(StandardCharsets.UTF_8));
+                }
+                input.write(window, start, end, out);
+                if (newline < 0) {
+                    out.write('\n');
+                }
+                start = end;
+            }
+        }
+
+        /**
+         * Decodifica la ventana en un String: si es ASCII se guarda con un byte por carácter y
+         * el Matcher lo recorre mucho más rápido que un CharBuffer. Las secuencias UTF-8 inválidas
+         * se sustituyen por U+FFFD, sin afectar a los saltos de línea.
+         */
+        private void decode() {
+            int limit = window.limit();
+            if (window.hasArray()) {
+                text = new String(window.array(), window.arrayOffset(), limit, StandardCharsets.UTF_8);
+                return;
+            }
+            if (bytes.length < limit) {
+                bytes = new byte[limit];
+            }
+            window.get(0, bytes, 0, limit);
+            text = new String(bytes, 0, limit, StandardCharsets.UTF_8);
+        }
+
+        /** Comprueba window[from, to): los bloques de ocho bytes ASCII se descartan sin decodificar. */
+        private boolean isValidUtf8(int from, int to) {
+            int i = from;
+            while (i + Long.BYTES <= to && (window.getLong(i) & 0x8080808080808080L) == 0) {
+                i += Long.BYTES;
+            }
+            while (i < to && window.get(i) >= 0) {
+                i++;
+            }
+            if (i == to) {
+                return true;
+            }
+            try {
+                validator.reset().decode(window.slice(from, to - from));
+                return true;
+            } catch (CharacterCodingException e) {
+                return false;
+            }
+        }
+
+        private static boolean containsNul(ByteBuffer buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.codecrafters.shell.commands;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Traduce los patrones de grep (expresiones regulares POSIX básicas y extendidas, o cadenas fijas)
+ * a un {@link Pattern} de Java equivalente.
+ * <p>
+ * En las básicas (BRE) '\(', '\)', '\{', '\}', '\|', '\+' y '\?' son operadores y sin barra son
+ * caracteres normales; en las extendidas (ERE) es al revés. '*' al principio, '^' fuera del
+ * principio y '$' fuera del final son literales en las básicas. Las clases '[:alpha:]'... se
+ * traducen a las de Java y '\<', '\>' a límites de palabra. Lo que no tiene traducción segura
+ * ('[=a=]', '[.a.]', cuantificadores seguidos, '\`'...) devuelve null y grep delega en el externo.
+ * <p>
+ * Como GNU grep, también se extrae la cadena literal más larga que toda coincidencia tiene que
+ * contener ('error' en 'error [0-9]+'): grep la busca directamente en los bytes y solo aplica la
+ * expresión regular a las líneas que la contienen.
+ */
+final class GrepPattern {
+    /** Sintaxis del patrón: '-G' (por defecto), '-E' o '-F'. */
+    enum Syntax { BASIC, EXTENDED, FIXED }
+
+    /**
+     * Patrón compilado.
+     * @param pattern Expresión regular de Java equivalente.
+     * @param literal Bytes UTF-8 que toda línea seleccionada contiene, o null si no hay.
+     * @param literalOnly true si contener {@code literal} ya basta para coincidir.
+     * @param literalPrefix true si toda coincidencia empieza por {@code literal}.
+     */
+    record Compiled(Pattern pattern, byte[] literal, boolean literalOnly, boolean literalPrefix) {
+    }
+
+    private static final Map<String, String> CLASSES = Map.ofEntries(
+            Map.entry("alpha", "\\p{Alpha}"), Map.entry("digit", "\\p{Digit}"),
+            Map.entry("alnum", "\\p{Alnum}"), Map.entry("upper", "\\p{Upper}"),
+            Map.entry("lower", "\\p{Lower}"), Map.entry("space", "\\p{Space}"),
+            Map.entry("blank", "\\p{Blank}"), Map.entry("punct", "\\p{Punct}"),
+            Map.entry("print", "\\p{Print}"), Map.entry("graph", "\\p{Graph}"),
+            Map.entry("cntrl", "\\p{Cntrl}"), Map.entry("xdigit", "\\p{XDigit}"));
+
+    private final String source;
+    private final boolean extended;
+    private final StringBuilder regex = new StringBuilder();
+    private int position = 0;
+    private int openGroups = 0;
+    private boolean backReferences = false;
+    /** Literales consecutivos fuera de grupos desde el último operador, y la secuencia más larga. */
+    private final StringBuilder literalRun = new StringBuilder();
+    private String longestLiteral = "";
+    /** true si el último elemento fue un literal de literalRun (un cuantificador lo hace opcional). */
+    private boolean lastLiteral = false;
+    /** true si literalRun empieza al principio del patrón, y lo mismo para longestLiteral. */
+    private boolean runAtStart = false;
+    private boolean longestAtStart = false;
+    private boolean onlyLiterals = true;
+    private boolean topLevelAlternation = false;
+
+    private GrepPattern(String source, boolean extended) {
+        this.source = source;
+        this.extended = extended;
+    }
+
+    /**
+     * Compila los patrones de grep en un único Pattern que encuentra cualquiera de ellos.
+     * Se compila con MULTILINE y UNIX_LINES para buscar sobre muchas líneas a la vez.
+     * @param patterns Patrones ('-e' o el primer operando); cada línea de un patrón es uno distinto.
+     * @param syntax Sintaxis de los patrones.
+     * @param ignoreCase '-i': sin distinguir mayúsculas.
+     * @param words '-w': solo palabras completas.
+     * @param lines '-x': solo líneas completas.
+     * @return Patrón compilado, o null si alguno no se puede traducir con seguridad.
+     * @throws java.util.regex.PatternSyntaxException Si el patrón traducido no es válido.
+     */
+    static Compiled compile(List<String> patterns, Syntax syntax, boolean ignoreCase, boolean words, boolean lines) {
+        List<String> alternatives = new ArrayList<>();
+        boolean backReferences = false;
+        String literal = null;
+        boolean literalOnly = false;
+        boolean literalPrefix = false;
+        for (String pattern : patterns) {
+            for (String part : pattern.split("\n", -1)) {
+                if (syntax == Syntax.FIXED) {
+                    alternatives.add(Pattern.quote(part));
+                    literal = part;
+                    literalOnly = true;
+                    literalPrefix = true;
+                    continue;
+                }
+                GrepPattern translation = new GrepPattern(part, syntax == Syntax.EXTENDED);
+                String regex = translation.translate();
+                if (regex == null) {
+                    return null;
+                }
+                alternatives.add(regex);
+                backReferences |= translation.backReferences;
+                literal = translation.topLevelAlternation ? null : translation.longestLiteral;
+                literalOnly = translation.onlyLiterals && !translation.topLevelAlternation;
+                literalPrefix = translation.longestAtStart;
+            }
+        }
+        if (alternatives.size() > 1 && backReferences) {
+            // Al unirlos, '\1' de un patrón podría referirse al grupo de otro
+            return null;
+        }
+        String regex = alternatives.size() == 1 ? alternatives.get(0) : "(?:" + String.join(")|(?:", alternatives) + ")";
+        if (lines) {
+            regex = "^(?:" + regex + ")$";
+        } else if (words) {
+            regex = "(?<!\\w)(?:" + regex + ")(?!\\w)";
+        }
+        int flags = Pattern.MULTILINE | Pattern.UNIX_LINES;
+        if (ignoreCase) {
+            flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        }
+        Pattern compiled = Pattern.compile(regex, flags);
+
+        // El literal solo sirve si es obligatorio en la única alternativa y no depende de mayúsculas
+        if (alternatives.size() > 1 || literal == null || literal.isEmpty()
+                || ignoreCase && literal.chars().anyMatch(Character::isLetter)) {
+            return new Compiled(compiled, null, false, false);
+        }
+        return new Compiled(compiled, literal.getBytes(StandardCharsets.UTF_8), literalOnly && !words && !lines,
+                literalPrefix && !words && !lines);
+    }
+
+    private String translate() {
+        // true donde '*' es literal y '^' es ancla en una BRE: al principio, tras '\(' y tras '\|'
+        boolean atStart = true;
+        // true tras algo que admite cuantificador; false tras otro cuantificador o un ancla
+        boolean quantifiable = false;
+        boolean afterQuantifier = false;
+        while (position < source.length()) {
+            char c = source.charAt(position++);
+            char operator = 0;
+            if (c == '\\') {
+                if (position == source.length()) {
+                    return null;
+                }
+                char escaped = source.charAt(position++);
+                if (!extended && "(){}|+?".indexOf(escaped) >= 0) {
+                    operator = escaped;
+                } else if (escaped == '<' || escaped == '>') {
+                    appendOperator(escaped == '<' ? "\\b(?=\\w)" : "\\b(?<=\\w)");
+                    quantifiable = false;
+                    afterQuantifier = false;
+                    atStart = false;
+                    continue;
+                } else if ("bBwWsS".indexOf(escaped) >= 0 || (escaped >= '1' && escaped <= '9')) {
+                    appendOperator("\\" + escaped);
+                    backReferences |= Character.isDigit(escaped);
+                    quantifiable = escaped != 'b' && escaped != 'B';
+                    afterQuantifier = false;
+                    atStart = false;
+                    continue;
+                } else if (escaped < 128 && !Character.isLetterOrDigit(escaped)) {
+                    appendLiteral(escaped);
+                    quantifiable = true;
+                    afterQuantifier = false;
+                    atStart = false;
+                    continue;
+                } else {
+                    return null;
+                }
+            } else if (extended && "(){}|+?".indexOf(c) >= 0 || "*^$.[".indexOf(c) >= 0) {
+                operator = c;
+            } else {
+                appendLiteral(c);
+                quantifiable = true;
+                afterQuantifier = false;
+                atStart = false;
+                continue;
+            }
+
+            switch (operator) {
+                case '(' -> {
+                    appendOperator("(");
+                    openGroups++;
+                    atStart = true;
+                    quantifiable = false;
+                    afterQuantifier = false;
+                    continue;
+                }
+                case ')' -> {
+                    if (openGroups == 0) {
+                        return null;
+                    }
+                    appendOperator(")");
+                    openGroups--;
+                    quantifiable = true;
+                }
+                case '|' -> {
+                    appendOperator("|");
+                    topLevelAlternation |= openGroups == 0;
+                    atStart = true;
+                    quantifiable = false;
+                    afterQuantifier = false;
+                    continue;
+                }
+                case '*', '+', '?' -> {
+                    if (afterQuantifier) {
+                        // 'a**' o 'a+?' serían perezosos o posesivos en Java
+                        return null;
+                    }
+                    if (atStart || !quantifiable) {
+                        appendLiteral(operator);
+                        quantifiable = true;
+                        afterQuantifier = false;
+                        atStart = false;
+                        continue;
+                    }
+                    appendQuantifier(String.valueOf(operator));
+                    afterQuantifier = true;
+                    atStart = false;
+                    continue;
+                }
+                case '{' -> {
+                    int start = position;
+                    String interval = interval();
+                    if (interval == null) {
+                        if (!extended) {
+                            return null;
+                        }
+                        // En una ERE, una '{' que no abre un intervalo es literal
+                        position = start;
+                        appendLiteral('{');
+                        quantifiable = true;
+                        afterQuantifier = false;
+                        atStart = false;
+                        continue;
+                    }
+                    if (afterQuantifier || atStart || !quantifiable) {
+                        return null;
+                    }
+                    appendQuantifier(interval);
+                    afterQuantifier = true;
+                    atStart = false;
+                    continue;
+                }
+                case '}' -> {
+                    appendLiteral('}');
+                    quantifiable = true;
+                }
+                case '^' -> {
+                    if (extended || atStart) {
+                        appendOperator("^");
+                        quantifiable = false;
+                        afterQuantifier = false;
+                        continue;
+                    }
+                    appendLiteral('^');
+                    quantifiable = true;
+                }
+                case '$' -> {
+                    if (extended || atEnd()) {
+                        appendOperator("$");
+                        quantifiable = false;
+                        afterQuantifier = false;
+                        atStart = false;
+                        continue;
+                    }
+                    appendLiteral('$');
+                    quantifiable = true;
+                }
+                case '.' -> {
+                    appendOperator(".");
+                    quantifiable = true;
+                }
+                case '[' -> {
+                    if (!bracket()) {
+                        return null;
+                    }
+                    quantifiable = true;
+                }
+                default -> {
+                    return null;
+                }
+            }
+            afterQuantifier = false;
+            atStart = false;
+        }
+        endLiteral();
+        return openGroups == 0 ? regex.toString() : null;
+    }
+
+    /** En una BRE, '$' es ancla al final del patrón o antes de '\)' o '\|'. */
+    private boolean atEnd() {
+        return position == source.length()
+                || source.startsWith("\\)", position) || source.startsWith("\\|", position);
+    }
+
+    /** Lee '{m}', '{m,}', '{,n}' o '{m,n}' (con '\}' en una BRE) ya pasada la llave inicial. */
+    private String interval() {
+        String close = extended ? "}" : "\\}";
+        int end = source.indexOf(close, position);
+        if (end < 0) {
+            return null;
+        }
+        String body = source.substring(position, end);
+        if (!body.matches("\\d*(,\\d*)?") || body.isEmpty() || body.equals(",")) {
+            return null;
+        }
+        position = end + close.length();
+        return "{" + (body.startsWith(",") ? "0" + body : body) + "}";
+    }
+
+    /**
+     * Traduce una expresión entre corchetes ya pasado el '['. Dentro, la barra es un carácter
+     * normal y ']' al principio también, al contrario que en Java.
+     */
+    private boolean bracket() {
+        appendOperator("[");
+        if (position < source.length() && source.charAt(position) == '^') {
+            regex.append('^');
+            position++;
+        }
+        boolean first = true;
+        while (true) {
+            if (position >= source.length()) {
+                return false;
+            }
+            char c = source.charAt(position);
+            if (c == ']' && !first) {
+                position++;
+                regex.append(']');
+                return true;
+            }
+            first = false;
+            if (c == '[' && position + 1 < source.length() && ":=.".indexOf(source.charAt(position + 1)) >= 0) {
+                char kind = source.charAt(position + 1);
+                int end = source.indexOf(kind + "]", position + 2);
+                String name = end < 0 ? null : CLASSES.get(source.substring(position + 2, end));
+                if (kind != ':' || name == null) {
+                    return false;
+                }
+                regex.append(name);
+                position = end + 2;
+                continue;
+            }
+            if ("\\[]&^".indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+            position++;
+        }
+    }
+
+    private void appendLiteral(char c) {
+        if (openGroups == 0) {
+            runAtStart |= literalRun.isEmpty() && regex.isEmpty();
+            literalRun.append(c);
+            lastLiteral = true;
+        } else {
+            endLiteral();
+        }
+        if (c < 128 && !Character.isLetterOrDigit(c) && !Character.isWhitespace(c)) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    private void appendOperator(String operator) {
+        endLiteral();
+        onlyLiterals = false;
+        regex.append(operator);
+    }
+
+    /** Un cuantificador hace opcional o repetible el último literal, que deja de ser obligatorio. */
+    private void appendQuantifier(String quantifier) {
+        if (lastLiteral) {
+            literalRun.setLength(literalRun.length() - 1);
+        }
+        appendOperator(quantifier);
+    }
+
+    private void endLiteral() {
+        if (literalRun.length() > longestLiteral.length()) {
+            longestLiteral = literalRun.toString();
+            longestAtStart = runAtStart;
+        }
+        literalRun.setLength(0);
+        runAtStart = false;
+        lastLiteral = false;
+    }
+}
@@ -0,0 +1,87 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.utils.PathCache;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comando builtin 'hash' para inspeccionar y administrar el índice de ejecutables del PATH.
+ * Sin argumentos muestra los comandos usados y sus aciertos; '-r' vacía el índice,
+ * '-R' lo reconstruye de inmediato y '-t' imprime la ruta resuelta de cada nombre.
+ */
+public class HashCommand implements BuiltinCommand {
+    private final PathCache pathCache;
+
+    public HashCommand(PathCache pathCache) {
+        this.pathCache = pathCache;
+    }
+
+    @Override
+    public String getName() {
+        return "hash";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.isEmpty()) {
+            return listHits(out);
+        }
+
+        String option = args.get(0);
+        switch (option) {
+            case "-r":
+                pathCache.clear();
+                return 0;
+            case "-R":
+                pathCache.rehash();
+                BuiltinCommand.writeLine(out, pathCache.names().size() + " executables indexed");
+                return 0;
+            case "-t":
+                return resolve(args.subList(1, args.size()), true, out, err);
+            default:
+                if (option.startsWith("-")) {
+                    BuiltinCommand.writeLine(err, "hash: " + option + ": invalid option");
+                    BuiltinCommand.writeLine(err, "hash: usage: hash [-rR] [-t name ...] [name ...]");
+                    return 2;
+                }
+                return resolve(args, false, out, err);
+        }
+    }
+
+    private int listHits(OutputStream out) throws IOException {
+        Map<String, Long> hits = pathCache.hits();
+        if (hits.isEmpty()) {
+            BuiltinCommand.writeLine(out, "hash: hash table empty");
+            return 0;
+        }
+        BuiltinCommand.writeLine(out, "hits\tcommand");
+        for (Map.Entry<String, Long> entry : hits.entrySet()) {
+            File file = pathCache.snapshot().get(entry.getKey());
+            String location = file != null ? file.getAbsolutePath() : entry.getKey();
+            BuiltinCommand.writeLine(out, String.format("%4d", entry.getValue()) + "\t" + location);
+        }
+        return 0;
+    }
+
+    private int resolve(List<String> names, boolean print, OutputStream out, OutputStream err) throws IOException {
+        if (names.isEmpty()) {
+            BuiltinCommand.writeLine(err, "hash: -t: option requires an argument");
+            return 1;
+        }
+        int exitCode = 0;
+        for (String name : names) {
+            File file = pathCache.lookup(name);
+            if (file == null) {
+                BuiltinCommand.writeLine(err, "hash: " + name + ": not found");
+                exitCode = 1;
+            } else if (print) {
+                BuiltinCommand.writeLine(out, names.size() > 1 ? name + "\t" + file.getAbsolutePath() : file.getAbsolutePath());
+            }
+        }
+        return exitCode;
+    }
+}
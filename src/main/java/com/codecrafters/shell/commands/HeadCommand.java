@@ -0,0 +1,68 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.LineScanner;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Utilidad nativa 'head' que muestra las primeras líneas ('-n N', 10 por defecto) o bytes ('-c N')
+ * de cada archivo. Solo lee hasta donde termina lo que muestra, aunque el archivo sea enorme.
+ * Los números negativos, con sufijo y el resto de opciones se delegan en el 'head' externo.
+ */
+public class HeadCommand extends TextUtilityCommand {
+    public HeadCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "head";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        LineCountOptions options = LineCountOptions.parse(args, false);
+        if (options == null) {
+            return delegate(args, in, out, err);
+        }
+        return options.forEachFile(this, in, out, err, input -> {
+            if (options.bytes) {
+                writeBytes(input, options.count, out);
+            } else {
+                writeLines(input, options.count, out);
+            }
+        });
+    }
+
+    private static void writeLines(TextInput input, long lines, OutputStream out) throws IOException {
+        long remaining = lines;
+        ByteBuffer window;
+        while (remaining > 0 && (window = input.next()) != null) {
+            long newlines = LineScanner.countNewlines(window, 0, window.limit());
+            if (newlines < remaining) {
+                input.write(window, 0, window.limit(), out);
+                remaining -= newlines;
+            } else {
+                int end = LineScanner.indexOfNewline(window, 0, window.limit(), remaining);
+                input.write(window, 0, end + 1, out);
+                remaining = 0;
+            }
+        }
+    }
+
+    private static void writeBytes(TextInput input, long bytes, OutputStream out) throws IOException {
+        long remaining = bytes;
+        ByteBuffer window;
+        while (remaining > 0 && (window = input.next()) != null) {
+            int length = (int) Math.min(window.limit(), remaining);
+            input.write(window, 0, length, out);
+            remaining -= length;
+        }
+    }
+}
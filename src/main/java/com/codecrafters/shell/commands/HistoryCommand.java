@@ -0,0 +1,116 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.history.HistoryStore;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Comando builtin 'history' que lista el historial de comandos numerado como bash.
+ * 'history n' muestra las n últimas entradas, 'history -s texto' las que contienen el texto
+ * (con el índice de búsqueda), '-r archivo' añade las líneas de un archivo, '-w archivo' escribe
+ * todo el historial y '-a archivo' anexa las entradas nuevas desde el último '-a'.
+ */
+public class HistoryCommand implements BuiltinCommand {
+    private final HistoryStore history;
+    private final WorkingDirectory workingDirectory;
+
+    public HistoryCommand(HistoryStore history, WorkingDirectory workingDirectory) {
+        this.history = history;
+        this.workingDirectory = workingDirectory;
+    }
+
+    @Override
+    public String getName() {
+        return "history";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.isEmpty()) {
+            return list(history.size(), out);
+        }
+
+        String option = args.get(0);
+        switch (option) {
+            case "-s":
+                if (args.size() < 2) {
+                    BuiltinCommand.writeLine(err, "history: -s: option requires an argument");
+                    return 2;
+                }
+                return search(String.join(" ", args.subList(1, args.size())), out);
+            case "-r":
+            case "-w":
+            case "-a":
+                if (args.size() < 2) {
+                    BuiltinCommand.writeLine(err, "history: " + option + ": option requires an argument");
+                    return 2;
+                }
+                return transfer(option, args.get(1), err);
+            default:
+                if (option.startsWith("-")) {
+                    BuiltinCommand.writeLine(err, "history: " + option + ": invalid option");
+                    BuiltinCommand.writeLine(err, "history: usage: history [n] | history -s text | history -arw file");
+                    return 2;
+                }
+                try {
+                    return list(Integer.parseInt(option), out);
+                } catch (NumberFormatException e) {
+                    BuiltinCommand.writeLine(err, "history: " + option + ": numeric argument required");
+                    return 1;
+                }
+        }
+    }
+
+    private int list(int count, OutputStream out) throws IOException {
+        int size = history.size();
+        StringBuilder text = new StringBuilder();
+        for (int i = Math.max(0, size - count); i < size; i++) {
+            appendEntry(text, i);
+        }
+        out.write(text.toString().getBytes());
+        return 0;
+    }
+
+    private int search(String query, OutputStream out) throws IOException {
+        // La búsqueda va hacia atrás; se muestran de la más antigua a la más reciente
+        Deque<Integer> matches = new ArrayDeque<>();
+        for (int i = history.search(query, history.size()); i >= 0; i = history.search(query, i)) {
+            matches.push(i);
+        }
+        StringBuilder text = new StringBuilder();
+        for (int position : matches) {
+            appendEntry(text, position);
+        }
+        out.write(text.toString().getBytes());
+        return matches.isEmpty() ? 1 : 0;
+    }
+
+    private void appendEntry(StringBuilder text, int position) {
+        text.append(String.format("%5d  %s", position + 1, history.get(position))).append('\n');
+    }
+
+    private int transfer(String option, String filename, OutputStream err) throws IOException {
+        Path file = workingDirectory.resolve(filename);
+        try {
+            if (option.equals("-r")) {
+                history.read(file);
+            } else {
+                history.write(file, option.equals("-a"));
+            }
+            return 0;
+        } catch (NoSuchFileException e) {
+            BuiltinCommand.writeLine(err, "history: " + filename + ": No such file or directory");
+            return 1;
+        } catch (IOException e) {
+            BuiltinCommand.writeLine(err, "history: " + filename + ": " + e.getMessage());
+            return 1;
+        }
+    }
+}
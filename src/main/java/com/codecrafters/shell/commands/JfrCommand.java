@@ -0,0 +1,64 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.jfr.ShellRecording;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Comando builtin 'jfr' para grabar la sesión con Java Flight Recorder.
+ * 'jfr start [archivo]' empieza a grabar (por defecto shell-PID.jfr en el directorio actual),
+ * 'jfr stop' para y escribe el archivo y 'jfr status' muestra si hay una grabación en curso.
+ */
+public class JfrCommand implements BuiltinCommand {
+    private final WorkingDirectory workingDirectory;
+
+    public JfrCommand(WorkingDirectory workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
+    @Override
+    public String getName() {
+        return "jfr";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        String action = args.isEmpty() ? "status" : args.get(0);
+        switch (action) {
+            case "start":
+                return start(args.size() > 1 ? args.get(1) : "shell-" + ProcessHandle.current().pid() + ".jfr", out, err);
+            case "stop":
+                Path file = ShellRecording.stop();
+                if (file == null) {
+                    BuiltinCommand.writeLine(err, "jfr: no recording in progress");
+                    return 1;
+                }
+                BuiltinCommand.writeLine(out, "jfr: recording written to " + file);
+                return 0;
+            case "status":
+                Path current = ShellRecording.current();
+                BuiltinCommand.writeLine(out, current == null ? "jfr: not recording" : "jfr: recording to " + current);
+                return 0;
+            default:
+                BuiltinCommand.writeLine(err, "jfr: " + action + ": invalid action");
+                BuiltinCommand.writeLine(err, "jfr: usage: jfr start [file] | stop | status");
+                return 2;
+        }
+    }
+
+    private int start(String filename, OutputStream out, OutputStream err) throws IOException {
+        Path file = workingDirectory.resolve(filename);
+        try {
+            ShellRecording.start(file);
+        } catch (IllegalStateException | IOException e) {
+            BuiltinCommand.writeLine(err, "jfr: " + e.getMessage());
+            return 1;
+        }
+        BuiltinCommand.writeLine(out, "jfr: recording to " + file);
+        return 0;
+    }
+}
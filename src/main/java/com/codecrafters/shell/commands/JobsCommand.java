@@ -0,0 +1,34 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Job;
+import com.codecrafters.shell.JobTable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Comando builtin 'jobs' que lista los trabajos en segundo plano.
+ * Con '-l' incluye el PID del último proceso de cada trabajo.
+ */
+public class JobsCommand implements BuiltinCommand {
+    private final JobTable jobTable;
+
+    public JobsCommand(JobTable jobTable) {
+        this.jobTable = jobTable;
+    }
+
+    @Override
+    public String getName() {
+        return "jobs";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        boolean showPids = args.contains("-l");
+        for (Job job : jobTable.list()) {
+            BuiltinCommand.writeLine(out, job.format(jobTable.markerOf(job), showPids));
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Job;
+import com.codecrafters.shell.JobTable;
+import com.codecrafters.shell.utils.ProcessSignals;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Comando builtin 'kill' que envía una señal (TERM por defecto) a trabajos ('%n') o PIDs.
+ * Acepta '-s SEÑAL', '-SEÑAL' y '-NÚMERO'.
+ */
+public class KillCommand implements BuiltinCommand {
+    private final JobTable jobTable;
+
+    public KillCommand(JobTable jobTable) {
+        this.jobTable = jobTable;
+    }
+
+    @Override
+    public String getName() {
+        return "kill";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        String signal = "TERM";
+        List<String> targets = new ArrayList<>(args);
+        if (!targets.isEmpty() && targets.get(0).equals("-s") && targets.size() > 1) {
+            signal = ProcessSignals.normalize(targets.get(1));
+            targets = targets.subList(2, targets.size());
+        } else if (!targets.isEmpty() && targets.get(0).startsWith("-") && targets.get(0).length() > 1) {
+            signal = ProcessSignals.normalize(targets.get(0).substring(1));
+            targets = targets.subList(1, targets.size());
+        }
+
+        if (targets.isEmpty()) {
+            BuiltinCommand.writeLine(err, "kill: usage: kill [-s sigspec | -signum | -sigspec] pid | jobspec ...");
+            return 2;
+        }
+
+        int exitCode = 0;
+        for (String target : targets) {
+            if (!signalTarget(target, signal)) {
+                BuiltinCommand.writeLine(err, "kill: " + target + ": no such job or process");
+                exitCode = 1;
+            }
+        }
+        return exitCode;
+    }
+
+    private boolean signalTarget(String target, String signal) {
+        if (target.startsWith("%")) {
+            Optional<Job> job = jobTable.find(target);
+            if (job.isEmpty()) {
+                return false;
+            }
+            boolean delivered = false;
+            for (Process process : job.get().getProcesses()) {
+                delivered |= ProcessSignals.send(process.toHandle(), signal);
+            }
+            updateState(job.get(), signal);
+            return delivered;
+        }
+
+        try {
+            Optional<ProcessHandle> process = ProcessHandle.of(Long.parseLong(target));
+            if (process.isEmpty()) {
+                return false;
+            }
+            jobTable.find(target).ifPresent(job -> updateState(job, signal));
+            return ProcessSignals.send(process.get(), signal);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void updateState(Job job, String signal) {
+        if (signal.equals("STOP") || signal.equals("TSTP")) {
+            job.setState(Job.State.STOPPED);
+        } else if (signal.equals("CONT")) {
+            job.setState(Job.State.RUNNING);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opciones comunes de 'head' y 'tail': cuántas líneas ('-n N', '-N') o bytes ('-c N') mostrar,
+ * y si se escriben las cabeceras "==> archivo <==" ('-q', '-v').
+ */
+final class LineCountOptions {
+    /** Número de líneas o bytes. */
+    long count = 10;
+    /** true con '-c': se cuentan bytes en lugar de líneas. */
+    boolean bytes = false;
+    /** true con '+N' ('tail -n +N'): se muestra desde la línea o byte N en lugar de los N últimos. */
+    boolean fromStart = false;
+    /** true con '-q', false con '-v', null si no se indicó (cabeceras solo con varios archivos). */
+    Boolean quiet = null;
+    /** Operandos; '-' o ninguno es la entrada estándar. */
+    final List<String> files = new ArrayList<>();
+
+    private LineCountOptions() {
+    }
+
+    /**
+     * Interpreta los argumentos de 'head' o 'tail'.
+     * @param args Argumentos (sin el nombre del comando).
+     * @param allowFromStart true si se acepta '+N' (solo 'tail').
+     * @return Opciones, o null si hay alguna opción o número que la utilidad nativa no implementa
+     *         (se delega entonces en el comando externo, que también informa de los errores).
+     */
+    static LineCountOptions parse(List<String> args, boolean allowFromStart) {
+        LineCountOptions options = new LineCountOptions();
+        boolean parsing = true;
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (!parsing || arg.equals("-") || !arg.startsWith("-")) {
+                options.files.add(arg);
+            } else if (arg.equals("--")) {
+                parsing = false;
+            } else if (arg.equals("-q") || arg.equals("--quiet") || arg.equals("--silent")) {
+                options.quiet = true;
+            } else if (arg.equals("-v") || arg.equals("--verbose")) {
+                options.quiet = false;
+            } else if (arg.startsWith("-n") || arg.startsWith("-c")) {
+                String value = arg.length() > 2 ? arg.substring(2) : i + 1 < args.size() ? args.get(++i) : null;
+                if (!options.setCount(value, allowFromStart)) {
+                    return null;
+                }
+                options.bytes = arg.charAt(1) == 'c';
+            } else if (!options.setCount(arg.substring(1), false)) {
+                // '-N' es la forma antigua de '-n N'; cualquier otra opción se delega
+                return null;
+            } else {
+                options.bytes = false;
+            }
+        }
+        if (options.files.isEmpty()) {
+            options.files.add("-");
+        }
+        return options;
+    }
+
+    private boolean setCount(String value, boolean allowFromStart) {
+        boolean plus = allowFromStart && value != null && value.startsWith("+");
+        long parsed = TextUtilityCommand.parseCount(plus ? value.substring(1) : value);
+        if (parsed < 0) {
+            return false;
+        }
+        count = parsed;
+        fromStart = plus;
+        return true;
+    }
+
+    /**
+     * @return true si se escribe una cabecera antes de cada archivo.
+     */
+    boolean headers() {
+        return quiet == null ? files.size() > 1 : !quiet;
+    }
+
+    /**
+     * Recorre los operandos como 'head' y 'tail' de coreutils: cabecera antes de cada archivo
+     * (separada del anterior por una línea en blanco) y, si no se puede abrir, el error en su lugar.
+     * Un directorio muestra su cabecera seguida de "error reading".
+     * @param command Utilidad que abre los operandos.
+     * @param in Entrada estándar.
+     * @param out Salida estándar.
+     * @param err Salida de error.
+     * @param body Lo que se hace con cada entrada abierta.
+     * @return Código de salida: 1 si algún archivo no se pudo leer.
+     * @throws IOException Si falla la escritura en {@code out}.
+     */
+    int forEachFile(TextUtilityCommand command, InputStream in, OutputStream out, OutputStream err, Body body)
+            throws IOException {
+        String name = command.getName();
+        boolean headers = headers();
+        boolean first = true;
+        int exitCode = 0;
+        for (String file : files) {
+            String displayName = file.equals("-") ? "standard input" : file;
+            TextInput input;
+            try {
+                input = command.open(file, in);
+            } catch (IOException e) {
+                if (TextUtilityCommand.isDirectory(e) && headers) {
+                    writeHeader(out, displayName, first);
+                    first = false;
+                }
+                // Lo ya escrito en la salida va antes que el error
+                out.flush();
+                if (TextUtilityCommand.isDirectory(e)) {
+                    BuiltinCommand.writeLine(err, name + ": error reading '" + displayName + "': "
+                            + TextInput.IS_A_DIRECTORY);
+                } else {
+                    BuiltinCommand.writeLine(err, name + ": cannot open '" + displayName + "' for reading: "
+                            + BuiltinCommand.fileErrorReason(e));
+                }
+                exitCode = 1;
+                continue;
+            }
+            try (input) {
+                if (headers) {
+                    writeHeader(out, displayName, first);
+                    first = false;
+                }
+                body.accept(input);
+            }
+        }
+        return exitCode;
+    }
+
+    private static void writeHeader(OutputStream out, String displayName, boolean first) throws IOException {
+        out.write(((first ? "" : "\n") + "==> " + displayName + " <==\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Proceso de una entrada ya abierta. */
+    @FunctionalInterface
+    interface Body {
+        void accept(TextInput input) throws IOException;
+    }
+}
@@ -0,0 +1,376 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.BoundedCapture;
+import com.codecrafters.shell.PipelineExecutor;
+import com.codecrafters.shell.glob.GlobExpander;
+import com.codecrafters.shell.parser.CommandParser;
+import com.codecrafters.shell.parser.Pipeline;
+import com.codecrafters.shell.parser.SimpleCommand;
+import com.codecrafters.shell.parser.SyntaxException;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Comando builtin 'parallel' que ejecuta una plantilla de comando para cada elemento, como 'xargs -P'.
+ * Los elementos son los argumentos tras ':::' o, si no hay, las líneas de la entrada estándar.
+ * Cada '{}' de la plantilla se sustituye por el elemento; si no aparece, el elemento se añade al final.
+ * Una plantilla de varios argumentos es el comando ya separado; una de un solo argumento es una
+ * tubería que se parsea como una línea del shell, con el elemento entrecomillado si hace falta
+ * (como GNU parallel: 'parallel "echo item {} | wc -c" ::: a b').
+ * <p>
+ * Cada elemento corre en un hilo virtual y un semáforo limita cuántos se ejecutan a la vez
+ * ('-j N', por defecto el número de núcleos). La salida de cada elemento se guarda y se escribe de
+ * una vez al terminar, así que no se mezcla con la de otros; con '-k' se escribe en el orden de los
+ * elementos. Lo guardado pasa de memoria a un archivo temporal cuando un elemento escribe mucho o
+ * cuando se retiene demasiada salida detrás de un elemento lento. El código de salida es el número
+ * de elementos fallidos (como GNU parallel, hasta 101).
+ */
+public class ParallelCommand implements BuiltinCommand {
+    private static final String ITEMS_SEPARATOR = ":::";
+    private static final String PLACEHOLDER = "{}";
+    private static final int MAX_FAILURES_STATUS = 101;
+    /** Salida de un elemento que se guarda en memoria antes de pasar a un archivo temporal. */
+    private static final int ITEM_MEMORY_LIMIT = 64 << 10;
+    /** Salida retenida en memoria por '-k' detrás de un elemento que no ha terminado. */
+    private static final int HOLDBACK_MEMORY_LIMIT = BoundedCapture.DEFAULT_LIMIT;
+
+    private final PipelineExecutor pipelineExecutor;
+    private final CommandParser parser;
+    private final UnaryOperator<String> variables;
+    private final GlobExpander globs;
+
+    /**
+     * @param pipelineExecutor Ejecutor de la tubería de cada elemento.
+     * @param parser Parser de las plantillas de un solo argumento.
+     * @param variables Valor de cada variable de esas plantillas, o null si no está definida.
+     * @param globs Expansor de sus comodines.
+     */
+    public ParallelCommand(PipelineExecutor pipelineExecutor, CommandParser parser, UnaryOperator<String> variables,
+                           GlobExpander globs) {
+        this.pipelineExecutor = pipelineExecutor;
+        this.parser = parser;
+        this.variables = variables;
+        this.globs = globs;
+    }
+
+    @Override
+    public String getName() {
+        return "parallel";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws Exception {
+        int jobs = Runtime.getRuntime().availableProcessors();
+        boolean keepOrder = false;
+        int i = 0;
+        for (; i < args.size() && args.get(i).startsWith("-"); i++) {
+            String option = args.get(i);
+            if (option.equals("-k")) {
+                keepOrder = true;
+            } else if (option.startsWith("-j")) {
+                String value = option.length() > 2 ? option.substring(2) : (i + 1 < args.size() ? args.get(++i) : null);
+                jobs = parseJobs(value);
+                if (jobs <= 0) {
+                    BuiltinCommand.writeLine(err, "parallel: -j: invalid number of jobs: " + value);
+                    return 2;
+                }
+            } else {
+                BuiltinCommand.writeLine(err, "parallel: " + option + ": invalid option");
+                return usage(err);
+            }
+        }
+
+        List<String> rest = args.subList(i, args.size());
+        int separator = rest.indexOf(ITEMS_SEPARATOR);
+        List<String> template = separator >= 0 ? rest.subList(0, separator) : rest;
+        if (template.isEmpty()) {
+            return usage(err);
+        }
+        String commandLine = template.size() == 1 ? template.get(0) : null;
+        if (commandLine != null) {
+            try {
+                parser.parsePipeline(substitute(commandLine, "item"));
+            } catch (SyntaxException e) {
+                BuiltinCommand.writeLine(err, "parallel: " + e.getMessage());
+                return 2;
+            }
+        }
+        Iterator<String> items = separator >= 0
+                ? rest.subList(separator + 1, rest.size()).iterator()
+                : new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)).lines().iterator();
+
+        GroupedOutput output = new GroupedOutput(out, err, keepOrder);
+        Semaphore slots = new Semaphore(jobs);
+        AtomicInteger failures = new AtomicInteger();
+        // close() del ejecutor espera a que terminen todos los elementos
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            int sequence = 0;
+            while (items.hasNext()) {
+                String item = items.next();
+                if (separator < 0 && item.isEmpty()) {
+                    continue;
+                }
+                slots.acquire();
+                int position = sequence++;
+                threads.execute(() -> {
+                    try {
+                        Pipeline pipeline = commandLine != null
+                                ? parser.parsePipeline(substitute(commandLine, item)).expand(variables, globs)
+                                : new Pipeline(List.of(new SimpleCommand(expand(template, item), List.of())));
+                        if (runItem(pipeline, position, output) != 0) {
+                            failures.incrementAndGet();
+                        }
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        }
+        out.flush();
+        err.flush();
+        return Math.min(failures.get(), MAX_FAILURES_STATUS);
+    }
+
+    private int runItem(Pipeline pipeline, int position, GroupedOutput output) {
+        ItemBuffer itemOut = new ItemBuffer();
+        ItemBuffer itemErr = new ItemBuffer();
+        int exitCode = pipelineExecutor.execute(pipeline, itemOut, itemErr);
+        output.completed(position, itemOut, itemErr);
+        return exitCode;
+    }
+
+    /**
+     * Sustituye '{}' por el elemento en una plantilla que es una línea del shell, o lo añade al
+     * final. El elemento va entre comillas simples si tiene algo que el parser interpretaría.
+     */
+    private static String substitute(String commandLine, String item) {
+        String quoted = item.chars().allMatch(ParallelCommand::isPlain) && !item.isEmpty()
+                ? item
+                : "'" + item.replace("'", "'\\''") + "'";
+        return commandLine.contains(PLACEHOLDER)
+                ? commandLine.replace(PLACEHOLDER, quoted)
+                : commandLine + " " + quoted;
+    }
+
+    private static boolean isPlain(int c) {
+        return (c < 128 && Character.isLetterOrDigit(c)) || "-_./,:=@%+".indexOf(c) >= 0;
+    }
+
+    /**
+     * Sustituye '{}' por el elemento en cada argumento de la plantilla,
+     * o añade el elemento como último argumento si la plantilla no lo usa.
+     */
+    private static List<String> expand(List<String> template, String item) {
+        List<String> command = new ArrayList<>(template.size() + 1);
+        boolean substituted = false;
+        for (String arg : template) {
+            if (arg.contains(PLACEHOLDER)) {
+                command.add(arg.replace(PLACEHOLDER, item));
+                substituted = true;
+            } else {
+                command.add(arg);
+            }
+        }
+        if (!substituted) {
+            command.add(item);
+        }
+        return command;
+    }
+
+    private static int parseJobs(String value) {
+        try {
+            return value == null ? -1 : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int usage(OutputStream err) throws IOException {
+        BuiltinCommand.writeLine(err, "parallel: usage: parallel [-k] [-j jobs] command [arg ...] [::: item ...]");
+        return 2;
+    }
+
+    /**
+     * Escribe la salida de cada elemento completa: en orden de finalización o, con 'keepOrder',
+     * reteniendo las que terminan antes que un elemento anterior. Lo retenido ocupa en memoria
+     * como mucho {@link #HOLDBACK_MEMORY_LIMIT} bytes; lo que no cabe espera en disco.
+     */
+    private static final class GroupedOutput {
+        private final OutputStream out;
+        private final OutputStream err;
+        private final boolean keepOrder;
+        private final Map<Integer, ItemBuffer[]> waiting = new HashMap<>();
+        private int next = 0;
+        private long heldInMemory = 0;
+
+        GroupedOutput(OutputStream out, OutputStream err, boolean keepOrder) {
+            this.out = out;
+            this.err = err;
+            this.keepOrder = keepOrder;
+        }
+
+        synchronized void completed(int position, ItemBuffer itemOut, ItemBuffer itemErr) {
+            if (keepOrder && position != next) {
+                hold(position, itemOut, itemErr);
+                return;
+            }
+            write(itemOut, itemErr);
+            if (!keepOrder) {
+                return;
+            }
+            next++;
+            ItemBuffer[] ready;
+            while ((ready = waiting.remove(next)) != null) {
+                heldInMemory -= ready[0].memorySize() + ready[1].memorySize();
+                write(ready[0], ready[1]);
+                next++;
+            }
+        }
+
+        private void hold(int position, ItemBuffer itemOut, ItemBuffer itemErr) {
+            long size = itemOut.memorySize() + itemErr.memorySize();
+            if (heldInMemory + size > HOLDBACK_MEMORY_LIMIT) {
+                try {
+                    itemOut.spill();
+                    itemErr.spill();
+                } catch (IOException e) {
+                    // Sin espacio en disco: se retiene en memoria
+                }
+            }
+            heldInMemory += itemOut.memorySize() + itemErr.memorySize();
+            waiting.put(position, new ItemBuffer[] {itemOut, itemErr});
+        }
+
+        private void write(ItemBuffer itemOut, ItemBuffer itemErr) {
+            try {
+                itemOut.writeTo(out);
+                out.flush();
+                itemErr.writeTo(err);
+                err.flush();
+            } catch (IOException e) {
+                // Destino cerrado (p. ej. la etapa siguiente de la tubería ya terminó)
+            } finally {
+                itemOut.discard();
+                itemErr.discard();
+            }
+        }
+    }
+
+    /**
+     * Salida guardada de un elemento: en memoria hasta {@link #ITEM_MEMORY_LIMIT} bytes y, a partir
+     * de ahí, en un archivo temporal, para que un elemento con mucha salida no la acumule en el heap.
+     * La escriben a la vez las etapas de su tubería. Si no se puede crear el archivo, lo que no cabe
+     * en memoria se descarta y se avisa al final.
+     */
+    private static final class ItemBuffer extends OutputStream {
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+        private IOException failure;
+        private boolean truncated;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (fileOut == null && memory.size() + len > ITEM_MEMORY_LIMIT && failure == null) {
+                try {
+                    spill();
+                } catch (IOException e) {
+                    // Ya registrado en failure
+                }
+            }
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else if (failure == null || memory.size() + len <= ITEM_MEMORY_LIMIT) {
+                memory.write(b, off, len);
+            } else {
+                truncated = true;
+            }
+        }
+
+        synchronized int memorySize() {
+            return memory.size();
+        }
+
+        /**
+         * Pasa lo guardado en memoria a un archivo temporal, donde va también lo que se escriba después.
+         */
+        synchronized void spill() throws IOException {
+            if (fileOut != null) {
+                return;
+            }
+            try {
+                file = Files.createTempFile("parallel-", ".out");
+                fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+                memory.writeTo(fileOut);
+                memory = new ByteArrayOutputStream();
+            } catch (IOException e) {
+                failure = e;
+                deleteFile();
+                throw e;
+            }
+        }
+
+        synchronized void writeTo(OutputStream target) throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+                Files.copy(file, target);
+            } else {
+                memory.writeTo(target);
+            }
+            if (truncated) {
+                target.write(("parallel: output truncated: " + failure.getMessage() + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        /**
+         * Libera lo guardado y borra el archivo temporal, si lo hay.
+         */
+        synchronized void discard() {
+            memory = new ByteArrayOutputStream();
+            deleteFile();
+        }
+
+        private void deleteFile() {
+            if (fileOut != null) {
+                try {
+                    fileOut.close();
+                } catch (IOException ignored) {
+                    // Solo se va a borrar
+                }
+                fileOut = null;
+            }
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // Se queda en el directorio temporal
+                }
+                file = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.WorkingDirectory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Comando builtin 'popd' que quita un directorio de la pila de 'pushd'.
+ * Sin argumentos vuelve al último directorio apilado; con '+N'/'-N' quita esa entrada
+ * (y solo cambia de directorio si es la primera). Después muestra la pila como 'dirs'.
+ */
+public class PopdCommand implements BuiltinCommand {
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+
+    public PopdCommand(Environment environment, WorkingDirectory workingDirectory) {
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+    }
+
+    @Override
+    public String getName() {
+        return "popd";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.size() > 1) {
+            BuiltinCommand.writeLine(err, "popd: too many arguments");
+            return 1;
+        }
+
+        List<Path> stack = workingDirectory.stack();
+        if (stack.size() < 2) {
+            BuiltinCommand.writeLine(err, "popd: directory stack empty");
+            return 1;
+        }
+        int index = 0;
+        if (!args.isEmpty()) {
+            String arg = args.get(0);
+            if (!DirsCommand.isStackIndex(arg)) {
+                BuiltinCommand.writeLine(err, "popd: " + arg + ": invalid argument");
+                BuiltinCommand.writeLine(err, "popd: usage: popd [+N | -N]");
+                return 2;
+            }
+            index = DirsCommand.stackIndex(arg, stack.size());
+            if (index < 0) {
+                BuiltinCommand.writeLine(err, "popd: " + arg + ": directory stack index out of range");
+                return 1;
+            }
+        }
+
+        try {
+            workingDirectory.pop(index);
+        } catch (IOException e) {
+            BuiltinCommand.writeLine(err, BuiltinCommand.fileError("popd", stack.get(1).toString(), e));
+            return 1;
+        }
+        BuiltinCommand.writeLine(out, DirsCommand.format(workingDirectory.stack(), environment.get("HOME")));
+        return 0;
+    }
+}
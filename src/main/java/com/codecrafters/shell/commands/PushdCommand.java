@@ -0,0 +1,71 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.WorkingDirectory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Comando builtin 'pushd' que apila el directorio actual y cambia a otro.
+ * Sin argumentos intercambia los dos primeros directorios de la pila y con '+N'/'-N' la rota
+ * hasta que esa entrada queda en cabeza. Después muestra la pila como 'dirs'.
+ */
+public class PushdCommand implements BuiltinCommand {
+    private final Environment environment;
+    private final WorkingDirectory workingDirectory;
+
+    public PushdCommand(Environment environment, WorkingDirectory workingDirectory) {
+        this.environment = environment;
+        this.workingDirectory = workingDirectory;
+    }
+
+    @Override
+    public String getName() {
+        return "pushd";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (args.size() > 1) {
+            BuiltinCommand.writeLine(err, "pushd: too many arguments");
+            return 1;
+        }
+
+        String target = args.isEmpty() ? null : args.get(0);
+        try {
+            if (target == null) {
+                if (workingDirectory.stack().size() < 2) {
+                    BuiltinCommand.writeLine(err, "pushd: no other directory");
+                    return 1;
+                }
+                workingDirectory.exchange();
+            } else if (DirsCommand.isStackIndex(target)) {
+                int index = DirsCommand.stackIndex(target, workingDirectory.stack().size());
+                if (index < 0) {
+                    BuiltinCommand.writeLine(err, "pushd: " + target + ": directory stack index out of range");
+                    return 1;
+                }
+                if (index > 0) {
+                    workingDirectory.rotate(index);
+                }
+            } else {
+                workingDirectory.push(expandHome(target));
+            }
+        } catch (IOException e) {
+            BuiltinCommand.writeLine(err, BuiltinCommand.fileError("pushd", target != null ? target : "", e));
+            return 1;
+        }
+        BuiltinCommand.writeLine(out, DirsCommand.format(workingDirectory.stack(), environment.get("HOME")));
+        return 0;
+    }
+
+    private String expandHome(String path) {
+        String home = environment.get("HOME");
+        if (home != null && (path.equals("~") || path.startsWith("~/"))) {
+            return home + path.substring(1);
+        }
+        return path;
+    }
+}
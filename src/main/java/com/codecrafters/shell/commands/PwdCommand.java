@@ -1,19 +1,29 @@
 package com.codecrafters.shell.commands;
 
-import com.codecrafters.shell.ExecutionResult;
+import com.codecrafters.shell.WorkingDirectory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
  * Comando builtin 'pwd' que imprime el directorio de trabajo actual.
  */
 public class PwdCommand implements BuiltinCommand {
+    private final WorkingDirectory workingDirectory;
+
+    public PwdCommand(WorkingDirectory workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
     @Override
     public String getName() {
         return "pwd";
     }
 
     @Override
-    public ExecutionResult execute(List<String> args) {
-        return new ExecutionResult(System.getProperty("user.dir"), null, 0);
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        BuiltinCommand.writeLine(out, workingDirectory.get().toString());
+        return 0;
     }
 }
@@ -0,0 +1,67 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.metrics.LatencyHistogram;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Comando builtin 'stats' que muestra las métricas acumuladas en la sesión:
+ * comandos ejecutados, códigos de salida, aciertos del índice del PATH, bytes redirigidos
+ * y latencias (línea completa, arranque de procesos y autocompletado). '-r' las pone a cero.
+ */
+public class StatsCommand implements BuiltinCommand {
+    private final ShellMetrics metrics;
+
+    public StatsCommand(ShellMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return "stats";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        if (!args.isEmpty()) {
+            if (args.get(0).equals("-r")) {
+                metrics.reset();
+                return 0;
+            }
+            BuiltinCommand.writeLine(err, "stats: " + args.get(0) + ": invalid option");
+            BuiltinCommand.writeLine(err, "stats: usage: stats [-r]");
+            return 2;
+        }
+
+        BuiltinCommand.writeLine(out, "commands\tbuiltin " + metrics.getBuiltinCommands()
+                + "  external " + metrics.getExternalCommands() + "  pipelines " + metrics.getPipelines());
+        StringBuilder exitCodes = new StringBuilder("exit codes");
+        for (Map.Entry<String, Long> entry : metrics.getExitCodes().entrySet()) {
+            exitCodes.append(exitCodes.length() == 10 ? "\t" : "  ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        BuiltinCommand.writeLine(out, exitCodes.toString());
+        BuiltinCommand.writeLine(out, "path cache\thits " + metrics.getPathCacheHits() + "  misses " + metrics.getPathCacheMisses());
+        BuiltinCommand.writeLine(out, "redirected\t" + metrics.getRedirectedBytes() + " bytes");
+        BuiltinCommand.writeLine(out, String.format(Locale.ROOT, "%-12s %8s %9s %9s %9s %9s %9s",
+                "latency(ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        writeLatency(out, "command", metrics.getCommandLatency());
+        writeLatency(out, "spawn", metrics.getSpawnLatency());
+        writeLatency(out, "completion", metrics.getCompletionLatency());
+        return 0;
+    }
+
+    private static void writeLatency(OutputStream out, String name, LatencyHistogram histogram) throws IOException {
+        BuiltinCommand.writeLine(out, String.format(Locale.ROOT, "%-12s %8d %9.3f %9.3f %9.3f %9.3f %9.3f",
+                name, histogram.getCount(), millis(histogram.getMean()), millis(histogram.getPercentile(50)),
+                millis(histogram.getPercentile(90)), millis(histogram.getPercentile(99)), millis(histogram.getMax())));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.LineScanner;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Utilidad nativa 'tail' que muestra las últimas líneas ('-n N', 10 por defecto) o bytes ('-c N')
+ * de cada archivo, o desde la línea o byte N en adelante ('-n +N', '-c +N').
+ * <p>
+ * Un archivo mapeado se recorre hacia atrás desde el final, así que 'tail' de un archivo de varios
+ * gigas solo toca sus últimas páginas. Una tubería se lee entera guardando solo los últimos bloques.
+ * '-f' y el resto de opciones se delegan en el 'tail' externo.
+ */
+public class TailCommand extends TextUtilityCommand {
+    /** Tamaño de los bloques con los que se recorre hacia atrás un archivo mapeado. */
+    private static final int BACKWARD_WINDOW_SIZE = 1 << 20;
+
+    public TailCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "tail";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        LineCountOptions options = LineCountOptions.parse(args, true);
+        if (options == null) {
+            return delegate(args, in, out, err);
+        }
+        return options.forEachFile(this, in, out, err, input -> {
+            if (options.fromStart) {
+                // '+0' es lo mismo que '+1': todo el archivo
+                writeFrom(input, Math.max(options.count - 1, 0), options.bytes, out);
+            } else if (input.size() >= 0) {
+                writeMappedTail(input, options.count, options.bytes, out);
+            } else {
+                writeStreamTail(input, options.count, options.bytes, out);
+            }
+        });
+    }
+
+    /** Salta {@code skip} líneas o bytes y escribe el resto de la entrada. */
+    private static void writeFrom(TextInput input, long skip, boolean bytes, OutputStream out) throws IOException {
+        long remaining = skip;
+        ByteBuffer window;
+        while ((window = input.next()) != null) {
+            int start = 0;
+            if (remaining > 0) {
+                if (bytes) {
+                    start = (int) Math.min(window.limit(), remaining);
+                    remaining -= start;
+                } else {
+                    long newlines = LineScanner.countNewlines(window, 0, window.limit());
+                    if (newlines < remaining) {
+                        remaining -= newlines;
+                        continue;
+                    }
+                    start = LineScanner.indexOfNewline(window, 0, window.limit(), remaining) + 1;
+                    remaining = 0;
+                }
+            }
+            input.write(window, start, window.limit(), out);
+        }
+    }
+
+    private static void writeMappedTail(TextInput input, long count, boolean bytes, OutputStream out)
+            throws IOException {
+        long size = input.size();
+        long start = bytes ? Math.max(size - count, 0) : mappedTailStart(input, count);
+        for (long position = start; position < size; position += BACKWARD_WINDOW_SIZE) {
+            int length = (int) Math.min(BACKWARD_WINDOW_SIZE, size - position);
+            input.write(input.window(position, length), 0, length, out);
+        }
+    }
+
+    /**
+     * @return Posición del archivo mapeado donde empiezan sus últimas {@code lines} líneas.
+     */
+    private static long mappedTailStart(TextInput input, long lines) {
+        long size = input.size();
+        if (lines == 0) {
+            return size;
+        }
+        // El '\n' final termina la última línea, no empieza otra
+        long end = size;
+        if (end > 0 && input.window(end - 1, 1).get(0) == '\n') {
+            end--;
+        }
+        long remaining = lines;
+        while (end > 0) {
+            int length = (int) Math.min(BACKWARD_WINDOW_SIZE, end);
+            long offset = end - length;
+            ByteBuffer window = input.window(offset, length);
+            int newline = LineScanner.lastIndexOfNewline(window, 0, length, remaining);
+            if (newline >= 0) {
+                return offset + newline + 1;
+            }
+            remaining -= LineScanner.countNewlines(window, 0, length);
+            end = offset;
+        }
+        return 0;
+    }
+
+    /**
+     * Lee un flujo entero guardando solo los bloques finales que contienen lo que se va a mostrar.
+     */
+    private static void writeStreamTail(TextInput input, long count, boolean bytes, OutputStream out)
+            throws IOException {
+        if (count == 0) {
+            while (input.next() != null) {
+                // Como coreutils, se consume la entrada aunque no se muestre nada
+            }
+            return;
+        }
+        Deque<byte[]> blocks = new ArrayDeque<>();
+        Deque<Long> blockCounts = new ArrayDeque<>();
+        // Bytes o saltos de línea de los bloques guardados
+        long total = 0;
+        // Con líneas hace falta un salto más que líneas: el que precede a la primera
+        long needed = bytes ? count : count + 1;
+        ByteBuffer window;
+        while ((window = input.next()) != null) {
+            byte[] block = new byte[window.limit()];
+            window.get(0, block);
+            long blockCount = bytes ? block.length : LineScanner.countNewlines(window, 0, window.limit());
+            blocks.addLast(block);
+            blockCounts.addLast(blockCount);
+            total += blockCount;
+            while (blocks.size() > 1 && total - blockCounts.peekFirst() >= needed) {
+                blocks.removeFirst();
+                total -= blockCounts.removeFirst();
+            }
+        }
+
+        int length = 0;
+        for (byte[] block : blocks) {
+            length += block.length;
+        }
+        ByteBuffer tail = ByteBuffer.allocate(length).order(ByteOrder.nativeOrder());
+        for (byte[] block : blocks) {
+            tail.put(block);
+        }
+        int start;
+        if (bytes) {
+            start = (int) Math.max(length - count, 0);
+        } else {
+            int end = length > 0 && tail.get(length - 1) == '\n' ? length - 1 : length;
+            start = LineScanner.lastIndexOfNewline(tail, 0, end, count) + 1;
+        }
+        out.write(tail.array(), start, length - start);
+    }
+}
@@ -0,0 +1,121 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.RedirectionFiles;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base de las utilidades de texto nativas ('cat', 'head', 'tail', 'wc', 'grep'): builtins que hacen
+ * en el propio proceso del shell lo mismo que coreutils y grep en los casos habituales, sin arrancar
+ * un proceso. Los archivos se leen mapeados en memoria ({@link TextInput}). 'find' y 'du' también
+ * son utilidades nativas, que recorren directorios en paralelo ({@link TreeWalker}).
+ * <p>
+ * Las opciones que una utilidad no implementa se delegan en el ejecutable del mismo nombre, con los
+ * mismos argumentos y la misma entrada, así que el resultado nunca es peor que sin la utilidad nativa.
+ */
+public abstract class TextUtilityCommand implements BuiltinCommand {
+    private final WorkingDirectory workingDirectory;
+    private final ExternalCommandExecutor executor;
+
+    protected TextUtilityCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        this.workingDirectory = workingDirectory;
+        this.executor = executor;
+    }
+
+    @Override
+    public final int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        try {
+            int exitCode = run(args, in, out, err);
+            out.flush();
+            return exitCode;
+        } catch (IOException e) {
+            // Los errores al abrir cada archivo se informan dentro de run(): aquí solo llegan los de
+            // escritura. Si el lector de la tubería se fue, se termina en silencio como con SIGPIPE.
+            if (out instanceof RedirectionFiles.FileOutput) {
+                BuiltinCommand.writeLine(err, getName() + ": write error: " + e.getMessage());
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Ejecuta la utilidad. Los errores de cada archivo se informan en {@code err} y no interrumpen los demás.
+     * @param args Argumentos (sin el nombre del comando).
+     * @param in Entrada estándar, que se lee con el operando '-' o sin operandos.
+     * @param out Salida estándar.
+     * @param err Salida de error.
+     * @return Código de salida.
+     * @throws IOException Si falla la escritura en {@code out}.
+     */
+    protected abstract int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException;
+
+    /**
+     * Abre un operando: '-' es la entrada estándar y el resto, rutas relativas al directorio del shell.
+     * @param operand Operando de la línea de comandos.
+     * @param in Entrada estándar del comando.
+     * @return Entrada abierta.
+     * @throws IOException Si el archivo no se puede abrir.
+     */
+    protected TextInput open(String operand, InputStream in) throws IOException {
+        return operand.equals("-") ? TextInput.of(in) : TextInput.open(workingDirectory.resolve(operand));
+    }
+
+    /**
+     * @param operand Ruta indicada por el usuario.
+     * @return Ruta resuelta contra el directorio de trabajo del shell.
+     */
+    protected Path resolve(String operand) {
+        return workingDirectory.resolve(operand);
+    }
+
+    /**
+     * Ejecuta el comando externo del mismo nombre con los mismos argumentos, para las opciones
+     * que la utilidad nativa no implementa.
+     * @param args Argumentos (sin el nombre del comando).
+     * @param in Entrada estándar.
+     * @param out Salida estándar.
+     * @param err Salida de error.
+     * @return Código de salida del comando externo.
+     */
+    protected int delegate(List<String> args, InputStream in, OutputStream out, OutputStream err) {
+        List<String> command = new ArrayList<>(args.size() + 1);
+        command.add(getName());
+        command.addAll(args);
+        return executor.execute(command, in, out, err).exitCode;
+    }
+
+    /**
+     * @param e Error al abrir un operando.
+     * @return true si el operando era un directorio.
+     */
+    protected static boolean isDirectory(IOException e) {
+        return e instanceof FileSystemException
+                && TextInput.IS_A_DIRECTORY.equals(((FileSystemException) e).getReason());
+    }
+
+    /**
+     * Interpreta el número de una opción ('-n 10').
+     * @param value Texto del número.
+     * @return Valor, o -1 si no es un entero no negativo sin sufijos (que se delegan al comando externo).
+     */
+    protected static long parseCount(String value) {
+        if (value == null || value.isEmpty() || value.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return Long.parseLong(value);
+    }
+}
@@ -0,0 +1,486 @@
+package com.codecrafters.shell.commands;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Recorrido paralelo de árboles de directorios para 'find' y 'du'.
+ * <p>
+ * Cada directorio es una tarea de un {@link ForkJoinPool} ({@link Directory}) que lista sus entradas,
+ * visita cada una ({@link #visit}) y crea una tarea por subdirectorio: el trabajo se reparte por
+ * subdirectorios y los hilos libres roban los pendientes. Un directorio termina cuando han terminado
+ * todos sus subdirectorios ({@link #completed}), que es cuando 'du' conoce su total.
+ * <p>
+ * La salida de cada directorio se guarda en bloques y solo el hilo que llama a {@link #walk} la escribe,
+ * a medida que están listos (un PipedOutputStream exige además que su escritor siga vivo). Sin orden,
+ * cada bloque sale en cuanto su directorio se ha listado o ha terminado. Con orden, las entradas de cada
+ * directorio se ordenan por nombre y los bloques se escriben en el orden del recorrido en profundidad,
+ * esperando a cada subdirectorio cuando le toca: la salida es siempre la misma y empieza a salir mientras
+ * el resto del árbol se sigue recorriendo en paralelo.
+ */
+abstract class TreeWalker implements AutoCloseable {
+    /** Opción de 'find' y 'du' (extensión de este shell) que pide el recorrido ordenado. */
+    static final String SORTED_OPTION = "--sorted";
+    private static final Object END = new Object();
+    private static final int LISTING = 0;
+    private static final int LISTED = 1;
+    private static final int COMPLETED = 2;
+
+    private final boolean sorted;
+    private final ForkJoinPool pool;
+    /** Bloques listos para escribir, sin orden. */
+    private final BlockingQueue<Object> ready = new LinkedBlockingQueue<>();
+    private volatile boolean failed;
+    private volatile boolean cancelled;
+
+    /**
+     * @param sorted Si las entradas se recorren ordenadas por nombre y la salida es determinista.
+     */
+    protected TreeWalker(boolean sorted) {
+        this.sorted = sorted;
+        this.pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Visita una entrada de un directorio, desde uno de los hilos del recorrido. Lo que escriba en
+     * {@code parent} sale en su posición del recorrido; si es un directorio en el que hay que entrar,
+     * se llama a {@link Directory#descend}.
+     * @param parent Directorio que se está listando.
+     * @param entry Ruta de la entrada.
+     * @param path Ruta tal como se muestra (la del argumento, seguida de los nombres).
+     * @param name Nombre de la entrada.
+     */
+    protected abstract void visit(Directory parent, Path entry, String path, String name);
+
+    /**
+     * Se llama cuando un directorio y todos sus subdirectorios se han recorrido, también para el
+     * directorio ficticio de {@link #walk} (con profundidad -1). Lo que escriba en {@code directory}
+     * sale después de todo su contenido.
+     * @param directory Directorio terminado.
+     */
+    protected void completed(Directory directory) {
+    }
+
+    /**
+     * Se llama si un directorio no se puede listar.
+     * @param directory Directorio.
+     * @param e Error al listarlo.
+     */
+    protected abstract void listFailed(Directory directory, IOException e);
+
+    /**
+     * Recorre un argumento: lo visita como única entrada de un directorio ficticio y, si entra en él,
+     * recorre su árbol en paralelo. Vuelve cuando toda la salida está escrita.
+     * @param start Ruta resuelta del argumento.
+     * @param path Argumento tal como lo escribió el usuario.
+     * @param out Salida estándar, que solo se escribe desde este hilo.
+     * @param err Salida de error.
+     * @return Directorio ficticio, cuyo {@link Directory#total} es el total del argumento.
+     * @throws IOException Si falla la escritura.
+     */
+    final Directory walk(Path start, String path, OutputStream out, OutputStream err) throws IOException {
+        Directory top = new Directory(null, start, path, -1);
+        pool.execute(top);
+        try {
+            if (sorted) {
+                writeSorted(top, out, err);
+            } else {
+                writeReady(out, err);
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (IOException e) {
+            cancelled = true;
+            throw e;
+        }
+        // Propaga los errores inesperados de las tareas
+        top.join();
+        return top;
+    }
+
+    /**
+     * @return true si se ha informado algún error con {@link Directory#error}.
+     */
+    final boolean failed() {
+        return failed;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    private void writeReady(OutputStream out, OutputStream err) throws IOException, InterruptedException {
+        while (true) {
+            Object block = ready.poll();
+            if (block == null) {
+                // Lo escrito hasta ahora sale mientras se espera al resto
+                out.flush();
+                block = ready.take();
+            }
+            if (block == END) {
+                return;
+            }
+            write(block, out, err);
+        }
+    }
+
+    private void writeSorted(Directory top, OutputStream out, OutputStream err) throws IOException {
+        // Pila explícita: la profundidad del árbol no está limitada por la de la pila de Java
+        Deque<Directory> pending = new ArrayDeque<>();
+        Deque<Integer> positions = new ArrayDeque<>();
+        pending.push(top);
+        positions.push(0);
+        while (!pending.isEmpty()) {
+            Directory directory = pending.peek();
+            int position = positions.pop();
+            directory.await(LISTED, out);
+            List<Object> segments = directory.segments;
+            if (position < segments.size()) {
+                Object segment = segments.get(position);
+                positions.push(position + 1);
+                if (segment instanceof Directory child) {
+                    pending.push(child);
+                    positions.push(0);
+                } else {
+                    write(segment, out, err);
+                }
+                continue;
+            }
+            pending.pop();
+            directory.await(COMPLETED, out);
+            for (Object segment : directory.trailer) {
+                write(segment, out, err);
+            }
+            directory.release();
+        }
+    }
+
+    private static void write(Object block, OutputStream out, OutputStream err) throws IOException {
+        if (block instanceof ErrorMessage message) {
+            out.flush();
+            BuiltinCommand.writeLine(err, message.text());
+        } else {
+            String text = block instanceof Deferred deferred ? deferred.render() : (String) block;
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Texto que se calcula en el hilo que escribe, cuando le llega su turno: lo que dependa del orden
+     * del recorrido (como qué directorio cuenta un enlace duro) se decide así en un único hilo y en
+     * el orden de la salida.
+     */
+    @FunctionalInterface
+    interface Deferred {
+        /**
+         * @return Texto que se escribe (puede ser vacío).
+         */
+        String render();
+    }
+
+    /**
+     * Mensaje para la salida de error, en su posición del recorrido.
+     */
+    private record ErrorMessage(String text) {
+    }
+
+    /**
+     * Directorio del recorrido: una tarea que lo lista y termina cuando terminan sus subdirectorios.
+     * Su salida es una secuencia de segmentos (texto, errores y subdirectorios en su posición) y un
+     * final que se escribe tras todo su contenido.
+     */
+    final class Directory extends CountedCompleter<Void> {
+        // ForkJoinTask es Serializable, pero las tareas del recorrido nunca se serializan
+        private static final long serialVersionUID = 1L;
+
+        final transient Path file;
+        final String path;
+        final int depth;
+        /**
+         * Total acumulado por el recorrido: lo que suman las entradas visitadas y, tras
+         * {@link TreeWalker#completed}, los subdirectorios. Solo lo toca el hilo que lo lista o el
+         * que lo completa, siempre después de sus subdirectorios.
+         */
+        long total;
+        /** Parte del total que suman los segmentos {@link Deferred}, desde el hilo que escribe. */
+        long deferredTotal;
+        private transient List<Object> segments = new ArrayList<>();
+        private transient List<Object> trailer = new ArrayList<>(0);
+        private transient List<Directory> children = new ArrayList<>(0);
+        /** Segmentos en los que se escribe ahora: los del listado o, al terminar, los finales. */
+        private transient List<Object> target = segments;
+        private StringBuilder text;
+        /** Directorio abierto mientras se lista, si permite leer atributos relativos a él. */
+        private transient SecureDirectoryStream<Path> secureEntries;
+        /**
+         * Subdirectorios que quedan por encontrar al listarlo, o -1 si no se sabe. Cuando llega a 0,
+         * el resto de entradas no son directorios y 'find' no necesita leer sus atributos.
+         */
+        int subdirectories = -1;
+        /**
+         * {@link #LISTING}, {@link #LISTED} o {@link #COMPLETED}. Hace falta además de la tarea: un
+         * CountedCompleter solo queda terminado ({@code isDone()}) si es la raíz.
+         */
+        private volatile int state = LISTING;
+
+        private Directory(Directory parent, Path file, String path, int depth) {
+            super(parent);
+            this.file = file;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        /**
+         * Entra en un subdirectorio: se recorrerá en su propia tarea y su salida irá en este punto.
+         * @param entry Ruta del subdirectorio.
+         * @param childPath Ruta tal como se muestra.
+         * @return Subdirectorio, en el que se puede escribir su parte final ({@link #writeLast}).
+         */
+        Directory descend(Path entry, String childPath) {
+            Directory child = new Directory(this, entry, childPath, depth + 1);
+            if (sorted) {
+                endText();
+                segments.add(child);
+            }
+            children.add(child);
+            return child;
+        }
+
+        /**
+         * Añade texto a la salida del directorio, en la posición actual del listado o, desde
+         * {@link TreeWalker#completed}, tras todo su contenido.
+         * @param value Texto.
+         */
+        void write(String value) {
+            if (text == null) {
+                text = new StringBuilder();
+            }
+            text.append(value);
+        }
+
+        /**
+         * Añade texto tras todo el contenido de un subdirectorio recién creado con {@link #descend},
+         * antes de que empiece a recorrerse ('find -depth' escribe así el propio directorio).
+         * @param value Texto.
+         */
+        void writeLast(String value) {
+            trailer.add(value);
+        }
+
+        /**
+         * Añade texto que se calcula al escribirlo, en la misma posición que {@link #write(String)}.
+         * @param value Texto diferido.
+         */
+        void write(Deferred value) {
+            endText();
+            target.add(value);
+        }
+
+        /**
+         * @return Directorio que contiene a este, o null en el directorio ficticio de {@link TreeWalker#walk}.
+         */
+        Directory parent() {
+            return (Directory) getCompleter();
+        }
+
+        /**
+         * Lee de una vez los atributos básicos de una entrada, sin seguir enlaces. Mientras se lista,
+         * si el sistema lo permite, se leen relativos al directorio abierto (fstatat), sin recorrer
+         * de nuevo toda la ruta.
+         * @param entry Entrada del directorio (o el argumento, en el directorio ficticio).
+         * @return Atributos.
+         * @throws IOException Si la entrada ya no existe o no se puede leer.
+         */
+        BasicFileAttributes readAttributes(Path entry) throws IOException {
+            if (secureEntries != null) {
+                return secureEntries.getFileAttributeView(entry.getFileName(), BasicFileAttributeView.class,
+                        LinkOption.NOFOLLOW_LINKS).readAttributes();
+            }
+            return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+
+        /**
+         * Añade un mensaje de error (una línea) en su posición y marca el recorrido como fallido.
+         * @param message Mensaje.
+         */
+        void error(String message) {
+            endText();
+            target.add(new ErrorMessage(message));
+            failed = true;
+        }
+
+        /**
+         * @return Subdirectorios en los que se ha entrado, ya terminados si se consulta desde
+         *         {@link TreeWalker#completed}.
+         */
+        List<Directory> children() {
+            return children;
+        }
+
+        /**
+         * @param name Nombre de una entrada.
+         * @return Ruta de la entrada tal como se muestra.
+         */
+        String childPath(String name) {
+            return path.endsWith("/") ? path + name : path + "/" + name;
+        }
+
+        @Override
+        public void compute() {
+            try {
+                if (!cancelled) {
+                    list();
+                }
+            } finally {
+                endText();
+                if (!sorted) {
+                    ready.addAll(segments);
+                    segments = null;
+                }
+                target = trailer;
+                advance(LISTED);
+            }
+            setPendingCount(children.size());
+            for (Directory child : children) {
+                child.fork();
+            }
+            tryComplete();
+        }
+
+        private void list() {
+            if (depth < 0) {
+                // Directorio ficticio: su única entrada es el argumento
+                visit(this, file, path, nameOf(path));
+                return;
+            }
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(file)) {
+                if (entries instanceof SecureDirectoryStream<Path> secure) {
+                    secureEntries = secure;
+                }
+                if (sorted) {
+                    List<Path> listed = new ArrayList<>();
+                    entries.forEach(listed::add);
+                    String[] names = new String[listed.size()];
+                    Integer[] order = new Integer[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        names[i] = listed.get(i).getFileName().toString();
+                        order[i] = i;
+                    }
+                    Arrays.sort(order, Comparator.comparing(i -> names[i]));
+                    for (int i : order) {
+                        visit(this, listed.get(i), childPath(names[i]), names[i]);
+                    }
+                } else {
+                    for (Path entry : entries) {
+                        String name = entry.getFileName().toString();
+                        visit(this, entry, childPath(name), name);
+                    }
+                }
+            } catch (IOException e) {
+                listFailed(this, e);
+            } catch (DirectoryIteratorException e) {
+                listFailed(this, e.getCause());
+            } finally {
+                secureEntries = null;
+            }
+        }
+
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            completed(this);
+            endText();
+            children = null;
+            if (!sorted) {
+                ready.addAll(trailer);
+                trailer = null;
+                if (depth < 0) {
+                    ready.add(END);
+                }
+            }
+            advance(COMPLETED);
+        }
+
+        @Override
+        public boolean onExceptionalCompletion(Throwable ex, CountedCompleter<?> caller) {
+            if (depth < 0 && !sorted) {
+                ready.add(END);
+            }
+            advance(COMPLETED);
+            return true;
+        }
+
+        private void endText() {
+            if (text != null && !text.isEmpty()) {
+                target.add(text.toString());
+            }
+            text = null;
+        }
+
+        private synchronized void advance(int reached) {
+            state = Math.max(state, reached);
+            notifyAll();
+        }
+
+        /**
+         * Espera desde el hilo que escribe a que el directorio llegue a un estado, sacando antes
+         * lo escrito hasta ahora.
+         */
+        private void await(int expected, OutputStream out) throws IOException {
+            if (state >= expected) {
+                return;
+            }
+            out.flush();
+            synchronized (this) {
+                while (state < expected) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }
+        }
+
+        private void release() {
+            segments = null;
+            trailer = null;
+        }
+    }
+
+    /**
+     * @param path Ruta tal como la escribió el usuario.
+     * @return Último componente, sin las barras finales ('/' para la raíz).
+     */
+    static String nameOf(String path) {
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        int start = path.lastIndexOf('/', end - 1) + 1;
+        return start >= end ? path.substring(0, end) : path.substring(start, end);
+    }
+}
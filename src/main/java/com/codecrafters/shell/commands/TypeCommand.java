@@ -1,20 +1,25 @@
 package com.codecrafters.shell.commands;
 
 import com.codecrafters.shell.CommandRegistry;
-import com.codecrafters.shell.ExecutionResult;
-import com.codecrafters.shell.utils.PathUtils;
+import com.codecrafters.shell.ExternalCommandExecutor;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
  * Comando builtin 'type' que indica cómo se interpretaría un comando.
- * Distingue entre comandos builtin y ejecutables externos.
+ * Distingue entre comandos builtin y ejecutables externos. Las utilidades nativas (cat, grep...)
+ * se informan por la ruta del ejecutable que reemplazan, como las vería bash.
  */
 public class TypeCommand implements BuiltinCommand {
     private final CommandRegistry registry;
+    private final ExternalCommandExecutor executor;
 
-    public TypeCommand(CommandRegistry registry) {
+    public TypeCommand(CommandRegistry registry, ExternalCommandExecutor executor) {
         this.registry = registry;
+        this.executor = executor;
     }
 
     @Override
@@ -23,20 +28,27 @@ public class TypeCommand implements BuiltinCommand {
     }
 
     @Override
-    public ExecutionResult execute(List<String> args) {
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
         if (args.isEmpty()) {
-            return new ExecutionResult(null, null, 0);
+            return 0;
         }
         String commandName = args.get(0);
 
-        if (registry.isBuiltin(commandName)) {
-            return new ExecutionResult(commandName + " is a shell builtin", null, 0);
+        if (registry.isBuiltin(commandName) && !registry.isUtility(commandName)) {
+            BuiltinCommand.writeLine(out, commandName + " is a shell builtin");
+            return 0;
         } else {
-            File file = PathUtils.findExecutable(commandName);
+            File file = executor.findExecutable(commandName);
             if (file != null) {
-                return new ExecutionResult(commandName + " is " + file.getAbsolutePath(), null, 0);
+                BuiltinCommand.writeLine(out, commandName + " is " + file.getAbsolutePath());
+                return 0;
+            } else if (registry.isBuiltin(commandName)) {
+                // Utilidad nativa sin ejecutable en el PATH: solo existe dentro del shell
+                BuiltinCommand.writeLine(out, commandName + " is a shell builtin");
+                return 0;
             } else {
-                return new ExecutionResult(commandName + ": not found", null, 1);
+                BuiltinCommand.writeLine(out, commandName + ": not found");
+                return 1;
             }
         }
     }
@@ -0,0 +1,40 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Environment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Comando builtin 'unset' que elimina variables del shell (y deja de exportarlas).
+ */
+public class UnsetCommand implements BuiltinCommand {
+    private final Environment environment;
+
+    public UnsetCommand(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String getName() {
+        return "unset";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        int exitCode = 0;
+        for (String name : args) {
+            if (name.equals("-v")) {
+                continue;
+            }
+            if (!Environment.isValidName(name)) {
+                BuiltinCommand.writeLine(err, "unset: `" + name + "': not a valid identifier");
+                exitCode = 1;
+                continue;
+            }
+            environment.unset(name);
+        }
+        return exitCode;
+    }
+}
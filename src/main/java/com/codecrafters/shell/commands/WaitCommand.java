@@ -0,0 +1,69 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.Job;
+import com.codecrafters.shell.JobTable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Comando builtin 'wait' que espera a que terminen trabajos en segundo plano.
+ * Sin argumentos espera a todos y devuelve 0; con argumentos ('%n' o PID) devuelve
+ * el código de salida del último esperado. Como en bash, solo se puede esperar a procesos
+ * de los trabajos de este shell: cualquier otro PID es un error (127), no una espera.
+ */
+public class WaitCommand implements BuiltinCommand {
+    private final JobTable jobTable;
+
+    public WaitCommand(JobTable jobTable) {
+        this.jobTable = jobTable;
+    }
+
+    @Override
+    public String getName() {
+        return "wait";
+    }
+
+    @Override
+    public int execute(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException, InterruptedException {
+        if (args.isEmpty()) {
+            for (Job job : jobTable.list()) {
+                jobTable.remove(job);
+                job.getPipeline().waitFor();
+            }
+            return 0;
+        }
+
+        int exitCode = 0;
+        for (String spec : args) {
+            Optional<Job> found = jobTable.find(spec);
+            if (found.isPresent()) {
+                // Un trabajo esperado explícitamente no genera aviso de finalización
+                jobTable.remove(found.get());
+                exitCode = found.get().getPipeline().waitFor();
+                continue;
+            }
+            if (spec.startsWith("%")) {
+                BuiltinCommand.writeLine(err, "wait: " + spec + ": no such job");
+                exitCode = 127;
+            } else if (isPid(spec)) {
+                BuiltinCommand.writeLine(err, "wait: pid " + spec + " is not a child of this shell");
+                exitCode = 127;
+            } else {
+                BuiltinCommand.writeLine(err, "wait: `" + spec + "': not a pid or valid job spec");
+                exitCode = 1;
+            }
+        }
+        return exitCode;
+    }
+
+    private static boolean isPid(String spec) {
+        try {
+            return Long.parseLong(spec) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.codecrafters.shell.commands;
+
+import com.codecrafters.shell.ExternalCommandExecutor;
+import com.codecrafters.shell.WorkingDirectory;
+import com.codecrafters.shell.utils.LineScanner;
+import com.codecrafters.shell.utils.TextInput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidad nativa 'wc' que cuenta líneas ('-l'), palabras ('-w') y bytes ('-c') de cada archivo,
+ * con el mismo formato de columnas que coreutils y una línea "total" si hay varios.
+ * <p>
+ * Solo se recorre lo que hace falta: '-c' de un archivo regular es su tamaño, '-l' cuenta los
+ * saltos de ocho en ocho bytes ({@link LineScanner}) y solo '-w' mira cada byte. Una palabra es
+ * una secuencia de caracteres imprimibles separada por espacios en blanco, como en un locale UTF-8.
+ * '-m', '-L' y el resto de opciones se delegan en el 'wc' externo.
+ */
+public class WcCommand extends TextUtilityCommand {
+    public WcCommand(WorkingDirectory workingDirectory, ExternalCommandExecutor executor) {
+        super(workingDirectory, executor);
+    }
+
+    @Override
+    public String getName() {
+        return "wc";
+    }
+
+    @Override
+    protected int run(List<String> args, InputStream in, OutputStream out, OutputStream err) throws IOException {
+        boolean lines = false;
+        boolean words = false;
+        boolean bytes = false;
+        List<String> files = new ArrayList<>();
+        boolean parsing = true;
+        for (String arg : args) {
+            if (!parsing || arg.equals("-") || !arg.startsWith("-")) {
+                files.add(arg);
+            } else if (arg.equals("--")) {
+                parsing = false;
+            } else if (arg.equals("--lines")) {
+                lines = true;
+            } else if (arg.equals("--words")) {
+                words = true;
+            } else if (arg.equals("--bytes")) {
+                bytes = true;
+            } else {
+                for (int i = 1; i < arg.length(); i++) {
+                    switch (arg.charAt(i)) {
+                        case 'l' -> lines = true;
+                        case 'w' -> words = true;
+                        case 'c' -> bytes = true;
+                        default -> {
+                            return delegate(args, in, out, err);
+                        }
+                    }
+                }
+            }
+        }
+        if (!lines && !words && !bytes) {
+            lines = words = bytes = true;
+        }
+        boolean standardInput = files.isEmpty();
+        if (standardInput) {
+            files.add("-");
+        }
+
+        int width = columnWidth(files, (lines ? 1 : 0) + (words ? 1 : 0) + (bytes ? 1 : 0));
+        long[] total = new long[3];
+        int exitCode = 0;
+        for (String file : files) {
+            long[] counts = new long[3];
+            try (TextInput input = open(file, in)) {
+                count(input, lines, words, bytes, counts);
+            } catch (IOException e) {
+                out.flush();
+                BuiltinCommand.writeLine(err, BuiltinCommand.fileError("wc", file, e));
+                exitCode = 1;
+                if (!isDirectory(e)) {
+                    continue;
+                }
+                // Como coreutils, un directorio cuenta como vacío tras el error
+            }
+            for (int i = 0; i < counts.length; i++) {
+                total[i] += counts[i];
+            }
+            writeCounts(out, counts, lines, words, bytes, width, standardInput ? null : file);
+        }
+        if (files.size() > 1) {
+            writeCounts(out, total, lines, words, bytes, width, "total");
+        }
+        return exitCode;
+    }
+
+    /**
+     * Ancho de las columnas como lo calcula coreutils antes de leer nada: las cifras de la suma
+     * de los tamaños de los archivos regulares, al menos 7 si hay alguna entrada que no lo es
+     * (la entrada estándar, una tubería...), y 1 si solo se muestra un número.
+     */
+    private int columnWidth(List<String> files, int columns) {
+        if (files.size() == 1 && columns == 1) {
+            return 1;
+        }
+        long size = 0;
+        int minimum = 1;
+        for (String file : files) {
+            if (file.equals("-")) {
+                minimum = 7;
+                continue;
+            }
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(resolve(file), BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    size += attributes.size();
+                } else {
+                    minimum = 7;
+                }
+            } catch (IOException e) {
+                // El error se informa al leerlo
+            }
+        }
+        return Math.max(minimum, Long.toString(size).length());
+    }
+
+    private static void count(TextInput input, boolean lines, boolean words, boolean bytes, long[] counts)
+            throws IOException {
+        if (!lines && !words && input.size() >= 0) {
+            counts[2] = input.size();
+            return;
+        }
+        boolean inWord = false;
+        ByteBuffer window;
+        while ((window = input.next()) != null) {
+            int limit = window.limit();
+            counts[2] += limit;
+            if (words) {
+                // Recorre cada byte: las palabras pueden continuar de una ventana a la siguiente
+                for (int i = 0; i < limit; i++) {
+                    byte b = window.get(i);
+                    if (b == '\n') {
+                        counts[0]++;
+                    }
+                    if (b == ' ' || (b >= '\t' && b <= '\r')) {
+                        inWord = false;
+                    } else if (b > ' ' && b != 0x7F || b < 0) {
+                        // Los caracteres de control no empiezan ni terminan palabras
+                        if (!inWord) {
+                            counts[1]++;
+                            inWord = true;
+                        }
+                    }
+                }
+            } else {
+                counts[0] += LineScanner.countNewlines(window, 0, limit);
+            }
+        }
+    }
+
+    private static void writeCounts(OutputStream out, long[] counts, boolean lines, boolean words, boolean bytes,
+            int width, String name) throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean[] selected = {lines, words, bytes};
+        for (int i = 0; i < counts.length; i++) {
+            if (selected[i]) {
+                if (!line.isEmpty()) {
+                    line.append(' ');
+                }
+                String value = Long.toString(counts[i]);
+                line.append(" ".repeat(Math.max(width - value.length(), 0))).append(value);
+            }
+        }
+        if (name != null) {
+            line.append(' ').append(name);
+        }
+        BuiltinCommand.writeLine(out, line.toString());
+    }
+}
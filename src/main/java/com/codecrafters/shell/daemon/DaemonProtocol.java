@@ -0,0 +1,208 @@
+package com.codecrafters.shell.daemon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocolo entre el cliente y el daemon sobre el socket Unix: tramas con un byte de tipo, la
+ * longitud (4 bytes) y los datos.
+ * <p>
+ * El cliente empieza con una trama {@link #REQUEST} (directorio, argumentos y entorno). El daemon
+ * responde con tramas {@link #STDOUT} y {@link #STDERR} a medida que se escribe la salida y
+ * termina con {@link #EXIT} y el código de salida. La entrada estándar se pide bajo demanda: cuando
+ * un comando de la sesión lee, el daemon envía {@link #READ} con cuántos bytes quiere y el cliente
+ * hace una sola lectura de su stdin y la devuelve en una trama {@link #STDIN} (vacía al final). Así
+ * el cliente no consume una entrada que ningún comando lee, igual que un shell normal.
+ * <p>
+ * Los comandos externos no pasan por esas tramas si pueden evitarlo: la petición lleva el PID del
+ * cliente y el proceso abre su entrada por /proc/PID/fd/0, de modo que solo consume lo que lee,
+ * como con un descriptor heredado. Una copia por tramas tendría que pedir la entrada antes de
+ * saber si el comando la lee, y lo copiado en su tubería se perdería al terminar.
+ */
+final class DaemonProtocol {
+    static final byte REQUEST = 0;
+    static final byte STDIN = 1;
+    static final byte STDOUT = 2;
+    static final byte STDERR = 3;
+    static final byte READ = 4;
+    static final byte EXIT = 5;
+
+    /** Versión del formato de {@link #REQUEST}; cambia si cambia el protocolo. */
+    private static final int VERSION = 2;
+    /** Tamaño máximo de los datos de una trama de salida o de entrada. */
+    static final int MAX_CHUNK = 64 << 10;
+    /** Tamaño máximo de cualquier trama (la petición lleva el entorno entero). */
+    private static final int MAX_FRAME = 16 << 20;
+    private static final int HEADER_SIZE = 5;
+
+    private DaemonProtocol() {
+    }
+
+    /**
+     * Trama recibida.
+     * @param type Tipo.
+     * @param data Datos.
+     */
+    record Frame(byte type, byte[] data) {
+        /**
+         * @return Entero que lleva la trama ({@link #READ} y {@link #EXIT}).
+         */
+        int intValue() throws IOException {
+            if (data.length != Integer.BYTES) {
+                throw new IOException("malformed frame of type " + type);
+            }
+            return ByteBuffer.wrap(data).getInt();
+        }
+    }
+
+    /**
+     * Petición del cliente: lo que necesita el daemon para ejecutar como lo haría el proceso.
+     * @param pid PID del cliente, para abrir su entrada estándar.
+     * @param directory Directorio de trabajo del cliente, absoluto.
+     * @param arguments Argumentos de la línea de comandos.
+     * @param environment Entorno del cliente.
+     */
+    record Request(long pid, String directory, List<String> arguments, Map<String, String> environment) {
+        byte[] encode() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream data = new DataOutputStream(bytes)) {
+                data.writeInt(VERSION);
+                data.writeLong(pid);
+                writeString(data, directory);
+                data.writeInt(arguments.size());
+                for (String argument : arguments) {
+                    writeString(data, argument);
+                }
+                data.writeInt(environment.size());
+                for (Map.Entry<String, String> variable : environment.entrySet()) {
+                    writeString(data, variable.getKey());
+                    writeString(data, variable.getValue());
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        static Request decode(byte[] bytes) throws IOException {
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+            int version = data.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported protocol version " + version);
+            }
+            long pid = data.readLong();
+            String directory = readString(data);
+            int argumentCount = data.readInt();
+            List<String> arguments = new ArrayList<>();
+            for (int i = 0; i < argumentCount; i++) {
+                arguments.add(readString(data));
+            }
+            int variableCount = data.readInt();
+            Map<String, String> environment = new HashMap<>();
+            for (int i = 0; i < variableCount; i++) {
+                environment.put(readString(data), readString(data));
+            }
+            return new Request(pid, directory, arguments, environment);
+        }
+
+        private static void writeString(DataOutputStream data, String value) throws IOException {
+            // writeUTF no admite más de 64 KB, y una variable del entorno puede ocuparlos
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        }
+
+        private static String readString(DataInputStream data) throws IOException {
+            int length = data.readInt();
+            if (length < 0 || length > data.available()) {
+                throw new IOException("malformed request");
+            }
+            return new String(data.readNBytes(length), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Escribe tramas en el socket. Lo comparten varios hilos (las copias de stdout y stderr de
+     * los procesos), así que cada trama se escribe entera sin que otra se intercale.
+     */
+    static final class FrameWriter {
+        private final SocketChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        FrameWriter(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        synchronized void write(byte type, byte[] data, int offset, int length) throws IOException {
+            header.clear();
+            header.put(type).putInt(length).flip();
+            ByteBuffer[] buffers = {header, ByteBuffer.wrap(data, offset, length)};
+            while (buffers[1].hasRemaining() || header.hasRemaining()) {
+                channel.write(buffers);
+            }
+        }
+
+        void write(byte type, byte[] data) throws IOException {
+            write(type, data, 0, data.length);
+        }
+
+        void writeInt(byte type, int value) throws IOException {
+            write(type, ByteBuffer.allocate(Integer.BYTES).putInt(value).array());
+        }
+    }
+
+    /**
+     * Lee tramas del socket. Solo lo usa un hilo a la vez.
+     */
+    static final class FrameReader {
+        private final SocketChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        FrameReader(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * @return Siguiente trama, o null si el otro extremo cerró la conexión entre dos tramas.
+         * @throws IOException Si la conexión se corta a mitad de una trama o la trama no es válida.
+         */
+        Frame next() throws IOException {
+            header.clear();
+            if (!readFully(header, true)) {
+                return null;
+            }
+            header.flip();
+            byte type = header.get();
+            int length = header.getInt();
+            if (length < 0 || length > MAX_FRAME) {
+                throw new IOException("invalid frame length " + length);
+            }
+            ByteBuffer data = ByteBuffer.allocate(length);
+            readFully(data, false);
+            return new Frame(type, data.array());
+        }
+
+        private boolean readFully(ByteBuffer buffer, boolean endAllowed) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    if (endAllowed && buffer.position() == 0) {
+                        return false;
+                    }
+                    throw new EOFException("connection closed in the middle of a frame");
+                }
+            }
+            return true;
+        }
+    }
+}
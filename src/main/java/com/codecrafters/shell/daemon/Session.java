@@ -0,0 +1,167 @@
+package com.codecrafters.shell.daemon;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.InheritableInput;
+import com.codecrafters.shell.Shell;
+import com.codecrafters.shell.utils.PathCache;
+import com.codecrafters.shell.utils.PathUtils;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Una conexión de un cliente con el daemon: un {@link Shell} con el directorio, el entorno y los
+ * argumentos del cliente, cuya entrada y salida van por el socket.
+ * <p>
+ * Cada sesión tiene su propio entorno, directorio de trabajo, trabajos y variables, así que las
+ * sesiones simultáneas no se afectan entre sí. Lo único que comparten es el índice del PATH del
+ * daemon, mientras su PATH sea el mismo ({@link PathCache#PathCache(String, PathCache)}).
+ */
+final class Session implements Runnable {
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private final SocketChannel channel;
+
+    Session(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void run() {
+        try (channel) {
+            DaemonProtocol.FrameReader reader = new DaemonProtocol.FrameReader(channel);
+            DaemonProtocol.FrameWriter writer = new DaemonProtocol.FrameWriter(channel);
+            DaemonProtocol.Frame first = reader.next();
+            if (first == null || first.type() != DaemonProtocol.REQUEST) {
+                return;
+            }
+            DaemonProtocol.Request request = DaemonProtocol.Request.decode(first.data());
+            writer.writeInt(DaemonProtocol.EXIT, execute(request, reader, writer));
+        } catch (IOException e) {
+            // El cliente se fue: no hay a quién informar
+        }
+    }
+
+    private static int execute(DaemonProtocol.Request request, DaemonProtocol.FrameReader reader,
+                               DaemonProtocol.FrameWriter writer) {
+        // Como System.out: con buffer, pero vaciado en cada línea y en cada escritura de un bloque
+        PrintStream stdout = new PrintStream(new BufferedOutputStream(
+                new FrameOutputStream(writer, DaemonProtocol.STDOUT), OUTPUT_BUFFER_SIZE), true);
+        PrintStream stderr = new PrintStream(new BufferedOutputStream(
+                new FrameOutputStream(writer, DaemonProtocol.STDERR), OUTPUT_BUFFER_SIZE), true);
+        PathCache pathCache = new PathCache(request.environment().get("PATH"), PathUtils.getPathCache());
+        try {
+            Path directory = Paths.get(request.directory());
+            Shell shell = new Shell(new Environment(request.environment(), System.getenv()), directory,
+                    pathCache, new FrameInputStream(request.pid(), reader, writer), stdout, stderr);
+            return shell.runArguments(request.arguments());
+        } catch (IOException | RuntimeException e) {
+            stderr.println("shell: " + e.getMessage());
+            return 1;
+        } finally {
+            stdout.flush();
+            stderr.flush();
+            // Cierra la vigilancia del PATH si la sesión llegó a indexar uno propio
+            pathCache.clear();
+        }
+    }
+
+    /**
+     * Salida de la sesión: cada escritura se envía al cliente en tramas del tipo dado.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DaemonProtocol.FrameWriter writer;
+        private final byte type;
+
+        FrameOutputStream(DaemonProtocol.FrameWriter writer, byte type) {
+            this.writer = writer;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int chunk = Math.min(len, DaemonProtocol.MAX_CHUNK);
+                writer.write(type, b, off, chunk);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+    }
+
+    /**
+     * Entrada estándar de la sesión: cada lectura pide al cliente como mucho los bytes que se
+     * quieren leer, y el cliente hace una sola lectura de su stdin. Los procesos la abren
+     * directamente por /proc si es una tubería o una terminal.
+     */
+    private static final class FrameInputStream extends InputStream implements InheritableInput {
+        private final long clientPid;
+        private final DaemonProtocol.FrameReader reader;
+        private final DaemonProtocol.FrameWriter writer;
+        private boolean ended;
+
+        FrameInputStream(long clientPid, DaemonProtocol.FrameReader reader, DaemonProtocol.FrameWriter writer) {
+            this.clientPid = clientPid;
+            this.reader = reader;
+            this.writer = writer;
+        }
+
+        @Override
+        public File file() {
+            Path stdin = Paths.get("/proc", Long.toString(clientPid), "fd", "0");
+            try {
+                // Un socket o un descriptor anónimo no se pueden abrir por su ruta
+                String target = Files.readSymbolicLink(stdin).toString();
+                if ((target.startsWith("/") || target.startsWith("pipe:")) && Files.isReadable(stdin)) {
+                    return stdin.toFile();
+                }
+            } catch (IOException | UnsupportedOperationException e) {
+                // Sin /proc: se copia por tramas
+            }
+            return null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (ended) {
+                return -1;
+            }
+            writer.writeInt(DaemonProtocol.READ, Math.min(len, DaemonProtocol.MAX_CHUNK));
+            DaemonProtocol.Frame frame = reader.next();
+            if (frame == null || frame.type() != DaemonProtocol.STDIN) {
+                throw new IOException("connection to the client lost");
+            }
+            byte[] data = frame.data();
+            if (data.length == 0) {
+                ended = true;
+                return -1;
+            }
+            if (data.length > len) {
+                throw new IOException("client sent more input than requested");
+            }
+            System.arraycopy(data, 0, b, off, data.length);
+            return data.length;
+        }
+    }
+}
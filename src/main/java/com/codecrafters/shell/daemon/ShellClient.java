@@ -0,0 +1,133 @@
+package com.codecrafters.shell.daemon;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Cliente ligero del {@link ShellDaemon}: envía los argumentos, el directorio de trabajo y el
+ * entorno por el socket, copia la salida de la sesión a su stdout y stderr, atiende las lecturas
+ * de stdin que pide el daemon y termina con el código de salida de la sesión.
+ * <p>
+ * Solo carga las clases del protocolo, así que su arranque es el de una JVM vacía.
+ */
+public final class ShellClient implements AutoCloseable {
+    /** Código de un proceso terminado por SIGPIPE. */
+    private static final int BROKEN_PIPE = 128 + 13;
+    private static final Path STDIN = Paths.get("/proc/self/fd/0");
+
+    private final SocketChannel channel;
+    private final DaemonProtocol.FrameReader reader;
+    private final DaemonProtocol.FrameWriter writer;
+
+    private ShellClient(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new DaemonProtocol.FrameReader(channel);
+        this.writer = new DaemonProtocol.FrameWriter(channel);
+    }
+
+    /**
+     * @param socket Ruta del socket del daemon.
+     * @return Cliente conectado, o null si no hay un daemon escuchando en ella o si stdin es un
+     *         archivo normal: reabierto por /proc empezaría desde el principio y no desde la
+     *         posición que comparten los comandos, así que hay que ejecutar en este proceso.
+     */
+    public static ShellClient connect(Path socket) {
+        if (Files.isRegularFile(STDIN)) {
+            return null;
+        }
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            return new ShellClient(channel);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // No llegó a conectarse
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Ejecuta una invocación del shell en el daemon.
+     * @param args Argumentos, los mismos que recibiría el shell.
+     * @return Código de salida de la sesión; 1 si se pierde la conexión o 141 (SIGPIPE, como un
+     *         shell que muere al escribir) si se cierra la salida estándar del cliente.
+     */
+    public int run(List<String> args) {
+        OutputStream stdout = new FileOutputStream(FileDescriptor.out);
+        OutputStream stderr = new FileOutputStream(FileDescriptor.err);
+        // Sin buffer: cada lectura es una sola llamada al sistema y no consume más de lo pedido
+        InputStream stdin = new FileInputStream(FileDescriptor.in);
+        try {
+            String directory = Paths.get("").toAbsolutePath().toString();
+            writer.write(DaemonProtocol.REQUEST, new DaemonProtocol.Request(ProcessHandle.current().pid(), directory, args, System.getenv()).encode());
+            byte[] input = new byte[DaemonProtocol.MAX_CHUNK];
+            while (true) {
+                DaemonProtocol.Frame frame = reader.next();
+                if (frame == null) {
+                    break;
+                }
+                switch (frame.type()) {
+                    case DaemonProtocol.STDOUT, DaemonProtocol.STDERR -> {
+                        if (!copy(frame.type() == DaemonProtocol.STDOUT ? stdout : stderr, frame.data())) {
+                            return BROKEN_PIPE;
+                        }
+                    }
+                    case DaemonProtocol.READ -> {
+                        writer.write(DaemonProtocol.STDIN, input, 0, read(stdin, input, frame.intValue()));
+                    }
+                    case DaemonProtocol.EXIT -> {
+                        return frame.intValue();
+                    }
+                    default -> throw new IOException("unexpected frame of type " + frame.type());
+                }
+            }
+            copy(stderr, "shell: connection to the daemon lost\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            copy(stderr, ("shell: " + e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return 1;
+    }
+
+    /**
+     * @return Bytes leídos de stdin, 0 al final o si no se puede leer (la sesión ve el fin de la entrada).
+     */
+    private static int read(InputStream stdin, byte[] buffer, int requested) {
+        try {
+            return Math.max(stdin.read(buffer, 0, Math.min(requested, buffer.length)), 0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean copy(OutputStream out, byte[] data) {
+        try {
+            out.write(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,173 @@
+package com.codecrafters.shell.daemon;
+
+import com.codecrafters.shell.Environment;
+import com.codecrafters.shell.Shell;
+import com.codecrafters.shell.utils.PathCache;
+import com.codecrafters.shell.utils.PathUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.BindException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Daemon que mantiene una JVM caliente y ejecuta en ella las invocaciones del shell que le llegan
+ * por un socket Unix ({@link ShellClient}), sin pagar en cada una el arranque de la JVM, la carga
+ * de clases ni el escaneo del PATH.
+ * <p>
+ * Cada conexión es una {@link Session} con su propio hilo. Son hilos de plataforma y no virtuales:
+ * una sesión pasa casi todo el tiempo esperando a procesos hijos o dentro de secciones
+ * sincronizadas, que fijarían el hilo virtual a su portador. El socket solo es accesible para el
+ * usuario que arranca el daemon, porque quien se conecta ejecuta comandos con sus permisos.
+ */
+public final class ShellDaemon {
+    /** Variable con la ruta del socket: el daemon escucha en ella y el cliente la usa si existe. */
+    public static final String SOCKET_VARIABLE = "SHELL_DAEMON_SOCKET";
+
+    private final Path socket;
+
+    /**
+     * @param socket Ruta del socket Unix.
+     */
+    public ShellDaemon(Path socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * @return Ruta del socket: la de {@value #SOCKET_VARIABLE} o, sin ella, una en XDG_RUNTIME_DIR
+     *         (privado del usuario) o en un directorio del usuario dentro del directorio temporal.
+     *         Al escuchar se comprueba que su directorio solo es accesible para el usuario.
+     */
+    public static Path defaultSocket() {
+        String configured = System.getenv(SOCKET_VARIABLE);
+        if (configured != null && !configured.isEmpty()) {
+            return Paths.get(configured);
+        }
+        String runtime = System.getenv("XDG_RUNTIME_DIR");
+        Path directory = runtime != null && !runtime.isEmpty() ? Paths.get(runtime)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "codecrafters-shell-" + System.getProperty("user.name"));
+        return directory.resolve("codecrafters-shell.sock");
+    }
+
+    /**
+     * Escucha en el socket y atiende conexiones hasta que termina el proceso.
+     * @throws IOException Si no se puede crear el socket o ya hay un daemon escuchando en él.
+     */
+    public void serve() throws IOException {
+        try (ServerSocketChannel server = bind()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSocket, "shell-daemon-cleanup"));
+            PathUtils.getPathCache().buildAsync();
+            warmUp();
+            System.err.println("shell daemon: listening on " + socket);
+            long sessions = 0;
+            while (true) {
+                SocketChannel channel = server.accept();
+                Thread.ofPlatform().name("shell-session-" + ++sessions).daemon(true).start(new Session(channel));
+            }
+        }
+    }
+
+    private ServerSocketChannel bind() throws IOException {
+        Path directory = socket.toAbsolutePath().getParent();
+        if (directory != null) {
+            checkPrivateDirectory(directory);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            try {
+                server.bind(UnixDomainSocketAddress.of(socket));
+            } catch (BindException e) {
+                // Un socket que ya no acepta conexiones es de un daemon que terminó sin borrarlo
+                if (isListening(socket)) {
+                    throw new IOException("a shell daemon is already listening on " + socket);
+                }
+                Files.deleteIfExists(socket);
+                server.bind(UnixDomainSocketAddress.of(socket));
+            }
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            return server;
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Comprueba que el directorio del socket solo es accesible para el usuario, creándolo con modo
+     * 700 si no existe. Si ya existe debe ser suyo y tener ese modo: otro usuario podría haberlo
+     * creado antes para sustituir el socket. El permiso 600 del socket no basta, porque se aplica
+     * después de crearlo.
+     * @param directory Directorio del socket.
+     * @throws IOException Si no puede crearse o no es privado.
+     */
+    private static void checkPrivateDirectory(Path directory) throws IOException {
+        Set<PosixFilePermission> ownerOnly = PosixFilePermissions.fromString("rwx------");
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Path parent = directory.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try {
+                // El modo se aplica al crearlo, sin un intervalo en el que otro pueda abrirlo
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(ownerOnly));
+            } catch (FileAlreadyExistsException e) {
+                // Creado a la vez por otro proceso: se comprueba abajo como cualquier otro
+            }
+        }
+        PosixFileAttributes attributes = Files.readAttributes(directory, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!attributes.isDirectory() || !attributes.owner().equals(user) || !attributes.permissions().equals(ownerOnly)) {
+            throw new IOException("refusing to use " + directory
+                    + ": it must be a directory owned by " + user.getName() + " with mode 700");
+        }
+    }
+
+    private static boolean isListening(Path socket) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socket)).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(socket);
+        } catch (IOException e) {
+            // Se borrará al arrancar el siguiente daemon
+        }
+    }
+
+    /**
+     * Ejecuta una sesión sin cliente antes de aceptar conexiones, para que la primera no pague la
+     * carga de las clases del parser, los builtins y el arranque de procesos.
+     */
+    private static void warmUp() {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        PathCache pathCache = new PathCache(System.getenv("PATH"), PathUtils.getPathCache());
+        Shell shell = new Shell(new Environment(), Paths.get("").toAbsolutePath(), pathCache,
+                InputStream.nullInputStream(), discard, discard);
+        try {
+            shell.runArguments(List.of("-c", "echo warm | cat > /dev/null; type true; true; pwd"));
+        } catch (IOException e) {
+            // Solo era un calentamiento
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.codecrafters.shell.glob;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Expansión de rutas con comodines ('*.log', 'src/*&#47;*.java', '**&#47;*.txt', 'img[0-9].png').
+ * <p>
+ * El patrón se divide en componentes y cada uno se compila una sola vez en un {@link GlobPattern}.
+ * Los componentes sin comodines no se listan: se añaden a la ruta y solo se comprueba que existan,
+ * así que 'src/main/*.java' lee un único directorio. Los que tienen comodines se recorren con
+ * {@link Files#newDirectoryStream(Path)}, comparando solo el nombre de cada entrada y guardando
+ * únicamente las que coinciden. '**' recorre el subárbol con {@link Files#walkFileTree}
+ * (cero o más directorios, sin entrar en los ocultos ni seguir enlaces).
+ */
+public class GlobExpander {
+    private static final String GLOBSTAR = "**";
+
+    private final Supplier<Path> workingDirectory;
+
+    /**
+     * @param workingDirectory Directorio contra el que se resuelven los patrones relativos.
+     */
+    public GlobExpander(Supplier<Path> workingDirectory) {
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * Expande un patrón.
+     * @param pattern Patrón con los caracteres que deben ser literales (p. ej. los que iban entre
+     *                comillas) escapados con '\'.
+     * @return Rutas que coinciden, ordenadas y escritas como en el patrón (relativas si el patrón lo es);
+     *         vacío si no coincide ninguna.
+     */
+    public List<String> expand(String pattern) {
+        boolean absolute = pattern.startsWith("/");
+        String[] parts = (absolute ? pattern.substring(1) : pattern).split("/", -1);
+        Segment[] segments = new Segment[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            segments[i] = new Segment(parts[i]);
+        }
+
+        Path base = absolute ? workingDirectory.get().getRoot() : workingDirectory.get();
+        List<String> results = new ArrayList<>();
+        try {
+            match(base, absolute ? "/" : "", segments, 0, results);
+        } catch (IOException e) {
+            // Directorio ilegible a mitad del recorrido: se devuelve lo encontrado
+        }
+        Collections.sort(results);
+        return results;
+    }
+
+    private void match(Path dir, String prefix, Segment[] segments, int index, List<String> results) throws IOException {
+        Segment segment = segments[index];
+        boolean last = index == segments.length - 1;
+
+        if (segment.text.isEmpty()) {
+            // '//' o '/' final: este nivel debe ser un directorio
+            if (!last) {
+                match(dir, prefix, segments, index + 1, results);
+            } else if (Files.isDirectory(dir)) {
+                results.add(prefix);
+            }
+            return;
+        }
+
+        if (segment.text.equals(GLOBSTAR)) {
+            globstar(dir, prefix, segments, index, results);
+            return;
+        }
+
+        if (segment.pattern == null) {
+            Path child = dir.resolve(segment.literal);
+            String path = prefix + segment.literal;
+            if (last) {
+                if (Files.exists(child, LinkOption.NOFOLLOW_LINKS)) {
+                    results.add(path);
+                }
+            } else if (Files.isDirectory(child)) {
+                match(child, path + "/", segments, index + 1, results);
+            }
+            return;
+        }
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (!segment.pattern.matches(name)) {
+                    continue;
+                }
+                if (last) {
+                    results.add(prefix + name);
+                } else if (Files.isDirectory(entry)) {
+                    match(entry, prefix + name + "/", segments, index + 1, results);
+                }
+            }
+        } catch (IOException e) {
+            // No es un directorio, no existe o no se puede leer: sin coincidencias aquí
+        }
+    }
+
+    /**
+     * '**': cero o más directorios. Si solo le sigue un componente ('**&#47;*.java') se compara
+     * durante el propio recorrido; si le siguen más, se aplica el resto desde cada directorio.
+     */
+    private void globstar(Path dir, String prefix, Segment[] segments, int index, List<String> results) throws IOException {
+        boolean last = index == segments.length - 1;
+        Segment next = last ? null : segments[index + 1];
+        boolean matchDuringWalk = last || (index + 2 == segments.length && !next.text.isEmpty()
+                && !next.text.equals(GLOBSTAR));
+        List<Path> directories = new ArrayList<>();
+        if (last && !prefix.isEmpty()) {
+            // Cero directorios: 'src/**' incluye 'src/'
+            results.add(prefix);
+        }
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path visited, BasicFileAttributes attributes) {
+                if (!visited.equals(dir)) {
+                    if (isHidden(visited)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    visit(visited);
+                }
+                if (!matchDuringWalk) {
+                    directories.add(visited);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                visit(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            private void visit(Path entry) {
+                if (!matchDuringWalk) {
+                    return;
+                }
+                String name = entry.getFileName().toString();
+                boolean matches = last ? !isHidden(entry) : next.matches(name);
+                if (matches) {
+                    results.add(prefix + dir.relativize(entry));
+                }
+            }
+        });
+
+        for (Path directory : directories) {
+            String relative = directory.equals(dir) ? "" : dir.relativize(directory) + "/";
+            match(directory, prefix + relative, segments, index + 1, results);
+        }
+    }
+
+    private static boolean isHidden(Path path) {
+        return path.getFileName().toString().startsWith(".");
+    }
+
+    /**
+     * Componente del patrón: literal (sin escapes) o compilado.
+     */
+    private static final class Segment {
+        final String text;
+        final String literal;
+        final GlobPattern pattern;
+
+        Segment(String text) {
+            this.text = text;
+            boolean meta = GlobPattern.hasMeta(text);
+            this.literal = meta ? null : GlobPattern.unescape(text);
+            this.pattern = meta ? GlobPattern.compile(text) : null;
+        }
+
+        boolean matches(String name) {
+            return pattern != null ? pattern.matches(name) : name.equals(literal);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.codecrafters.shell.glob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Patrón de un componente de ruta ('*.log', 'a?[0-9]', '[!.]*') compilado una sola vez en una
+ * secuencia de elementos, que después se compara con cada nombre sin crear objetos.
+ * Un '\' hace literal el carácter siguiente. Como en bash, los nombres que empiezan por '.'
+ * solo coinciden si el patrón también empieza por un '.' literal; los patrones de 'find'
+ * ({@link #compileFnmatch}) no tienen esa regla.
+ */
+public final class GlobPattern {
+    private static final byte LITERAL = 0;
+    private static final byte ANY = 1;
+    private static final byte STAR = 2;
+    private static final byte CLASS = 3;
+
+    private final byte[] kinds;
+    private final char[] literals;
+    private final CharClass[] classes;
+    private final int length;
+    /** Si un '.' inicial del nombre debe coincidir con un '.' literal del patrón. */
+    private final boolean hiddenRule;
+    private final boolean ignoreCase;
+
+    private GlobPattern(byte[] kinds, char[] literals, CharClass[] classes, int length,
+                        boolean hiddenRule, boolean ignoreCase) {
+        this.kinds = kinds;
+        this.literals = literals;
+        this.classes = classes;
+        this.length = length;
+        this.hiddenRule = hiddenRule;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Compila un componente de ruta (sin '/').
+     * @param segment Patrón con los caracteres literales escapados con '\'.
+     * @return Patrón compilado.
+     */
+    static GlobPattern compile(String segment) {
+        return compile(segment, true, false);
+    }
+
+    /**
+     * Compila un patrón como fnmatch(3) sin FNM_PERIOD ni FNM_PATHNAME, que es como lo usan
+     * '-name' y '-path' de 'find': el '.' inicial no es especial y '*' también acepta '/'.
+     * @param pattern Patrón con los caracteres literales escapados con '\'.
+     * @param ignoreCase Si se ignoran mayúsculas y minúsculas ('-iname', '-ipath').
+     * @return Patrón compilado.
+     */
+    public static GlobPattern compileFnmatch(String pattern, boolean ignoreCase) {
+        return compile(pattern, false, ignoreCase);
+    }
+
+    private static GlobPattern compile(String segment, boolean hiddenRule, boolean ignoreCase) {
+        int max = segment.length();
+        byte[] kinds = new byte[max];
+        char[] literals = new char[max];
+        CharClass[] classes = new CharClass[max];
+        int length = 0;
+
+        for (int i = 0; i < max; i++) {
+            char c = segment.charAt(i);
+            if (c == '\\' && i + 1 < max) {
+                kinds[length] = LITERAL;
+                literals[length++] = fold(segment.charAt(++i), ignoreCase);
+            } else if (c == '*') {
+                if (length == 0 || kinds[length - 1] != STAR) {
+                    kinds[length++] = STAR;
+                }
+            } else if (c == '?') {
+                kinds[length++] = ANY;
+            } else if (c == '[' && CharClass.end(segment, i) > 0) {
+                int end = CharClass.end(segment, i);
+                kinds[length] = CLASS;
+                classes[length++] = CharClass.parse(segment, i + 1, end);
+                i = end;
+            } else {
+                kinds[length] = LITERAL;
+                literals[length++] = fold(c, ignoreCase);
+            }
+        }
+        return new GlobPattern(kinds, literals, classes, length, hiddenRule, ignoreCase);
+    }
+
+    private static char fold(char c, boolean ignoreCase) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    /**
+     * Indica si un componente tiene comodines sin escapar; si no, es un nombre literal.
+     * @param segment Componente de ruta.
+     * @return true si hay '*', '?' o una expresión '[...]' completa.
+     */
+    static boolean hasMeta(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '*' || c == '?' || (c == '[' && CharClass.end(segment, i) > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param segment Componente sin comodines.
+     * @return Nombre literal sin los escapes.
+     */
+    static String unescape(String segment) {
+        if (segment.indexOf('\\') < 0) {
+            return segment;
+        }
+        StringBuilder name = new StringBuilder(segment.length());
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '\\' && i + 1 < segment.length()) {
+                c = segment.charAt(++i);
+            }
+            name.append(c);
+        }
+        return name.toString();
+    }
+
+    /**
+     * Compara un nombre con el patrón. Un '*' que no encaja retrocede al último '*' visto,
+     * así que el coste es lineal en la práctica y no hay recursión.
+     * @param name Nombre de archivo.
+     * @return true si coincide.
+     */
+    public boolean matches(String name) {
+        if (hiddenRule && !name.isEmpty() && name.charAt(0) == '.' && (length == 0 || kinds[0] != LITERAL || literals[0] != '.')) {
+            return false;
+        }
+
+        int p = 0;
+        int n = 0;
+        int starP = -1;
+        int starN = 0;
+        while (n < name.length()) {
+            if (p < length && kinds[p] == STAR) {
+                starP = p++;
+                starN = n;
+            } else if (p < length && matchesOne(p, name.charAt(n))) {
+                p++;
+                n++;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                n = ++starN;
+            } else {
+                return false;
+            }
+        }
+        while (p < length && kinds[p] == STAR) {
+            p++;
+        }
+        return p == length;
+    }
+
+    private boolean matchesOne(int p, char c) {
+        switch (kinds[p]) {
+            case LITERAL:
+                return literals[p] == fold(c, ignoreCase);
+            case ANY:
+                return true;
+            default:
+                return classes[p].contains(c, ignoreCase);
+        }
+    }
+
+    /**
+     * Expresión entre corchetes: rangos ('a-z'), caracteres sueltos, clases POSIX ('[:digit:]')
+     * y negación con '!' o '^' al principio.
+     */
+    private static final class CharClass {
+        private final boolean negated;
+        private final char[] ranges;
+        private final List<String> named;
+
+        private CharClass(boolean negated, char[] ranges, List<String> named) {
+            this.negated = negated;
+            this.ranges = ranges;
+            this.named = named;
+        }
+
+        /**
+         * @return Posición del ']' que cierra la expresión que empieza en 'open', o -1 si no se cierra
+         *         (entonces el '[' es literal).
+         */
+        static int end(String segment, int open) {
+            int i = open + 1;
+            if (i < segment.length() && (segment.charAt(i) == '!' || segment.charAt(i) == '^')) {
+                i++;
+            }
+            // Un ']' justo al principio es un carácter más
+            if (i < segment.length() && segment.charAt(i) == ']') {
+                i++;
+            }
+            while (i < segment.length()) {
+                char c = segment.charAt(i);
+                if (c == '\\') {
+                    i += 2;
+                    continue;
+                }
+                if (c == '[' && segment.startsWith("[:", i)) {
+                    int close = segment.indexOf(":]", i + 2);
+                    if (close > 0) {
+                        i = close + 2;
+                        continue;
+                    }
+                }
+                if (c == ']') {
+                    return i;
+                }
+                i++;
+            }
+            return -1;
+        }
+
+        static CharClass parse(String segment, int start, int end) {
+            boolean negated = false;
+            int i = start;
+            if (segment.charAt(i) == '!' || segment.charAt(i) == '^') {
+                negated = true;
+                i++;
+            }
+            StringBuilder ranges = new StringBuilder();
+            List<String> named = new ArrayList<>(0);
+            while (i < end) {
+                if (segment.startsWith("[:", i)) {
+                    int close = segment.indexOf(":]", i + 2);
+                    named.add(segment.substring(i + 2, close));
+                    i = close + 2;
+                    continue;
+                }
+                char low = segment.charAt(i);
+                if (low == '\\' && i + 1 < end) {
+                    low = segment.charAt(++i);
+                }
+                i++;
+                char high = low;
+                if (i + 1 < end && segment.charAt(i) == '-') {
+                    high = segment.charAt(i + 1);
+                    if (high == '\\' && i + 2 < end) {
+                        high = segment.charAt(i + 2);
+                        i++;
+                    }
+                    i += 2;
+                }
+                ranges.append(low).append(high);
+            }
+            return new CharClass(negated, ranges.toString().toCharArray(), named);
+        }
+
+        boolean contains(char c, boolean ignoreCase) {
+            boolean found = includes(c);
+            if (ignoreCase && !found) {
+                found = includes(Character.toLowerCase(c)) || includes(Character.toUpperCase(c));
+            }
+            return found != negated;
+        }
+
+        private boolean includes(char c) {
+            boolean found = false;
+            for (int i = 0; i < ranges.length && !found; i += 2) {
+                found = c >= ranges[i] && c <= ranges[i + 1];
+            }
+            for (int i = 0; i < named.size() && !found; i++) {
+                found = inNamedClass(named.get(i), c);
+            }
+            return found;
+        }
+
+        private static boolean inNamedClass(String name, char c) {
+            switch (name) {
+                case "alpha":
+                    return Character.isLetter(c);
+                case "digit":
+                    return c >= '0' && c <= '9';
+                case "alnum":
+                    return Character.isLetterOrDigit(c);
+                case "upper":
+                    return Character.isUpperCase(c);
+                case "lower":
+                    return Character.isLowerCase(c);
+                case "space":
+                    return Character.isWhitespace(c);
+                case "punct":
+                    return c < 128 && !Character.isLetterOrDigit(c) && c > ' ' && c != 127;
+                case "xdigit":
+                    return Character.digit(c, 16) >= 0;
+                default:
+                    return false;
+            }
+        }
+    }
+}
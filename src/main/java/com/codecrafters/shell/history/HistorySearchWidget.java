@@ -0,0 +1,63 @@
+package com.codecrafters.shell.history;
+
+import org.jline.keymap.KeyMap;
+import org.jline.reader.Buffer;
+import org.jline.reader.LineReader;
+import org.jline.reader.Reference;
+import org.jline.reader.Widget;
+
+/**
+ * Búsqueda inversa (Ctrl-R) sobre el índice del {@link HistoryStore} en lugar del recorrido
+ * lineal de JLine: reemplaza la línea por la entrada más reciente que contiene lo escrito,
+ * y cada Ctrl-R siguiente pasa a la coincidencia anterior. Si no hay más, suena la campana.
+ */
+public class HistorySearchWidget implements Widget {
+    public static final String NAME = "indexed-history-search-backward";
+
+    private final LineReader reader;
+    private final HistoryStore store;
+    private String query;
+    private String lastMatch;
+    private int position;
+
+    private HistorySearchWidget(LineReader reader, HistoryStore store) {
+        this.reader = reader;
+        this.store = store;
+    }
+
+    /**
+     * Registra el widget y lo asocia a Ctrl-R en el mapa de teclas principal.
+     * @param reader Lector de líneas del shell.
+     * @param store Historial en el que se busca.
+     */
+    public static void install(LineReader reader, HistoryStore store) {
+        reader.getWidgets().put(NAME, new HistorySearchWidget(reader, store));
+        reader.getKeyMaps().get(LineReader.MAIN).bind(new Reference(NAME), KeyMap.ctrl('R'));
+    }
+
+    @Override
+    public boolean apply() {
+        Buffer buffer = reader.getBuffer();
+        String current = buffer.toString();
+        if (lastMatch == null || !lastMatch.equals(current)) {
+            // Nueva búsqueda: la consulta es lo que hay escrito en la línea
+            query = current;
+            position = store.size();
+        }
+
+        int found = store.search(query, position);
+        while (found >= 0 && store.get(found).equals(current)) {
+            found = store.search(query, found);
+        }
+        if (found < 0) {
+            reader.callWidget(LineReader.BEEP);
+            return true;
+        }
+
+        position = found;
+        lastMatch = store.get(found);
+        buffer.clear();
+        buffer.write(lastMatch);
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package com.codecrafters.shell.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.UnaryOperator;
+
+/**
+ * Historial de comandos, persistente si la variable HISTFILE indica un archivo.
+ * <p>
+ * El archivo es de solo anexado (una entrada por línea, como el de bash). Al arrancar se mapea en memoria
+ * y solo se localizan los saltos de línea: cada entrada se decodifica cuando se pide. Las entradas nuevas
+ * se escriben desde un hilo en segundo plano con un bloqueo sobre '&lt;HISTFILE&gt;.lock', así que varios
+ * shells pueden compartir el mismo archivo. Cuando supera HISTFILESIZE entradas (más un margen del 10%)
+ * se reescribe con las más recientes y se reemplaza de forma atómica.
+ * <p>
+ * Las búsquedas por subcadena usan un {@link TrigramIndex} que se construye en segundo plano;
+ * mientras no está listo se recorre el historial desde el final.
+ */
+public class HistoryStore {
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    private static final long FLUSH_TIMEOUT_MILLIS = 2_000;
+
+    private final Path file;
+    private final int maxEntries;
+    private final Object lock = new Object();
+    /** Serializa los bloqueos de archivo dentro del proceso (FileLock no se puede anidar en una JVM). */
+    private final Object fileMutex = new Object();
+
+    /** Archivo al arrancar, mapeado en memoria; la entrada i ocupa [starts[i], ends[i]). */
+    private ByteBuffer mapped = ByteBuffer.allocate(0);
+    private int[] starts = new int[0];
+    private int[] ends = new int[0];
+    private int mappedCount;
+    /** Entradas de esta sesión (y las leídas con 'history -r'). */
+    private final List<String> added = new ArrayList<>();
+    /** Primera entrada que 'history -a' todavía no ha anexado. */
+    private int appendMark;
+    private TrigramIndex index;
+    private CompletableFuture<Void> loading;
+
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private final Object flushMonitor = new Object();
+    private long enqueued;
+    private long written;
+    /** Entradas del archivo según este proceso; solo lo usa el hilo que escribe (o el que carga, antes). */
+    private int entriesInFile;
+
+    /**
+     * Crea un historial según HISTFILE y HISTFILESIZE. Sin HISTFILE el historial solo vive en memoria.
+     * @return Historial todavía sin cargar.
+     */
+    public static HistoryStore fromEnvironment() {
+        return fromEnvironment(System::getenv);
+    }
+
+    /**
+     * Crea un historial según HISTFILE y HISTFILESIZE de un entorno que no es el del proceso.
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @return Historial todavía sin cargar.
+     */
+    public static HistoryStore fromEnvironment(UnaryOperator<String> variables) {
+        String histFile = variables.apply("HISTFILE");
+        Path file = histFile == null || histFile.isEmpty() ? null : Paths.get(histFile);
+        return new HistoryStore(file, parseSize(variables.apply("HISTFILESIZE")));
+    }
+
+    /**
+     * @param file Archivo del historial, o null para no persistirlo.
+     * @param maxEntries Número máximo de entradas que se conservan en el archivo.
+     */
+    public HistoryStore(Path file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Carga el archivo en segundo plano si aún no se ha cargado. El índice de búsqueda
+     * se construye después, en otro hilo, sin retrasar la carga.
+     * @return Futuro que se completa cuando las entradas del archivo están disponibles.
+     */
+    public CompletableFuture<Void> loadAsync() {
+        synchronized (lock) {
+            if (loading == null) {
+                loading = CompletableFuture.runAsync(this::load, task -> {
+                    Thread thread = new Thread(task, "history-loader");
+                    thread.setDaemon(true);
+                    thread.start();
+                });
+            }
+            return loading;
+        }
+    }
+
+    /**
+     * @return Número de entradas.
+     */
+    public int size() {
+        synchronized (lock) {
+            return mappedCount + added.size();
+        }
+    }
+
+    /**
+     * @param position Posición de la entrada, desde 0 (la más antigua).
+     * @return Texto de la entrada.
+     */
+    public String get(int position) {
+        synchronized (lock) {
+            return entry(position);
+        }
+    }
+
+    /**
+     * Añade una entrada y la anexa al archivo en segundo plano.
+     * Las líneas en blanco y las repeticiones de la entrada anterior se ignoran.
+     * @param line Línea de comandos.
+     * @return true si se añadió.
+     */
+    public boolean add(String line) {
+        awaitLoaded();
+        if (!addEntry(line)) {
+            return false;
+        }
+        if (file != null) {
+            synchronized (flushMonitor) {
+                enqueued++;
+            }
+            pending.add(line);
+        }
+        return true;
+    }
+
+    /**
+     * Busca hacia atrás la entrada más reciente que contiene el texto.
+     * @param query Subcadena buscada.
+     * @param before Posición exclusiva desde la que se busca (size() para empezar por la última).
+     * @return Posición de la entrada, o -1 si no hay ninguna.
+     */
+    public int search(String query, int before) {
+        awaitLoaded();
+        synchronized (lock) {
+            int end = Math.min(before, mappedCount + added.size());
+            if (query.isEmpty()) {
+                return end - 1;
+            }
+            if (index != null && query.length() >= TrigramIndex.GRAM) {
+                return index.findBefore(query, end, id -> entry(id).contains(query));
+            }
+            for (int i = end - 1; i >= 0; i--) {
+                if (entry(i).contains(query)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Añade al historial las líneas de un archivo, sin escribirlas en HISTFILE ('history -r').
+     * @param source Archivo a leer.
+     * @return Número de entradas añadidas.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public int read(Path source) throws IOException {
+        awaitLoaded();
+        int count = 0;
+        for (String line : Files.readAllLines(source, StandardCharsets.UTF_8)) {
+            if (addEntry(line)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Escribe el historial en un archivo ('history -w') o anexa las entradas nuevas desde
+     * el último anexado ('history -a').
+     * @param target Archivo destino.
+     * @param onlyNew true para anexar solo las entradas nuevas.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public void write(Path target, boolean onlyNew) throws IOException {
+        awaitLoaded();
+        StringBuilder text = new StringBuilder();
+        synchronized (lock) {
+            int size = mappedCount + added.size();
+            for (int i = onlyNew ? appendMark : 0; i < size; i++) {
+                text.append(entry(i)).append('\n');
+            }
+            if (onlyNew) {
+                appendMark = size;
+            }
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        if (onlyNew) {
+            Files.write(target, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } else {
+            Files.write(target, bytes);
+        }
+    }
+
+    /**
+     * Espera (con un límite) a que el hilo escritor haya anexado todas las entradas pendientes.
+     */
+    public void flush() {
+        long deadline = System.currentTimeMillis() + FLUSH_TIMEOUT_MILLIS;
+        synchronized (flushMonitor) {
+            while (written < enqueued) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    flushMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitLoaded() {
+        CompletableFuture<Void> current;
+        synchronized (lock) {
+            current = loading;
+        }
+        if (current != null) {
+            current.join();
+        }
+    }
+
+    private boolean addEntry(String line) {
+        if (line == null || line.isBlank() || line.indexOf('\n') >= 0) {
+            return false;
+        }
+        synchronized (lock) {
+            int size = mappedCount + added.size();
+            if (size > 0 && entry(size - 1).equals(line)) {
+                return false;
+            }
+            added.add(line);
+            if (index != null) {
+                index.add(size, line);
+            }
+            return true;
+        }
+    }
+
+    private String entry(int position) {
+        if (position < mappedCount) {
+            byte[] bytes = new byte[ends[position] - starts[position]];
+            mapped.get(starts[position], bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return added.get(position - mappedCount);
+    }
+
+    private void load() {
+        if (file == null) {
+            return;
+        }
+
+        ByteBuffer buffer;
+        try {
+            buffer = map();
+        } catch (IOException e) {
+            // Historial ilegible: la sesión empieza vacía pero sigue anexando
+            buffer = ByteBuffer.allocate(0);
+        }
+
+        int[] lineStarts = new int[1024];
+        int[] lineEnds = new int[1024];
+        int count = 0;
+        int limit = buffer.limit();
+        int start = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+            if (i > start) {
+                if (count == lineStarts.length) {
+                    lineStarts = Arrays.copyOf(lineStarts, count * 2);
+                    lineEnds = Arrays.copyOf(lineEnds, count * 2);
+                }
+                lineStarts[count] = start;
+                lineEnds[count] = i;
+                count++;
+            }
+            start = i + 1;
+        }
+
+        entriesInFile = count;
+        if (count > maxEntries + maxEntries / 10) {
+            try {
+                entriesInFile = compactLocked();
+            } catch (IOException e) {
+                // Se reintenta la próxima vez que el archivo crezca
+            }
+        }
+        int skip = Math.max(0, count - maxEntries);
+
+        synchronized (lock) {
+            mapped = buffer;
+            starts = Arrays.copyOfRange(lineStarts, skip, count);
+            ends = Arrays.copyOfRange(lineEnds, skip, count);
+            mappedCount = count - skip;
+            appendMark = mappedCount;
+        }
+
+        Thread writer = new Thread(this::writeLoop, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "history-flush"));
+        Thread.ofVirtual().name("history-indexer").start(this::buildIndex);
+    }
+
+    /** Mapea el archivo con un bloqueo compartido para no leer una escritura a medias. */
+    private ByteBuffer map() throws IOException {
+        synchronized (fileMutex) {
+            // Cerrar el canal del bloqueo libera el bloqueo
+            try (FileChannel lockChannel = openLockChannel()) {
+                lockChannel.lock(0, Long.MAX_VALUE, true);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    long size = Math.min(channel.size(), Integer.MAX_VALUE);
+                    return size == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            } catch (NoSuchFileException e) {
+                return ByteBuffer.allocate(0);
+            }
+        }
+    }
+
+    /**
+     * Indexa las entradas mapeadas sin bloquear el historial (son inmutables) y
+     * después, ya con el bloqueo, las de la sesión añadidas mientras tanto.
+     */
+    private void buildIndex() {
+        TrigramIndex built = new TrigramIndex();
+        int count;
+        synchronized (lock) {
+            count = mappedCount;
+        }
+        for (int i = 0; i < count; i++) {
+            built.add(i, entry(i));
+        }
+        synchronized (lock) {
+            for (int i = 0; i < added.size(); i++) {
+                built.add(count + i, added.get(i));
+            }
+            index = built;
+        }
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch);
+            try {
+                append(batch);
+            } catch (IOException e) {
+                // Sin persistencia para este lote; el historial en memoria sigue intacto
+            }
+            synchronized (flushMonitor) {
+                written += batch.size();
+                flushMonitor.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void append(List<String> batch) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (String line : batch) {
+            text.append(line).append('\n');
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        synchronized (fileMutex) {
+            try (FileChannel lockChannel = openLockChannel()) {
+                lockChannel.lock();
+                Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                entriesInFile += batch.size();
+                if (entriesInFile > maxEntries + maxEntries / 10) {
+                    entriesInFile = compact();
+                }
+            }
+        }
+    }
+
+    private int compactLocked() throws IOException {
+        synchronized (fileMutex) {
+            try (FileChannel lockChannel = openLockChannel()) {
+                lockChannel.lock();
+                return compact();
+            }
+        }
+    }
+
+    /**
+     * Conserva las últimas maxEntries líneas escribiéndolas en un archivo temporal que reemplaza
+     * al original de forma atómica; un mapeo del archivo anterior sigue siendo válido.
+     * Debe llamarse con el bloqueo exclusivo.
+     * @return Entradas que quedan en el archivo.
+     */
+    private int compact() throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        int lines = 0;
+        int i = data.length - 1;
+        if (i >= 0 && data[i] == '\n') {
+            i--;
+        }
+        for (; i >= 0; i--) {
+            if (data[i] == '\n' && ++lines == maxEntries) {
+                break;
+            }
+        }
+        if (i < 0) {
+            return data.length == 0 ? 0 : lines + 1;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, Arrays.copyOfRange(data, i + 1, data.length));
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return maxEntries;
+    }
+
+    private FileChannel openLockChannel() throws IOException {
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        return FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int parseSize(String value) {
+        if (value != null) {
+            try {
+                int size = Integer.parseInt(value.trim());
+                if (size > 0) {
+                    return size;
+                }
+            } catch (NumberFormatException e) {
+                // Valor inválido: se usa el límite por defecto
+            }
+        }
+        return DEFAULT_MAX_ENTRIES;
+    }
+}
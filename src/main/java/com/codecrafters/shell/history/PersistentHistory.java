@@ -0,0 +1,42 @@
+package com.codecrafters.shell.history;
+
+import org.jline.reader.LineReader;
+import org.jline.reader.impl.history.DefaultHistory;
+
+import java.time.Instant;
+
+/**
+ * Historial de JLine respaldado por un {@link HistoryStore}.
+ * JLine conserva en memoria solo las últimas entradas (las que recorren las flechas); el resto
+ * se queda en el archivo mapeado y se consulta con la búsqueda indexada o el builtin 'history'.
+ */
+public class PersistentHistory extends DefaultHistory {
+    /** Entradas recientes que se copian al historial de JLine al arrancar. */
+    private static final int WINDOW = 500;
+
+    private final HistoryStore store;
+    private boolean populated = false;
+
+    public PersistentHistory(HistoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void attach(LineReader reader) {
+        super.attach(reader);
+        if (!populated) {
+            populated = true;
+            store.loadAsync().join();
+            int size = store.size();
+            for (int i = Math.max(0, size - WINDOW); i < size; i++) {
+                super.add(Instant.EPOCH, store.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void add(Instant time, String line) {
+        super.add(time, line);
+        store.add(line);
+    }
+}
@@ -0,0 +1,84 @@
+package com.codecrafters.shell.history;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Índice invertido de trigramas sobre las entradas del historial.
+ * Cada trigrama (tres caracteres consecutivos) apunta a la lista ordenada de entradas que lo contienen,
+ * así que una búsqueda por subcadena solo verifica las entradas de la lista más corta
+ * de entre los trigramas de la consulta, en lugar de recorrer todo el historial.
+ */
+class TrigramIndex {
+    /** Longitud mínima de consulta que el índice puede resolver. */
+    static final int GRAM = 3;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Indexa una entrada. Los identificadores deben añadirse en orden creciente.
+     * @param id Posición de la entrada en el historial.
+     * @param line Texto de la entrada.
+     */
+    void add(int id, String line) {
+        for (int i = 0; i + GRAM <= line.length(); i++) {
+            postings.computeIfAbsent(key(line, i), k -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Busca la entrada más reciente anterior a 'before' que contiene la consulta.
+     * @param query Subcadena buscada, de al menos {@link #GRAM} caracteres.
+     * @param before Posición exclusiva desde la que se busca hacia atrás.
+     * @param matches Verificación final de cada candidata (el trigrama no garantiza la subcadena).
+     * @return Posición de la entrada, o -1 si no hay ninguna.
+     */
+    int findBefore(String query, int before, IntPredicate matches) {
+        Postings shortest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Postings list = postings.get(key(query, i));
+            if (list == null) {
+                return -1;
+            }
+            if (shortest == null || list.size < shortest.size) {
+                shortest = list;
+            }
+        }
+
+        for (int i = shortest.indexBefore(before); i >= 0; i--) {
+            int id = shortest.ids[i];
+            if (matches.test(id)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private static long key(CharSequence text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /** Lista creciente de posiciones sin duplicados, en un arreglo de enteros. */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /** Índice del último elemento menor que 'before', o -1. */
+        int indexBefore(int before) {
+            int found = Arrays.binarySearch(ids, 0, size, before);
+            return (found >= 0 ? found : -found - 1) - 1;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: escritura de la salida de un builtin en un archivo de redirección.
+ */
+@Name("com.codecrafters.shell.FileWrite")
+@Label("File Write")
+@Description("Escritura de la salida de un builtin en un archivo de redirección.")
+public class FileWriteEvent extends ShellEvent {
+    @Label("Path")
+    public String path;
+}
@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: espera y lectura de una línea del prompt o del script.
+ */
+@Name("com.codecrafters.shell.LineRead")
+@Label("Line Read")
+@Description("Espera y lectura de una línea del prompt o del script.")
+public class LineReadEvent extends ShellEvent {
+}
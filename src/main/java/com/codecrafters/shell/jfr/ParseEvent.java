@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: análisis léxico y sintáctico de una línea.
+ */
+@Name("com.codecrafters.shell.Parse")
+@Label("Parse")
+@Description("Análisis léxico y sintáctico de una línea.")
+public class ParseEvent extends ShellEvent {
+}
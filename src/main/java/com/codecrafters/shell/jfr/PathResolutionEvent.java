@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: búsqueda de un comando en el índice del PATH.
+ */
+@Name("com.codecrafters.shell.PathResolution")
+@Label("PATH Resolution")
+@Description("Búsqueda de un comando en el índice del PATH.")
+public class PathResolutionEvent extends ShellEvent {
+}
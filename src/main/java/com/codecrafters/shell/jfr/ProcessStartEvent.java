@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: arranque de uno o varios procesos hijos.
+ */
+@Name("com.codecrafters.shell.ProcessStart")
+@Label("Process Start")
+@Description("Arranque de uno o varios procesos hijos.")
+public class ProcessStartEvent extends ShellEvent {
+}
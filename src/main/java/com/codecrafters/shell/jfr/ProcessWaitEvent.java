@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: espera a que termine un proceso hijo.
+ */
+@Name("com.codecrafters.shell.ProcessWait")
+@Label("Process Wait")
+@Description("Espera a que termine un proceso hijo.")
+public class ProcessWaitEvent extends ShellEvent {
+}
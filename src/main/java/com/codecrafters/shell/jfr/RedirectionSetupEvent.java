@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: apertura de los archivos de redirección de un comando.
+ */
+@Name("com.codecrafters.shell.RedirectionSetup")
+@Label("Redirection Setup")
+@Description("Apertura de los archivos de redirección de un comando.")
+public class RedirectionSetupEvent extends ShellEvent {
+}
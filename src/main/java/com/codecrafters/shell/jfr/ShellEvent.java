@@ -0,0 +1,29 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base de los eventos JFR del shell: todos llevan el comando, su número de argumentos,
+ * los bytes implicados y el código de salida (cuando aplican; si no, 0 y -1).
+ * Los eventos solo se crean si {@link ShellRecording#isEnabled()}: sin grabación no se carga JFR.
+ */
+@Category({"Shell"})
+@StackTrace(false)
+public abstract class ShellEvent extends Event {
+    @Label("Command")
+    public String commandName;
+
+    @Label("Argument Count")
+    public int argumentCount;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Exit Code")
+    public int exitCode = -1;
+}
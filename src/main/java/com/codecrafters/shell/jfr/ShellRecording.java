@@ -0,0 +1,81 @@
+package com.codecrafters.shell.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Grabación JFR iniciada desde el propio shell (builtin 'jfr' u opción '--jfr=archivo').
+ * Usa la configuración "default" de JFR, que incluye los eventos del shell sin umbral.
+ * Al salir del shell la grabación se vuelca al archivo aunque no se haya parado.
+ */
+public final class ShellRecording {
+    private static Recording recording;
+    private static Path destination;
+    private static volatile boolean enabled = false;
+
+    private ShellRecording() {
+    }
+
+    /**
+     * Empieza a grabar.
+     * @param file Archivo .jfr donde se volcará la grabación al pararla.
+     * @throws IOException Si el archivo no puede usarse como destino.
+     * @throws IllegalStateException Si ya hay una grabación en curso.
+     */
+    public static synchronized void start(Path file) throws IOException {
+        if (recording != null) {
+            throw new IllegalStateException("a recording is already running (" + destination + ")");
+        }
+        Recording newRecording;
+        try {
+            newRecording = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("cannot load JFR configuration: " + e.getMessage(), e);
+        }
+        newRecording.setName("shell");
+        newRecording.setDestination(file);
+        // JFR la vuelca al salir desde su propio gancho de cierre; uno nuestro competiría con él
+        newRecording.setDumpOnExit(true);
+        newRecording.start();
+        recording = newRecording;
+        destination = file;
+        enabled = true;
+    }
+
+    /**
+     * Para la grabación y la vuelca a su archivo.
+     * @return Archivo escrito, o null si no había grabación.
+     */
+    public static synchronized Path stop() {
+        if (recording == null) {
+            return null;
+        }
+        Path file = destination;
+        enabled = false;
+        recording.stop();
+        recording.close();
+        recording = null;
+        destination = null;
+        return file;
+    }
+
+    /**
+     * @return Archivo de la grabación en curso, o null si no se está grabando.
+     */
+    public static synchronized Path current() {
+        return destination;
+    }
+
+    /**
+     * Indica si hay que crear los eventos del shell. Sin grabación no se crea ninguno: el primer
+     * evento carga e inicializa JFR, lo que cuesta cientos de milisegundos en el arranque.
+     * Solo consulta un campo, así que no carga ninguna clase de JFR.
+     * @return true si hay una grabación en curso.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,14 @@
+package com.codecrafters.shell.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR: copia de un flujo de un proceso hijo hasta su fin.
+ */
+@Name("com.codecrafters.shell.StreamPump")
+@Label("Stream Pump")
+@Description("Copia de un flujo de un proceso hijo hasta su fin.")
+public class StreamPumpEvent extends ShellEvent {
+}
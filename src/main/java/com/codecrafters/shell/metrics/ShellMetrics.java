@@ -0,0 +1,122 @@
+package com.codecrafters.shell.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Métricas del shell, siempre activas: contadores LongAdder y histogramas de latencia sin
+ * bloqueos, de modo que registrar un evento cuesta unos pocos nanosegundos.
+ * Se consultan con el builtin 'stats' o por JMX (ver {@link #registerMBean()}).
+ */
+public class ShellMetrics implements ShellMetricsMXBean {
+    public static final String OBJECT_NAME = "com.codecrafters.shell:type=ShellMetrics";
+    private static final ShellMetrics INSTANCE = new ShellMetrics();
+
+    private final LongAdder builtinCommands = new LongAdder();
+    private final LongAdder externalCommands = new LongAdder();
+    private final LongAdder pipelines = new LongAdder();
+    private final LongAdder redirectedBytes = new LongAdder();
+    private final LongAdder pathCacheHits = new LongAdder();
+    private final LongAdder pathCacheMisses = new LongAdder();
+    private final AtomicLongArray exitCodes = new AtomicLongArray(256);
+
+    private final LatencyHistogram commandLatency = new LatencyHistogram();
+    private final LatencyHistogram spawnLatency = new LatencyHistogram();
+    private final LatencyHistogram completionLatency = new LatencyHistogram();
+
+    /**
+     * Obtiene las métricas compartidas por todo el shell.
+     * @return Instancia única.
+     */
+    public static ShellMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registra las métricas en el servidor de MBeans de la plataforma. Cargar JMX cuesta varias
+     * decenas de milisegundos, así que el shell lo hace en segundo plano tras mostrar el prompt.
+     */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            // Sin JMX las métricas siguen disponibles con 'stats'
+        }
+    }
+
+    public void builtinExecuted() { builtinCommands.increment(); }
+    public void externalExecuted() { externalCommands.increment(); }
+    public void pipelineExecuted() { pipelines.increment(); }
+    public void redirected(long bytes) { redirectedBytes.add(bytes); }
+
+    public void pathLookup(boolean hit) {
+        (hit ? pathCacheHits : pathCacheMisses).increment();
+    }
+
+    /**
+     * @param exitCode Código de salida de una línea (se usa módulo 256, como en bash).
+     */
+    public void exited(int exitCode) {
+        exitCodes.incrementAndGet(exitCode & 0xFF);
+    }
+
+    public LatencyHistogram getCommandLatency() { return commandLatency; }
+    public LatencyHistogram getSpawnLatency() { return spawnLatency; }
+    public LatencyHistogram getCompletionLatency() { return completionLatency; }
+
+    @Override public long getBuiltinCommands() { return builtinCommands.sum(); }
+    @Override public long getExternalCommands() { return externalCommands.sum(); }
+    @Override public long getPipelines() { return pipelines.sum(); }
+    @Override public long getRedirectedBytes() { return redirectedBytes.sum(); }
+    @Override public long getPathCacheHits() { return pathCacheHits.sum(); }
+    @Override public long getPathCacheMisses() { return pathCacheMisses.sum(); }
+
+    @Override public long getCommandLatencyP50Micros() { return micros(commandLatency.getPercentile(50)); }
+    @Override public long getCommandLatencyP99Micros() { return micros(commandLatency.getPercentile(99)); }
+    @Override public long getSpawnLatencyP50Micros() { return micros(spawnLatency.getPercentile(50)); }
+    @Override public long getSpawnLatencyP99Micros() { return micros(spawnLatency.getPercentile(99)); }
+    @Override public long getCompletionLatencyP50Micros() { return micros(completionLatency.getPercentile(50)); }
+    @Override public long getCompletionLatencyP99Micros() { return micros(completionLatency.getPercentile(99)); }
+
+    @Override
+    public Map<String, Long> getExitCodes() {
+        // En orden numérico de código; un mapa con Comparator no es convertible a tipo abierto de JMX
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code = 0; code < exitCodes.length(); code++) {
+            long count = exitCodes.get(code);
+            if (count > 0) {
+                result.put(String.valueOf(code), count);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        builtinCommands.reset();
+        externalCommands.reset();
+        pipelines.reset();
+        redirectedBytes.reset();
+        pathCacheHits.reset();
+        pathCacheMisses.reset();
+        for (int code = 0; code < exitCodes.length(); code++) {
+            exitCodes.set(code, 0);
+        }
+        commandLatency.reset();
+        spawnLatency.reset();
+        completionLatency.reset();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,30 @@
+package com.codecrafters.shell.metrics;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de {@link ShellMetrics}, registrada como "com.codecrafters.shell:type=ShellMetrics".
+ * Las latencias se expresan en microsegundos.
+ */
+public interface ShellMetricsMXBean {
+    long getBuiltinCommands();
+    long getExternalCommands();
+    long getPipelines();
+    long getRedirectedBytes();
+    long getPathCacheHits();
+    long getPathCacheMisses();
+
+    long getCommandLatencyP50Micros();
+    long getCommandLatencyP99Micros();
+    long getSpawnLatencyP50Micros();
+    long getSpawnLatencyP99Micros();
+    long getCompletionLatencyP50Micros();
+    long getCompletionLatencyP99Micros();
+
+    /**
+     * @return Veces que se obtuvo cada código de salida (solo los que aparecieron), con el código como texto.
+     */
+    Map<String, Long> getExitCodes();
+
+    void reset();
+}
@@ -0,0 +1,64 @@
+package com.codecrafters.shell.parser;
+
+import java.util.List;
+
+/**
+ * Lista de tuberías separadas por ';', '&', '&&' o '||'.
+ * Cada entrada indica la condición con la que se ejecuta según el código de salida
+ * de lo ejecutado antes, así que la lista se recorre en orden sin volver a mirar los operadores.
+ */
+public class CommandList {
+    /**
+     * Condición de ejecución de una entrada respecto a la anterior.
+     */
+    public enum Condition {
+        /** Primera entrada, o tras ';' o '&': se ejecuta siempre. */
+        ALWAYS,
+        /** Tras '&&': solo si el último código de salida es 0. */
+        IF_SUCCESS,
+        /** Tras '||': solo si el último código de salida no es 0. */
+        IF_FAILURE
+    }
+
+    /**
+     * Tubería de la lista junto con su condición de ejecución.
+     */
+    public static class Entry {
+        private final Condition condition;
+        private final Pipeline pipeline;
+
+        public Entry(Condition condition, Pipeline pipeline) {
+            this.condition = condition;
+            this.pipeline = pipeline;
+        }
+
+        public Condition getCondition() { return condition; }
+        public Pipeline getPipeline() { return pipeline; }
+
+        /**
+         * Decide si la entrada se ejecuta. Una entrada saltada no cambia el código de salida,
+         * así que en 'false && a || b' se salta 'a' y se ejecuta 'b', como en bash.
+         * @param lastExitCode Código de salida de lo último ejecutado.
+         * @return true si la entrada debe ejecutarse.
+         */
+        public boolean shouldRun(int lastExitCode) {
+            switch (condition) {
+                case IF_SUCCESS:
+                    return lastExitCode == 0;
+                case IF_FAILURE:
+                    return lastExitCode != 0;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    private final List<Entry> entries;
+
+    public CommandList(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public List<Entry> getEntries() { return entries; }
+    public boolean isEmpty() { return entries.isEmpty(); }
+}
@@ -1,232 +1,372 @@
 package com.codecrafters.shell.parser;
 
+import com.codecrafters.shell.jfr.ParseEvent;
+import com.codecrafters.shell.jfr.ShellRecording;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Parser para comandos del shell.
- * Maneja la tokenización de argumentos, comillas y detección de redirecciones.
+ * Construye el árbol de la línea (lista → tuberías → comandos simples con sus redirecciones)
+ * a partir de los tokens del {@link Lexer}, recorriendo la entrada una sola vez.
+ *
+ * Gramática:
+ * <pre>
+ *   lista      := tubería (('&&' | '||' | ';' | '&') tubería)* [';' | '&']
+ *   tubería    := ['time'] comando ('|' comando)*
+ *   comando    := (WORD | redirección)+
+ *   redirección := [IO_NUMBER] ('>' | '>>' | '>&' | '&>' | '&>>' | '<' | '<&' | '<<' | '<<-' | '<<<') WORD
+ * </pre>
+ * El cuerpo de un documento en línea ('<<') son las líneas que siguen a la del operador hasta
+ * la del delimitador; {@link #readHereDocuments} las añade a la línea antes de parsearla.
+ * Un '&' manda a segundo plano la tubería que lo precede. 'time' al principio de una tubería
+ * es una palabra reservada (como en bash) que pide medir su ejecución.
+ * Las palabras con '$' o comodines guardan además su texto original: se expanden al ejecutar
+ * cada tubería ({@link Pipeline#expand}), no al parsear la línea.
  */
 public class CommandParser {
 
     /**
-     * Parsea una línea de comando para detectar redirecciones.
-     * @param input Línea de comando completa.
-     * @return Información sobre la redirección y el comando limpio.
+     * Fuente de las líneas que siguen a la que se está parseando.
      */
-    public RedirectionInfo parseRedirection(String input) {
-        boolean inSingleQuote = false;
-        boolean inDoubleQuote = false;
-        boolean isEscaped = false;
-
-        String stdoutFile = null;
-        String stderrFile = null;
-        boolean hasStdoutRedirection = false;
-        boolean hasStderrRedirection = false;
-        boolean stdoutAppend = false;
-        boolean stderrAppend = false;
-
-        List<RedirectionToken> redirections = new ArrayList<>();
-
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-
-            if (isEscaped) {
-                isEscaped = false;
-                continue;
-            }
-
-            if (c == '\\') {
-                isEscaped = true;
-                continue;
-            }
+    @FunctionalInterface
+    public interface LineSource {
+        /**
+         * @return Siguiente línea, sin el salto de línea, o null al final de la entrada.
+         * @throws IOException Si falla la lectura.
+         */
+        String readLine() throws IOException;
+    }
 
-            if (c == '\'' && !inDoubleQuote) {
-                inSingleQuote = !inSingleQuote;
-                continue;
+    /**
+     * Completa una línea con los cuerpos de sus documentos en línea: lee de {@code lines} hasta
+     * la línea de cada delimitador, o hasta el final de la entrada, que cierra los que falten.
+     * @param line Línea leída.
+     * @param lines Fuente de las líneas siguientes.
+     * @return La línea seguida de las de los cuerpos, separadas por saltos de línea, o la misma
+     *         línea si no tiene documentos en línea.
+     * @throws IOException Si falla la lectura de las líneas siguientes.
+     */
+    public String readHereDocuments(String line, LineSource lines) throws IOException {
+        if (line.indexOf("<<") < 0) {
+            return line;
+        }
+        Lexer lexer = new Lexer(line);
+        lexer.tokenize();
+        List<Lexer.Delimiter> delimiters = lexer.getUnterminatedDelimiters();
+        if (delimiters.isEmpty()) {
+            return line;
+        }
+        StringBuilder text = new StringBuilder(line);
+        for (Lexer.Delimiter delimiter : delimiters) {
+            String next;
+            while ((next = lines.readLine()) != null) {
+                text.append('\n').append(next);
+                if (delimiter.isClosedBy(next)) {
+                    break;
+                }
             }
-
-            if (c == '"' && !inSingleQuote) {
-                inDoubleQuote = !inDoubleQuote;
-                continue;
+            if (next == null) {
+                break;
             }
+        }
+        return text.toString();
+    }
 
-            if (!inSingleQuote && !inDoubleQuote && c == '>') {
-                boolean isAppend = false;
-                int nextIndex = i + 1;
-                if (nextIndex < input.length() && input.charAt(nextIndex) == '>') {
-                    isAppend = true;
-                }
-
-                int redirectStart = i;
-                int checkIndex = i - 1;
-                while (checkIndex >= 0 && Character.isWhitespace(input.charAt(checkIndex))) {
-                    checkIndex--;
-                }
-
-                int fdNumber = 1;
-                if (checkIndex >= 0 && Character.isDigit(input.charAt(checkIndex))) {
-                    fdNumber = input.charAt(checkIndex) - '0';
-                    redirectStart = checkIndex;
-                }
-
-                int fileStart = isAppend ? i + 2 : i + 1;
-                while (fileStart < input.length() && Character.isWhitespace(input.charAt(fileStart))) {
-                    fileStart++;
-                }
-
-                int fileEnd = fileStart;
-                boolean inFileQuote = false;
-                char quoteChar = 0;
-                while (fileEnd < input.length()) {
-                    char fc = input.charAt(fileEnd);
-
-                    if (!inFileQuote && (fc == '\'' || fc == '"')) {
-                        inFileQuote = true;
-                        quoteChar = fc;
-                        fileEnd++;
-                        continue;
-                    }
-
-                    if (inFileQuote && fc == quoteChar) {
-                        inFileQuote = false;
-                        fileEnd++;
-                        continue;
-                    }
-
-                    if (!inFileQuote && (fc == ' ' || fc == '>' || (Character.isDigit(fc) &&
-                            fileEnd + 1 < input.length() && input.charAt(fileEnd + 1) == '>'))) {
-                        break;
-                    }
-
-                    fileEnd++;
-                }
-
-                String file = input.substring(fileStart, fileEnd).trim();
-                if ((file.startsWith("\"") && file.endsWith("\"")) ||
-                        (file.startsWith("'") && file.endsWith("'"))) {
-                    file = file.substring(1, file.length() - 1);
-                }
-
-                redirections.add(new RedirectionToken(redirectStart, fileEnd, fdNumber, file, isAppend));
-
-                if (isAppend) {
-                    i++;
-                }
+    /**
+     * Parsea una línea de comando completa.
+     * @param input Línea de comando.
+     * @return Lista de tuberías (vacía si la línea no tiene comandos).
+     * @throws SyntaxException Si la línea no sigue la gramática (p. ej. "ls |" o "| wc").
+     */
+    public CommandList parse(String input) {
+        ParseEvent event = ShellRecording.isEnabled() ? new ParseEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        Lexer lexer = new Lexer(input);
+        List<Token> tokens = lexer.tokenize();
+        try {
+            return new Parser(input, tokens, lexer.getHereDocuments()).parseList();
+        } finally {
+            if (event != null) {
+                commitParse(event, input, tokens);
             }
         }
+    }
 
-        if (redirections.isEmpty()) {
-            return new RedirectionInfo(input, null, null, false, false, false, false);
+    private static void commitParse(ParseEvent event, String input, List<Token> tokens) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commandName = tokens.isEmpty() ? "" : tokens.get(0).value(input);
+            event.argumentCount = tokens.size();
+            event.bytes = input.length();
+            event.commit();
         }
+    }
 
-        redirections.sort((a, b) -> Integer.compare(a.start, b.start));
+    /**
+     * Parsea una línea que contiene una sola tubería.
+     * @param input Línea de comando.
+     * @return Tubería con al menos una etapa.
+     * @throws SyntaxException Si la línea no es una única tubería.
+     */
+    public Pipeline parsePipeline(String input) {
+        List<CommandList.Entry> entries = parse(input).getEntries();
+        if (entries.size() != 1) {
+            throw new SyntaxException(entries.isEmpty() ? "newline" : ";");
+        }
+        return entries.get(0).getPipeline();
+    }
 
-        StringBuilder commandBuilder = new StringBuilder();
+    /**
+     * Separa las redirecciones de un comando simple.
+     * @param input Comando simple con redirecciones.
+     * @return Información sobre la redirección y el comando sin ellas.
+     */
+    public RedirectionInfo parseRedirection(String input) {
+        Lexer lexer = new Lexer(input);
+        List<Token> tokens = lexer.tokenize();
+        List<Token> hereDocuments = lexer.getHereDocuments();
+        List<Redirection> redirections = new ArrayList<>();
+        StringBuilder command = new StringBuilder();
         int lastPos = 0;
+        int hereDocument = 0;
 
-        for (RedirectionToken redir : redirections) {
-            commandBuilder.append(input.substring(lastPos, redir.start));
-            lastPos = redir.end;
-
-            if (redir.fd == 1) {
-                stdoutFile = redir.file;
-                hasStdoutRedirection = true;
-                stdoutAppend = redir.append;
-            } else if (redir.fd == 2) {
-                stderrFile = redir.file;
-                hasStderrRedirection = true;
-                stderrAppend = redir.append;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (!token.isRedirection() || i + 1 >= tokens.size() || tokens.get(i + 1).getType() != Token.Type.WORD) {
+                continue;
             }
+            Token fd = i > 0 && tokens.get(i - 1).getType() == Token.Type.IO_NUMBER ? tokens.get(i - 1) : null;
+            Token target = tokens.get(i + 1);
+            int start = fd != null ? fd.getStart() : token.getStart();
+            command.append(input, lastPos, start);
+            lastPos = target.getEnd();
+            Token body = token.getType() == Token.Type.DLESS || token.getType() == Token.Type.DLESSDASH
+                    ? hereDocuments.get(hereDocument++) : null;
+            addRedirection(redirections, input, token, fd, target, body);
+            i++;
         }
 
-        commandBuilder.append(input.substring(lastPos));
-        String command = commandBuilder.toString().trim();
-
-        return new RedirectionInfo(command, stdoutFile, stderrFile,
-                hasStdoutRedirection, hasStderrRedirection,
-                stdoutAppend, stderrAppend);
+        if (redirections.isEmpty()) {
+            return RedirectionInfo.none(input);
+        }
+        command.append(input, lastPos, input.length());
+        return RedirectionInfo.of(command.toString().trim(), redirections);
     }
 
     /**
-     * Parsea una cadena de comando en una lista de argumentos. -----
+     * Parsea una cadena de comando en una lista de argumentos.
      * Respeta comillas simples y dobles, y caracteres de escape.
-     * 
+     *
      * @param input Cadena de comando (sin redirecciones).
      * @return Lista de argumentos.
      */
     public List<String> parseArguments(String input) {
         List<String> arguments = new ArrayList<>();
-        StringBuilder currentArg = new StringBuilder();
-        boolean inSingleQuote = false;
-        boolean inDoubleQuote = false;
-        boolean isEscaped = false;
-
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-
-            if (isEscaped) {
-                if (inDoubleQuote) {
-                    // En bash, dentro de comillas dobles solo estos caracteres son especiales cuando escapados
-                    // La comilla simple NO es especial, así que \' produce \ seguido de '
-                    if (c == '"' || c == '\\' || c == '$' || c == '`') {
-                        currentArg.append(c);
-                    } else {
-                        currentArg.append('\\');
-                        currentArg.append(c);
+        for (Token token : new Lexer(input).tokenize()) {
+            arguments.add(token.value(input));
+        }
+        return arguments;
+    }
+
+    /**
+     * Construye una redirección a partir de sus tokens. '&>' y '&>>' se añaden como sus
+     * equivalentes en bash, '> archivo 2>&1' y '>> archivo 2>&1'.
+     * @param redirections Redirecciones del comando, a las que se añade.
+     * @param input Línea de la que salen los tokens.
+     * @param operator Operador de la redirección.
+     * @param fd Número de descriptor que lo precede, o null para el de por defecto (0 o 1).
+     * @param target Palabra que sigue al operador.
+     * @param body Cuerpo del documento en línea si el operador es '<<' o '<<-', o null.
+     */
+    private static void addRedirection(List<Redirection> redirections, String input, Token operator, Token fd,
+                                       Token target, Token body) {
+        int descriptor = fd != null ? Integer.parseInt(fd.text(input)) : operator.isInputRedirection() ? 0 : 1;
+        String word = target.isExpandable() ? target.text(input) : null;
+        Redirection.Type type;
+        switch (operator.getType()) {
+            case DGREAT:
+            case ANDDGREAT:
+                type = Redirection.Type.APPEND;
+                break;
+            case GREATAND:
+            case LESSAND:
+                type = Redirection.Type.DUPLICATE;
+                break;
+            case LESS:
+                type = Redirection.Type.INPUT;
+                break;
+            case TLESS:
+                type = Redirection.Type.HERE_STRING;
+                break;
+            case DLESS:
+            case DLESSDASH:
+                String text = Lexer.hereDocument(input, body.getStart(), body.getEnd(),
+                        operator.getType() == Token.Type.DLESSDASH);
+                // Con el delimitador entre comillas el cuerpo es literal
+                String expandable = !body.isQuoted() && Lexer.isExpandableHereDocument(text) ? text : null;
+                redirections.add(new Redirection(descriptor, Redirection.Type.HERE_DOCUMENT, text, expandable));
+                return;
+            default:
+                type = Redirection.Type.OUTPUT;
+                break;
+        }
+        redirections.add(new Redirection(descriptor, type, target.value(input), word));
+        if (operator.getType() == Token.Type.ANDGREAT || operator.getType() == Token.Type.ANDDGREAT) {
+            redirections.add(new Redirection(2, Redirection.Type.DUPLICATE, "1", null));
+        }
+    }
+
+    /**
+     * Parser descendente recursivo sobre la lista de tokens de una línea.
+     */
+    private static class Parser {
+        private final String input;
+        private final List<Token> tokens;
+        private final List<Token> hereDocuments;
+        private int position = 0;
+        private int hereDocument = 0;
+
+        Parser(String input, List<Token> tokens, List<Token> hereDocuments) {
+            this.input = input;
+            this.tokens = tokens;
+            this.hereDocuments = hereDocuments;
+        }
+
+        CommandList parseList() {
+            List<CommandList.Entry> entries = new ArrayList<>();
+            CommandList.Condition condition = CommandList.Condition.ALWAYS;
+
+            while (position < tokens.size()) {
+                int start = position;
+                boolean timed = parseTimeKeyword();
+                List<SimpleCommand> commands = parsePipelineCommands();
+                int end = position;
+
+                boolean background = false;
+                CommandList.Condition next = CommandList.Condition.ALWAYS;
+                if (position < tokens.size()) {
+                    Token separator = tokens.get(position++);
+                    switch (separator.getType()) {
+                        case AMP:
+                            background = true;
+                            break;
+                        case AND_IF:
+                            next = CommandList.Condition.IF_SUCCESS;
+                            break;
+                        case OR_IF:
+                            next = CommandList.Condition.IF_FAILURE;
+                            break;
+                        case SEMI:
+                            break;
+                        default:
+                            throw unexpected(separator);
+                    }
+                    if (next != CommandList.Condition.ALWAYS && position >= tokens.size()) {
+                        throw new SyntaxException("newline");
                     }
-                } else {
-                    currentArg.append(c);
                 }
-                isEscaped = false;
-                continue;
+
+                String text = input.substring(tokens.get(start).getStart(), tokens.get(end - 1).getEnd());
+                entries.add(new CommandList.Entry(condition, new Pipeline(commands, background, timed, text)));
+                condition = next;
             }
+            return new CommandList(entries);
+        }
 
-            if (c == '\\' && !inSingleQuote) {
-                isEscaped = true;
-                continue;
+        /**
+         * Consume un 'time' sin comillas al principio de la tubería. Si no le sigue ningún comando,
+         * se deja como palabra normal (se ejecutará el comando 'time' del PATH).
+         */
+        private boolean parseTimeKeyword() {
+            Token token = tokens.get(position);
+            if (token.getType() != Token.Type.WORD || token.isQuoted() || !token.text(input).equals("time")
+                    || position + 1 >= tokens.size()) {
+                return false;
+            }
+            Token.Type next = tokens.get(position + 1).getType();
+            if (next != Token.Type.WORD && next != Token.Type.IO_NUMBER && !tokens.get(position + 1).isRedirection()) {
+                return false;
             }
+            position++;
+            return true;
+        }
 
-            if (c == '\'' && !inDoubleQuote) {
-                inSingleQuote = !inSingleQuote;
-                continue;
+        private List<SimpleCommand> parsePipelineCommands() {
+            List<SimpleCommand> commands = new ArrayList<>();
+            commands.add(parseCommand());
+            while (position < tokens.size() && tokens.get(position).getType() == Token.Type.PIPE) {
+                position++;
+                if (position >= tokens.size()) {
+                    throw new SyntaxException("newline");
+                }
+                commands.add(parseCommand());
             }
+            return commands;
+        }
 
-            if (c == '"' && !inSingleQuote) {
-                inDoubleQuote = !inDoubleQuote;
-                continue;
+        private SimpleCommand parseCommand() {
+            List<String> arguments = new ArrayList<>();
+            List<Redirection> redirections = new ArrayList<>();
+            List<String> words = null;
+
+            while (position < tokens.size()) {
+                Token token = tokens.get(position);
+                if (token.getType() == Token.Type.WORD) {
+                    if (token.isExpandable()) {
+                        // Las variables se expanden al ejecutar; aquí se guarda el texto original
+                        if (words == null) {
+                            words = new ArrayList<>();
+                        }
+                        while (words.size() < arguments.size()) {
+                            words.add(null);
+                        }
+                        words.add(token.text(input));
+                    }
+                    arguments.add(token.value(input));
+                    position++;
+                } else if (token.getType() == Token.Type.IO_NUMBER || token.isRedirection()) {
+                    parseRedirection(redirections);
+                } else {
+                    break;
+                }
             }
 
-            if (Character.isWhitespace(c) && !inSingleQuote && !inDoubleQuote) {
-                if (currentArg.length() > 0) {
-                    arguments.add(currentArg.toString());
-                    currentArg = new StringBuilder();
+            if (arguments.isEmpty() && redirections.isEmpty()) {
+                throw position < tokens.size() ? unexpected(tokens.get(position)) : new SyntaxException("newline");
+            }
+            if (words != null) {
+                while (words.size() < arguments.size()) {
+                    words.add(null);
                 }
-            } else {
-                currentArg.append(c);
             }
+            return new SimpleCommand(arguments, redirections, words);
         }
 
-        if (currentArg.length() > 0) {
-            arguments.add(currentArg.toString());
+        private void parseRedirection(List<Redirection> redirections) {
+            Token fd = null;
+            Token token = tokens.get(position++);
+            if (token.getType() == Token.Type.IO_NUMBER) {
+                fd = token;
+                token = tokens.get(position++);
+            }
+            if (position >= tokens.size()) {
+                throw new SyntaxException("newline");
+            }
+            Token target = tokens.get(position++);
+            if (target.getType() != Token.Type.WORD) {
+                throw unexpected(target);
+            }
+            Token body = token.getType() == Token.Type.DLESS || token.getType() == Token.Type.DLESSDASH
+                    ? hereDocuments.get(hereDocument++) : null;
+            addRedirection(redirections, input, token, fd, target, body);
         }
 
-        return arguments;
-    }
-
-    private static class RedirectionToken {
-        int start;
-        int end;
-        int fd;
-        String file;
-        boolean append;
-
-        RedirectionToken(int start, int end, int fd, String file, boolean append) {
-            this.start = start;
-            this.end = end;
-            this.fd = fd;
-            this.file = file;
-            this.append = append;
+        private SyntaxException unexpected(Token token) {
+            return new SyntaxException(token.text(input));
         }
     }
 }
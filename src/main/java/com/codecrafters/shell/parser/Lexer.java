@@ -0,0 +1,500 @@
+package com.codecrafters.shell.parser;
+
+import com.codecrafters.shell.glob.GlobExpander;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Analizador léxico del shell. Recorre la línea una sola vez y produce tokens que apuntan
+ * a posiciones de la entrada (palabras, operadores y números de descriptor).
+ * Las comillas y los escapes solo se usan aquí para decidir dónde acaba cada palabra;
+ * su valor se calcula después con {@link #unquote(String, int, int)} cuando hace falta, o con
+ * {@link #expand(String, int, int, UnaryOperator)} si contiene variables.
+ * <p>
+ * Los cuerpos de los documentos en línea ('<<') empiezan en la línea siguiente a su operador y
+ * llegan hasta la línea con el delimitador; no forman parte de la lista de tokens, sino que se
+ * obtienen en orden con {@link #getHereDocuments()}.
+ */
+public class Lexer {
+    private static final int MAX_FD_DIGITS = 9;
+
+    private final String input;
+    /** Cuerpos de los documentos en línea, en el orden de sus operadores. */
+    private final List<Token> hereDocuments = new ArrayList<>(0);
+    /** Delimitadores cuyo cuerpo aún no se ha leído (el operador está en la línea actual). */
+    private final List<Delimiter> pending = new ArrayList<>(0);
+    /** Delimitadores cuyo cuerpo llegó al final de la entrada sin encontrarlos. */
+    private final List<Delimiter> unterminated = new ArrayList<>(0);
+
+    /**
+     * Delimitador de un documento en línea.
+     * @param word Palabra que cierra el cuerpo, con las comillas ya resueltas.
+     * @param stripTabs true para '<<-': se ignoran los tabuladores al principio de cada línea.
+     * @param quoted true si la palabra tenía comillas o escapes: el cuerpo no se expande.
+     */
+    public record Delimiter(String word, boolean stripTabs, boolean quoted) {
+        /**
+         * @param line Línea del cuerpo, sin el salto de línea.
+         * @return true si la línea cierra el documento.
+         */
+        public boolean isClosedBy(String line) {
+            return matches(line, 0, line.length());
+        }
+
+        private boolean matches(String text, int start, int end) {
+            while (stripTabs && start < end && text.charAt(start) == '\t') {
+                start++;
+            }
+            return end - start == word.length() && text.startsWith(word, start);
+        }
+    }
+
+    public Lexer(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Divide la entrada en tokens. Una comilla sin cerrar se extiende hasta el final de la línea.
+     * @return Lista de tokens en orden, sin los cuerpos de los documentos en línea.
+     */
+    public List<Token> tokenize() {
+        List<Token> tokens = new ArrayList<>();
+        int length = input.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = input.charAt(i);
+
+            if (c == '\n' && !pending.isEmpty()) {
+                i = readHereDocuments(i + 1);
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            if (isOperatorStart(c)) {
+                i = readOperator(i, tokens);
+                continue;
+            }
+
+            int start = i;
+            boolean quoted = false;
+            boolean expandable = false;
+            boolean digitsOnly = true;
+            char quote = 0;
+
+            while (i < length) {
+                c = input.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\' && quote == '"' && i + 1 < length) {
+                        i += 2;
+                        continue;
+                    }
+                    if (c == quote) {
+                        quote = 0;
+                    } else if (c == '$' && quote == '"') {
+                        expandable = true;
+                    }
+                    i++;
+                    continue;
+                }
+                if (Character.isWhitespace(c) || isOperatorStart(c)) {
+                    break;
+                }
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                    quoted = true;
+                } else if (c == '\\') {
+                    quoted = true;
+                    i++;
+                } else if (c == '$' || c == '*' || c == '?' || c == '[') {
+                    expandable = true;
+                }
+                if (!Character.isDigit(c)) {
+                    digitsOnly = false;
+                }
+                i++;
+            }
+            i = Math.min(i, length);
+
+            // Un número pegado a '>' o '<' es el descriptor de la redirección, no un argumento
+            boolean ioNumber = digitsOnly && i - start <= MAX_FD_DIGITS && i < length
+                    && (input.charAt(i) == '>' || input.charAt(i) == '<');
+            Token token = new Token(ioNumber ? Token.Type.IO_NUMBER : Token.Type.WORD, start, i, quoted, expandable);
+            Token.Type previous = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1).getType();
+            if (previous == Token.Type.DLESS || previous == Token.Type.DLESSDASH) {
+                pending.add(new Delimiter(token.value(input), previous == Token.Type.DLESSDASH, quoted));
+            }
+            tokens.add(token);
+        }
+        // Un operador '<<' en la última línea deja su documento vacío, como bash al final del archivo
+        readHereDocuments(length);
+        return tokens;
+    }
+
+    /**
+     * @return Cuerpos de los documentos en línea, en el orden de sus operadores. Cada uno es un
+     *         token {@link Token.Type#HERE_DOCUMENT}, marcado como entrecomillado si su
+     *         delimitador lo estaba (el cuerpo no se expande).
+     */
+    public List<Token> getHereDocuments() {
+        return hereDocuments;
+    }
+
+    /**
+     * @return Delimitadores de los documentos en línea que no aparecen en la entrada: sus
+     *         cuerpos continúan en las líneas que aún no se han leído.
+     */
+    public List<Delimiter> getUnterminatedDelimiters() {
+        return unterminated;
+    }
+
+    /**
+     * Lee los cuerpos de los documentos pendientes, uno detrás de otro, a partir de una línea.
+     * @param start Principio de la línea siguiente al operador.
+     * @return Posición siguiente a la línea del último delimitador.
+     */
+    private int readHereDocuments(int start) {
+        int length = input.length();
+        int position = start;
+        for (int d = 0; d < pending.size(); d++) {
+            Delimiter delimiter = pending.get(d);
+            int bodyStart = position;
+            int bodyEnd = -1;
+            while (position < length) {
+                int lineEnd = input.indexOf('\n', position);
+                if (lineEnd < 0) {
+                    lineEnd = length;
+                }
+                if (delimiter.matches(input, position, lineEnd)) {
+                    bodyEnd = position;
+                    position = Math.min(lineEnd + 1, length);
+                    break;
+                }
+                position = Math.min(lineEnd + 1, length);
+            }
+            if (bodyEnd < 0) {
+                bodyEnd = length;
+                unterminated.add(delimiter);
+            }
+            hereDocuments.add(new Token(Token.Type.HERE_DOCUMENT, bodyStart, bodyEnd, delimiter.quoted(), false));
+        }
+        pending.clear();
+        return position;
+    }
+
+    private static boolean isOperatorStart(char c) {
+        return c == '|' || c == '&' || c == ';' || c == '>' || c == '<';
+    }
+
+    private int readOperator(int i, List<Token> tokens) {
+        char c = input.charAt(i);
+        boolean doubled = i + 1 < input.length() && input.charAt(i + 1) == c && c != ';';
+        Token.Type type;
+        switch (c) {
+            case '|':
+                type = doubled ? Token.Type.OR_IF : Token.Type.PIPE;
+                break;
+            case '&':
+                type = doubled ? Token.Type.AND_IF : Token.Type.AMP;
+                break;
+            case '>':
+                type = doubled ? Token.Type.DGREAT : Token.Type.GREAT;
+                break;
+            case '<':
+                type = Token.Type.LESS;
+                break;
+            default:
+                type = Token.Type.SEMI;
+                break;
+        }
+        char next = i + 1 < input.length() ? input.charAt(i + 1) : 0;
+        if ((c == '>' || c == '<') && !doubled && next == '&') {
+            type = c == '>' ? Token.Type.GREATAND : Token.Type.LESSAND;
+            doubled = true;
+        }
+        int end = doubled ? i + 2 : i + 1;
+        if (c == '&' && next == '>') {
+            // '&>' o '&>>'
+            boolean append = end + 1 < input.length() && input.charAt(end + 1) == '>';
+            type = append ? Token.Type.ANDDGREAT : Token.Type.ANDGREAT;
+            end = append ? i + 3 : i + 2;
+        }
+        if (c == '<' && type != Token.Type.LESSAND) {
+            // '<', '<<', '<<-' o '<<<'
+            char third = end < input.length() ? input.charAt(end) : 0;
+            type = !doubled ? Token.Type.LESS
+                    : third == '<' ? Token.Type.TLESS
+                    : third == '-' ? Token.Type.DLESSDASH
+                    : Token.Type.DLESS;
+            if (type == Token.Type.TLESS || type == Token.Type.DLESSDASH) {
+                end++;
+            }
+        }
+        tokens.add(new Token(type, i, end, false, false));
+        return end;
+    }
+
+    /**
+     * Calcula el valor de una palabra resolviendo comillas simples, dobles y escapes como bash:
+     * fuera de comillas '\' escapa cualquier carácter; dentro de comillas dobles solo escapa
+     * '"', '\', '$' y '`'; dentro de comillas simples todo es literal.
+     *
+     * @param input Línea de entrada.
+     * @param start Inicio de la palabra.
+     * @param end Fin de la palabra.
+     * @return Valor de la palabra.
+     */
+    public static String unquote(String input, int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        boolean inSingleQuote = false;
+        boolean inDoubleQuote = false;
+
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+
+            if (c == '\\' && !inSingleQuote && i + 1 < end) {
+                char next = input.charAt(++i);
+                if (inDoubleQuote && next != '"' && next != '\\' && next != '$' && next != '`') {
+                    // La comilla simple NO es especial dentro de comillas dobles: \' produce \ seguido de '
+                    value.append('\\');
+                }
+                value.append(next);
+            } else if (c == '\\' && !inSingleQuote) {
+                // Escape al final de la línea: se descarta, como hacía el parser original
+                continue;
+            } else if (c == '\'' && !inDoubleQuote) {
+                inSingleQuote = !inSingleQuote;
+            } else if (c == '"' && !inSingleQuote) {
+                inDoubleQuote = !inDoubleQuote;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Obtiene el texto de un documento en línea: sus líneas completas, cada una con su salto de línea.
+     * @param input Entrada de la que sale el documento.
+     * @param start Inicio del cuerpo.
+     * @param end Fin del cuerpo (principio de la línea del delimitador).
+     * @param stripTabs true para '<<-': quita los tabuladores al principio de cada línea.
+     * @return Cuerpo del documento, sin expandir.
+     */
+    public static String hereDocument(String input, int start, int end, boolean stripTabs) {
+        StringBuilder body = new StringBuilder(end - start + 1);
+        int position = start;
+        while (position < end) {
+            while (stripTabs && position < end && input.charAt(position) == '\t') {
+                position++;
+            }
+            int lineEnd = input.indexOf('\n', position);
+            lineEnd = lineEnd < 0 || lineEnd >= end ? end : lineEnd + 1;
+            body.append(input, position, lineEnd);
+            position = lineEnd;
+        }
+        // La última línea de una entrada que termina sin delimitador no trae su salto de línea
+        if (body.length() > 0 && body.charAt(body.length() - 1) != '\n') {
+            body.append('\n');
+        }
+        return body.toString();
+    }
+
+    /**
+     * @return true si el cuerpo de un documento en línea tiene algo que expandir ('$' o '\').
+     */
+    public static boolean isExpandableHereDocument(String body) {
+        return body.indexOf('$') >= 0 || body.indexOf('\\') >= 0;
+    }
+
+    /**
+     * Expande el cuerpo de un documento en línea cuyo delimitador no tenía comillas, como bash:
+     * sustituye las variables sin dividir en campos ni expandir comodines, y '\' solo escapa '$',
+     * '`', '\' y el salto de línea (que une la línea con la siguiente). Las comillas son literales.
+     * @param body Cuerpo del documento.
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @return Cuerpo expandido.
+     */
+    public static String expandHereDocument(String body, UnaryOperator<String> variables) {
+        int end = body.length();
+        StringBuilder value = new StringBuilder(end);
+        for (int i = 0; i < end; i++) {
+            char c = body.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char next = body.charAt(i + 1);
+                if (next == '$' || next == '`' || next == '\\') {
+                    value.append(next);
+                    i++;
+                    continue;
+                }
+                if (next == '\n') {
+                    i++;
+                    continue;
+                }
+                value.append(c);
+            } else if (c == '$' && parameterEnd(body, i + 1, end) > 0) {
+                int nameEnd = parameterEnd(body, i + 1, end);
+                boolean braced = body.charAt(i + 1) == '{';
+                String parameter = variables.apply(body.substring(braced ? i + 2 : i + 1, braced ? nameEnd - 1 : nameEnd));
+                if (parameter != null) {
+                    value.append(parameter);
+                }
+                i = nameEnd - 1;
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Expande una palabra como bash, sin comodines: ver {@link #expand(String, int, int, UnaryOperator, GlobExpander)}.
+     */
+    public static List<String> expand(String input, int start, int end, UnaryOperator<String> variables) {
+        return expand(input, start, end, variables, null);
+    }
+
+    /**
+     * Expande una palabra como bash: resuelve comillas y escapes igual que {@link #unquote(String, int, int)}
+     * y sustituye '$NOMBRE', '${NOMBRE}' y los parámetros especiales ('$?', '$$'...) fuera de comillas
+     * simples. Fuera de comillas el valor se divide en campos por los espacios; dentro de comillas
+     * dobles queda en un solo campo. Por último, cada campo con '*', '?' o '[' sin comillas se
+     * sustituye por las rutas que coinciden (o se deja tal cual si no coincide ninguna).
+     *
+     * @param input Línea de entrada.
+     * @param start Inicio de la palabra.
+     * @param end Fin de la palabra.
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @param globs Expansor de rutas, o null para no expandir comodines.
+     * @return Campos resultantes: ninguno si la palabra era solo una variable vacía sin comillas.
+     */
+    public static List<String> expand(String input, int start, int end, UnaryOperator<String> variables,
+                                      GlobExpander globs) {
+        Fields fields = new Fields(end - start, globs);
+        boolean inSingleQuote = false;
+        boolean inDoubleQuote = false;
+
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+
+            if (c == '\\' && !inSingleQuote && i + 1 < end) {
+                char next = input.charAt(++i);
+                if (inDoubleQuote && next != '"' && next != '\\' && next != '$' && next != '`') {
+                    fields.append('\\', true);
+                }
+                fields.append(next, true);
+            } else if (c == '\\' && !inSingleQuote) {
+                continue;
+            } else if (c == '\'' && !inDoubleQuote) {
+                inSingleQuote = !inSingleQuote;
+                fields.present = true;
+            } else if (c == '"' && !inSingleQuote) {
+                inDoubleQuote = !inDoubleQuote;
+                fields.present = true;
+            } else if (c == '$' && !inSingleQuote && parameterEnd(input, i + 1, end) > 0) {
+                int nameEnd = parameterEnd(input, i + 1, end);
+                boolean braced = input.charAt(i + 1) == '{';
+                String name = input.substring(braced ? i + 2 : i + 1, braced ? nameEnd - 1 : nameEnd);
+                String parameter = variables.apply(name);
+                i = nameEnd - 1;
+                if (parameter == null || parameter.isEmpty()) {
+                    fields.present |= inDoubleQuote;
+                    continue;
+                }
+                for (int j = 0; j < parameter.length(); j++) {
+                    char p = parameter.charAt(j);
+                    if (!inDoubleQuote && (p == ' ' || p == '\t' || p == '\n')) {
+                        fields.split();
+                    } else {
+                        fields.append(p, inDoubleQuote);
+                    }
+                }
+            } else {
+                fields.append(c, inSingleQuote || inDoubleQuote);
+            }
+        }
+        fields.split();
+        return fields.result;
+    }
+
+    /**
+     * Campos en construcción durante la expansión de una palabra. Junto al valor se construye
+     * el patrón de comodines, con los caracteres que venían entre comillas escapados.
+     */
+    private static final class Fields {
+        final List<String> result = new ArrayList<>(1);
+        final StringBuilder value;
+        final StringBuilder pattern;
+        final GlobExpander globs;
+        /** El campo actual existe aunque esté vacío (p. ej. "" o "$VACIA"). */
+        boolean present = false;
+        boolean glob = false;
+
+        Fields(int capacity, GlobExpander globs) {
+            this.value = new StringBuilder(capacity);
+            this.pattern = new StringBuilder(globs != null ? capacity : 0);
+            this.globs = globs;
+        }
+
+        void append(char c, boolean quoted) {
+            value.append(c);
+            present = true;
+            if (globs == null) {
+                return;
+            }
+            boolean meta = c == '*' || c == '?' || c == '[' || c == ']' || c == '\\';
+            if (meta && (quoted || c == '\\')) {
+                pattern.append('\\');
+            } else if (meta && c != ']') {
+                glob = true;
+            }
+            pattern.append(c);
+        }
+
+        /** Cierra el campo actual, si existe, expandiendo sus comodines. */
+        void split() {
+            if (present) {
+                List<String> matches = glob ? globs.expand(pattern.toString()) : List.of();
+                if (matches.isEmpty()) {
+                    result.add(value.toString());
+                } else {
+                    result.addAll(matches);
+                }
+            }
+            value.setLength(0);
+            pattern.setLength(0);
+            present = false;
+            glob = false;
+        }
+    }
+
+    /**
+     * Busca el final del parámetro que empieza tras un '$'.
+     * @return Posición siguiente al parámetro, o -1 si el '$' es literal.
+     */
+    private static int parameterEnd(String input, int start, int end) {
+        if (start >= end) {
+            return -1;
+        }
+        char c = input.charAt(start);
+        if (c == '{') {
+            int close = input.indexOf('}', start + 1);
+            return close > start + 1 && close < end ? close + 1 : -1;
+        }
+        if (c == '?' || c == '$' || c == '#' || c == '!' || Character.isDigit(c)) {
+            return start + 1;
+        }
+        if (c != '_' && !(c < 128 && Character.isLetter(c))) {
+            return -1;
+        }
+        int i = start + 1;
+        while (i < end && (input.charAt(i) == '_' || (input.charAt(i) < 128 && Character.isLetterOrDigit(input.charAt(i))))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,57 @@
+package com.codecrafters.shell.parser;
+
+import com.codecrafters.shell.glob.GlobExpander;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tubería de comandos simples conectados con '|'.
+ * La salida estándar de cada etapa alimenta la entrada estándar de la siguiente.
+ */
+public class Pipeline {
+    private final List<SimpleCommand> commands;
+    private final boolean background;
+    private final boolean timed;
+    private final String text;
+
+    public Pipeline(List<SimpleCommand> commands) {
+        this(commands, false, false, null);
+    }
+
+    /**
+     * @param commands Etapas de la tubería, en orden.
+     * @param background true si la tubería terminaba en '&' (ejecutar como trabajo en segundo plano).
+     * @param timed true si la tubería empieza por la palabra reservada 'time'.
+     * @param text Texto original de la tubería (sin el '&'), usado p. ej. en la tabla de trabajos.
+     */
+    public Pipeline(List<SimpleCommand> commands, boolean background, boolean timed, String text) {
+        this.commands = commands;
+        this.background = background;
+        this.timed = timed;
+        this.text = text;
+    }
+
+    public List<SimpleCommand> getCommands() { return commands; }
+    public boolean isBackground() { return background; }
+    public boolean isTimed() { return timed; }
+    public String getText() { return text; }
+    public int size() { return commands.size(); }
+
+    /**
+     * Expande las variables y los comodines de cada etapa (ver {@link SimpleCommand#expand}).
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @param globs Expansor de rutas, o null para dejar los comodines tal cual.
+     * @return Tubería expandida (la misma si ninguna etapa tiene nada que expandir).
+     */
+    public Pipeline expand(UnaryOperator<String> variables, GlobExpander globs) {
+        List<SimpleCommand> expanded = new ArrayList<>(commands.size());
+        boolean changed = false;
+        for (SimpleCommand command : commands) {
+            SimpleCommand expandedCommand = command.expand(variables, globs);
+            changed |= expandedCommand != command;
+            expanded.add(expandedCommand);
+        }
+        return changed ? new Pipeline(expanded, background, timed, text) : this;
+    }
+}
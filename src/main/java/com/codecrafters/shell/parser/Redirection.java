@@ -0,0 +1,126 @@
+package com.codecrafters.shell.parser;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Redirección de un comando simple, como '> archivo', '2>> archivo', '2>&1', '>&-', '< archivo',
+ * '<< FIN' o '<<< texto'. '&> archivo' se representa como sus dos equivalentes, '> archivo' y '2>&1'.
+ */
+public class Redirection {
+    /**
+     * Operación que hace la redirección con su descriptor.
+     */
+    public enum Type {
+        /** '>': escribe en un archivo, truncándolo. */
+        OUTPUT,
+        /** '>>': escribe al final de un archivo. */
+        APPEND,
+        /** '>&' y '<&': copia otro descriptor ('2>&1'), o lo cierra si el destino es '-'. */
+        DUPLICATE,
+        /** '<': lee de un archivo. */
+        INPUT,
+        /** '<<' y '<<-': lee el cuerpo de un documento en línea. */
+        HERE_DOCUMENT,
+        /** '<<<': lee una palabra seguida de un salto de línea. */
+        HERE_STRING
+    }
+
+    private final int fd;
+    private final Type type;
+    private final String target;
+    private final String word;
+
+    /**
+     * @param fd Descriptor redirigido (1 para stdout, 2 para stderr).
+     * @param append true para '>>' (añadir), false para '>' (sobrescribir).
+     * @param target Archivo destino, con las comillas ya resueltas.
+     */
+    public Redirection(int fd, boolean append, String target) {
+        this(fd, append, target, false);
+    }
+
+    /**
+     * @param fd Descriptor redirigido.
+     * @param append true para '>>'.
+     * @param target Archivo destino o, si {@code duplicate}, descriptor de origen ('1' en '2>&1').
+     * @param duplicate true para '>&': el descriptor pasa a ser una copia de otro.
+     */
+    public Redirection(int fd, boolean append, String target, boolean duplicate) {
+        this(fd, append, target, duplicate, null);
+    }
+
+    /**
+     * @param fd Descriptor redirigido.
+     * @param append true para '>>'.
+     * @param target Destino con las comillas ya resueltas.
+     * @param duplicate true para '>&'.
+     * @param word Texto original del destino si contiene variables, o null.
+     */
+    public Redirection(int fd, boolean append, String target, boolean duplicate, String word) {
+        this(fd, duplicate ? Type.DUPLICATE : append ? Type.APPEND : Type.OUTPUT, target, word);
+    }
+
+    /**
+     * @param fd Descriptor redirigido.
+     * @param type Operación de la redirección.
+     * @param target Archivo, descriptor de origen, cuerpo del documento en línea o palabra de
+     *               '<<<', con las comillas ya resueltas.
+     * @param word Texto original del destino si hay que expandirlo al ejecutar, o null.
+     */
+    public Redirection(int fd, Type type, String target, String word) {
+        this.fd = fd;
+        this.type = type;
+        this.target = target;
+        this.word = word;
+    }
+
+    /**
+     * @return true si el destino contiene variables por expandir.
+     */
+    public boolean isExpandable() {
+        return word != null;
+    }
+
+    /**
+     * Expande las variables del destino. Si el resultado tiene varios campos se unen con espacios.
+     * El cuerpo de un documento en línea se expande entero, sin dividirlo en campos.
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @return Redirección con el destino expandido.
+     */
+    public Redirection expand(UnaryOperator<String> variables) {
+        if (word == null) {
+            return this;
+        }
+        String expanded = type == Type.HERE_DOCUMENT ? Lexer.expandHereDocument(word, variables)
+                : String.join(" ", Lexer.expand(word, 0, word.length(), variables));
+        return new Redirection(fd, type, expanded, null);
+    }
+
+    public int getFd() { return fd; }
+    public Type getType() { return type; }
+    public boolean isAppend() { return type == Type.APPEND; }
+    public String getTarget() { return target; }
+    public boolean isDuplicate() { return type == Type.DUPLICATE; }
+
+    /**
+     * @return true si la redirección es de entrada ('<', '<<', '<<-' o '<<<').
+     */
+    public boolean isInput() {
+        return type == Type.INPUT || type == Type.HERE_DOCUMENT || type == Type.HERE_STRING;
+    }
+
+    /**
+     * @return Texto que recibe el comando por su entrada en un documento o una cadena en línea
+     *         ('<<<' añade el salto de línea final), o null si la redirección no lo es.
+     */
+    public String getInputText() {
+        switch (type) {
+            case HERE_DOCUMENT:
+                return target;
+            case HERE_STRING:
+                return target + "\n";
+            default:
+                return null;
+        }
+    }
+}
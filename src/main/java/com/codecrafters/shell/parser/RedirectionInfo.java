@@ -1,35 +1,306 @@
 package com.codecrafters.shell.parser;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Almacena información sobre la redirección de entrada/salida de un comando.
- * Contiene los archivos de destino para stdout y stderr, y el modo de apertura (append o overwrite).
+ * Guarda las redirecciones en orden y la tabla de descriptores que resulta de aplicarlas una
+ * detrás de otra, como bash: el destino final de stdin, stdout y stderr, que puede ser el flujo
+ * estándar del shell, un archivo, un texto (documento o cadena en línea) o ninguno (cerrado).
+ * Una copia ('2>&1') comparte el destino de otro descriptor tal como estaba en ese momento, así
+ * que '> f 2>&1' manda los dos al mismo archivo y '2>&1 > f' deja stderr en la salida estándar.
  */
 public class RedirectionInfo {
+    /**
+     * Destino de un descriptor tras aplicar las redirecciones. Dos descriptores comparten destino
+     * si son el mismo objeto: '> f 2>&1' abre el archivo una vez y '> f 2> f', dos.
+     */
+    public static final class Target {
+        /**
+         * Clase de destino.
+         */
+        public enum Kind {
+            /** Uno de los flujos estándar del shell (o la tubería, en una etapa). */
+            STANDARD,
+            /** Archivo abierto por '>', '>>' o '<'. */
+            FILE,
+            /** Texto de un documento o una cadena en línea. */
+            TEXT,
+            /** Descriptor cerrado ('>&-'). */
+            CLOSED
+        }
+
+        private static final Target[] STANDARD_TARGETS = {
+                new Target(Kind.STANDARD, 0, null, false, false), new Target(Kind.STANDARD, 1, null, false, false),
+                new Target(Kind.STANDARD, 2, null, false, false) };
+        private static final Target CLOSED_TARGET = new Target(Kind.CLOSED, -1, null, false, false);
+
+        private final Kind kind;
+        private final int fd;
+        private final String value;
+        private final boolean append;
+        private final boolean input;
+
+        private Target(Kind kind, int fd, String value, boolean append, boolean input) {
+            this.kind = kind;
+            this.fd = fd;
+            this.value = value;
+            this.append = append;
+            this.input = input;
+        }
+
+        static Target standard(int fd) {
+            return STANDARD_TARGETS[fd];
+        }
+
+        static Target file(String filename, boolean append, boolean input) {
+            return new Target(Kind.FILE, -1, filename, append, input);
+        }
+
+        static Target text(String text) {
+            return new Target(Kind.TEXT, -1, text, false, true);
+        }
+
+        static Target closed() {
+            return CLOSED_TARGET;
+        }
+
+        public Kind getKind() { return kind; }
+
+        /**
+         * @return Descriptor estándar del shell (0, 1 o 2) si el destino es {@link Kind#STANDARD}.
+         */
+        public int getFd() { return fd; }
+
+        /**
+         * @return Ruta del archivo ({@link Kind#FILE}) o texto ({@link Kind#TEXT}); null en los demás.
+         */
+        public String getValue() { return value; }
+        public boolean isAppend() { return append; }
+
+        /**
+         * @param fd Descriptor estándar.
+         * @return true si el destino es el flujo estándar {@code fd} del shell.
+         */
+        public boolean isStandard(int fd) {
+            return kind == Kind.STANDARD && this.fd == fd;
+        }
+
+        /**
+         * @return true si es un archivo abierto para escribir ('>' o '>>').
+         */
+        public boolean isOutputFile() {
+            return kind == Kind.FILE && !input;
+        }
+
+        /**
+         * @return true si es un archivo abierto para leer ('<').
+         */
+        public boolean isInputFile() {
+            return kind == Kind.FILE && input;
+        }
+    }
+
     private final String command;
-    private final String stdoutFile;
-    private final String stderrFile;
-    private final boolean hasStdoutRedirection;
-    private final boolean hasStderrRedirection;
-    private final boolean stdoutAppend;
-    private final boolean stderrAppend;
+    private final List<Redirection> redirections;
+    private final Target stdin;
+    private final Target stdout;
+    private final Target stderr;
+    private final List<Target> files;
+    private final String error;
 
     public RedirectionInfo(String command, String stdoutFile, String stderrFile,
                            boolean hasStdoutRedirection, boolean hasStderrRedirection,
                            boolean stdoutAppend, boolean stderrAppend) {
+        this(command, List.of(),
+                Target.standard(0),
+                hasStdoutRedirection ? Target.file(stdoutFile, stdoutAppend, false) : Target.standard(1),
+                hasStderrRedirection ? Target.file(stderrFile, stderrAppend, false) : Target.standard(2),
+                List.of(), null);
+    }
+
+    private RedirectionInfo(String command, List<Redirection> redirections, Target stdin, Target stdout, Target stderr,
+                            List<Target> files, String error) {
         this.command = command;
-        this.stdoutFile = stdoutFile;
-        this.stderrFile = stderrFile;
-        this.hasStdoutRedirection = hasStdoutRedirection;
-        this.hasStderrRedirection = hasStderrRedirection;
-        this.stdoutAppend = stdoutAppend;
-        this.stderrAppend = stderrAppend;
+        this.redirections = redirections;
+        this.stdin = stdin;
+        this.stdout = stdout;
+        this.stderr = stderr;
+        this.files = files;
+        this.error = error;
+    }
+
+    /**
+     * Crea una información de redirección vacía (sin redirecciones).
+     * @param command Comando sin redirecciones.
+     * @return RedirectionInfo sin destinos.
+     */
+    public static RedirectionInfo none(String command) {
+        return new RedirectionInfo(command, List.of(), Target.standard(0), Target.standard(1), Target.standard(2),
+                List.of(), null);
+    }
+
+    /**
+     * Aplica una lista de redirecciones en orden sobre una tabla de descriptores, como bash: cada
+     * una abre un archivo, asigna un texto, copia el destino actual de otro descriptor ('2>&1')
+     * o cierra el descriptor ('>&-'). Los descriptores por encima de 2 solo cuentan como origen
+     * de una copia ('3> f 1>&3'). Copiar un descriptor que no está abierto es un error, que se
+     * informa al ejecutar el comando.
+     * @param command Comando sin redirecciones, o null si no se conoce.
+     * @param redirections Redirecciones en orden de aparición.
+     * @return RedirectionInfo equivalente.
+     */
+    public static RedirectionInfo of(String command, List<Redirection> redirections) {
+        if (redirections.isEmpty()) {
+            return none(command);
+        }
+        Map<Integer, Target> table = new HashMap<>();
+        for (int fd = 0; fd <= 2; fd++) {
+            table.put(fd, Target.standard(fd));
+        }
+        List<Target> files = new ArrayList<>();
+        String error = null;
+        for (Redirection redirection : redirections) {
+            Target target;
+            switch (redirection.getType()) {
+                case OUTPUT:
+                case APPEND:
+                case INPUT:
+                    target = Target.file(redirection.getTarget(), redirection.isAppend(),
+                            redirection.getType() == Redirection.Type.INPUT);
+                    files.add(target);
+                    break;
+                case HERE_DOCUMENT:
+                case HERE_STRING:
+                    target = Target.text(redirection.getInputText());
+                    break;
+                default:
+                    target = duplicate(table, redirection, files);
+                    break;
+            }
+            if (target == null) {
+                error = redirection.getTarget() + (isNumber(redirection.getTarget())
+                        ? ": Bad file descriptor" : ": ambiguous redirect");
+                break;
+            }
+            table.put(redirection.getFd(), target);
+            if (redirection.isDuplicate() && target.isOutputFile() && !isNumber(redirection.getTarget())) {
+                // '>&archivo' es '&>archivo': stdout y stderr al mismo archivo
+                table.put(2, target);
+            }
+        }
+        return new RedirectionInfo(command, List.copyOf(redirections), table.get(0), table.get(1), table.get(2),
+                files, error);
+    }
+
+    /**
+     * Resuelve una copia ('n>&m', 'n<&m', 'n>&-' o '>&archivo').
+     * @return Destino copiado, o null si el origen no está abierto o no es válido.
+     */
+    private static Target duplicate(Map<Integer, Target> table, Redirection redirection, List<Target> files) {
+        String source = redirection.getTarget();
+        if (source.equals("-")) {
+            return Target.closed();
+        }
+        if (isNumber(source)) {
+            return table.get(Integer.parseInt(source));
+        }
+        if (redirection.getFd() != 1) {
+            return null;
+        }
+        Target file = Target.file(source, false, false);
+        files.add(file);
+        return file;
+    }
+
+    private static boolean isNumber(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public String getCommand() { return command; }
-    public String getStdoutFile() { return stdoutFile; }
-    public String getStderrFile() { return stderrFile; }
-    public boolean hasStdoutRedirection() { return hasStdoutRedirection; }
-    public boolean hasStderrRedirection() { return hasStderrRedirection; }
-    public boolean isStdoutAppend() { return stdoutAppend; }
-    public boolean isStderrAppend() { return stderrAppend; }
+
+    /**
+     * @return Redirecciones en el orden en que se aplican.
+     */
+    public List<Redirection> getRedirections() { return redirections; }
+
+    /**
+     * @return Destino final de stdin.
+     */
+    public Target getStdin() { return stdin; }
+
+    /**
+     * @return Destino final de stdout.
+     */
+    public Target getStdout() { return stdout; }
+
+    /**
+     * @return Destino final de stderr.
+     */
+    public Target getStderr() { return stderr; }
+
+    /**
+     * @return Archivos que abren las redirecciones, en orden, incluidos los que una redirección
+     *         posterior deja sin usar ('> a > b' crea 'a' aunque la salida vaya a 'b').
+     */
+    public List<Target> getFiles() { return files; }
+
+    /**
+     * @return Mensaje de error si alguna copia no es válida ("3: Bad file descriptor"), o null.
+     */
+    public String getError() { return error; }
+
+    /**
+     * @return true si stderr va al mismo destino que stdout ('2>&1' o '&>'), así que un proceso
+     *         puede escribir los dos en un solo flujo.
+     */
+    public boolean mergesStderr() {
+        return stderr == stdout;
+    }
+
+    public String getStdoutFile() { return stdout.isOutputFile() ? stdout.getValue() : null; }
+    public String getStderrFile() { return stderr.isOutputFile() ? stderr.getValue() : null; }
+
+    /**
+     * @return true si stdout no va a la salida estándar del shell (un archivo, stderr o cerrado).
+     */
+    public boolean hasStdoutRedirection() { return !stdout.isStandard(1); }
+
+    /**
+     * @return true si stderr no va a la salida de error del shell.
+     */
+    public boolean hasStderrRedirection() { return !stderr.isStandard(2); }
+    public boolean isStdoutAppend() { return stdout.isAppend(); }
+    public boolean isStderrAppend() { return stderr.isAppend(); }
+
+    /**
+     * @return true si stdin viene de un archivo o de un texto en lugar de la entrada del shell.
+     */
+    public boolean hasStdinRedirection() { return !stdin.isStandard(0); }
+
+    /**
+     * @return Archivo del que lee stdin ('<'), o null.
+     */
+    public String getStdinFile() { return stdin.isInputFile() ? stdin.getValue() : null; }
+
+    /**
+     * @return Texto que recibe stdin (documento o cadena en línea; vacío si está cerrado), o null.
+     */
+    public String getStdinText() {
+        if (stdin.getKind() == Target.Kind.TEXT) {
+            return stdin.getValue();
+        }
+        return stdin.getKind() == Target.Kind.CLOSED ? "" : null;
+    }
 }
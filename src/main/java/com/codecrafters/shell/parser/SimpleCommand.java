@@ -0,0 +1,90 @@
+package com.codecrafters.shell.parser;
+
+import com.codecrafters.shell.glob.GlobExpander;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Comando simple: una lista de argumentos (el primero es el nombre) y sus redirecciones.
+ * Es la unidad que compone una tubería.
+ */
+public class SimpleCommand {
+    private final List<String> arguments;
+    private final List<Redirection> redirections;
+    private final RedirectionInfo redirection;
+    private final List<String> words;
+
+    /**
+     * @param arguments Argumentos ya sin comillas; el primero es el nombre del comando.
+     * @param redirections Redirecciones en el orden en que aparecen.
+     */
+    public SimpleCommand(List<String> arguments, List<Redirection> redirections) {
+        this(arguments, redirections, null);
+    }
+
+    /**
+     * @param arguments Argumentos ya sin comillas; el primero es el nombre del comando.
+     * @param redirections Redirecciones en el orden en que aparecen.
+     * @param words Texto original de los argumentos con variables (null en los demás), que se
+     *              expanden al ejecutar con {@link #expand(UnaryOperator, GlobExpander)}; null si no hay ninguno.
+     */
+    public SimpleCommand(List<String> arguments, List<Redirection> redirections, List<String> words) {
+        this.arguments = arguments;
+        this.redirections = redirections;
+        this.redirection = RedirectionInfo.of(null, redirections);
+        this.words = words;
+    }
+
+    /**
+     * Expande las variables y los comodines de los argumentos, y las variables de los destinos
+     * de las redirecciones. Se hace justo antes de ejecutar, para que cada comando vea los cambios
+     * de los anteriores de la misma línea ('export A=1; echo $A', 'touch a.log; ls *.log').
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @param globs Expansor de rutas, o null para dejar los comodines tal cual.
+     * @return Comando con los valores expandidos (el mismo si no tiene nada que expandir).
+     */
+    public SimpleCommand expand(UnaryOperator<String> variables, GlobExpander globs) {
+        boolean expandableRedirections = redirections.stream().anyMatch(Redirection::isExpandable);
+        if (words == null && !expandableRedirections) {
+            return this;
+        }
+
+        List<String> expanded = arguments;
+        if (words != null) {
+            expanded = new ArrayList<>(arguments.size());
+            for (int i = 0; i < arguments.size(); i++) {
+                String word = words.get(i);
+                if (word == null) {
+                    expanded.add(arguments.get(i));
+                } else {
+                    expanded.addAll(Lexer.expand(word, 0, word.length(), variables, globs));
+                }
+            }
+        }
+        List<Redirection> expandedRedirections = redirections;
+        if (expandableRedirections) {
+            expandedRedirections = new ArrayList<>(redirections.size());
+            for (Redirection redirection : redirections) {
+                expandedRedirections.add(redirection.expand(variables));
+            }
+        }
+        return new SimpleCommand(expanded, expandedRedirections);
+    }
+
+    public List<String> getArguments() { return arguments; }
+    public List<Redirection> getRedirections() { return redirections; }
+
+    /**
+     * @return Resumen de las redirecciones de stdout y stderr (la última de cada descriptor gana).
+     */
+    public RedirectionInfo getRedirection() { return redirection; }
+    public boolean isEmpty() { return arguments.isEmpty(); }
+
+    /**
+     * @return Nombre del comando, o null si el comando está vacío.
+     */
+    public String getName() {
+        return arguments.isEmpty() ? null : arguments.get(0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.codecrafters.shell.parser;
+
+/**
+ * Error de sintaxis en una línea de comando. El mensaje sigue el formato de bash:
+ * "syntax error near unexpected token `X'".
+ */
+public class SyntaxException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String token;
+
+    /**
+     * @param token Texto del token inesperado, o "newline" si la línea terminó antes de tiempo.
+     */
+    public SyntaxException(String token) {
+        super("syntax error near unexpected token `" + token + "'");
+        this.token = token;
+    }
+
+    public String getToken() { return token; }
+}
@@ -0,0 +1,136 @@
+package com.codecrafters.shell.parser;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Token producido por el {@link Lexer}. No guarda texto: solo su tipo y su posición en la
+ * línea de entrada, así que el texto de una palabra se materializa únicamente cuando se pide.
+ */
+public final class Token {
+    /**
+     * Tipos de token, con los nombres de la gramática POSIX del shell.
+     */
+    public enum Type {
+        /** Palabra (argumento o nombre de comando), posiblemente con comillas o escapes. */
+        WORD,
+        /** Número de descriptor pegado a una redirección, como el '2' de '2>'. */
+        IO_NUMBER,
+        /** '|' */
+        PIPE,
+        /** '&&' */
+        AND_IF,
+        /** '||' */
+        OR_IF,
+        /** ';' */
+        SEMI,
+        /** '&' */
+        AMP,
+        /** '>' */
+        GREAT,
+        /** '>>' */
+        DGREAT,
+        /** '>&' (duplicar un descriptor, como en '2>&1') */
+        GREATAND,
+        /** '&>' (stdout y stderr al mismo archivo) */
+        ANDGREAT,
+        /** '&>>' */
+        ANDDGREAT,
+        /** '<' */
+        LESS,
+        /** '<&' (duplicar un descriptor de entrada, o cerrarlo con '<&-') */
+        LESSAND,
+        /** '<<' (documento en línea, cuyo cuerpo son las líneas siguientes) */
+        DLESS,
+        /** '<<-' (documento en línea sin los tabuladores iniciales) */
+        DLESSDASH,
+        /** '<<<' (cadena en línea) */
+        TLESS,
+        /** Cuerpo de un documento en línea: las líneas entre el operador y su delimitador. */
+        HERE_DOCUMENT
+    }
+
+    private final Type type;
+    private final int start;
+    private final int end;
+    private final boolean quoted;
+    private final boolean expandable;
+
+    /**
+     * @param type Tipo del token.
+     * @param start Posición del primer carácter en la entrada.
+     * @param end Posición siguiente al último carácter.
+     * @param quoted true si la palabra contiene comillas o escapes que hay que procesar.
+     */
+    public Token(Type type, int start, int end, boolean quoted) {
+        this(type, start, end, quoted, false);
+    }
+
+    /**
+     * @param type Tipo del token.
+     * @param start Posición del primer carácter en la entrada.
+     * @param end Posición siguiente al último carácter.
+     * @param quoted true si la palabra contiene comillas o escapes que hay que procesar.
+     * @param expandable true si la palabra contiene un '$' fuera de comillas simples o un comodín
+     *                   ('*', '?', '[') sin comillas.
+     */
+    public Token(Type type, int start, int end, boolean quoted, boolean expandable) {
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        this.quoted = quoted;
+        this.expandable = expandable;
+    }
+
+    public Type getType() { return type; }
+    public int getStart() { return start; }
+    public int getEnd() { return end; }
+    public boolean isQuoted() { return quoted; }
+    public boolean isExpandable() { return expandable; }
+
+    /**
+     * @return true si el token es una redirección ('>', '>>', '>&', '&>', '&>>', '<', '<&', '<<',
+     *         '<<-' o '<<<').
+     */
+    public boolean isRedirection() {
+        return type == Type.GREAT || type == Type.DGREAT || type == Type.GREATAND || type == Type.ANDGREAT
+                || type == Type.ANDDGREAT || isInputRedirection();
+    }
+
+    /**
+     * @return true si el token redirige la entrada ('<', '<&', '<<', '<<-' o '<<<').
+     */
+    public boolean isInputRedirection() {
+        return type == Type.LESS || type == Type.LESSAND || type == Type.DLESS || type == Type.DLESSDASH
+                || type == Type.TLESS;
+    }
+
+    /**
+     * Obtiene el texto original del token, tal como aparece en la entrada.
+     * @param input Línea de la que sale el token.
+     * @return Texto sin procesar.
+     */
+    public String text(String input) {
+        return input.substring(start, end);
+    }
+
+    /**
+     * Obtiene el valor del token: el texto con las comillas y los escapes ya resueltos.
+     * Las palabras sin comillas ni escapes se devuelven sin procesar.
+     * @param input Línea de la que sale el token.
+     * @return Valor de la palabra.
+     */
+    public String value(String input) {
+        return quoted ? Lexer.unquote(input, start, end) : input.substring(start, end);
+    }
+
+    /**
+     * Obtiene los campos de la palabra con sus variables expandidas.
+     * @param input Línea de la que sale el token.
+     * @param variables Valor de cada variable, o null si no está definida.
+     * @return Campos resultantes (puede haber ninguno o varios).
+     */
+    public List<String> expand(String input, UnaryOperator<String> variables) {
+        return expandable ? Lexer.expand(input, start, end, variables) : List.of(value(input));
+    }
+}
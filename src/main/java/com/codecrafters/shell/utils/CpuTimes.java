@@ -0,0 +1,57 @@
+package com.codecrafters.shell.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Tiempo de CPU (usuario y sistema) consumido por el shell y por los hijos que ya terminaron.
+ * En Linux se lee de /proc/self/stat: utime/stime del shell más cutime/cstime, que el kernel
+ * acumula para cada hijo cuando la JVM recoge su código de salida. Es la única fuente fiable
+ * para hijos ya terminados: ProcessHandle.Info deja de tener datos en cuanto el hijo se recoge.
+ * En otros sistemas se usa ProcessHandle.Info del propio shell (sin separar usuario y sistema).
+ */
+public final class CpuTimes {
+    /** Duración de un tick de reloj (CLK_TCK es 100 en Linux). */
+    private static final long NANOS_PER_TICK = 1_000_000_000L / 100;
+    private static final Path PROC_SELF_STAT = Paths.get("/proc/self/stat");
+
+    private final long userNanos;
+    private final long systemNanos;
+
+    private CpuTimes(long userNanos, long systemNanos) {
+        this.userNanos = userNanos;
+        this.systemNanos = systemNanos;
+    }
+
+    /**
+     * @return Tiempos de CPU acumulados hasta ahora.
+     */
+    public static CpuTimes sample() {
+        try {
+            String stat = Files.readString(PROC_SELF_STAT);
+            // El nombre del proceso va entre paréntesis y puede contener espacios
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            // Campos 14-17 de proc(5): utime, stime, cutime, cstime; aquí el campo 3 es el índice 0
+            long user = Long.parseLong(fields[11]) + Long.parseLong(fields[13]);
+            long system = Long.parseLong(fields[12]) + Long.parseLong(fields[14]);
+            return new CpuTimes(user * NANOS_PER_TICK, system * NANOS_PER_TICK);
+        } catch (IOException | RuntimeException e) {
+            long total = ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+            return new CpuTimes(total, 0);
+        }
+    }
+
+    /**
+     * @param earlier Muestra anterior.
+     * @return Tiempo consumido entre {@code earlier} y esta muestra.
+     */
+    public CpuTimes minus(CpuTimes earlier) {
+        return new CpuTimes(userNanos - earlier.userNanos, systemNanos - earlier.systemNanos);
+    }
+
+    public long getUserNanos() { return userNanos; }
+    public long getSystemNanos() { return systemNanos; }
+}
@@ -0,0 +1,99 @@
+package com.codecrafters.shell.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché LRU acotada de listados de directorios para el autocompletado de rutas.
+ * Cada listado se guarda junto a la fecha de modificación del directorio: mientras no cambie,
+ * pulsar TAB repetidamente en un directorio grande no vuelve a listarlo (solo cuesta un stat).
+ */
+public class DirectoryListingCache {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Listado de un directorio: nombres ordenados para búsqueda por prefijo y, calculado
+     * de forma perezosa, si cada entrada es a su vez un directorio.
+     */
+    public static class Listing {
+        private final Path directory;
+        private final FileTime modified;
+        private final PrefixIndex names;
+        private final Map<String, Boolean> directories = new ConcurrentHashMap<>();
+
+        Listing(Path directory, FileTime modified, PrefixIndex names) {
+            this.directory = directory;
+            this.modified = modified;
+            this.names = names;
+        }
+
+        public PrefixIndex getNames() { return names; }
+
+        /**
+         * Indica si una entrada del listado es un directorio. Solo se consulta el sistema de archivos
+         * para las entradas que realmente se completan, y el resultado queda guardado.
+         * @param name Nombre de la entrada.
+         * @return true si es un directorio.
+         */
+        public boolean isDirectory(String name) {
+            return directories.computeIfAbsent(name, n -> Files.isDirectory(directory.resolve(n)));
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Path, Listing> listings;
+
+    public DirectoryListingCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DirectoryListingCache(int capacity) {
+        this.capacity = capacity;
+        this.listings = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Listing> eldest) {
+                return size() > DirectoryListingCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el listado de un directorio, reutilizando el guardado si su fecha de modificación no cambió.
+     * @param directory Directorio a listar.
+     * @return Listado del directorio.
+     * @throws IOException Si el directorio no existe o no puede leerse.
+     */
+    public synchronized Listing list(Path directory) throws IOException {
+        Path key = directory.toAbsolutePath().normalize();
+        FileTime modified = Files.getLastModifiedTime(key);
+        Listing cached = listings.get(key);
+        if (cached != null && cached.modified.equals(modified)) {
+            return cached;
+        }
+
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(key)) {
+            for (Path entry : stream) {
+                names.add(entry.getFileName().toString());
+            }
+        }
+        Listing listing = new Listing(key, modified, new PrefixIndex(names));
+        listings.put(key, listing);
+        return listing;
+    }
+
+    /**
+     * @return Número de directorios en la caché.
+     */
+    public synchronized int size() {
+        return listings.size();
+    }
+}
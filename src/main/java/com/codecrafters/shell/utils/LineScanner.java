@@ -0,0 +1,187 @@
+package com.codecrafters.shell.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Búsqueda y recuento de saltos de línea (y de cadenas de bytes) en buffers, de ocho en ocho bytes.
+ * Cada bloque se lee como un long y los bytes iguales a '\n' se localizan con aritmética de bits
+ * (SWAR: "SIMD dentro de un registro"), sin comparar byte a byte ni depender del Vector API.
+ * <p>
+ * Para x = bloque XOR 0x0A0A...0A, los bytes nulos de x son exactamente los '\n' del bloque, y
+ * {@code ~(((x & 0x7F..7F) + 0x7F..7F) | x | 0x7F..7F)} deja encendido el bit alto de cada byte nulo
+ * y ningún otro, así que su bitCount es el número de saltos y su numberOfTrailingZeros da el primero.
+ * Con cualquier otro byte repetido en lugar de 0x0A se buscan las apariciones de ese byte.
+ */
+public final class LineScanner {
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private LineScanner() {
+    }
+
+    /**
+     * Cuenta los '\n' de buffer[from, to). Usa índices absolutos: no cambia la posición del buffer.
+     * @param buffer Buffer de bytes (en memoria o mapeado).
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @return Número de saltos de línea.
+     */
+    public static long countNewlines(ByteBuffer buffer, int from, int to) {
+        long count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            count += Long.bitCount(newlineBits(buffer.getLong(i)));
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Busca el primer '\n' de buffer[from, to).
+     * @param buffer Buffer de bytes.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @return Índice del salto, o -1 si no hay ninguno.
+     */
+    public static int indexOfNewline(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long bits = newlineBits(buffer.getLong(i));
+            if (bits != 0) {
+                // El orden del buffer decide qué byte del long es el primero en memoria
+                int bit = buffer.order() == ByteOrder.BIG_ENDIAN
+                        ? Long.numberOfLeadingZeros(bits) : Long.numberOfTrailingZeros(bits);
+                return i + bit / Byte.SIZE;
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca el n-ésimo '\n' de buffer[from, to).
+     * Salta bloques enteros contando sus saltos y solo recorre byte a byte el bloque que lo contiene.
+     * @param buffer Buffer de bytes.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @param n Número de saltos a avanzar (al menos 1).
+     * @return Índice del salto, o -1 si hay menos de n.
+     */
+    public static int indexOfNewline(ByteBuffer buffer, int from, int to, long n) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            int found = Long.bitCount(newlineBits(buffer.getLong(i)));
+            if (found >= n) {
+                break;
+            }
+            n -= found;
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n' && --n == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca el último '\n' de buffer[from, to).
+     * @param buffer Buffer de bytes.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @return Índice del salto, o -1 si no hay ninguno.
+     */
+    public static int lastIndexOfNewline(ByteBuffer buffer, int from, int to) {
+        return lastIndexOfNewline(buffer, from, to, 1);
+    }
+
+    /**
+     * Busca hacia atrás el n-ésimo '\n' de buffer[from, to), contando desde el final.
+     * Salta bloques enteros contando sus saltos y solo recorre byte a byte el bloque que lo contiene.
+     * @param buffer Buffer de bytes.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @param n Número de saltos a retroceder (al menos 1).
+     * @return Índice del salto, o -1 si hay menos de n.
+     */
+    public static int lastIndexOfNewline(ByteBuffer buffer, int from, int to, long n) {
+        int i = to;
+        for (; i - Long.BYTES >= from; i -= Long.BYTES) {
+            int found = Long.bitCount(newlineBits(buffer.getLong(i - Long.BYTES)));
+            if (found >= n) {
+                break;
+            }
+            n -= found;
+        }
+        for (i--; i >= from; i--) {
+            if (buffer.get(i) == '\n' && --n == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca la primera aparición de una cadena de bytes en buffer[from, to): localiza su primer
+     * byte de ocho en ocho y solo compara el resto donde aparece.
+     * @param buffer Buffer de bytes.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @param needle Bytes a buscar (al menos uno).
+     * @return Índice donde empieza, o -1 si no aparece.
+     */
+    public static int indexOf(ByteBuffer buffer, int from, int to, byte[] needle) {
+        long pattern = (needle[0] & 0xFFL) * 0x0101010101010101L;
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int last = to - needle.length;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long bits = matchBits(buffer.getLong(i), pattern);
+            while (bits != 0) {
+                int bit = bigEndian ? Long.numberOfLeadingZeros(bits) : Long.numberOfTrailingZeros(bits);
+                int candidate = i + bit / Byte.SIZE;
+                if (candidate > last) {
+                    return -1;
+                }
+                if (startsWith(buffer, candidate, needle)) {
+                    return candidate;
+                }
+                bits &= bigEndian ? ~(Long.MIN_VALUE >>> bit) : bits - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (startsWith(buffer, i, needle)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int index, byte[] needle) {
+        for (int j = 0; j < needle.length; j++) {
+            if (buffer.get(index + j) != needle[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long newlineBits(long block) {
+        return matchBits(block, NEWLINES);
+    }
+
+    /** Bit alto encendido en cada byte del bloque igual al byte repetido en {@code pattern}. */
+    private static long matchBits(long block, long pattern) {
+        long x = block ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+}
@@ -0,0 +1,396 @@
+package com.codecrafters.shell.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice de los ejecutables del PATH (nombre → archivo resuelto).
+ * Se construye una sola vez respetando la precedencia del PATH (el primer directorio gana)
+ * y se mantiene actualizado con un WatchService sobre cada directorio del PATH.
+ * Un cambio en el valor de PATH provoca una reconstrucción completa.
+ */
+public class PathCache {
+    /**
+     * Recibe los cambios del índice como conjuntos de nombres añadidos y eliminados,
+     * para que otros índices (p. ej. el de autocompletado) se actualicen de forma incremental.
+     */
+    public interface Listener {
+        void onChange(Set<String> added, Set<String> removed);
+    }
+
+    private final Object lock = new Object();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    /** Nombres ya notificados a los listeners. */
+    private Set<String> publishedNames = Collections.emptySet();
+
+    /** Listado de cada directorio del PATH, en orden de precedencia. */
+    private final Map<Path, Map<String, File>> listings = new LinkedHashMap<>();
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+    /** Contador de usos por comando, como la tabla de 'hash' de bash. */
+    private final Map<String, AtomicLong> hits = new ConcurrentHashMap<>();
+
+    private volatile Map<String, File> index = Collections.emptyMap();
+    /** Resultado parcial publicado durante una construcción, directorio a directorio. */
+    private volatile Map<String, File> partialIndex = Collections.emptyMap();
+    private volatile boolean built = false;
+    private volatile String path;
+    private String indexedPath;
+    /** Índice que se usa mientras el PATH sea el mismo, o null. */
+    private final PathCache shared;
+
+    private WatchService watcher;
+    private Thread watchThread;
+
+    /**
+     * Crea un índice para el PATH del entorno del proceso.
+     */
+    public PathCache() {
+        this(System.getenv("PATH"));
+    }
+
+    /**
+     * Crea un índice para el valor de PATH dado. El índice se construye de forma perezosa.
+     * @param path Valor de PATH (directorios separados por File.pathSeparator).
+     */
+    public PathCache(String path) {
+        this(path, null);
+    }
+
+    /**
+     * Crea un índice que, mientras su PATH sea el de {@code shared}, usa el de este (ya construido
+     * y vigilado) en lugar de listar el PATH otra vez; si el PATH cambia, construye el suyo. Así
+     * las sesiones del daemon parten del índice del proceso sin que sus cambios de PATH le afecten.
+     * Los listeners solo reciben los cambios del índice propio.
+     * @param path Valor de PATH (directorios separados por File.pathSeparator).
+     * @param shared Índice compartido, o null.
+     */
+    public PathCache(String path, PathCache shared) {
+        this.path = path;
+        this.shared = shared;
+    }
+
+    /**
+     * Busca un ejecutable en el índice.
+     * @param command Nombre del comando.
+     * @return Archivo ejecutable, o null si no está en el PATH.
+     */
+    public File lookup(String command) {
+        File file = currentIndex().get(command);
+        if (file != null) {
+            hits.computeIfAbsent(command, k -> new AtomicLong()).incrementAndGet();
+        }
+        return file;
+    }
+
+    /**
+     * Obtiene los nombres de todos los ejecutables indexados.
+     * @return Conjunto inmutable de nombres.
+     */
+    public Set<String> names() {
+        return currentIndex().keySet();
+    }
+
+    /**
+     * Obtiene los nombres disponibles sin bloquear: el índice completo si ya está construido,
+     * o lo que se haya indexado hasta el momento si la construcción sigue en curso.
+     * Pensado para el autocompletado, que no debe esperar al escaneo del PATH.
+     * @return Conjunto inmutable de nombres, posiblemente parcial.
+     */
+    public Set<String> availableNames() {
+        if (followsShared()) {
+            return shared.availableNames();
+        }
+        return isBuilt() ? index.keySet() : partialIndex.keySet();
+    }
+
+    /**
+     * Construye el índice en segundo plano si aún no está construido.
+     * @return Futuro que se completa cuando el índice está listo.
+     */
+    public CompletableFuture<Void> buildAsync() {
+        if (isBuilt()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(this::currentIndex, task -> {
+            Thread thread = new Thread(task, "path-cache-builder");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Registra un listener de cambios. Solo recibe los cambios posteriores al registro;
+     * el estado inicial se obtiene con {@link #availableNames()}.
+     * @param listener Listener a registrar.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del índice completo.
+     * @return Mapa nombre → archivo.
+     */
+    public Map<String, File> snapshot() {
+        return currentIndex();
+    }
+
+    /**
+     * Obtiene los comandos resueltos a través del índice y cuántas veces se usaron.
+     * @return Mapa ordenado nombre → número de usos.
+     */
+    public Map<String, Long> hits() {
+        Map<String, Long> result = new TreeMap<>();
+        hits.forEach((name, count) -> result.put(name, count.get()));
+        return result;
+    }
+
+    /**
+     * Cambia el valor de PATH. Si es distinto del indexado, el índice se reconstruye.
+     * @param path Nuevo valor de PATH.
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Descarta el índice y lo reconstruye inmediatamente.
+     */
+    public void rehash() {
+        if (followsShared()) {
+            shared.rehash();
+            return;
+        }
+        synchronized (lock) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Olvida el índice y los contadores de uso. Se reconstruye en la siguiente búsqueda.
+     */
+    public void clear() {
+        synchronized (lock) {
+            closeWatcher();
+            listings.clear();
+            hits.clear();
+            index = Collections.emptyMap();
+            partialIndex = Collections.emptyMap();
+            built = false;
+        }
+    }
+
+    /**
+     * Indica si el índice está construido para el PATH actual.
+     * @return true si no hace falta reconstruir.
+     */
+    public boolean isBuilt() {
+        if (followsShared()) {
+            return shared.isBuilt();
+        }
+        return built && equalsPath(indexedPath, path);
+    }
+
+    private boolean followsShared() {
+        return shared != null && equalsPath(path, shared.getPath());
+    }
+
+    private Map<String, File> currentIndex() {
+        if (followsShared()) {
+            return shared.currentIndex();
+        }
+        if (!isBuilt()) {
+            synchronized (lock) {
+                if (!isBuilt()) {
+                    rebuild();
+                }
+            }
+        }
+        return index;
+    }
+
+    private void rebuild() {
+        closeWatcher();
+        listings.clear();
+        Map<String, File> partial = new HashMap<>();
+        partialIndex = Collections.emptyMap();
+
+        String currentPath = path;
+        if (currentPath != null) {
+            for (String dirPath : currentPath.split(File.pathSeparator)) {
+                if (dirPath.isEmpty()) {
+                    continue;
+                }
+                Path dir = Paths.get(dirPath).toAbsolutePath().normalize();
+                if (listings.containsKey(dir) || !Files.isDirectory(dir)) {
+                    continue;
+                }
+                Map<String, File> entries = scanDirectory(dir);
+                listings.put(dir, entries);
+                entries.forEach(partial::putIfAbsent);
+                partialIndex = Collections.unmodifiableMap(new HashMap<>(partial));
+                // Durante la construcción solo se anuncian altas; las bajas se reconcilian al final
+                publish(partial.keySet(), false);
+            }
+        }
+
+        indexedPath = currentPath;
+        index = merge();
+        built = true;
+        publish(index.keySet(), true);
+        startWatcher();
+    }
+
+    private static Map<String, File> scanDirectory(Path dir) {
+        Map<String, File> entries = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                if (Files.isRegularFile(entry) && Files.isExecutable(entry)) {
+                    entries.put(entry.getFileName().toString(), entry.toFile());
+                }
+            }
+        } catch (IOException e) {
+            // Directorio ilegible: se trata como vacío
+        }
+        return entries;
+    }
+
+    private Map<String, File> merge() {
+        Map<String, File> merged = new HashMap<>();
+        for (Map<String, File> entries : listings.values()) {
+            for (Map.Entry<String, File> entry : entries.entrySet()) {
+                merged.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+
+    private void publish(Set<String> names, boolean withRemovals) {
+        Set<String> added = new HashSet<>();
+        for (String name : names) {
+            if (!publishedNames.contains(name)) {
+                added.add(name);
+            }
+        }
+        Set<String> removed = new HashSet<>();
+        if (withRemovals) {
+            for (String name : publishedNames) {
+                if (!names.contains(name)) {
+                    removed.add(name);
+                }
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        Set<String> updated = new HashSet<>(publishedNames);
+        updated.addAll(added);
+        updated.removeAll(removed);
+        publishedNames = updated;
+        for (Listener listener : listeners) {
+            listener.onChange(added, removed);
+        }
+    }
+
+    private void startWatcher() {
+        if (listings.isEmpty()) {
+            return;
+        }
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            for (Path dir : listings.keySet()) {
+                try {
+                    WatchKey key = dir.register(service,
+                            StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE,
+                            StandardWatchEventKinds.ENTRY_MODIFY);
+                    watchedDirs.put(key, dir);
+                } catch (IOException e) {
+                    // Sin vigilancia para este directorio; 'hash -r' lo refresca manualmente
+                }
+            }
+            watcher = service;
+            watchThread = new Thread(() -> watchLoop(service), "path-cache-watcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            watcher = null;
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    overflow = true;
+                }
+            }
+
+            synchronized (lock) {
+                if (watcher != service) {
+                    return;
+                }
+                Path dir = watchedDirs.get(key);
+                if (overflow || dir == null || !key.reset()) {
+                    rebuild();
+                    return;
+                }
+                listings.put(dir, scanDirectory(dir));
+                index = merge();
+                publish(index.keySet(), true);
+            }
+        }
+    }
+
+    private void closeWatcher() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                // Ignorado: el servicio se descarta de todos modos
+            }
+            watcher = null;
+        }
+        watchThread = null;
+        watchedDirs.clear();
+    }
+
+    private static boolean equalsPath(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -1,15 +1,26 @@
 package com.codecrafters.shell.utils;
 
+import com.codecrafters.shell.jfr.PathResolutionEvent;
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.metrics.ShellMetrics;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Utilidades para manejar rutas y búsqueda de ejecutables en el sistema.
+ * Las búsquedas se resuelven contra un PathCache compartido en lugar de listar el PATH cada vez.
  */
 public class PathUtils {
+    private static final PathCache PATH_CACHE = new PathCache();
+
+    /**
+     * Obtiene el índice de ejecutables compartido por el ejecutor, 'type' y el autocompletado.
+     * @return PathCache compartido.
+     */
+    public static PathCache getPathCache() {
+        return PATH_CACHE;
+    }
 
     /**
      * Obtiene una lista de todos los ejecutables disponibles en el PATH del sistema.
@@ -18,25 +29,7 @@ public class PathUtils {
      * @return Lista de nombres de ejecutables.
      */
     public static List<String> getExecutablesFromPath() {
-        Set<String> executables = new HashSet<>();
-        String path = System.getenv("PATH");
-        if (path != null) {
-            String[] pathDirs = path.split(File.pathSeparator);
-            for (String dirPath : pathDirs) {
-                File dir = new File(dirPath);
-                if (dir.exists() && dir.isDirectory()) {
-                    File[] files = dir.listFiles();
-                    if (files != null) {
-                        for (File file : files) {
-                            if (file.isFile() && file.canExecute()) {
-                                executables.add(file.getName());
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return new ArrayList<>(executables);
+        return new ArrayList<>(PATH_CACHE.names());
     }
 
     /**
@@ -47,29 +40,31 @@ public class PathUtils {
      * 
      */
     public static File findExecutable(String command) {
-        String path = System.getenv("PATH");
-        if (path == null) return null;
-        
-        // Usar File.pathSeparator para compatibilidad multiplataforma
-        String[] pathDirs = path.split(File.pathSeparator);
-        for (String dirPath : pathDirs) {
-            File dir = new File(dirPath);
-            
-            if (!dir.exists() || !dir.isDirectory()) {
-                continue;
-            }
-            
-            // Listar archivos y buscar por nombre exacto
-            // Esto evita problemas con caracteres especiales en nombres de archivo
-            File[] files = dir.listFiles();
-            if (files != null) {
-                for (File file : files) {
-                    if (file.getName().equals(command) && file.isFile()) {
-                        return file;
-                    }
-                }
+        return findExecutable(PATH_CACHE, command);
+    }
+
+    /**
+     * Busca un ejecutable en un índice concreto (el de una sesión del daemon, con su propio PATH).
+     *
+     * @param cache Índice del PATH.
+     * @param command Nombre del comando a buscar.
+     * @return Archivo ejecutable si se encuentra, o null si no existe.
+     */
+    public static File findExecutable(PathCache cache, String command) {
+        PathResolutionEvent event = ShellRecording.isEnabled() ? new PathResolutionEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        File executable = cache.lookup(command);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commandName = command;
+                event.exitCode = executable != null ? 0 : 127;
+                event.commit();
             }
         }
-        return null;
+        ShellMetrics.get().pathLookup(executable != null);
+        return executable;
     }
 }
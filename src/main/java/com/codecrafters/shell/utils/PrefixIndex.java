@@ -0,0 +1,136 @@
+package com.codecrafters.shell.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Índice de prefijos sobre un arreglo ordenado de cadenas.
+ * Las búsquedas por prefijo son dos búsquedas binarias que delimitan un rango ya ordenado,
+ * sin recorrer ni copiar el resto de nombres. Las actualizaciones fusionan los cambios en un
+ * arreglo nuevo y lo publican de forma atómica, así que las lecturas nunca se bloquean.
+ */
+public class PrefixIndex {
+    private volatile String[] entries;
+
+    public PrefixIndex() {
+        this.entries = new String[0];
+    }
+
+    public PrefixIndex(Collection<String> names) {
+        this.entries = new TreeSet<>(names).toArray(new String[0]);
+    }
+
+    /**
+     * Obtiene los nombres que empiezan por el prefijo, en orden lexicográfico.
+     * @param prefix Prefijo a buscar ("" devuelve todo el índice).
+     * @return Vista inmutable del rango coincidente.
+     */
+    public List<String> range(String prefix) {
+        String[] snapshot = entries;
+        int from = lowerBound(snapshot, prefix);
+        int to = upperBound(snapshot, prefix, from);
+        return Collections.unmodifiableList(Arrays.asList(snapshot).subList(from, to));
+    }
+
+    /**
+     * Calcula el prefijo común más largo de todos los nombres que empiezan por {@code prefix}.
+     * Como el rango está ordenado, basta con comparar su primer y su último elemento.
+     * @param prefix Prefijo escrito por el usuario.
+     * @return Prefijo común (al menos {@code prefix}), o null si no hay coincidencias.
+     */
+    public String longestCommonPrefix(String prefix) {
+        List<String> matches = range(prefix);
+        if (matches.isEmpty()) {
+            return null;
+        }
+        return commonPrefix(matches.get(0), matches.get(matches.size() - 1));
+    }
+
+    /**
+     * Aplica cambios incrementales: fusiona los nombres añadidos y elimina los borrados.
+     * Coste lineal en el tamaño del índice, sin reordenarlo entero.
+     * @param added Nombres nuevos (los ya presentes se ignoran).
+     * @param removed Nombres eliminados (los ausentes se ignoran).
+     */
+    public synchronized void update(Collection<String> added, Collection<String> removed) {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        String[] current = entries;
+        String[] additions = new TreeSet<>(added).toArray(new String[0]);
+        TreeSet<String> removals = new TreeSet<>(removed);
+
+        List<String> merged = new ArrayList<>(current.length + additions.length);
+        int i = 0;
+        int j = 0;
+        while (i < current.length || j < additions.length) {
+            String next;
+            if (j >= additions.length || (i < current.length && current[i].compareTo(additions[j]) <= 0)) {
+                next = current[i++];
+                if (j < additions.length && next.equals(additions[j])) {
+                    j++;
+                }
+            } else {
+                next = additions[j++];
+            }
+            if (!removals.contains(next)) {
+                merged.add(next);
+            }
+        }
+        entries = merged.toArray(new String[0]);
+    }
+
+    /**
+     * @return Número de nombres indexados.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Calcula el prefijo común de dos cadenas.
+     * @param a Primera cadena.
+     * @param b Segunda cadena.
+     * @return Prefijo común.
+     */
+    public static String commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return a.substring(0, i);
+    }
+
+    private static int lowerBound(String[] sorted, String prefix) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(String[] sorted, String prefix, int from) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
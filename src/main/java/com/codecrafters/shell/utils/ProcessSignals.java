@@ -0,0 +1,61 @@
+package com.codecrafters.shell.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Envío de señales a procesos.
+ * TERM y KILL se envían con ProcessHandle (destroy/destroyForcibly); el resto de señales,
+ * que la JVM no expone, se delegan al comando 'kill' del sistema.
+ */
+public class ProcessSignals {
+
+    /**
+     * Normaliza un nombre o número de señal ("9", "KILL", "SIGKILL" → "KILL").
+     * @param signal Señal tal como la escribe el usuario.
+     * @return Nombre de la señal sin el prefijo SIG, o el número si no es conocido.
+     */
+    public static String normalize(String signal) {
+        String name = signal.toUpperCase();
+        if (name.startsWith("SIG")) {
+            name = name.substring(3);
+        }
+        switch (name) {
+            case "1": return "HUP";
+            case "2": return "INT";
+            case "9": return "KILL";
+            case "15": return "TERM";
+            case "18": return "CONT";
+            case "19": return "STOP";
+            default: return name;
+        }
+    }
+
+    /**
+     * Envía una señal a un proceso.
+     * @param process Proceso destino.
+     * @param signal Señal normalizada (ver {@link #normalize(String)}).
+     * @return true si la señal se entregó.
+     */
+    public static boolean send(ProcessHandle process, String signal) {
+        switch (signal) {
+            case "TERM":
+                return process.destroy();
+            case "KILL":
+                return process.destroyForcibly();
+            default:
+                try {
+                    Process kill = new ProcessBuilder("kill", "-" + signal, Long.toString(process.pid()))
+                            .redirectErrorStream(true)
+                            .start();
+                    kill.getInputStream().transferTo(OutputStream.nullOutputStream());
+                    return kill.waitFor() == 0;
+                } catch (IOException e) {
+                    return false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.codecrafters.shell.utils;
+
+import com.codecrafters.shell.jfr.FileWriteEvent;
+import com.codecrafters.shell.jfr.ShellRecording;
+import com.codecrafters.shell.metrics.ShellMetrics;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utilidades para abrir y escribir los archivos destino de una redirección.
+ * La escritura va directa a un FileChannel, sin Writers intermedios ni conversión extra,
+ * de modo que el archivo recibe exactamente los bytes producidos.
+ */
+public class RedirectionFiles {
+    private static final OpenOption[] TRUNCATE = {
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING };
+    private static final OpenOption[] APPEND = {
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND };
+
+    /**
+     * Abre el archivo destino de una redirección ('>' trunca, '>>' añade al final).
+     * @param directory Directorio de trabajo del shell, contra el que se resuelven las rutas relativas.
+     * @param filename Ruta del archivo.
+     * @param append true para '>>'.
+     * @return Canal abierto para escritura.
+     * @throws IOException Si el archivo no puede abrirse.
+     */
+    public static FileChannel open(Path directory, String filename, boolean append) throws IOException {
+        return FileChannel.open(directory.resolve(filename), append ? APPEND : TRUNCATE);
+    }
+
+    /**
+     * Abre el archivo destino de una redirección como flujo de salida sin buffer intermedio:
+     * cada escritura va directamente al FileChannel. Los bytes escritos se suman a las métricas.
+     * @param directory Directorio de trabajo del shell, contra el que se resuelven las rutas relativas.
+     * @param filename Ruta del archivo.
+     * @param append true para '>>'.
+     * @return Flujo de salida sobre el canal del archivo.
+     * @throws IOException Si el archivo no puede abrirse.
+     */
+    public static OutputStream openStream(Path directory, String filename, boolean append) throws IOException {
+        return new FileOutput(open(directory, filename, append), filename, beginWrite());
+    }
+
+    /**
+     * Flujo de salida sobre el archivo de una redirección. Además de escribir bytes, permite
+     * copiar un archivo entero dentro del kernel (p. ej. 'cat grande > copia').
+     */
+    public static final class FileOutput extends FilterOutputStream {
+        private final FileChannel channel;
+        private final String filename;
+        private final FileWriteEvent event;
+        private long written = 0;
+        private boolean closed = false;
+
+        private FileOutput(FileChannel channel, String filename, FileWriteEvent event) {
+            super(Channels.newOutputStream(channel));
+            this.channel = channel;
+            this.filename = filename;
+            this.event = event;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+            ShellMetrics.get().redirected(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+            ShellMetrics.get().redirected(len);
+        }
+
+        /**
+         * Copia el contenido de un archivo con FileChannel.transferTo, que en Linux usa
+         * copy_file_range/sendfile: los datos no pasan por la JVM.
+         * @param source Canal del archivo origen.
+         * @throws IOException Si falla la lectura o la escritura.
+         */
+        public void transferFrom(FileChannel source) throws IOException {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                long copied = source.transferTo(position, size - position, channel);
+                if (copied <= 0) {
+                    break;
+                }
+                position += copied;
+            }
+            written += position;
+            ShellMetrics.get().redirected(position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            if (!closed) {
+                closed = true;
+                commitWrite(event, filename, written);
+            }
+        }
+    }
+
+    /**
+     * Escribe el contenido completo en el archivo destino de una redirección.
+     * @param directory Directorio de trabajo del shell, contra el que se resuelven las rutas relativas.
+     * @param filename Ruta del archivo.
+     * @param content Bytes a escribir (puede estar vacío: el archivo se crea o trunca igualmente).
+     * @param append true para '>>'.
+     * @throws IOException Si el archivo no puede escribirse.
+     */
+    public static void write(Path directory, String filename, byte[] content, boolean append) throws IOException {
+        FileWriteEvent event = beginWrite();
+        try (FileChannel channel = open(directory, filename, append)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        ShellMetrics.get().redirected(content.length);
+        commitWrite(event, filename, content.length);
+    }
+
+    private static FileWriteEvent beginWrite() {
+        if (!ShellRecording.isEnabled()) {
+            return null;
+        }
+        FileWriteEvent event = new FileWriteEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void commitWrite(FileWriteEvent event, String filename, long bytes) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = filename;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Obtiene el tamaño actual del archivo destino de una redirección.
+     * @param directory Directorio de trabajo del shell, contra el que se resuelven las rutas relativas.
+     * @param filename Ruta del archivo.
+     * @return Tamaño en bytes, o 0 si no existe o no puede leerse.
+     */
+    public static long sizeOf(Path directory, String filename) {
+        try {
+            return Files.size(directory.resolve(filename));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Convierte una redirección en el destino equivalente para un proceso hijo,
+     * que escribirá directamente en el archivo sin pasar por la JVM.
+     * @param directory Directorio de trabajo del shell, contra el que se resuelven las rutas relativas.
+     * @param filename Ruta del archivo.
+     * @param append true para '>>'.
+     * @return Redirect.to o Redirect.appendTo.
+     */
+    public static ProcessBuilder.Redirect toRedirect(Path directory, String filename, boolean append) {
+        File file = directory.resolve(filename).toFile();
+        return append ? ProcessBuilder.Redirect.appendTo(file) : ProcessBuilder.Redirect.to(file);
+    }
+}
@@ -0,0 +1,38 @@
+package com.codecrafters.shell.utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Medición del tiempo de arranque del shell.
+ * Si la variable de entorno SHELL_STARTUP_REPORT está definida, cada hito (primer prompt,
+ * primer comando...) se informa una sola vez en stderr con el tiempo desde el arranque de la JVM
+ * y desde la entrada a main.
+ */
+public class StartupTimer {
+    private static final boolean ENABLED = System.getenv("SHELL_STARTUP_REPORT") != null;
+    private static final Set<String> REPORTED = ConcurrentHashMap.newKeySet();
+    private static volatile long mainStartNanos = System.nanoTime();
+
+    /**
+     * Marca la entrada a main como origen del tiempo "desde main".
+     */
+    public static void start() {
+        mainStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Informa un hito de arranque la primera vez que se alcanza.
+     * @param milestone Descripción del hito, p. ej. "first prompt (interactive mode)".
+     */
+    public static void reportOnce(String milestone) {
+        if (!ENABLED || !REPORTED.add(milestone)) {
+            return;
+        }
+        long sinceMain = (System.nanoTime() - mainStartNanos) / 1_000_000;
+        // Solo se carga java.management cuando el informe está activado
+        long sinceJvm = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.err.println("[startup] " + milestone + ": " + sinceJvm + " ms since JVM start, " + sinceMain + " ms since main");
+    }
+}
@@ -0,0 +1,280 @@
+package com.codecrafters.shell.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * Entrada de las utilidades de texto nativas ('cat', 'grep'...) leída por ventanas de bytes.
+ * <p>
+ * Los archivos regulares se mapean enteros en memoria con FileChannel.map sobre un Arena propio:
+ * las ventanas son vistas del mapeo sin copia, cualquier tamaño de archivo cabe en un solo mapeo
+ * y al cerrar la entrada se desmapea en el acto (un MappedByteBuffer esperaría al recolector).
+ * La entrada estándar, las tuberías y los archivos especiales se leen por bloques en un buffer propio.
+ * <p>
+ * Las ventanas empiezan en la posición 0, se indexan de forma absoluta y solo son válidas hasta
+ * la siguiente llamada. No se deben usar desde otro hilo que el que abrió la entrada.
+ */
+public abstract class TextInput implements Closeable {
+    /** Tamaño de las ventanas sobre un archivo mapeado. */
+    static final int WINDOW_SIZE = 16 << 20;
+    /** Límite de una ventana (el de un ByteBuffer); una línea más larga se parte. */
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+    /** Tamaño de cada lectura de un flujo. */
+    static final int READ_SIZE = 64 << 10;
+    /** Motivo del error al abrir un directorio. */
+    public static final String IS_A_DIRECTORY = "Is a directory";
+
+    private byte[] scratch;
+
+    /**
+     * Abre un archivo: mapeado si es regular, leído como flujo si no (FIFO, /dev/stdin...).
+     * @param file Ruta del archivo.
+     * @return Entrada abierta.
+     * @throws IOException Si no existe, no se puede leer o es un directorio.
+     */
+    public static TextInput open(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attributes.isDirectory()) {
+            throw new FileSystemException(file.toString(), null, IS_A_DIRECTORY);
+        }
+        if (!attributes.isRegularFile()) {
+            return new Stream(Files.newInputStream(file), true);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new Mapped(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param in Flujo a leer; cerrar la entrada no lo cierra.
+     * @return Entrada sobre el flujo.
+     */
+    public static TextInput of(InputStream in) {
+        return new Stream(in, false);
+    }
+
+    /**
+     * @return Siguiente ventana de bytes, o null al final de la entrada.
+     * @throws IOException Si falla la lectura.
+     */
+    public abstract ByteBuffer next() throws IOException;
+
+    /**
+     * Como {@link #next()}, pero la ventana termina justo después de un '\n' (salvo la última
+     * de una entrada sin salto final), así que solo contiene líneas completas.
+     * @return Siguiente ventana de líneas, o null al final de la entrada.
+     * @throws IOException Si falla la lectura.
+     */
+    public abstract ByteBuffer nextLines() throws IOException;
+
+    /**
+     * @return Canal del archivo mapeado, o null si la entrada es un flujo.
+     */
+    public FileChannel channel() {
+        return null;
+    }
+
+    /**
+     * @return Tamaño del archivo mapeado, o -1 si la entrada es un flujo.
+     */
+    public long size() {
+        return -1;
+    }
+
+    /**
+     * Ventana en una posición arbitraria de un archivo mapeado (para leerlo desde el final).
+     * @param offset Posición inicial en el archivo.
+     * @param length Longitud de la ventana.
+     * @return Vista sin copia de esa parte del archivo.
+     */
+    public ByteBuffer window(long offset, int length) {
+        throw new UnsupportedOperationException("not a mapped file");
+    }
+
+    /**
+     * Escribe window[from, to) en un flujo. Las ventanas de un archivo mapeado no tienen arreglo
+     * propio y se copian por bloques a un buffer de la entrada.
+     * @param window Ventana devuelta por esta entrada.
+     * @param from Índice inicial.
+     * @param to Índice final exclusivo.
+     * @param out Destino.
+     * @throws IOException Si el destino no acepta escritura.
+     */
+    public void write(ByteBuffer window, int from, int to, OutputStream out) throws IOException {
+        if (window.hasArray()) {
+            out.write(window.array(), window.arrayOffset() + from, to - from);
+            return;
+        }
+        if (scratch == null) {
+            scratch = new byte[READ_SIZE];
+        }
+        for (int i = from; i < to; i += scratch.length) {
+            int length = Math.min(scratch.length, to - i);
+            window.get(i, scratch, 0, length);
+            out.write(scratch, 0, length);
+        }
+    }
+
+    /** Archivo regular mapeado entero. */
+    private static final class Mapped extends TextInput {
+        private final FileChannel channel;
+        private final Arena arena = Arena.ofConfined();
+        private final MemorySegment segment;
+        private long position = 0;
+
+        Mapped(FileChannel channel) throws IOException {
+            this.channel = channel;
+            long size = channel.size();
+            this.segment = size == 0 ? MemorySegment.NULL : channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+        }
+
+        @Override
+        public ByteBuffer next() {
+            long remaining = segment.byteSize() - position;
+            if (remaining <= 0) {
+                return null;
+            }
+            int length = (int) Math.min(WINDOW_SIZE, remaining);
+            ByteBuffer window = window(position, length);
+            position += length;
+            return window;
+        }
+
+        @Override
+        public ByteBuffer nextLines() {
+            long remaining = segment.byteSize() - position;
+            if (remaining <= 0) {
+                return null;
+            }
+            long length = Math.min(WINDOW_SIZE, remaining);
+            while (length < remaining && length < MAX_WINDOW_SIZE) {
+                ByteBuffer window = window(position, (int) length);
+                int last = LineScanner.lastIndexOfNewline(window, 0, window.limit());
+                if (last >= 0) {
+                    length = last + 1;
+                    break;
+                }
+                // Una línea más larga que la ventana: se amplía hasta que termine
+                length = Math.min(Math.min(length * 2, MAX_WINDOW_SIZE), remaining);
+            }
+            ByteBuffer window = window(position, (int) length);
+            position += length;
+            return window;
+        }
+
+        @Override
+        public FileChannel channel() {
+            return channel;
+        }
+
+        @Override
+        public long size() {
+            return segment.byteSize();
+        }
+
+        @Override
+        public ByteBuffer window(long offset, int length) {
+            return segment.asSlice(offset, length).asByteBuffer().order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public void close() throws IOException {
+            arena.close();
+            channel.close();
+        }
+    }
+
+    /** Flujo leído por bloques; las ventanas de líneas guardan la línea incompleta para la siguiente. */
+    private static final class Stream extends TextInput {
+        private final InputStream in;
+        private final boolean closeInput;
+        private byte[] buffer = new byte[READ_SIZE];
+        /** Bytes válidos en el buffer. */
+        private int filled = 0;
+        /** Inicio de los bytes aún no entregados (la línea incompleta de nextLines). */
+        private int pending = 0;
+        private boolean eof = false;
+
+        Stream(InputStream in, boolean closeInput) {
+            this.in = in;
+            this.closeInput = closeInput;
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            if (pending < filled) {
+                ByteBuffer rest = wrap(pending, filled);
+                pending = filled;
+                return rest;
+            }
+            int n = eof ? -1 : in.read(buffer, 0, buffer.length);
+            if (n < 0) {
+                eof = true;
+                return null;
+            }
+            filled = n;
+            pending = n;
+            return wrap(0, n);
+        }
+
+        @Override
+        public ByteBuffer nextLines() throws IOException {
+            // Mueve la línea incompleta anterior al principio del buffer
+            int carried = filled - pending;
+            System.arraycopy(buffer, pending, buffer, 0, carried);
+            filled = carried;
+            pending = 0;
+            int scanned = 0;
+            while (!eof) {
+                int last = LineScanner.lastIndexOfNewline(wrap(0, filled), scanned, filled);
+                if (last >= 0) {
+                    pending = last + 1;
+                    return wrap(0, pending);
+                }
+                scanned = filled;
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int n = in.read(buffer, filled, buffer.length - filled);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                }
+            }
+            if (filled == 0) {
+                return null;
+            }
+            pending = filled;
+            return wrap(0, filled);
+        }
+
+        private ByteBuffer wrap(int from, int to) {
+            return ByteBuffer.wrap(buffer, from, to - from).slice().order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closeInput) {
+                in.close();
+            }
+        }
+    }
+}
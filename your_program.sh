@@ -21,4 +21,13 @@ set -e # Exit early if any commands fail
 #
 # - Edit this to change how your program runs locally
 # - Edit .codecrafters/run.sh to change how your program runs remotely
-exec java --enable-preview -jar /tmp/codecrafters-build-shell-java/codecrafters-shell.jar "$@"
+
+# Use the optional startup cache built with -Paot-cache (JDK 25+) or -Pcds when it exists
+BUILD_DIR=/tmp/codecrafters-build-shell-java
+STARTUP_CACHE=""
+if [ -f "$BUILD_DIR/codecrafters-shell.aot" ]; then
+  STARTUP_CACHE="-XX:AOTCache=$BUILD_DIR/codecrafters-shell.aot"
+elif [ -f "$BUILD_DIR/codecrafters-shell.jsa" ]; then
+  STARTUP_CACHE="-XX:SharedArchiveFile=$BUILD_DIR/codecrafters-shell.jsa"
+fi
+exec java --enable-preview $STARTUP_CACHE -jar "$BUILD_DIR/codecrafters-shell.jar" "$@"